@@ -1,6 +1,7 @@
 package com.kuberfashion.backend.config;
 
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
@@ -8,10 +9,12 @@ import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
 import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.s3.S3Configuration;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
 
 import java.net.URI;
 
 @Configuration
+@ConditionalOnProperty(name = "storage.provider", havingValue = "r2", matchIfMissing = true)
 public class CloudflareR2Config {
 
     @Value("${cloudflare.r2.access-key}")
@@ -26,20 +29,45 @@ public class CloudflareR2Config {
     @Value("${cloudflare.r2.bucket-name}")
     private String bucketName;
 
+    // Overrides the R2 account endpoint, e.g. http://localhost:9000 for a local S3-compatible stand-in
+    @Value("${cloudflare.r2.endpoint:}")
+    private String endpoint;
+
     @Bean
     public S3Client s3Client() {
-        AwsBasicCredentials credentials = AwsBasicCredentials.create(accessKey, secretKey);
-        
         return S3Client.builder()
-                .credentialsProvider(StaticCredentialsProvider.create(credentials))
+                .credentialsProvider(credentialsProvider())
                 .region(Region.US_EAST_1) // R2 uses auto region
-                .endpointOverride(URI.create("https://" + accountId + ".r2.cloudflarestorage.com"))
+                .endpointOverride(endpointUri())
+                .serviceConfiguration(S3Configuration.builder()
+                        .pathStyleAccessEnabled(true)
+                        .build())
+                .build();
+    }
+
+    // Signs short-lived URLs for direct client uploads; no network calls
+    @Bean
+    public S3Presigner s3Presigner() {
+        return S3Presigner.builder()
+                .credentialsProvider(credentialsProvider())
+                .region(Region.US_EAST_1)
+                .endpointOverride(endpointUri())
                 .serviceConfiguration(S3Configuration.builder()
                         .pathStyleAccessEnabled(true)
                         .build())
                 .build();
     }
 
+    private StaticCredentialsProvider credentialsProvider() {
+        return StaticCredentialsProvider.create(AwsBasicCredentials.create(accessKey, secretKey));
+    }
+
+    private URI endpointUri() {
+        return URI.create(endpoint != null && !endpoint.isBlank()
+                ? endpoint
+                : "https://" + accountId + ".r2.cloudflarestorage.com");
+    }
+
     public String getBucketName() {
         return bucketName;
     }
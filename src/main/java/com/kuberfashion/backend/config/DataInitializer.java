@@ -11,10 +11,12 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.env.Environment;
 import org.springframework.core.annotation.Order;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.util.Arrays;
@@ -42,6 +44,15 @@ public class DataInitializer implements CommandLineRunner {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private StartupSeeding startupSeeding;
+
+    @Autowired
+    private Environment environment;
+
     @Value("${spring.profiles.active:dev}")
     private String activeProfile;
 
@@ -49,8 +60,11 @@ public class DataInitializer implements CommandLineRunner {
     private boolean skipDataInitialization;
 
     @Override
-    @Transactional
-    public void run(String... args) throws Exception {
+    public void run(String... args) {
+        startupSeeding.run("DataInitializer", () -> new TransactionTemplate(transactionManager).executeWithoutResult(status -> initialize()));
+    }
+
+    private void initialize() {
         logger.info("🚀 Starting data initialization...");
         logger.info("📋 Active profile: {}", activeProfile);
 
@@ -64,7 +78,7 @@ public class DataInitializer implements CommandLineRunner {
             initializeAdminUser();
             
             // Create test user only in development
-            if ("dev".equals(activeProfile)) {
+            if (environment.matchesProfiles("dev")) {
                 initializeTestUser();
             }
 
@@ -80,7 +94,7 @@ public class DataInitializer implements CommandLineRunner {
             logger.error("❌ Data initialization failed: {}", e.getMessage(), e);
             
             // In production, we might want to continue without sample data
-            if ("prod".equals(activeProfile)) {
+            if (environment.matchesProfiles("prod")) {
                 logger.warn("⚠️  Continuing startup despite data initialization failure in production mode");
             } else {
                 throw new RuntimeException("Data initialization failed", e);
@@ -129,7 +143,7 @@ public class DataInitializer implements CommandLineRunner {
                 logger.info("   📧 Email: admin@kuberfashion.com");
                 logger.info("   🔑 Password: admin123");
                 
-                if ("prod".equals(activeProfile)) {
+                if (environment.matchesProfiles("prod")) {
                     logger.warn("⚠️  SECURITY WARNING: Default admin credentials are being used in production!");
                     logger.warn("   Please change the admin password immediately after first login.");
                 }
@@ -196,7 +210,7 @@ public class DataInitializer implements CommandLineRunner {
             }
 
             // Only create sample products in development mode or if explicitly requested
-            if ("prod".equals(activeProfile)) {
+            if (environment.matchesProfiles("prod")) {
                 logger.info("ℹ️  Skipping sample product creation in production mode");
                 return;
             }
@@ -270,7 +284,7 @@ public class DataInitializer implements CommandLineRunner {
             logger.error("❌ ERROR initializing sample products: {}", e.getMessage(), e);
             
             // Don't fail startup for sample product creation issues
-            if ("prod".equals(activeProfile)) {
+            if (environment.matchesProfiles("prod")) {
                 logger.warn("⚠️  Sample product creation failed in production - continuing startup");
             } else {
                 throw new RuntimeException("Sample product initialization failed", e);
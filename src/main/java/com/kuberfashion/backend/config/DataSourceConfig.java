@@ -0,0 +1,52 @@
+package com.kuberfashion.backend.config;
+
+import com.kuberfashion.backend.service.DbConnectionLimiter;
+import com.kuberfashion.backend.service.ReplicaLagMonitor;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * The application DataSource: the primary Hikari pool (bound from spring.datasource.*), behind the connection
+ * limiter when it is enabled, and routed together with the replica pool when ReadReplicaDataSourceConfig is active.
+ *
+ * With a replica, the DataSource is a LazyConnectionDataSourceProxy over the primary whose read-only target is the
+ * replica: the physical connection is fetched only once the transaction has called setReadOnly, so
+ * {@code @Transactional(readOnly = true)} work lands on the replica and everything else (including JdbcTemplate
+ * calls outside a transaction) on the primary. Reads fall back to the primary while ReplicaLagMonitor reports the
+ * replica as lagging or unreachable. This relies on spring.jpa.open-in-view=false; with open-in-view a session
+ * would keep its first connection across transactions.
+ */
+@Configuration
+public class DataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") HikariDataSource primary,
+                                 @Qualifier("replicaDataSource") ObjectProvider<HikariDataSource> replica,
+                                 ObjectProvider<ReplicaLagMonitor> lagMonitor,
+                                 DbConnectionLimiter connectionLimiter) {
+        DataSource limitedPrimary = connectionLimiter.limit(primary);
+        HikariDataSource replicaPool = replica.getIfAvailable();
+        if (replicaPool == null) {
+            return limitedPrimary;
+        }
+        LazyConnectionDataSourceProxy routing = new LazyConnectionDataSourceProxy(limitedPrimary);
+        routing.setReadOnlyDataSource(new ReplicaFallbackDataSource(connectionLimiter.limit(replicaPool), limitedPrimary, lagMonitor.getObject()));
+        return routing;
+    }
+}
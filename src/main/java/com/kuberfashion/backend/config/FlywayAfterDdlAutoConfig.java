@@ -0,0 +1,45 @@
+package com.kuberfashion.backend.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.output.MigrateResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+
+/**
+ * Runs Flyway after Hibernate's ddl-auto instead of before it (prod, where ddl-auto=update still owns the base schema).
+ *
+ * Spring Boot normally migrates before the EntityManagerFactory starts. On a database that ddl-auto built, that order
+ * would run V4+ against tables Hibernate has not created or altered yet. Here the boot-time migration is a no-op and
+ * the real migrate call happens once every singleton, including the EntityManagerFactory, exists, and before
+ * schedulers and startup runners begin. An existing schema is baselined at spring.flyway.baseline-version (V3, the
+ * last hand-run script) and the idempotent V4+ migrations add the indexes, constraints and backfills ddl-auto does
+ * not create.
+ */
+@Configuration
+@ConditionalOnProperty(name = "schema.flyway-after-ddl-auto", havingValue = "true")
+public class FlywayAfterDdlAutoConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(FlywayAfterDdlAutoConfig.class);
+
+    @Bean
+    public FlywayMigrationStrategy deferredFlywayMigrationStrategy() {
+        return flyway -> logger.info("Flyway migration deferred until Hibernate has updated the schema");
+    }
+
+    @Bean
+    @Lazy(false)
+    public SmartInitializingSingleton flywayAfterDdlAuto(Flyway flyway, EntityManagerFactory entityManagerFactory) {
+        return () -> {
+            MigrateResult result = flyway.migrate();
+            logger.info("Flyway applied {} migration(s) after ddl-auto, schema now at version {}",
+                    result.migrationsExecuted, result.targetSchemaVersion != null ? result.targetSchemaVersion : result.initialSchemaVersion);
+        };
+    }
+}
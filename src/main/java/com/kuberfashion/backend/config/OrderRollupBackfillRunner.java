@@ -0,0 +1,48 @@
+package com.kuberfashion.backend.config;
+
+import com.kuberfashion.backend.repository.OrderRepository;
+import com.kuberfashion.backend.service.OrderRollupService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * One-shot backfill of the order rollup table.
+ * Runs after DataInitializer and only when rollups are empty but orders already exist
+ * (first deploy of the rollup table); afterwards rollups are maintained incrementally.
+ */
+@Component
+@Order(3) // Run after DataInitializer
+public class OrderRollupBackfillRunner implements CommandLineRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderRollupBackfillRunner.class);
+
+    @Autowired
+    private OrderRollupService orderRollupService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Value("${orders.rollup.backfill-on-startup:true}")
+    private boolean backfillOnStartup;
+
+    @Override
+    public void run(String... args) {
+        if (!backfillOnStartup) {
+            return;
+        }
+        try {
+            if (orderRollupService.isEmpty() && orderRepository.count() > 0) {
+                logger.info("Order rollups are empty, backfilling from orders table");
+                orderRollupService.backfill();
+            }
+        } catch (Exception e) {
+            // Dashboard totals stay stale until rebuilt via POST /api/orders/admin/rollups/rebuild
+            logger.error("Order rollup backfill failed: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.kuberfashion.backend.config;
+
+import com.kuberfashion.backend.repository.CouponTransactionRepository;
+import com.kuberfashion.backend.repository.ReferralClosureRepository;
+import com.kuberfashion.backend.repository.ReferralRelationRepository;
+import com.kuberfashion.backend.repository.ReferralSummaryRepository;
+import com.kuberfashion.backend.service.ReferralLeaderboardService;
+import com.kuberfashion.backend.service.ReferralService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * One-shot backfill of the derived referral tables (closure, then per-user summaries).
+ * Each runs only when its table is empty but source rows already exist (first deploy of the table);
+ * afterwards ReferralService maintains both incrementally. Leaderboards are then seeded from the summaries
+ * when empty, which is every start for the in-process store.
+ */
+@Component
+@Order(4) // Run after OrderRollupBackfillRunner
+public class ReferralBackfillRunner implements CommandLineRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReferralBackfillRunner.class);
+
+    @Autowired
+    private ReferralService referralService;
+
+    @Autowired
+    private ReferralClosureRepository referralClosureRepository;
+
+    @Autowired
+    private ReferralRelationRepository referralRelationRepository;
+
+    @Autowired
+    private ReferralSummaryRepository referralSummaryRepository;
+
+    @Autowired
+    private CouponTransactionRepository couponTransactionRepository;
+
+    @Autowired
+    private ReferralLeaderboardService referralLeaderboardService;
+
+    @Value("${referral.backfill-on-startup:true}")
+    private boolean backfillOnStartup;
+
+    @Override
+    public void run(String... args) {
+        if (!backfillOnStartup) {
+            return;
+        }
+        try {
+            if (referralClosureRepository.count() == 0 && referralRelationRepository.count() > 0) {
+                long start = System.currentTimeMillis();
+                int rows = referralService.rebuildClosure();
+                logger.info("Backfilled {} referral closure rows in {}ms", rows, System.currentTimeMillis() - start);
+            }
+            if (referralSummaryRepository.count() == 0 && couponTransactionRepository.count() > 0) {
+                long start = System.currentTimeMillis();
+                int rows = referralService.rebuildSummaries();
+                logger.info("Backfilled {} referral summary rows in {}ms", rows, System.currentTimeMillis() - start);
+            }
+            if (referralLeaderboardService.isEmpty() && referralSummaryRepository.count() > 0) {
+                referralLeaderboardService.rebuild();
+            }
+        } catch (Exception e) {
+            logger.error("Referral backfill failed: {}", e.getMessage());
+        }
+    }
+}
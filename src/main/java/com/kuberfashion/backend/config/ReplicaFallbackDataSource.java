@@ -0,0 +1,52 @@
+package com.kuberfashion.backend.config;
+
+import com.kuberfashion.backend.service.ReplicaLagMonitor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+
+/**
+ * Read-only target of the routing proxy: hands out replica connections while the replica is within the
+ * configured lag, and primary connections otherwise or when the replica pool cannot supply one.
+ */
+class ReplicaFallbackDataSource extends DelegatingDataSource {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaFallbackDataSource.class);
+
+    private final DataSource primary;
+    private final ReplicaLagMonitor lagMonitor;
+
+    ReplicaFallbackDataSource(DataSource replica, DataSource primary, ReplicaLagMonitor lagMonitor) {
+        super(replica);
+        this.primary = primary;
+        this.lagMonitor = lagMonitor;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!lagMonitor.isReplicaUsable()) {
+            lagMonitor.recordPrimaryFallback();
+            return primary.getConnection();
+        }
+        try {
+            Connection connection = obtainTargetDataSource().getConnection();
+            lagMonitor.recordReplicaRead();
+            return connection;
+        } catch (SQLException e) {
+            logger.warn("Replica connection failed, routing reads to the primary until the next lag check: {}", e.getMessage());
+            lagMonitor.markUnavailable(e);
+            lagMonitor.recordPrimaryFallback();
+            return primary.getConnection();
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Replica routing does not support per-call credentials");
+    }
+}
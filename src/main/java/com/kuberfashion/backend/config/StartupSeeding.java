@@ -0,0 +1,67 @@
+package com.kuberfashion.backend.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs the startup seeding runners (DataInitializer, DataInitializationService) either inline, as before, or,
+ * with startup.seed.deferred=true, one after another on a background thread once the application is ready, so
+ * their existence checks and inserts no longer delay time-to-ready. Seeding steps all check before inserting,
+ * so a request that arrives first simply sees the data a moment later.
+ */
+@Component
+public class StartupSeeding {
+
+    private static final Logger logger = LoggerFactory.getLogger(StartupSeeding.class);
+
+    @Value("${startup.seed.deferred:false}")
+    private boolean deferred;
+
+    private final List<Task> pending = new ArrayList<>();
+
+    private record Task(String name, Runnable body) {
+    }
+
+    /**
+     * Runs the seeding step now, or queues it (in call order) until the application is ready.
+     */
+    public void run(String name, Runnable body) {
+        if (!deferred) {
+            body.run();
+            return;
+        }
+        synchronized (pending) {
+            pending.add(new Task(name, body));
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void runDeferred() {
+        List<Task> tasks;
+        synchronized (pending) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            tasks = List.copyOf(pending);
+            pending.clear();
+        }
+        Thread.ofVirtual().name("startup-seeding").start(() -> {
+            for (Task task : tasks) {
+                long start = System.currentTimeMillis();
+                try {
+                    task.body().run();
+                    logger.info("Deferred seeding step {} finished in {} ms", task.name(), System.currentTimeMillis() - start);
+                } catch (Exception e) {
+                    logger.error("Deferred seeding step {} failed: {}", task.name(), e.getMessage(), e);
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,106 @@
+package com.kuberfashion.backend.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Summarizes the startup steps recorded by BufferingApplicationStartup (installed in KuberFashionApplication) once
+ * the application is ready: time-to-ready and the beans that cost the most to create. A bean's own time excludes the
+ * beans created while it was being created, so one slow dependency is not charged to everything that injects it.
+ * The summary is logged and kept for GET /api/admin/startup; the raw timeline is drained to free its memory.
+ */
+@Component
+public class StartupTimelineReport {
+
+    private static final Logger logger = LoggerFactory.getLogger(StartupTimelineReport.class);
+
+    private static final String BEAN_INSTANTIATE_STEP = "spring.beans.instantiate";
+
+    @Autowired
+    private ConfigurableApplicationContext context;
+
+    @Value("${startup.timeline.top-beans:20}")
+    private int topBeans;
+
+    private volatile Map<String, Object> report = Map.of("available", false);
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void summarize(ApplicationReadyEvent event) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        Duration timeToReady = event.getTimeTaken();
+        summary.put("available", true);
+        summary.put("timeToReadyMs", timeToReady != null ? timeToReady.toMillis() : null);
+        summary.put("lazyInitialization", context.getEnvironment().getProperty("spring.main.lazy-initialization", Boolean.class, false));
+
+        if (!(context.getApplicationStartup() instanceof BufferingApplicationStartup buffering)) {
+            summary.put("beans", List.of());
+            report = summary;
+            return;
+        }
+        StartupTimeline timeline = buffering.drainBufferedTimeline();
+        List<StartupTimeline.TimelineEvent> events = timeline.getEvents();
+
+        // Own time = duration minus the durations of direct child steps
+        Map<Long, Long> childNanos = new HashMap<>();
+        for (StartupTimeline.TimelineEvent e : events) {
+            Long parentId = e.getStartupStep().getParentId();
+            if (parentId != null) {
+                childNanos.merge(parentId, e.getDuration().toNanos(), Long::sum);
+            }
+        }
+        List<Map<String, Object>> beans = new ArrayList<>();
+        for (StartupTimeline.TimelineEvent e : events) {
+            StartupStep step = e.getStartupStep();
+            if (!BEAN_INSTANTIATE_STEP.equals(step.getName())) continue;
+            long totalNanos = e.getDuration().toNanos();
+            long selfNanos = Math.max(0, totalNanos - childNanos.getOrDefault(step.getId(), 0L));
+            Map<String, Object> bean = new LinkedHashMap<>();
+            bean.put("bean", tag(step, "beanName"));
+            bean.put("selfMs", selfNanos / 1_000_000.0);
+            bean.put("totalMs", totalNanos / 1_000_000.0);
+            beans.add(bean);
+        }
+        int instantiated = beans.size();
+        beans.sort(Comparator.comparingDouble((Map<String, Object> b) -> (Double) b.get("selfMs")).reversed());
+
+        summary.put("recordedSteps", events.size());
+        summary.put("beansInstantiated", instantiated);
+        summary.put("beans", List.copyOf(beans.subList(0, Math.min(topBeans, beans.size()))));
+        report = summary;
+
+        logger.info("Started in {} ms; {} beans created during startup. Slowest (own time):",
+                summary.get("timeToReadyMs"), instantiated);
+        beans.stream().limit(Math.min(10, topBeans)).forEach(b ->
+                logger.info("  {} ms  {}", String.format("%8.1f", (Double) b.get("selfMs")), b.get("bean")));
+    }
+
+    public Map<String, Object> getReport() {
+        return report;
+    }
+
+    private static String tag(StartupStep step, String key) {
+        for (StartupStep.Tag tag : step.getTags()) {
+            if (key.equals(tag.getKey())) {
+                return tag.getValue();
+            }
+        }
+        return step.getName();
+    }
+}
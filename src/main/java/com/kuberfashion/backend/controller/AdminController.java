@@ -1,23 +1,37 @@
 package com.kuberfashion.backend.controller;
 
+import com.kuberfashion.backend.config.StartupTimelineReport;
+import com.kuberfashion.backend.dto.AdminOrderFilter;
+import com.kuberfashion.backend.dto.AdminOrderRowDto;
 import com.kuberfashion.backend.dto.ApiResponse;
+import com.kuberfashion.backend.dto.CursorPage;
 import com.kuberfashion.backend.dto.UserResponseDto;
 import com.kuberfashion.backend.dto.PagedResponse;
 import com.kuberfashion.backend.entity.Order;
 import com.kuberfashion.backend.entity.User;
+import com.kuberfashion.backend.filter.AdaptiveConcurrencyFilter;
 import com.kuberfashion.backend.repository.OrderRepository;
 import com.kuberfashion.backend.repository.UserRepository;
+import com.kuberfashion.backend.service.AdminOrderSearchService;
+import com.kuberfashion.backend.service.DatabasePoolStatsService;
+import com.kuberfashion.backend.service.OrderService;
 import com.kuberfashion.backend.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -36,6 +50,21 @@ public class AdminController {
     @Autowired
     private OrderRepository orderRepository;
 
+    @Autowired
+    private AdminOrderSearchService adminOrderSearchService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private DatabasePoolStatsService databasePoolStatsService;
+
+    @Autowired
+    private AdaptiveConcurrencyFilter adaptiveConcurrencyFilter;
+
+    @Autowired
+    private StartupTimelineReport startupTimelineReport;
+
     
 
     // Users
@@ -97,6 +126,69 @@ public class AdminController {
         return ResponseEntity.ok(ApiResponse.success("Orders fetched", out));
     }
 
+    // Keyset-paginated order search over email / phone / order number
+    @GetMapping("/orders/search")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<CursorPage<AdminOrderRowDto>>> searchOrders(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String paymentStatus,
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to
+    ) {
+        AdminOrderFilter filter = buildOrderFilter(status, paymentStatus, q, from, to);
+        CursorPage<AdminOrderRowDto> out = adminOrderSearchService.search(filter, cursor, size);
+        return ResponseEntity.ok(ApiResponse.success("Orders fetched", out));
+    }
+
+    // Streams every matching order as CSV or NDJSON without buffering the result set
+    @GetMapping("/orders/export")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportOrders(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String paymentStatus,
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to
+    ) {
+        AdminOrderSearchService.ExportFormat exportFormat = parseEnum(AdminOrderSearchService.ExportFormat.class, format, "format");
+        if (exportFormat == null) {
+            throw new IllegalArgumentException("format is required");
+        }
+        AdminOrderFilter filter = buildOrderFilter(status, paymentStatus, q, from, to);
+        boolean csv = exportFormat == AdminOrderSearchService.ExportFormat.CSV;
+        String filename = "orders-" + LocalDate.now() + (csv ? ".csv" : ".ndjson");
+
+        StreamingResponseBody body = out -> adminOrderSearchService.export(filter, exportFormat, out);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .contentType(csv ? MediaType.parseMediaType("text/csv") : MediaType.parseMediaType("application/x-ndjson"))
+                .body(body);
+    }
+
+    private AdminOrderFilter buildOrderFilter(String status, String paymentStatus, String q,
+                                              LocalDateTime from, LocalDateTime to) {
+        Order.OrderStatus st = parseEnum(Order.OrderStatus.class, status, "status");
+        Order.PaymentStatus ps = parseEnum(Order.PaymentStatus.class, paymentStatus, "paymentStatus");
+        return new AdminOrderFilter(st, ps, q, from, to);
+    }
+
+    // Unknown values become a 400 (via GlobalExceptionHandler) that lists the accepted ones
+    private static <E extends Enum<E>> E parseEnum(Class<E> type, String value, String param) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return Enum.valueOf(type, value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid " + param + " '" + value + "', expected one of "
+                    + Arrays.toString(type.getEnumConstants()));
+        }
+    }
+
     @PutMapping("/orders/{id}/status")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<ApiResponse<String>> updateOrderStatus(
@@ -104,13 +196,32 @@ public class AdminController {
             @RequestBody Map<String, String> body
     ) {
         String status = body.get("status");
-        Order order = orderRepository.findById(id).orElseThrow();
-        order.setStatus(Order.OrderStatus.valueOf(status));
-        order.setUpdatedAt(LocalDateTime.now());
-        orderRepository.save(order);
+        // Goes through OrderService so shipped/delivered timestamps and order rollups stay consistent
+        orderService.updateOrderStatus(id, Order.OrderStatus.valueOf(status));
         return ResponseEntity.ok(ApiResponse.success("Order status updated"));
     }
 
+    // Connection pool usage and read-replica routing
+    @GetMapping("/database/pools")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getDatabasePoolStats() {
+        return ResponseEntity.ok(ApiResponse.success("Database pool statistics", databasePoolStatsService.getStats()));
+    }
+
+    // Adaptive concurrency limits and shed counts per route group
+    @GetMapping("/concurrency")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getConcurrencyLimits() {
+        return ResponseEntity.ok(ApiResponse.success("Concurrency limits", adaptiveConcurrencyFilter.getStats()));
+    }
+
+    // Time-to-ready and the slowest beans of the last startup
+    @GetMapping("/startup")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getStartupReport() {
+        return ResponseEntity.ok(ApiResponse.success("Startup timeline", startupTimelineReport.getReport()));
+    }
+
     // DTO for admin order list
     public static class OrderAdminResponseDto {
         public Long id;
@@ -2,14 +2,18 @@ package com.kuberfashion.backend.controller;
 
 import com.kuberfashion.backend.dto.ApiResponse;
 import com.kuberfashion.backend.entity.User;
-import com.kuberfashion.backend.repository.ReferralRelationRepository;
-import com.kuberfashion.backend.repository.UserRepository;
+import com.kuberfashion.backend.service.ReferralLeaderboardService;
+import com.kuberfashion.backend.service.ReferralRewardWorker;
+import com.kuberfashion.backend.service.ReferralService;
+import com.kuberfashion.backend.service.ReferralTreeService;
+import com.kuberfashion.backend.service.ReferralTreeService.TreeNode;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.time.format.DateTimeFormatter;
 import java.util.*;
 
 @RestController
@@ -17,59 +21,85 @@ import java.util.*;
 @CrossOrigin(origins = {"http://localhost:5173", "http://127.0.0.1:5173"})
 public class AdminReferralController {
 
-    @Autowired private ReferralRelationRepository referralRepo;
-    @Autowired private UserRepository userRepo;
-
-    public static class TreeNode {
-        public Long id;
-        public String masked;
-        public String phone;
-        public String signupDate;
-        public String status;
-        public Integer coupons;
-        public Integer totalReferrals;
-        public List<TreeNode> children = new ArrayList<>();
-    }
+    @Autowired private ReferralService referralService;
+    @Autowired private ReferralTreeService referralTreeService;
+    @Autowired private ReferralRewardWorker referralRewardWorker;
+    @Autowired private ReferralLeaderboardService referralLeaderboardService;
 
     @GetMapping("/tree")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<ApiResponse<TreeNode>> getTree(@RequestParam(required = false) String phone) {
-        Optional<User> rootOpt;
-        if (phone != null && !phone.isBlank()) {
-            rootOpt = userRepo.findByPhone(phone);
-        } else {
-            // default: pick the oldest user as root to avoid empty
-            rootOpt = userRepo.findAll().stream().min(Comparator.comparing(User::getId));
-        }
+    public ResponseEntity<ApiResponse<TreeNode>> getTree(
+            @RequestParam(required = false) String phone,
+            @RequestParam(defaultValue = "6") int depth,
+            @RequestParam(defaultValue = "100") int width) {
+        Optional<User> rootOpt = referralTreeService.resolveRoot(phone);
         if (rootOpt.isEmpty()) {
             return ResponseEntity.ok(ApiResponse.success("No root user found", null));
         }
-        User root = rootOpt.get();
-        TreeNode rootNode = buildTree(root, 0);
+        TreeNode rootNode = referralTreeService.getTree(rootOpt.get().getId(), depth, width);
         return ResponseEntity.ok(ApiResponse.success("Referral tree fetched", rootNode));
     }
 
-    private TreeNode buildTree(User user, int depth) {
-        TreeNode node = new TreeNode();
-        node.id = user.getId();
-        node.phone = user.getPhone();
-        node.masked = mask(user.getPhone());
-        node.signupDate = user.getCreatedAt() != null ? user.getCreatedAt().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME) : null;
-        node.status = user.isEnabled() ? "active" : "inactive";
-        node.coupons = user.getKuberCoupons();
-        var directs = referralRepo.getDirectReferrals(user.getId());
-        node.totalReferrals = directs.size();
-        if (depth >= 6) return node;
-        for (var rr : directs) {
-            node.children.add(buildTree(rr.getUser(), depth + 1));
+    // Lazy expansion: subtree under any node, typically one level at a time
+    @GetMapping("/tree/{nodeId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<TreeNode>> expandNode(
+            @PathVariable Long nodeId,
+            @RequestParam(defaultValue = "1") int depth,
+            @RequestParam(defaultValue = "100") int width) {
+        TreeNode node = referralTreeService.getTree(nodeId, depth, width);
+        return ResponseEntity.ok(ApiResponse.success("Referral subtree fetched", node));
+    }
+
+    // Full subtree as a flat JSON array (id, parentId, depth, ...) streamed without building the tree in memory
+    @GetMapping("/tree/stream")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> streamTree(
+            @RequestParam(required = false) String phone,
+            @RequestParam(defaultValue = "6") int depth) {
+        Optional<User> rootOpt = referralTreeService.resolveRoot(phone);
+        if (rootOpt.isEmpty()) {
+            return ResponseEntity.notFound().build();
         }
-        return node;
+        Long rootId = rootOpt.get().getId();
+        StreamingResponseBody body = out -> referralTreeService.streamTree(rootId, depth, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
+    @PostMapping("/closure/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<Map<String, Integer>>> rebuildClosure() {
+        int rows = referralService.rebuildClosure();
+        return ResponseEntity.ok(ApiResponse.success("Referral closure rebuilt", Map.of("rows", rows)));
     }
 
-    private String mask(String phone) {
-        if (phone == null) return null;
-        int n = phone.length();
-        if (n <= 10) return "****";
-        return "******" + phone.substring(n - 4);
+    @PostMapping("/summaries/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<Map<String, Integer>>> rebuildSummaries() {
+        int rows = referralService.rebuildSummaries();
+        return ResponseEntity.ok(ApiResponse.success("Referral summaries rebuilt", Map.of("rows", rows)));
+    }
+
+    @PostMapping("/leaderboard/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<Map<String, Long>>> rebuildLeaderboard() {
+        long rows = referralLeaderboardService.rebuild();
+        return ResponseEntity.ok(ApiResponse.success("Referral leaderboards rebuilt", Map.of("rows", rows)));
+    }
+
+    // Queue depth, lag and worker counters for the asynchronous referral pipeline
+    @GetMapping("/jobs/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getJobStats() {
+        return ResponseEntity.ok(ApiResponse.success("Referral job stats", referralRewardWorker.getStats()));
+    }
+
+    @PostMapping("/jobs/requeue-failed")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<Map<String, Integer>>> requeueFailedJobs() {
+        int requeued = referralRewardWorker.requeueFailed();
+        return ResponseEntity.ok(ApiResponse.success("Failed referral jobs requeued", Map.of("requeued", requeued)));
     }
 }
@@ -2,6 +2,8 @@ package com.kuberfashion.backend.controller;
 
 import com.kuberfashion.backend.dto.ApiResponse;
 import com.kuberfashion.backend.service.FileStorageService;
+import com.kuberfashion.backend.service.ImageVariantService;
+import com.kuberfashion.backend.service.OrphanObjectCollector;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -21,6 +23,12 @@ public class AdminStorageController {
     @Autowired
     private FileStorageService fileStorageService;
 
+    @Autowired
+    private ImageVariantService imageVariantService;
+
+    @Autowired
+    private OrphanObjectCollector orphanObjectCollector;
+
     @PostMapping("/upload")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<ApiResponse<Map<String, String>>> uploadImage(
@@ -59,6 +67,7 @@ public class AdminStorageController {
             data.put("publicUrl", publicUrl);
             data.put("filename", filename);
             data.put("categorySlug", categorySlug);
+            data.putAll(imageVariantService.createVariants(file.getBytes(), publicUrl));
 
             return ResponseEntity.ok(ApiResponse.success("Image uploaded successfully", data));
 
@@ -83,21 +92,37 @@ public class AdminStorageController {
                     .body(ApiResponse.error("No files provided"));
             }
 
-            java.util.List<String> urls = new java.util.ArrayList<>();
-            
+            java.util.List<MultipartFile> images = new java.util.ArrayList<>();
             for (MultipartFile f : files) {
                 if (!f.isEmpty()) {
                     String contentType = f.getContentType();
                     if (contentType != null && contentType.startsWith("image/")) {
-                        String publicUrl = fileStorageService.uploadFile(f, categorySlug);
-                        urls.add(publicUrl);
+                        images.add(f);
                     }
                 }
             }
 
+            // Uploaded in parallel (bounded); per-file results include failures and timings
+            long start = System.currentTimeMillis();
+            java.util.List<FileStorageService.UploadResult> results = fileStorageService.uploadFiles(images, categorySlug);
+            java.util.List<String> urls = new java.util.ArrayList<>();
+            Map<String, java.util.concurrent.CompletableFuture<Map<String, String>>> pendingVariants = new java.util.LinkedHashMap<>();
+            for (int i = 0; i < results.size(); i++) {
+                FileStorageService.UploadResult result = results.get(i);
+                if (result.isSuccess()) {
+                    urls.add(result.getUrl());
+                    pendingVariants.put(result.getUrl(), imageVariantService.createVariantsAsync(images.get(i).getBytes(), result.getUrl()));
+                }
+            }
+            Map<String, Map<String, String>> variants = imageVariantService.collectForResponse(pendingVariants);
+
             Map<String, Object> data = new HashMap<>();
             data.put("urls", urls);
             data.put("count", urls.size());
+            data.put("failed", results.size() - urls.size());
+            data.put("results", results);
+            data.put("variants", variants);
+            data.put("durationMs", System.currentTimeMillis() - start);
 
             return ResponseEntity.ok(ApiResponse.success("Images uploaded successfully", data));
 
@@ -106,4 +131,22 @@ public class AdminStorageController {
                 .body(ApiResponse.error("Upload failed: " + e.getMessage()));
         }
     }
+
+    // Progress of the running (or last) orphaned-object collection
+    @GetMapping("/gc")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getGcProgress() {
+        return ResponseEntity.ok(ApiResponse.success("Orphan collection progress", orphanObjectCollector.getProgress()));
+    }
+
+    @PostMapping("/gc")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> startGc(
+            @RequestParam(value = "dryRun", defaultValue = "true") boolean dryRun) {
+        try {
+            return ResponseEntity.ok(ApiResponse.success("Orphan collection started", orphanObjectCollector.startRun(dryRun)));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(ApiResponse.error(e.getMessage()));
+        }
+    }
 }
@@ -43,6 +43,19 @@ public class CartController {
         return ResponseEntity.ok(ApiResponse.success("Item added to cart", cartItem));
     }
     
+    @PostMapping("/add-batch")
+    public ResponseEntity<ApiResponse<List<CartItemDto>>> addToCartBatch(
+            @AuthenticationPrincipal User user,
+            @RequestBody AddToCartBatchRequest request) {
+        if (user == null) {
+            return ResponseEntity.status(401)
+                .body(ApiResponse.error("User not authenticated"));
+        }
+        List<CartItemDto> cartItems = cartService.addToCartBatch(user.getId(), request.getItems(),
+                request.isRemoveFromWishlist());
+        return ResponseEntity.ok(ApiResponse.success("Items added to cart", cartItems));
+    }
+    
     @PutMapping("/items/{itemId}")
     public ResponseEntity<ApiResponse<CartItemDto>> updateCartItem(
             @AuthenticationPrincipal User user,
@@ -109,6 +122,18 @@ public class CartController {
         public void setColor(String color) { this.color = color; }
     }
     
+    // Used for "move wishlist to cart": items use productId/quantity/selectedSize/selectedColor
+    public static class AddToCartBatchRequest {
+        private List<CartItemDto> items;
+        private boolean removeFromWishlist;
+        
+        public List<CartItemDto> getItems() { return items; }
+        public void setItems(List<CartItemDto> items) { this.items = items; }
+        
+        public boolean isRemoveFromWishlist() { return removeFromWishlist; }
+        public void setRemoveFromWishlist(boolean removeFromWishlist) { this.removeFromWishlist = removeFromWishlist; }
+    }
+    
     public static class UpdateCartItemRequest {
         private Integer quantity;
         
@@ -0,0 +1,61 @@
+package com.kuberfashion.backend.controller;
+
+import com.kuberfashion.backend.dto.ApiResponse;
+import com.kuberfashion.backend.dto.CoinTransactionDto;
+import com.kuberfashion.backend.dto.PagedResponse;
+import com.kuberfashion.backend.entity.User;
+import com.kuberfashion.backend.service.CoinLedgerService;
+import com.kuberfashion.backend.service.CoinLedgerService.ReconciliationReport;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/coins")
+@CrossOrigin(origins = {"http://localhost:5173", "http://127.0.0.1:5173", "https://kuberfashions.in", "https://www.kuberfashions.in"})
+public class CoinController {
+
+    @Autowired
+    private CoinLedgerService coinLedgerService;
+
+    @GetMapping("/balance")
+    public ResponseEntity<ApiResponse<Map<String, Long>>> getBalance(@AuthenticationPrincipal User user) {
+        if (user == null) {
+            return ResponseEntity.status(401).body(ApiResponse.error("Unauthorized"));
+        }
+        long balance = coinLedgerService.getBalance(user.getId());
+        return ResponseEntity.ok(ApiResponse.success("Coin balance retrieved", Map.of("balance", balance)));
+    }
+
+    @GetMapping("/transactions")
+    public ResponseEntity<ApiResponse<PagedResponse<CoinTransactionDto>>> getTransactions(
+            @AuthenticationPrincipal User user,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        if (user == null) {
+            return ResponseEntity.status(401).body(ApiResponse.error("Unauthorized"));
+        }
+        Page<CoinTransactionDto> history = coinLedgerService.getHistory(user.getId(), page, size);
+        PagedResponse<CoinTransactionDto> body = new PagedResponse<>(history.getContent(), history.getNumber(),
+                history.getSize(), history.getTotalElements(), history.getTotalPages());
+        return ResponseEntity.ok(ApiResponse.success("Coin transactions retrieved", body));
+    }
+
+    @PostMapping("/admin/reconcile")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<ReconciliationReport>> reconcile() {
+        ReconciliationReport report = coinLedgerService.reconcile();
+        return ResponseEntity.ok(ApiResponse.success("Coin ledger reconciled", report));
+    }
+
+    @GetMapping("/admin/reconcile")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<ReconciliationReport>> getLastReconciliation() {
+        return ResponseEntity.ok(ApiResponse.success("Last coin ledger reconciliation", coinLedgerService.getLastReport()));
+    }
+}
@@ -1,10 +1,14 @@
 package com.kuberfashion.backend.controller;
 
 import com.kuberfashion.backend.dto.ApiResponse;
+import com.kuberfashion.backend.dto.DirectUploadDto;
+import com.kuberfashion.backend.service.DirectUploadService;
 import com.kuberfashion.backend.service.FileStorageService;
+import com.kuberfashion.backend.service.ImageVariantService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -26,6 +30,12 @@ public class FileUploadController {
     @Autowired
     private FileStorageService fileStorageService;
 
+    @Autowired
+    private ImageVariantService imageVariantService;
+
+    @Autowired
+    private DirectUploadService directUploadService;
+
     // Allowed file types
     private static final List<String> ALLOWED_IMAGE_TYPES = Arrays.asList(
             "image/jpeg", "image/jpg", "image/png", "image/webp", "image/gif"
@@ -34,6 +44,9 @@ public class FileUploadController {
     // Max file size: 5MB
     private static final long MAX_FILE_SIZE = 5 * 1024 * 1024;
 
+    @Value("${storage.metadata.batch-max:200}")
+    private int metadataBatchMax;
+
     /**
      * Upload product image (Admin only)
      */
@@ -42,7 +55,7 @@ public class FileUploadController {
     public ResponseEntity<ApiResponse<Map<String, String>>> uploadProductImage(
             @RequestParam("file") MultipartFile file) {
         
-        return uploadFile(file, "products");
+        return uploadFile(file, "products", true);
     }
 
     /**
@@ -53,7 +66,7 @@ public class FileUploadController {
     public ResponseEntity<ApiResponse<Map<String, String>>> uploadCategoryImage(
             @RequestParam("file") MultipartFile file) {
         
-        return uploadFile(file, "categories");
+        return uploadFile(file, "categories", false);
     }
 
     /**
@@ -64,7 +77,7 @@ public class FileUploadController {
     public ResponseEntity<ApiResponse<Map<String, String>>> uploadUserAvatar(
             @RequestParam("file") MultipartFile file) {
         
-        return uploadFile(file, "users");
+        return uploadFile(file, "users", false);
     }
 
     /**
@@ -76,7 +89,45 @@ public class FileUploadController {
             @RequestParam("file") MultipartFile file,
             @RequestParam(value = "folder", defaultValue = "general") String folder) {
         
-        return uploadFile(file, folder);
+        return uploadFile(file, folder, false);
+    }
+
+    /**
+     * Start a direct upload: returns a short-lived URL the client PUTs the image to (Admin only)
+     */
+    @PostMapping("/presign")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<DirectUploadDto>> presignUpload(@RequestBody PresignRequest request) {
+        try {
+            DirectUploadDto upload = directUploadService.issue(request.getFolder(), request.getContentType(), request.getSize());
+            return ResponseEntity.ok(ApiResponse.success("Upload URL issued", upload));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Error issuing upload URL: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Failed to issue upload URL: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Confirm a direct upload once the client's PUT has finished (Admin only)
+     */
+    @PostMapping("/presign/complete")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<FileStorageService.FileMetadata>> completeUpload(@RequestBody CompleteUploadRequest request) {
+        try {
+            FileStorageService.FileMetadata metadata = directUploadService.complete(request.getCompletionToken());
+            return ResponseEntity.ok(ApiResponse.success("File uploaded successfully", metadata));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(ApiResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Error completing upload: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Failed to complete upload: " + e.getMessage()));
+        }
     }
 
     /**
@@ -134,7 +185,32 @@ public class FileUploadController {
         }
     }
 
-    private ResponseEntity<ApiResponse<Map<String, String>>> uploadFile(MultipartFile file, String folder) {
+    /**
+     * Get metadata of many files at once; cache misses are looked up in parallel
+     */
+    @PostMapping("/metadata/batch")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<Map<String, FileStorageService.FileMetadata>>> getFileMetadataBatch(
+            @RequestBody MetadataBatchRequest request) {
+        List<String> urls = request.getUrls();
+        if (urls == null || urls.isEmpty()) {
+            return ResponseEntity.badRequest().body(ApiResponse.error("At least one URL is required"));
+        }
+        if (urls.size() > metadataBatchMax) {
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error("At most " + metadataBatchMax + " URLs per request"));
+        }
+        try {
+            Map<String, FileStorageService.FileMetadata> metadata = fileStorageService.getFileMetadata(urls);
+            return ResponseEntity.ok(ApiResponse.success("File metadata retrieved", metadata));
+        } catch (Exception e) {
+            logger.error("Error getting file metadata: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Failed to get file metadata: " + e.getMessage()));
+        }
+    }
+
+    private ResponseEntity<ApiResponse<Map<String, String>>> uploadFile(MultipartFile file, String folder, boolean withVariants) {
         try {
             // Validate file
             String validationError = validateFile(file);
@@ -152,6 +228,10 @@ public class FileUploadController {
             result.put("filename", file.getOriginalFilename());
             result.put("folder", folder);
             result.put("size", String.valueOf(file.getSize()));
+            if (withVariants) {
+                // thumb / card / detail rendition URLs, as far as they are ready within storage.images.response-wait-ms
+                result.putAll(imageVariantService.createVariants(file.getBytes(), fileUrl));
+            }
 
             return ResponseEntity.ok(ApiResponse.success("File uploaded successfully", result));
 
@@ -183,4 +263,32 @@ public class FileUploadController {
 
         return null; // No validation errors
     }
+
+    public static class MetadataBatchRequest {
+        // Missing files map to null in the response
+        private List<String> urls;
+
+        public List<String> getUrls() { return urls; }
+        public void setUrls(List<String> urls) { this.urls = urls; }
+    }
+
+    public static class PresignRequest {
+        private String folder = "products";
+        private String contentType;
+        private long size;
+
+        public String getFolder() { return folder; }
+        public void setFolder(String folder) { this.folder = folder; }
+        public String getContentType() { return contentType; }
+        public void setContentType(String contentType) { this.contentType = contentType; }
+        public long getSize() { return size; }
+        public void setSize(long size) { this.size = size; }
+    }
+
+    public static class CompleteUploadRequest {
+        private String completionToken;
+
+        public String getCompletionToken() { return completionToken; }
+        public void setCompletionToken(String completionToken) { this.completionToken = completionToken; }
+    }
 }
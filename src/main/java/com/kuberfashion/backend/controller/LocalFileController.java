@@ -0,0 +1,201 @@
+package com.kuberfashion.backend.controller;
+
+import com.kuberfashion.backend.service.LocalStorageProvider;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.util.UriUtils;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+
+/**
+ * Serves objects of the local storage provider at the URLs it hands out.
+ * Bodies are sent with Tomcat's sendfile (kernel zero-copy) when the connector supports it and the
+ * response is large enough to benefit; otherwise with FileChannel.transferTo. Supports a single byte
+ * range (with If-Range) and conditional requests via If-None-Match. Also accepts the signed PUTs behind
+ * direct uploads, so that flow works without a bucket.
+ */
+@RestController
+@RequestMapping("/api/files/local")
+@ConditionalOnProperty(name = "storage.provider", havingValue = "local")
+public class LocalFileController {
+
+    private static final String PREFIX = "/api/files/local/";
+
+    // Request attributes of Tomcat's sendfile support (org.apache.catalina.Globals)
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    // Parsed Range header that cannot be satisfied for this file
+    private static final long[] UNSATISFIABLE = new long[0];
+
+    @Autowired
+    private LocalStorageProvider storageProvider;
+
+    @Value("${storage.local.cache-max-age:P1D}")
+    private Duration cacheMaxAge;
+
+    @Value("${storage.local.sendfile-min-size:48KB}")
+    private DataSize sendfileMinSize;
+
+    @GetMapping("/**")
+    public void serve(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String key = objectKey(request);
+        Path file;
+        BasicFileAttributes attrs;
+        try {
+            file = storageProvider.resolve(key);
+            attrs = Files.readAttributes(file, BasicFileAttributes.class);
+        } catch (IllegalArgumentException | NoSuchFileException e) {
+            response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        if (!attrs.isRegularFile()) {
+            response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        long length = attrs.size();
+        long lastModified = attrs.lastModifiedTime().toMillis();
+        String etag = "\"" + Long.toHexString(length) + "-" + Long.toHexString(lastModified) + "\"";
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, lastModified);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "public, max-age=" + cacheMaxAge.toSeconds());
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        if (matchesAny(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        long start = 0;
+        long end = length - 1;
+        String range = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (range != null && (ifRange == null || ifRange.equals(etag))) {
+            long[] bounds = parseRange(range, length);
+            if (bounds == UNSATISFIABLE) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+            if (bounds != null) {
+                start = bounds[0];
+                end = bounds[1];
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+            }
+        }
+
+        long count = end - start + 1;
+        response.setContentType(LocalStorageProvider.contentTypeOf(key));
+        response.setContentLengthLong(count);
+        if (count <= 0 || "HEAD".equals(request.getMethod())) {
+            return;
+        }
+
+        if (count >= sendfileMinSize.toBytes() && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            // Tomcat writes the file straight from the page cache to the socket after we return
+            request.setAttribute(SENDFILE_FILENAME, file.toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            long remaining = count;
+            while (remaining > 0) {
+                long sent = channel.transferTo(position, remaining, out);
+                if (sent <= 0) break;
+                position += sent;
+                remaining -= sent;
+            }
+        }
+    }
+
+    /**
+     * Direct upload through a URL signed by LocalStorageProvider.presignPut.
+     */
+    @PutMapping("/**")
+    public void upload(@RequestParam("expires") long expires,
+                       @RequestParam("size") long size,
+                       @RequestParam("signature") String signature,
+                       HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String key = objectKey(request);
+        String contentType = request.getContentType();
+        if (!storageProvider.verifyUpload(key, contentType, size, expires, signature)) {
+            response.setStatus(HttpServletResponse.SC_FORBIDDEN);
+            return;
+        }
+        if (request.getContentLengthLong() != size) {
+            response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            return;
+        }
+        storageProvider.put(key, request.getInputStream(), size, contentType);
+        response.setStatus(HttpServletResponse.SC_OK);
+    }
+
+    private static String objectKey(HttpServletRequest request) {
+        return UriUtils.decode(request.getRequestURI().substring(request.getContextPath().length() + PREFIX.length()),
+                StandardCharsets.UTF_8);
+    }
+
+    private static boolean matchesAny(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) return false;
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || tag.equals(etag) || tag.equals("W/" + etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Single range of "bytes=a-b", "bytes=a-" or "bytes=-n" as inclusive [start, end].
+     * @return null to ignore the header (malformed or multiple ranges: full body), UNSATISFIABLE for 416
+     */
+    private static long[] parseRange(String header, long length) {
+        if (!header.startsWith("bytes=") || header.indexOf(',') >= 0) return null;
+        String spec = header.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) return null;
+        try {
+            if (dash == 0) {
+                long suffix = Long.parseLong(spec.substring(1));
+                if (suffix <= 0 || length == 0) return UNSATISFIABLE;
+                return new long[]{Math.max(0, length - suffix), length - 1};
+            }
+            long first = Long.parseLong(spec.substring(0, dash));
+            String last = spec.substring(dash + 1);
+            long lastByte = last.isEmpty() ? length - 1 : Long.parseLong(last);
+            if (first >= length) return UNSATISFIABLE;
+            if (lastByte < first) return null;
+            return new long[]{first, Math.min(lastByte, length - 1)};
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -2,8 +2,13 @@ package com.kuberfashion.backend.controller;
 
 import com.kuberfashion.backend.dto.ApiResponse;
 import com.kuberfashion.backend.dto.CartItemDto;
+import com.kuberfashion.backend.dto.CursorPage;
+import com.kuberfashion.backend.dto.OrderDetailDto;
+import com.kuberfashion.backend.dto.OrderStatsDto;
+import com.kuberfashion.backend.dto.OrderSummaryDto;
 import com.kuberfashion.backend.entity.Order;
 import com.kuberfashion.backend.entity.User;
+import com.kuberfashion.backend.event.OrderEventDispatcher;
 import com.kuberfashion.backend.service.OrderService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -26,6 +31,9 @@ public class OrderController {
     @Autowired
     private OrderService orderService;
     
+    @Autowired
+    private OrderEventDispatcher orderEventDispatcher;
+    
     @PostMapping("/create")
     public ResponseEntity<ApiResponse<Order>> createOrder(
             @AuthenticationPrincipal User user,
@@ -35,7 +43,8 @@ public class OrderController {
             request.getCartItems(), 
             request.getShippingAddress(), 
             request.getBillingAddress(), 
-            Order.PaymentMethod.valueOf(request.getPaymentMethod().toUpperCase())
+            Order.PaymentMethod.valueOf(request.getPaymentMethod().toUpperCase()),
+            request.getCoinsToRedeem() != null ? request.getCoinsToRedeem() : 0L
         );
         return ResponseEntity.ok(ApiResponse.success("Order created successfully", order));
     }
@@ -50,15 +59,22 @@ public class OrderController {
     }
     
     @GetMapping("/my-orders")
-    public ResponseEntity<ApiResponse<Page<Order>>> getUserOrders(
+    public ResponseEntity<ApiResponse<CursorPage<OrderSummaryDto>>> getUserOrders(
             @AuthenticationPrincipal User user,
-            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(required = false) String cursor,
             @RequestParam(defaultValue = "10") int size) {
-        Pageable pageable = PageRequest.of(page, size);
-        Page<Order> orders = orderService.getUserOrders(user.getId(), pageable);
+        CursorPage<OrderSummaryDto> orders = orderService.getUserOrderSummaries(user.getId(), cursor, size);
         return ResponseEntity.ok(ApiResponse.success("Orders retrieved successfully", orders));
     }
     
+    @GetMapping("/my-orders/{orderId}")
+    public ResponseEntity<ApiResponse<OrderDetailDto>> getUserOrderDetail(
+            @AuthenticationPrincipal User user,
+            @PathVariable Long orderId) {
+        OrderDetailDto order = orderService.getUserOrderDetail(orderId, user.getId());
+        return ResponseEntity.ok(ApiResponse.success("Order retrieved successfully", order));
+    }
+    
     @PutMapping("/{orderId}/cancel")
     public ResponseEntity<ApiResponse<String>> cancelOrder(
             @AuthenticationPrincipal User user,
@@ -86,6 +102,33 @@ public class OrderController {
         return ResponseEntity.ok(ApiResponse.success("Orders by status retrieved successfully", orders));
     }
     
+    @GetMapping("/admin/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<OrderStatsDto>> getOrderStats() {
+        OrderStatsDto stats = orderService.getOrderStats();
+        return ResponseEntity.ok(ApiResponse.success("Order stats retrieved successfully", stats));
+    }
+    
+    @PostMapping("/admin/rollups/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<Map<String, Integer>>> rebuildOrderRollups() {
+        int rows = orderService.rebuildOrderRollups();
+        return ResponseEntity.ok(ApiResponse.success("Order rollups rebuilt", Map.of("rows", rows)));
+    }
+    
+    @GetMapping("/admin/events/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getOrderEventStats() {
+        return ResponseEntity.ok(ApiResponse.success("Order event stats retrieved successfully", orderEventDispatcher.getStats()));
+    }
+    
+    @PostMapping("/admin/events/requeue-failed")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<Map<String, Integer>>> requeueFailedOrderEvents() {
+        int requeued = orderEventDispatcher.requeueFailed();
+        return ResponseEntity.ok(ApiResponse.success("Failed order events requeued", Map.of("requeued", requeued)));
+    }
+    
     @PutMapping("/admin/{orderId}/status")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<ApiResponse<Order>> updateOrderStatus(
@@ -112,8 +155,17 @@ public class OrderController {
         private String shippingAddress;
         private String billingAddress;
         private String paymentMethod;
+        private Long coinsToRedeem;
         
         // Getters and setters
+        public Long getCoinsToRedeem() {
+            return coinsToRedeem;
+        }
+        
+        public void setCoinsToRedeem(Long coinsToRedeem) {
+            this.coinsToRedeem = coinsToRedeem;
+        }
+        
         public List<CartItemDto> getCartItems() {
             return cartItems;
         }
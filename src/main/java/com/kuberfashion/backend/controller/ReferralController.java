@@ -1,7 +1,10 @@
 package com.kuberfashion.backend.controller;
 
 import com.kuberfashion.backend.dto.ApiResponse;
+import com.kuberfashion.backend.dto.LeaderboardEntryDto;
 import com.kuberfashion.backend.entity.User;
+import com.kuberfashion.backend.service.ReferralLeaderboardService;
+import com.kuberfashion.backend.service.ReferralLeaderboardStore.Board;
 import com.kuberfashion.backend.service.ReferralService;
 import com.kuberfashion.backend.service.ReferralService.ReferralStats;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -9,6 +12,8 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/referral")
 @CrossOrigin(origins = {"http://localhost:5173", "http://127.0.0.1:5173", "https://kuberfashions.in", "https://www.kuberfashions.in"})
@@ -17,6 +22,9 @@ public class ReferralController {
     @Autowired
     private ReferralService referralService;
 
+    @Autowired
+    private ReferralLeaderboardService referralLeaderboardService;
+
     @GetMapping("/stats")
     public ResponseEntity<ApiResponse<ReferralStats>> getStats(@AuthenticationPrincipal User user) {
         if (user == null) {
@@ -34,4 +42,32 @@ public class ReferralController {
         String code = user.getPhone(); // use phone as referral code
         return ResponseEntity.ok(ApiResponse.success("Referral code retrieved", code));
     }
+
+    // board: coupons (coupons earned) or downline (downline size)
+    @GetMapping("/leaderboard")
+    public ResponseEntity<ApiResponse<List<LeaderboardEntryDto>>> getLeaderboard(
+            @RequestParam(defaultValue = "coupons") String board,
+            @RequestParam(defaultValue = "10") int limit) {
+        List<LeaderboardEntryDto> top = referralLeaderboardService.getTop(parseBoard(board), limit);
+        return ResponseEntity.ok(ApiResponse.success("Leaderboard retrieved", top));
+    }
+
+    @GetMapping("/leaderboard/me")
+    public ResponseEntity<ApiResponse<LeaderboardEntryDto>> getMyRank(
+            @AuthenticationPrincipal User user,
+            @RequestParam(defaultValue = "coupons") String board) {
+        if (user == null) {
+            return ResponseEntity.status(401).body(ApiResponse.error("Unauthorized"));
+        }
+        LeaderboardEntryDto rank = referralLeaderboardService.getRank(parseBoard(board), user).orElse(null);
+        return ResponseEntity.ok(ApiResponse.success("Leaderboard rank retrieved", rank));
+    }
+
+    private Board parseBoard(String board) {
+        try {
+            return Board.valueOf(board.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown leaderboard: " + board);
+        }
+    }
 }
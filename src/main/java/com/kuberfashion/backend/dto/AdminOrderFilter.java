@@ -0,0 +1,44 @@
+package com.kuberfashion.backend.dto;
+
+import com.kuberfashion.backend.entity.Order;
+
+import java.time.LocalDateTime;
+
+/**
+ * Admin order search filters. Every field is optional; only the ones set are added to the query.
+ * {@code q} matches customer email, customer phone or order number (substring, trigram-indexed).
+ */
+public class AdminOrderFilter {
+
+    private Order.OrderStatus status;
+    private Order.PaymentStatus paymentStatus;
+    private String q;
+    private LocalDateTime from;
+    private LocalDateTime to;
+
+    public AdminOrderFilter() {}
+
+    public AdminOrderFilter(Order.OrderStatus status, Order.PaymentStatus paymentStatus, String q,
+                            LocalDateTime from, LocalDateTime to) {
+        this.status = status;
+        this.paymentStatus = paymentStatus;
+        this.q = q == null || q.isBlank() ? null : q.trim();
+        this.from = from;
+        this.to = to;
+    }
+
+    public Order.OrderStatus getStatus() { return status; }
+    public void setStatus(Order.OrderStatus status) { this.status = status; }
+
+    public Order.PaymentStatus getPaymentStatus() { return paymentStatus; }
+    public void setPaymentStatus(Order.PaymentStatus paymentStatus) { this.paymentStatus = paymentStatus; }
+
+    public String getQ() { return q; }
+    public void setQ(String q) { this.q = q; }
+
+    public LocalDateTime getFrom() { return from; }
+    public void setFrom(LocalDateTime from) { this.from = from; }
+
+    public LocalDateTime getTo() { return to; }
+    public void setTo(LocalDateTime to) { this.to = to; }
+}
@@ -0,0 +1,72 @@
+package com.kuberfashion.backend.dto;
+
+import com.kuberfashion.backend.entity.Order;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Flat admin order row used by the order search and the CSV/NDJSON export.
+ * Built by a JPQL constructor expression so rows never enter the persistence context.
+ */
+public class AdminOrderRowDto {
+
+    private Long id;
+    private String orderNumber;
+    private Order.OrderStatus status;
+    private Order.PaymentStatus paymentStatus;
+    private Order.PaymentMethod paymentMethod;
+    private BigDecimal totalAmount;
+    private LocalDateTime createdAt;
+    private Long userId;
+    private String userEmail;
+    private String userPhone;
+
+    public AdminOrderRowDto() {}
+
+    public AdminOrderRowDto(Long id, String orderNumber, Order.OrderStatus status, Order.PaymentStatus paymentStatus,
+                            Order.PaymentMethod paymentMethod, BigDecimal totalAmount, LocalDateTime createdAt,
+                            Long userId, String userEmail, String userPhone) {
+        this.id = id;
+        this.orderNumber = orderNumber;
+        this.status = status;
+        this.paymentStatus = paymentStatus;
+        this.paymentMethod = paymentMethod;
+        this.totalAmount = totalAmount;
+        this.createdAt = createdAt;
+        this.userId = userId;
+        this.userEmail = userEmail;
+        this.userPhone = userPhone;
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getOrderNumber() { return orderNumber; }
+    public void setOrderNumber(String orderNumber) { this.orderNumber = orderNumber; }
+
+    public Order.OrderStatus getStatus() { return status; }
+    public void setStatus(Order.OrderStatus status) { this.status = status; }
+
+    public Order.PaymentStatus getPaymentStatus() { return paymentStatus; }
+    public void setPaymentStatus(Order.PaymentStatus paymentStatus) { this.paymentStatus = paymentStatus; }
+
+    public Order.PaymentMethod getPaymentMethod() { return paymentMethod; }
+    public void setPaymentMethod(Order.PaymentMethod paymentMethod) { this.paymentMethod = paymentMethod; }
+
+    public BigDecimal getTotalAmount() { return totalAmount; }
+    public void setTotalAmount(BigDecimal totalAmount) { this.totalAmount = totalAmount; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+
+    public String getUserEmail() { return userEmail; }
+    public void setUserEmail(String userEmail) { this.userEmail = userEmail; }
+
+    public String getUserPhone() { return userPhone; }
+    public void setUserPhone(String userPhone) { this.userPhone = userPhone; }
+}
@@ -23,6 +23,14 @@ public class CartItemDto {
     private String image;
     private BigDecimal price;
     private String category;
+    private Integer stockQuantity;
+    private boolean inStock;
+    
+    // Live availability flags so the cart can warn shoppers without extra calls
+    private BigDecimal priceAtAdd;
+    private boolean priceChanged;
+    private boolean available;
+    private boolean insufficientStock;
     
     // Constructors
     public CartItemDto() {}
@@ -32,6 +40,27 @@ public class CartItemDto {
         this.quantity = quantity;
     }
     
+    // Used by the CartItemRepository read query (JPQL constructor expression)
+    public CartItemDto(Long id, Long productId, Integer quantity, String selectedSize, String selectedColor,
+                       String name, String image, BigDecimal price, String category,
+                       Integer stockQuantity, boolean inStock, boolean active, BigDecimal priceAtAdd) {
+        this.id = id;
+        this.productId = productId;
+        this.quantity = quantity;
+        this.selectedSize = selectedSize == null || selectedSize.isEmpty() ? null : selectedSize;
+        this.selectedColor = selectedColor == null || selectedColor.isEmpty() ? null : selectedColor;
+        this.name = name;
+        this.image = image;
+        this.price = price;
+        this.category = category;
+        this.stockQuantity = stockQuantity != null ? stockQuantity : 0;
+        this.inStock = inStock;
+        this.priceAtAdd = priceAtAdd;
+        this.priceChanged = priceAtAdd != null && price != null && priceAtAdd.compareTo(price) != 0;
+        this.available = active && inStock;
+        this.insufficientStock = this.available && quantity != null && this.stockQuantity < quantity;
+    }
+    
     // Getters and Setters
     public Long getProductId() { return productId; }
     public void setProductId(Long productId) { this.productId = productId; }
@@ -59,4 +88,22 @@ public class CartItemDto {
     
     public String getCategory() { return category; }
     public void setCategory(String category) { this.category = category; }
+    
+    public Integer getStockQuantity() { return stockQuantity; }
+    public void setStockQuantity(Integer stockQuantity) { this.stockQuantity = stockQuantity; }
+    
+    public boolean isInStock() { return inStock; }
+    public void setInStock(boolean inStock) { this.inStock = inStock; }
+    
+    public BigDecimal getPriceAtAdd() { return priceAtAdd; }
+    public void setPriceAtAdd(BigDecimal priceAtAdd) { this.priceAtAdd = priceAtAdd; }
+    
+    public boolean isPriceChanged() { return priceChanged; }
+    public void setPriceChanged(boolean priceChanged) { this.priceChanged = priceChanged; }
+    
+    public boolean isAvailable() { return available; }
+    public void setAvailable(boolean available) { this.available = available; }
+    
+    public boolean isInsufficientStock() { return insufficientStock; }
+    public void setInsufficientStock(boolean insufficientStock) { this.insufficientStock = insufficientStock; }
 }
@@ -0,0 +1,42 @@
+package com.kuberfashion.backend.dto;
+
+import com.kuberfashion.backend.entity.CoinTransaction;
+
+/**
+ * One ledger line to post through CoinLedgerService: a signed coin amount for a user
+ * (positive for EARN, negative for SPEND; ADJUST may be either).
+ */
+public class CoinPosting {
+
+    private final Long userId;
+    private final Long sourceUserId;
+    private final CoinTransaction.TxType type;
+    private final long amount;
+    private final Integer level;
+    private final String reason;
+
+    public CoinPosting(Long userId, Long sourceUserId, CoinTransaction.TxType type, long amount,
+                       Integer level, String reason) {
+        this.userId = userId;
+        this.sourceUserId = sourceUserId;
+        this.type = type;
+        this.amount = amount;
+        this.level = level;
+        this.reason = reason;
+    }
+
+    public static CoinPosting earn(Long userId, long amount, String reason, Long sourceUserId, Integer level) {
+        return new CoinPosting(userId, sourceUserId, CoinTransaction.TxType.EARN, amount, level, reason);
+    }
+
+    public static CoinPosting spend(Long userId, long amount, String reason) {
+        return new CoinPosting(userId, null, CoinTransaction.TxType.SPEND, -amount, null, reason);
+    }
+
+    public Long getUserId() { return userId; }
+    public Long getSourceUserId() { return sourceUserId; }
+    public CoinTransaction.TxType getType() { return type; }
+    public long getAmount() { return amount; }
+    public Integer getLevel() { return level; }
+    public String getReason() { return reason; }
+}
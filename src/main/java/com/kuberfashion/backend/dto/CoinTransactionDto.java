@@ -0,0 +1,49 @@
+package com.kuberfashion.backend.dto;
+
+import com.kuberfashion.backend.entity.CoinTransaction;
+
+import java.time.LocalDateTime;
+
+/**
+ * Coin ledger line for the user's history, built by a JPQL constructor expression.
+ */
+public class CoinTransactionDto {
+
+    private Long id;
+    private CoinTransaction.TxType type;
+    private long amount;
+    private Integer level;
+    private String reason;
+    private LocalDateTime createdAt;
+
+    public CoinTransactionDto() {}
+
+    public CoinTransactionDto(Long id, CoinTransaction.TxType type, long amount, Integer level, String reason,
+                              LocalDateTime createdAt) {
+        this.id = id;
+        this.type = type;
+        this.amount = amount;
+        this.level = level;
+        this.reason = reason;
+        this.createdAt = createdAt;
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public CoinTransaction.TxType getType() { return type; }
+    public void setType(CoinTransaction.TxType type) { this.type = type; }
+
+    public long getAmount() { return amount; }
+    public void setAmount(long amount) { this.amount = amount; }
+
+    public Integer getLevel() { return level; }
+    public void setLevel(Integer level) { this.level = level; }
+
+    public String getReason() { return reason; }
+    public void setReason(String reason) { this.reason = reason; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+}
@@ -0,0 +1,56 @@
+package com.kuberfashion.backend.dto;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Everything a client needs to upload one file straight to storage and then confirm it.
+ */
+public class DirectUploadDto {
+
+    private String key;
+    // Public URL the object will have once the upload is confirmed
+    private String url;
+    private String uploadUrl;
+    private String method;
+    // Must be sent unchanged with the upload request
+    private Map<String, String> headers;
+    private Instant expiresAt;
+    // Opaque; pass to the completion endpoint
+    private String completionToken;
+
+    public DirectUploadDto() {}
+
+    public DirectUploadDto(String key, String url, String uploadUrl, String method, Map<String, String> headers,
+                           Instant expiresAt, String completionToken) {
+        this.key = key;
+        this.url = url;
+        this.uploadUrl = uploadUrl;
+        this.method = method;
+        this.headers = headers;
+        this.expiresAt = expiresAt;
+        this.completionToken = completionToken;
+    }
+
+    // Getters and Setters
+    public String getKey() { return key; }
+    public void setKey(String key) { this.key = key; }
+
+    public String getUrl() { return url; }
+    public void setUrl(String url) { this.url = url; }
+
+    public String getUploadUrl() { return uploadUrl; }
+    public void setUploadUrl(String uploadUrl) { this.uploadUrl = uploadUrl; }
+
+    public String getMethod() { return method; }
+    public void setMethod(String method) { this.method = method; }
+
+    public Map<String, String> getHeaders() { return headers; }
+    public void setHeaders(Map<String, String> headers) { this.headers = headers; }
+
+    public Instant getExpiresAt() { return expiresAt; }
+    public void setExpiresAt(Instant expiresAt) { this.expiresAt = expiresAt; }
+
+    public String getCompletionToken() { return completionToken; }
+    public void setCompletionToken(String completionToken) { this.completionToken = completionToken; }
+}
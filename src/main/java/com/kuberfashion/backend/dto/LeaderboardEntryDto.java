@@ -0,0 +1,29 @@
+package com.kuberfashion.backend.dto;
+
+/**
+ * Public leaderboard row; only a display name is exposed, never user ids or contact details.
+ */
+public class LeaderboardEntryDto {
+
+    private long rank;
+    private String displayName;
+    private long score;
+
+    public LeaderboardEntryDto() {}
+
+    public LeaderboardEntryDto(long rank, String displayName, long score) {
+        this.rank = rank;
+        this.displayName = displayName;
+        this.score = score;
+    }
+
+    // Getters and Setters
+    public long getRank() { return rank; }
+    public void setRank(long rank) { this.rank = rank; }
+
+    public String getDisplayName() { return displayName; }
+    public void setDisplayName(String displayName) { this.displayName = displayName; }
+
+    public long getScore() { return score; }
+    public void setScore(long score) { this.score = score; }
+}
@@ -0,0 +1,169 @@
+package com.kuberfashion.backend.dto;
+
+import com.kuberfashion.backend.entity.Order;
+import com.kuberfashion.backend.entity.OrderItem;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class OrderDetailDto {
+
+    private Long id;
+    private String orderNumber;
+    private Order.OrderStatus status;
+    private Order.PaymentStatus paymentStatus;
+    private Order.PaymentMethod paymentMethod;
+    private BigDecimal subtotal;
+    private BigDecimal taxAmount;
+    private BigDecimal shippingAmount;
+    private BigDecimal totalAmount;
+    private String shippingAddress;
+    private String billingAddress;
+    private LocalDateTime createdAt;
+    private LocalDateTime paidAt;
+    private LocalDateTime shippedAt;
+    private LocalDateTime deliveredAt;
+    private LocalDateTime cancelledAt;
+    private List<Line> items;
+
+    public OrderDetailDto() {}
+
+    // Expects orderItems and their products to be fetch-joined already
+    public OrderDetailDto(Order order) {
+        this.id = order.getId();
+        this.orderNumber = order.getOrderNumber();
+        this.status = order.getStatus();
+        this.paymentStatus = order.getPaymentStatus();
+        this.paymentMethod = order.getPaymentMethod();
+        this.subtotal = order.getSubtotal();
+        this.taxAmount = order.getTaxAmount();
+        this.shippingAmount = order.getShippingAmount();
+        this.totalAmount = order.getTotalAmount();
+        this.shippingAddress = order.getShippingAddress();
+        this.billingAddress = order.getBillingAddress();
+        this.createdAt = order.getCreatedAt();
+        this.paidAt = order.getPaidAt();
+        this.shippedAt = order.getShippedAt();
+        this.deliveredAt = order.getDeliveredAt();
+        this.cancelledAt = order.getCancelledAt();
+        this.items = order.getOrderItems() == null ? List.of() : order.getOrderItems().stream()
+                .sorted(Comparator.comparing(OrderItem::getId))
+                .map(Line::new)
+                .collect(Collectors.toList());
+    }
+
+    public static class Line {
+        private Long id;
+        private Long productId;
+        private String productName;
+        private String productSlug;
+        private String image;
+        private Integer quantity;
+        private BigDecimal unitPrice;
+        private BigDecimal totalPrice;
+        private String selectedSize;
+        private String selectedColor;
+
+        public Line() {}
+
+        public Line(OrderItem item) {
+            this.id = item.getId();
+            this.quantity = item.getQuantity();
+            this.unitPrice = item.getUnitPrice();
+            this.totalPrice = item.getTotalPrice();
+            this.selectedSize = item.getSelectedSize();
+            this.selectedColor = item.getSelectedColor();
+            if (item.getProduct() != null) {
+                this.productId = item.getProduct().getId();
+                this.productName = item.getProduct().getName();
+                this.productSlug = item.getProduct().getSlug();
+                this.image = item.getProduct().getImage();
+            }
+        }
+
+        public Long getId() { return id; }
+        public void setId(Long id) { this.id = id; }
+
+        public Long getProductId() { return productId; }
+        public void setProductId(Long productId) { this.productId = productId; }
+
+        public String getProductName() { return productName; }
+        public void setProductName(String productName) { this.productName = productName; }
+
+        public String getProductSlug() { return productSlug; }
+        public void setProductSlug(String productSlug) { this.productSlug = productSlug; }
+
+        public String getImage() { return image; }
+        public void setImage(String image) { this.image = image; }
+
+        public Integer getQuantity() { return quantity; }
+        public void setQuantity(Integer quantity) { this.quantity = quantity; }
+
+        public BigDecimal getUnitPrice() { return unitPrice; }
+        public void setUnitPrice(BigDecimal unitPrice) { this.unitPrice = unitPrice; }
+
+        public BigDecimal getTotalPrice() { return totalPrice; }
+        public void setTotalPrice(BigDecimal totalPrice) { this.totalPrice = totalPrice; }
+
+        public String getSelectedSize() { return selectedSize; }
+        public void setSelectedSize(String selectedSize) { this.selectedSize = selectedSize; }
+
+        public String getSelectedColor() { return selectedColor; }
+        public void setSelectedColor(String selectedColor) { this.selectedColor = selectedColor; }
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getOrderNumber() { return orderNumber; }
+    public void setOrderNumber(String orderNumber) { this.orderNumber = orderNumber; }
+
+    public Order.OrderStatus getStatus() { return status; }
+    public void setStatus(Order.OrderStatus status) { this.status = status; }
+
+    public Order.PaymentStatus getPaymentStatus() { return paymentStatus; }
+    public void setPaymentStatus(Order.PaymentStatus paymentStatus) { this.paymentStatus = paymentStatus; }
+
+    public Order.PaymentMethod getPaymentMethod() { return paymentMethod; }
+    public void setPaymentMethod(Order.PaymentMethod paymentMethod) { this.paymentMethod = paymentMethod; }
+
+    public BigDecimal getSubtotal() { return subtotal; }
+    public void setSubtotal(BigDecimal subtotal) { this.subtotal = subtotal; }
+
+    public BigDecimal getTaxAmount() { return taxAmount; }
+    public void setTaxAmount(BigDecimal taxAmount) { this.taxAmount = taxAmount; }
+
+    public BigDecimal getShippingAmount() { return shippingAmount; }
+    public void setShippingAmount(BigDecimal shippingAmount) { this.shippingAmount = shippingAmount; }
+
+    public BigDecimal getTotalAmount() { return totalAmount; }
+    public void setTotalAmount(BigDecimal totalAmount) { this.totalAmount = totalAmount; }
+
+    public String getShippingAddress() { return shippingAddress; }
+    public void setShippingAddress(String shippingAddress) { this.shippingAddress = shippingAddress; }
+
+    public String getBillingAddress() { return billingAddress; }
+    public void setBillingAddress(String billingAddress) { this.billingAddress = billingAddress; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public LocalDateTime getPaidAt() { return paidAt; }
+    public void setPaidAt(LocalDateTime paidAt) { this.paidAt = paidAt; }
+
+    public LocalDateTime getShippedAt() { return shippedAt; }
+    public void setShippedAt(LocalDateTime shippedAt) { this.shippedAt = shippedAt; }
+
+    public LocalDateTime getDeliveredAt() { return deliveredAt; }
+    public void setDeliveredAt(LocalDateTime deliveredAt) { this.deliveredAt = deliveredAt; }
+
+    public LocalDateTime getCancelledAt() { return cancelledAt; }
+    public void setCancelledAt(LocalDateTime cancelledAt) { this.cancelledAt = cancelledAt; }
+
+    public List<Line> getItems() { return items; }
+    public void setItems(List<Line> items) { this.items = items; }
+}
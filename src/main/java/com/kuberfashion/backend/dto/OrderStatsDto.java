@@ -0,0 +1,38 @@
+package com.kuberfashion.backend.dto;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+/**
+ * Admin dashboard order totals, read from the order_rollups summary table.
+ */
+public class OrderStatsDto {
+
+    private long totalOrders;
+    private BigDecimal totalRevenue;
+    private Map<String, Long> ordersByStatus;
+    private Map<String, Long> ordersByPaymentStatus;
+
+    public OrderStatsDto() {}
+
+    public OrderStatsDto(long totalOrders, BigDecimal totalRevenue,
+                         Map<String, Long> ordersByStatus, Map<String, Long> ordersByPaymentStatus) {
+        this.totalOrders = totalOrders;
+        this.totalRevenue = totalRevenue;
+        this.ordersByStatus = ordersByStatus;
+        this.ordersByPaymentStatus = ordersByPaymentStatus;
+    }
+
+    // Getters and Setters
+    public long getTotalOrders() { return totalOrders; }
+    public void setTotalOrders(long totalOrders) { this.totalOrders = totalOrders; }
+
+    public BigDecimal getTotalRevenue() { return totalRevenue; }
+    public void setTotalRevenue(BigDecimal totalRevenue) { this.totalRevenue = totalRevenue; }
+
+    public Map<String, Long> getOrdersByStatus() { return ordersByStatus; }
+    public void setOrdersByStatus(Map<String, Long> ordersByStatus) { this.ordersByStatus = ordersByStatus; }
+
+    public Map<String, Long> getOrdersByPaymentStatus() { return ordersByPaymentStatus; }
+    public void setOrdersByPaymentStatus(Map<String, Long> ordersByPaymentStatus) { this.ordersByPaymentStatus = ordersByPaymentStatus; }
+}
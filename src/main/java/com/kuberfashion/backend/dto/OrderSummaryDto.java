@@ -0,0 +1,67 @@
+package com.kuberfashion.backend.dto;
+
+import com.kuberfashion.backend.entity.Order;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Slim order-history row. Built by a JPQL constructor expression in OrderRepository,
+ * so listing orders never loads order items or products.
+ */
+public class OrderSummaryDto {
+
+    private Long id;
+    private String orderNumber;
+    private Order.OrderStatus status;
+    private Order.PaymentStatus paymentStatus;
+    private BigDecimal subtotal;
+    private BigDecimal totalAmount;
+    private Long itemCount;
+    private String thumbnail;
+    private LocalDateTime createdAt;
+
+    public OrderSummaryDto() {}
+
+    public OrderSummaryDto(Long id, String orderNumber, Order.OrderStatus status, Order.PaymentStatus paymentStatus,
+                           BigDecimal subtotal, BigDecimal totalAmount, Long itemCount, String thumbnail,
+                           LocalDateTime createdAt) {
+        this.id = id;
+        this.orderNumber = orderNumber;
+        this.status = status;
+        this.paymentStatus = paymentStatus;
+        this.subtotal = subtotal;
+        this.totalAmount = totalAmount;
+        this.itemCount = itemCount != null ? itemCount : 0L;
+        this.thumbnail = thumbnail;
+        this.createdAt = createdAt;
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getOrderNumber() { return orderNumber; }
+    public void setOrderNumber(String orderNumber) { this.orderNumber = orderNumber; }
+
+    public Order.OrderStatus getStatus() { return status; }
+    public void setStatus(Order.OrderStatus status) { this.status = status; }
+
+    public Order.PaymentStatus getPaymentStatus() { return paymentStatus; }
+    public void setPaymentStatus(Order.PaymentStatus paymentStatus) { this.paymentStatus = paymentStatus; }
+
+    public BigDecimal getSubtotal() { return subtotal; }
+    public void setSubtotal(BigDecimal subtotal) { this.subtotal = subtotal; }
+
+    public BigDecimal getTotalAmount() { return totalAmount; }
+    public void setTotalAmount(BigDecimal totalAmount) { this.totalAmount = totalAmount; }
+
+    public Long getItemCount() { return itemCount; }
+    public void setItemCount(Long itemCount) { this.itemCount = itemCount; }
+
+    public String getThumbnail() { return thumbnail; }
+    public void setThumbnail(String thumbnail) { this.thumbnail = thumbnail; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+}
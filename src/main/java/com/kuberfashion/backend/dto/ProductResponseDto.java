@@ -1,10 +1,13 @@
 package com.kuberfashion.backend.dto;
 
 import com.kuberfashion.backend.entity.Product;
+import com.kuberfashion.backend.entity.ProductImageVariant;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 public class ProductResponseDto {
     
@@ -18,6 +21,8 @@ public class ProductResponseDto {
     private Long categoryId;
     private String image;
     private List<String> images;
+    // original image URL -> variant name (thumb, card, detail) -> rendition URL
+    private Map<String, Map<String, String>> imageVariants;
     private BigDecimal rating;
     private Integer reviews;
     private String description;
@@ -54,6 +59,12 @@ public class ProductResponseDto {
         
         this.image = product.getImage();
         this.images = product.getImages();
+        this.imageVariants = new LinkedHashMap<>();
+        if (product.getImageVariants() != null) {
+            for (ProductImageVariant v : product.getImageVariants()) {
+                this.imageVariants.computeIfAbsent(v.getOriginalUrl(), k -> new LinkedHashMap<>()).put(v.getVariant(), v.getUrl());
+            }
+        }
         this.rating = product.getRating() != null ? product.getRating() : BigDecimal.ZERO;
         this.reviews = product.getReviews() != null ? product.getReviews() : 0;
         this.description = product.getDescription();
@@ -96,6 +107,9 @@ public class ProductResponseDto {
     public List<String> getImages() { return images; }
     public void setImages(List<String> images) { this.images = images; }
     
+    public Map<String, Map<String, String>> getImageVariants() { return imageVariants; }
+    public void setImageVariants(Map<String, Map<String, String>> imageVariants) { this.imageVariants = imageVariants; }
+    
     public BigDecimal getRating() { return rating; }
     public void setRating(BigDecimal rating) { this.rating = rating; }
     
@@ -4,10 +4,13 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "cart_items")
+@Table(name = "cart_items", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_cart_items_line", columnNames = {"user_id", "product_id", "selected_size", "selected_color"})
+})
 public class CartItem {
     
     @Id
@@ -27,11 +30,16 @@ public class CartItem {
     @Column(nullable = false)
     private Integer quantity;
     
-    @Column(name = "selected_size", length = 10)
-    private String selectedSize;
+    // Empty string (not null) means "no selection" so the unique line key also covers it
+    @Column(name = "selected_size", length = 10, nullable = false)
+    private String selectedSize = "";
     
-    @Column(name = "selected_color", length = 50)
-    private String selectedColor;
+    @Column(name = "selected_color", length = 50, nullable = false)
+    private String selectedColor = "";
+    
+    // Product price when the line was last added, used to flag price changes in the cart
+    @Column(name = "price_at_add", precision = 10, scale = 2)
+    private BigDecimal priceAtAdd;
     
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -78,6 +86,9 @@ public class CartItem {
     public String getSelectedColor() { return selectedColor; }
     public void setSelectedColor(String selectedColor) { this.selectedColor = selectedColor; }
     
+    public BigDecimal getPriceAtAdd() { return priceAtAdd; }
+    public void setPriceAtAdd(BigDecimal priceAtAdd) { this.priceAtAdd = priceAtAdd; }
+    
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
     
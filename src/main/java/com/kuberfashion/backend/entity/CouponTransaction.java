@@ -6,7 +6,8 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "coupon_transactions", indexes = {
         @Index(name = "idx_coupon_user", columnList = "user_id"),
-        @Index(name = "idx_coupon_source", columnList = "source_user_id")
+        @Index(name = "idx_coupon_source", columnList = "source_user_id"),
+        @Index(name = "idx_coupon_user_source", columnList = "user_id, source_user_id")
 })
 public class CouponTransaction {
 
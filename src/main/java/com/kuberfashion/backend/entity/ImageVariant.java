@@ -0,0 +1,73 @@
+package com.kuberfashion.backend.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Registry of generated renditions, keyed by the URL of the uploaded original.
+ * Written at upload time, before any product references the image; copied onto products when they are saved.
+ */
+@Entity
+@Table(name = "image_variants", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_image_variants_original", columnNames = {"original_url", "variant"})
+})
+public class ImageVariant {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "original_url", nullable = false, length = 500)
+    private String originalUrl;
+
+    @Column(name = "variant", nullable = false, length = 20)
+    private String variant;
+
+    @Column(name = "url", nullable = false, length = 500)
+    private String url;
+
+    @Column(name = "width", nullable = false)
+    private int width;
+
+    @Column(name = "height", nullable = false)
+    private int height;
+
+    @Column(name = "size_bytes", nullable = false)
+    private long sizeBytes;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        this.createdAt = LocalDateTime.now();
+    }
+
+    public ImageVariant() {}
+
+    public ImageVariant(String originalUrl, String variant, String url, int width, int height, long sizeBytes) {
+        this.originalUrl = originalUrl;
+        this.variant = variant;
+        this.url = url;
+        this.width = width;
+        this.height = height;
+        this.sizeBytes = sizeBytes;
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public String getOriginalUrl() { return originalUrl; }
+    public void setOriginalUrl(String originalUrl) { this.originalUrl = originalUrl; }
+    public String getVariant() { return variant; }
+    public void setVariant(String variant) { this.variant = variant; }
+    public String getUrl() { return url; }
+    public void setUrl(String url) { this.url = url; }
+    public int getWidth() { return width; }
+    public void setWidth(int width) { this.width = width; }
+    public int getHeight() { return height; }
+    public void setHeight(int height) { this.height = height; }
+    public long getSizeBytes() { return sizeBytes; }
+    public void setSizeBytes(long sizeBytes) { this.sizeBytes = sizeBytes; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+}
@@ -0,0 +1,19 @@
+package com.kuberfashion.backend.entity;
+
+import java.time.LocalDateTime;
+
+/**
+ * A row of a database-backed work queue (order_events, referral_reward_jobs) processed through LeasedQueue.
+ * Rows carry status, attempts, next_attempt_at, last_error, created_at and processed_at columns.
+ */
+public interface LeasedQueueItem {
+
+    Long getId();
+
+    int getAttempts();
+
+    /**
+     * Claims the row for a new attempt: PROCESSING, attempts + 1, next_attempt_at = lease expiry.
+     */
+    void lease(LocalDateTime until);
+}
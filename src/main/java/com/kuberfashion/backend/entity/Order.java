@@ -7,10 +7,13 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.HashSet;
 import java.util.Set;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+    @Index(name = "idx_orders_user_created", columnList = "user_id, created_at DESC, id DESC")
+})
 public class Order {
     
     @Id
@@ -47,6 +50,19 @@ public class Order {
     @Column(name = "total_items", nullable = false)
     private Integer totalItems;
     
+    // Database defaults let ddl-auto=update add these NOT NULL columns to a populated orders table
+    // (Hibernate appends NOT NULL itself for nullable = false)
+    @Column(name = "coins_redeemed", nullable = false, columnDefinition = "BIGINT DEFAULT 0")
+    private long coinsRedeemed = 0;
+    
+    @Column(name = "coin_discount", nullable = false, precision = 10, scale = 2,
+            columnDefinition = "DECIMAL(10,2) DEFAULT 0")
+    private BigDecimal coinDiscount = BigDecimal.ZERO;
+    
+    // Set once StockReservationHandler has taken the items out of stock, cleared when it puts them back
+    @Column(name = "stock_reserved", nullable = false, columnDefinition = "BOOLEAN DEFAULT FALSE")
+    private boolean stockReserved = false;
+    
     // Shipping Address
     @Column(name = "shipping_first_name", length = 50)
     private String shippingFirstName;
@@ -116,7 +132,7 @@ public class Order {
     private LocalDateTime paidAt;
     
     @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
-    private Set<OrderItem> orderItems;
+    private Set<OrderItem> orderItems = new HashSet<>();
     
     public enum OrderStatus {
         PENDING, CONFIRMED, PROCESSING, SHIPPED, DELIVERED, CANCELLED, RETURNED
@@ -179,6 +195,15 @@ public class Order {
     public Integer getTotalItems() { return totalItems; }
     public void setTotalItems(Integer totalItems) { this.totalItems = totalItems; }
     
+    public long getCoinsRedeemed() { return coinsRedeemed; }
+    public void setCoinsRedeemed(long coinsRedeemed) { this.coinsRedeemed = coinsRedeemed; }
+    
+    public BigDecimal getCoinDiscount() { return coinDiscount; }
+    public void setCoinDiscount(BigDecimal coinDiscount) { this.coinDiscount = coinDiscount; }
+    
+    public boolean isStockReserved() { return stockReserved; }
+    public void setStockReserved(boolean stockReserved) { this.stockReserved = stockReserved; }
+    
     public String getShippingFirstName() { return shippingFirstName; }
     public void setShippingFirstName(String shippingFirstName) { this.shippingFirstName = shippingFirstName; }
     
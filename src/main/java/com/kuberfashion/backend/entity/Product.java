@@ -9,6 +9,7 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
@@ -55,6 +56,11 @@ public class Product {
     @Column(name = "image_url", length = 500)
     private List<String> images;
     
+    // Resized renditions of image and images, see ImageVariantService
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "product_image_variants", joinColumns = @JoinColumn(name = "product_id"))
+    private Set<ProductImageVariant> imageVariants = new HashSet<>();
+    
     @Column(nullable = false, precision = 2, scale = 1)
     private BigDecimal rating = BigDecimal.ZERO;
     
@@ -151,6 +157,9 @@ public class Product {
     public List<String> getImages() { return images; }
     public void setImages(List<String> images) { this.images = images; }
     
+    public Set<ProductImageVariant> getImageVariants() { return imageVariants; }
+    public void setImageVariants(Set<ProductImageVariant> imageVariants) { this.imageVariants = imageVariants; }
+    
     public BigDecimal getRating() { return rating; }
     public void setRating(BigDecimal rating) { this.rating = rating; }
     
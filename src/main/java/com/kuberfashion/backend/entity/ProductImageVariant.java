@@ -0,0 +1,55 @@
+package com.kuberfashion.backend.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+
+import java.util.Objects;
+
+/**
+ * Rendition of one of a product's images (main image or gallery), stored with the product.
+ */
+@Embeddable
+public class ProductImageVariant {
+
+    @Column(name = "original_url", nullable = false, length = 500)
+    private String originalUrl;
+
+    @Column(name = "variant", nullable = false, length = 20)
+    private String variant;
+
+    @Column(name = "url", nullable = false, length = 500)
+    private String url;
+
+    @Column(name = "width", nullable = false)
+    private int width;
+
+    public ProductImageVariant() {}
+
+    public ProductImageVariant(String originalUrl, String variant, String url, int width) {
+        this.originalUrl = originalUrl;
+        this.variant = variant;
+        this.url = url;
+        this.width = width;
+    }
+
+    public String getOriginalUrl() { return originalUrl; }
+    public void setOriginalUrl(String originalUrl) { this.originalUrl = originalUrl; }
+    public String getVariant() { return variant; }
+    public void setVariant(String variant) { this.variant = variant; }
+    public String getUrl() { return url; }
+    public void setUrl(String url) { this.url = url; }
+    public int getWidth() { return width; }
+    public void setWidth(int width) { this.width = width; }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ProductImageVariant that)) return false;
+        return Objects.equals(originalUrl, that.originalUrl) && Objects.equals(variant, that.variant);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(originalUrl, variant);
+    }
+}
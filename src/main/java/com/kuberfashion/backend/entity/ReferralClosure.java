@@ -0,0 +1,43 @@
+package com.kuberfashion.backend.entity;
+
+import jakarta.persistence.*;
+
+/**
+ * Transitive closure of referral_relations: one row per (ancestor, descendant) pair with the number of hops
+ * between them (1 = direct referrer). Self pairs are not stored.
+ */
+@Entity
+@Table(name = "referral_closure",
+        uniqueConstraints = {
+                @UniqueConstraint(name = "uk_referral_closure_pair", columnNames = {"ancestor_id", "descendant_id"})
+        },
+        indexes = {
+                @Index(name = "idx_referral_closure_desc", columnList = "descendant_id, depth"),
+                @Index(name = "idx_referral_closure_anc", columnList = "ancestor_id, depth")
+        })
+public class ReferralClosure {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "ancestor_id", nullable = false)
+    private Long ancestorId;
+
+    @Column(name = "descendant_id", nullable = false)
+    private Long descendantId;
+
+    @Column(name = "depth", nullable = false)
+    private int depth;
+
+    public ReferralClosure() {}
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public Long getAncestorId() { return ancestorId; }
+    public void setAncestorId(Long ancestorId) { this.ancestorId = ancestorId; }
+    public Long getDescendantId() { return descendantId; }
+    public void setDescendantId(Long descendantId) { this.descendantId = descendantId; }
+    public int getDepth() { return depth; }
+    public void setDepth(int depth) { this.depth = depth; }
+}
@@ -0,0 +1,91 @@
+package com.kuberfashion.backend.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Durable post-registration referral job: links the new user under the referrer and awards the upline.
+ * Enqueued in the registration transaction and processed asynchronously by ReferralRewardWorker.
+ */
+@Entity
+@Table(name = "referral_reward_jobs", indexes = {
+        @Index(name = "idx_referral_jobs_due", columnList = "status, next_attempt_at, id"),
+        @Index(name = "idx_referral_jobs_user", columnList = "user_id", unique = true)
+})
+public class ReferralRewardJob implements LeasedQueueItem {
+
+    public enum Status {
+        PENDING, PROCESSING, DONE, FAILED
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false, unique = true)
+    private Long userId;
+
+    @Column(name = "referral_code", nullable = false, length = 64)
+    private String referralCode;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private Status status = Status.PENDING;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts = 0;
+
+    // When PENDING: earliest retry time. When PROCESSING: lease expiry, after which the job is reclaimed.
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "processed_at")
+    private LocalDateTime processedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        this.createdAt = LocalDateTime.now();
+        if (this.nextAttemptAt == null) {
+            this.nextAttemptAt = this.createdAt;
+        }
+    }
+
+    public ReferralRewardJob() {}
+
+    public ReferralRewardJob(Long userId, String referralCode) {
+        this.userId = userId;
+        this.referralCode = referralCode;
+    }
+
+    @Override
+    public void lease(LocalDateTime until) {
+        this.status = Status.PROCESSING;
+        this.attempts++;
+        this.nextAttemptAt = until;
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+    public String getReferralCode() { return referralCode; }
+    public void setReferralCode(String referralCode) { this.referralCode = referralCode; }
+    public Status getStatus() { return status; }
+    public void setStatus(Status status) { this.status = status; }
+    public int getAttempts() { return attempts; }
+    public void setAttempts(int attempts) { this.attempts = attempts; }
+    public LocalDateTime getNextAttemptAt() { return nextAttemptAt; }
+    public void setNextAttemptAt(LocalDateTime nextAttemptAt) { this.nextAttemptAt = nextAttemptAt; }
+    public String getLastError() { return lastError; }
+    public void setLastError(String lastError) { this.lastError = lastError; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+    public LocalDateTime getProcessedAt() { return processedAt; }
+    public void setProcessedAt(LocalDateTime processedAt) { this.processedAt = processedAt; }
+}
@@ -0,0 +1,43 @@
+package com.kuberfashion.backend.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Per-user referral totals, incremented whenever ReferralService awards a coupon,
+ * so the referral page reads one row instead of counting coupon_transactions and the downline.
+ */
+@Entity
+@Table(name = "referral_summaries")
+public class ReferralSummary {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "coupons_earned", nullable = false)
+    private long couponsEarned = 0L;
+
+    @Column(name = "direct_referrals", nullable = false)
+    private long directReferrals = 0L;
+
+    // Referred users within the rewarded levels (one coupon per such user)
+    @Column(name = "downline_size", nullable = false)
+    private long downlineSize = 0L;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt = LocalDateTime.now();
+
+    public ReferralSummary() {}
+
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+    public long getCouponsEarned() { return couponsEarned; }
+    public void setCouponsEarned(long couponsEarned) { this.couponsEarned = couponsEarned; }
+    public long getDirectReferrals() { return directReferrals; }
+    public void setDirectReferrals(long directReferrals) { this.directReferrals = directReferrals; }
+    public long getDownlineSize() { return downlineSize; }
+    public void setDownlineSize(long downlineSize) { this.downlineSize = downlineSize; }
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
@@ -0,0 +1,69 @@
+package com.kuberfashion.backend.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Content-addressed index of uploaded objects: one row per distinct SHA-256 within a folder, with the number of
+ * uploads that resolved to it. Identical content uploaded to two folders is stored twice, so an object always
+ * lives under the folder it was uploaded to. The object is only removed from the bucket once its count drops to zero.
+ * Direct (presigned) uploads are registered without a hash and are never deduplicated.
+ */
+@Entity
+@Table(name = "stored_objects", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_stored_objects_folder_hash", columnNames = {"folder", "content_hash"}),
+        @UniqueConstraint(name = "uk_stored_objects_key", columnNames = "object_key")
+})
+public class StoredObject {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Key prefix, e.g. "products" for products/20250101_120000_ab12cd34.jpg; default lets ddl-auto add it to a populated table
+    @Column(name = "folder", nullable = false, columnDefinition = "VARCHAR(255) DEFAULT ''")
+    private String folder;
+
+    // Hex SHA-256 of the object bytes; null for direct uploads
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
+    @Column(name = "object_key", nullable = false, length = 500)
+    private String objectKey;
+
+    @Column(name = "size_bytes", nullable = false)
+    private long sizeBytes;
+
+    @Column(name = "content_type", length = 100)
+    private String contentType;
+
+    @Column(name = "ref_count", nullable = false)
+    private int refCount = 1;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "last_referenced_at", nullable = false)
+    private LocalDateTime lastReferencedAt;
+
+    public StoredObject() {}
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public String getFolder() { return folder; }
+    public void setFolder(String folder) { this.folder = folder; }
+    public String getContentHash() { return contentHash; }
+    public void setContentHash(String contentHash) { this.contentHash = contentHash; }
+    public String getObjectKey() { return objectKey; }
+    public void setObjectKey(String objectKey) { this.objectKey = objectKey; }
+    public long getSizeBytes() { return sizeBytes; }
+    public void setSizeBytes(long sizeBytes) { this.sizeBytes = sizeBytes; }
+    public String getContentType() { return contentType; }
+    public void setContentType(String contentType) { this.contentType = contentType; }
+    public int getRefCount() { return refCount; }
+    public void setRefCount(int refCount) { this.refCount = refCount; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+    public LocalDateTime getLastReferencedAt() { return lastReferencedAt; }
+    public void setLastReferencedAt(LocalDateTime lastReferencedAt) { this.lastReferencedAt = lastReferencedAt; }
+}
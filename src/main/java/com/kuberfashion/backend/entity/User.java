@@ -78,7 +78,9 @@ public class User implements UserDetails {
     @JsonIgnore
     private Set<WishlistItem> wishlistItems;
     
-    @Column(name = "kuber_coupons", nullable = false)
+    // Only ever changed by atomic UPDATEs (UserRepository.creditCoupon / addCoupons); saving a stale
+    // entity must not write an old count back
+    @Column(name = "kuber_coupons", nullable = false, updatable = false)
     private int kuberCoupons = 0;
     
     public enum Role {
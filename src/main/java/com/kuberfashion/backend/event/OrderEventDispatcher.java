@@ -0,0 +1,145 @@
+package com.kuberfashion.backend.event;
+
+import com.kuberfashion.backend.entity.OrderEvent;
+import com.kuberfashion.backend.repository.OrderEventRepository;
+import com.kuberfashion.backend.service.LeasedQueue;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Polls the order_events outbox and delivers due events to every registered {@link OrderEventHandler}.
+ *
+ * Claiming, leasing and retries are LeasedQueue's: events are leased in short transactions, handlers never
+ * run while holding database locks, and failures back off until max attempts, then park as FAILED.
+ */
+@Component
+public class OrderEventDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderEventDispatcher.class);
+
+    @Autowired
+    private OrderEventRepository orderEventRepository;
+
+    @Autowired(required = false)
+    private List<OrderEventHandler> handlers = new ArrayList<>();
+
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${orders.events.enabled:true}")
+    private boolean enabled;
+
+    @Value("${orders.events.batch-size:50}")
+    private int batchSize;
+
+    @Value("${orders.events.max-batches-per-poll:20}")
+    private int maxBatchesPerPoll;
+
+    @Value("${orders.events.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${orders.events.lease-seconds:60}")
+    private long leaseSeconds;
+
+    @Value("${orders.events.backoff-base-ms:1000}")
+    private long backoffBaseMs;
+
+    @Value("${orders.events.backoff-max-ms:300000}")
+    private long backoffMaxMs;
+
+    @Value("${orders.events.retention-days:7}")
+    private int retentionDays;
+
+    private LeasedQueue<OrderEvent> queue;
+
+    private final AtomicLong delivered = new AtomicLong();
+
+    public OrderEventDispatcher(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @PostConstruct
+    void init() {
+        queue = new LeasedQueue<>("order events", orderEventRepository, transactionTemplate,
+                new LeasedQueue.Settings(batchSize, maxBatchesPerPoll, maxAttempts, leaseSeconds,
+                        backoffBaseMs, backoffMaxMs, retentionDays),
+                event -> "Order event " + event.getId() + " (" + event.getEventType() + ")");
+    }
+
+    @Scheduled(fixedDelayString = "${orders.events.poll-interval-ms:1000}",
+               initialDelayString = "${orders.events.initial-delay-ms:10000}")
+    public void poll() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            queue.drain(this::dispatchBatch);
+        } catch (Exception e) {
+            logger.error("Order event dispatch failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Claims and delivers one batch of due events.
+     * @return number of events claimed
+     */
+    public int dispatchBatch() {
+        List<OrderEvent> claimed = queue.claim();
+        for (OrderEvent event : claimed) {
+            deliver(event);
+        }
+        return claimed.size();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("byStatus", queue.countByStatus(OrderEvent.Status.class));
+        stats.put("oldestUndeliveredAgeSeconds", queue.oldestOpenAgeSeconds());
+        stats.put("delivered", delivered.get());
+        stats.put("retried", queue.getRetried());
+        stats.put("deadLettered", queue.getDeadLettered());
+        stats.put("handlers", handlers.size());
+        return stats;
+    }
+
+    public int requeueFailed() {
+        return queue.requeueFailed();
+    }
+
+    @Scheduled(cron = "${orders.events.cleanup-cron:0 30 3 * * *}")
+    public void purgeDelivered() {
+        queue.purgeFinished();
+    }
+
+    private void deliver(OrderEvent event) {
+        try {
+            for (OrderEventHandler handler : handlers) {
+                if (handler.supports(event.getEventType())) {
+                    handler.handle(event);
+                }
+            }
+            Integer updated = transactionTemplate.execute(status ->
+                    orderEventRepository.markDelivered(event.getId(), event.getAttempts(), LocalDateTime.now()));
+            if (updated != null && updated > 0) {
+                delivered.incrementAndGet();
+            } else {
+                logger.warn("Order event {} lease expired before delivery was recorded; it will be redelivered", event.getId());
+            }
+        } catch (Exception e) {
+            queue.recordFailure(event, e);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.kuberfashion.backend.event;
+
+import com.kuberfashion.backend.entity.OrderEvent;
+
+/**
+ * In-process consumer of order lifecycle events published through the order_events outbox.
+ * Delivery is at-least-once: an event is redelivered to every supporting handler if any of them fails,
+ * so implementations must be idempotent (e.g. keyed on {@link OrderEvent#getId()}).
+ */
+public interface OrderEventHandler {
+
+    default boolean supports(OrderEvent.EventType eventType) {
+        return true;
+    }
+
+    void handle(OrderEvent event) throws Exception;
+}
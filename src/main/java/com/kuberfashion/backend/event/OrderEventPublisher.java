@@ -0,0 +1,51 @@
+package com.kuberfashion.backend.event;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kuberfashion.backend.entity.Order;
+import com.kuberfashion.backend.entity.OrderEvent;
+import com.kuberfashion.backend.repository.OrderEventRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Appends order lifecycle events to the outbox inside the caller's transaction,
+ * so an event exists if and only if the order change it describes committed.
+ */
+@Component
+public class OrderEventPublisher {
+
+    @Autowired
+    private OrderEventRepository orderEventRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publish(Order order, OrderEvent.EventType type, Map<String, Object> details) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("orderId", order.getId());
+        payload.put("orderNumber", order.getOrderNumber());
+        payload.put("userId", order.getUser() != null ? order.getUser().getId() : null);
+        payload.put("status", order.getStatus());
+        payload.put("paymentStatus", order.getPaymentStatus());
+        payload.put("totalAmount", order.getTotalAmount());
+        if (details != null) {
+            payload.putAll(details);
+        }
+        orderEventRepository.save(new OrderEvent(order.getId(), type, toJson(payload)));
+    }
+
+    private String toJson(Map<String, Object> payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize order event payload", e);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.kuberfashion.backend.event;
+
+import com.kuberfashion.backend.entity.Order;
+import com.kuberfashion.backend.entity.OrderEvent;
+import com.kuberfashion.backend.entity.OrderItem;
+import com.kuberfashion.backend.repository.OrderRepository;
+import com.kuberfashion.backend.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Keeps product stock in step with orders. Checkout reserves synchronously through {@link #reserve}, inside the
+ * order's own transaction, with a guarded decrement that never takes stock below zero; the checkout fails when a
+ * product has too few units left. Re-opening a cancelled order reserves the same way.
+ *
+ * Releasing on cancellation happens here, asynchronously. The handler reconciles against the order row rather than
+ * trusting the event: under the order's row lock it compares orders.stock_reserved with the current status, so a
+ * redelivered or out-of-order event changes nothing. Orders placed before reservations existed are never reserved
+ * and so never released.
+ */
+@Component
+public class StockReservationHandler implements OrderEventHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(StockReservationHandler.class);
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private final TransactionTemplate transactionTemplate;
+
+    public StockReservationHandler(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public boolean supports(OrderEvent.EventType eventType) {
+        return eventType == OrderEvent.EventType.ORDER_CANCELLED
+                || eventType == OrderEvent.EventType.ORDER_STATUS_CHANGED;
+    }
+
+    /**
+     * Takes the order's items out of stock in the caller's transaction and marks the order reserved.
+     * @throws IllegalArgumentException if a product has fewer units left than ordered; the caller's rollback
+     *         undoes any decrement already made
+     */
+    public void reserve(Order order) {
+        Map<Long, Integer> quantities = quantitiesOf(order);
+        quantities.forEach((productId, quantity) -> {
+            if (productRepository.reserveStock(productId, quantity) == 0) {
+                throw new IllegalArgumentException("Insufficient stock for product " + productNameOf(order, productId));
+            }
+        });
+        order.setStockReserved(true);
+        if (!quantities.isEmpty()) {
+            evictAfterCommit(quantities.keySet());
+        }
+    }
+
+    @Override
+    public void handle(OrderEvent event) {
+        Map<Long, Integer> released = transactionTemplate.execute(status -> release(event));
+        if (released != null && !released.isEmpty()) {
+            // After commit, so a concurrent read cannot re-cache the old stock level
+            evictProducts(released.keySet());
+        }
+    }
+
+    private Map<Long, Integer> release(OrderEvent event) {
+        Order order = orderRepository.findByIdForUpdate(event.getOrderId()).orElse(null);
+        if (order == null) {
+            logger.warn("Order {} for event {} no longer exists, stock left unchanged", event.getOrderId(), event.getId());
+            return Map.of();
+        }
+        if (!order.isStockReserved() || order.getStatus() != Order.OrderStatus.CANCELLED) {
+            return Map.of();
+        }
+
+        Map<Long, Integer> quantities = quantitiesOf(order);
+        quantities.forEach((productId, quantity) -> productRepository.adjustStock(productId, quantity));
+        order.setStockReserved(false);
+        orderRepository.save(order);
+
+        logger.info("Released stock for order {} ({} product(s))", order.getOrderNumber(), quantities.size());
+        return quantities;
+    }
+
+    // Product id order keeps concurrent reservations from deadlocking on the product rows
+    private static Map<Long, Integer> quantitiesOf(Order order) {
+        Map<Long, Integer> quantities = new TreeMap<>();
+        for (OrderItem item : order.getOrderItems()) {
+            if (item.getProduct() != null && item.getQuantity() != null) {
+                quantities.merge(item.getProduct().getId(), item.getQuantity(), Integer::sum);
+            }
+        }
+        return quantities;
+    }
+
+    private static String productNameOf(Order order, Long productId) {
+        for (OrderItem item : order.getOrderItems()) {
+            if (item.getProduct() != null && productId.equals(item.getProduct().getId())) {
+                return item.getProduct().getName();
+            }
+        }
+        return String.valueOf(productId);
+    }
+
+    private void evictAfterCommit(Set<Long> productIds) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evictProducts(productIds);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evictProducts(productIds);
+            }
+        });
+    }
+
+    private void evictProducts(Iterable<Long> productIds) {
+        Cache products = cacheManager.getCache("products");
+        if (products != null) {
+            productIds.forEach(products::evict);
+        }
+        Cache lists = cacheManager.getCache("products_list");
+        if (lists != null) {
+            lists.clear();
+        }
+    }
+}
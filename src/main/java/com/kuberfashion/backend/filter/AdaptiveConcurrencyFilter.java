@@ -0,0 +1,390 @@
+package com.kuberfashion.backend.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kuberfashion.backend.dto.ApiResponse;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.cors.CorsConfiguration;
+import org.springframework.web.cors.CorsConfigurationSource;
+import org.springframework.web.cors.CorsProcessor;
+import org.springframework.web.cors.DefaultCorsProcessor;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Adaptive concurrency limit per route group, with load shedding by priority.
+ *
+ * Requests are classified as CRITICAL (checkout: orders and cart), LOW (catalog listing, cache test, exports) or
+ * DEFAULT. Each group has its own in-flight limit, tuned from that group's latency in the style of Netflix's
+ * Gradient2: every window the average latency is compared with a slow-moving baseline, the limit shrinks in
+ * proportion when latency inflates and grows by about sqrt(limit) while it is flat, and server errors cut it
+ * multiplicatively (AIMD). A group is never measured against another group's latency profile.
+ *
+ * A request over its group's limit gets an immediate 503 with Retry-After. Lower-priority groups also yield while
+ * a higher-priority group is saturated or its latency is inflating, so browsing is shed before checkout slows.
+ * Runs ahead of Spring Security, so shed requests cost neither JWT validation nor a user lookup. That also puts it
+ * ahead of Security's CorsFilter, so a rejection applies the application's CORS configuration itself; otherwise
+ * browsers would report the 503 as a CORS failure and never see Retry-After.
+ *
+ * Off by default. Without an explicit initial limit each group starts at four times the primary connection pool:
+ * requests hold a connection for only part of their time, and starting near what the instance sustains avoids
+ * shedding healthy traffic while the limit climbs (it grows by about sqrt(limit) per window).
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class AdaptiveConcurrencyFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdaptiveConcurrencyFilter.class);
+
+    public enum Priority { CRITICAL, DEFAULT, LOW }
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    @Qualifier("corsConfigurationSource")
+    private CorsConfigurationSource corsConfigurationSource;
+
+    @Value("${concurrency.limiter.enabled:false}")
+    private boolean enabled;
+
+    // 0 = derive from the primary pool size
+    @Value("${concurrency.limiter.initial-limit:0}")
+    private int initialLimit;
+
+    @Value("${spring.datasource.hikari.maximum-pool-size:10}")
+    private int poolSize;
+
+    @Value("${concurrency.limiter.min-limit:4}")
+    private int minLimit;
+
+    @Value("${concurrency.limiter.max-limit:500}")
+    private int maxLimit;
+
+    // Latency may reach this multiple of the baseline before the limit starts to shrink
+    @Value("${concurrency.limiter.rtt-tolerance:1.5}")
+    private double rttTolerance;
+
+    @Value("${concurrency.limiter.smoothing:0.2}")
+    private double smoothing;
+
+    // Multiplicative decrease applied after a window with server errors
+    @Value("${concurrency.limiter.backoff-ratio:0.9}")
+    private double backoffRatio;
+
+    @Value("${concurrency.limiter.window-ms:1000}")
+    private long windowMs;
+
+    @Value("${concurrency.limiter.min-window-samples:10}")
+    private int minWindowSamples;
+
+    // Lower-priority groups are shed while a higher one's latency gradient is below this
+    @Value("${concurrency.limiter.shed-gradient:0.9}")
+    private double shedGradient;
+
+    @Value("${concurrency.limiter.critical-paths:/api/orders/**,/api/cart/**}")
+    private List<String> criticalPaths;
+
+    @Value("${concurrency.limiter.low-priority-paths:GET /api/products/**,/api/cache/test,/api/admin/orders/export}")
+    private List<String> lowPriorityPaths;
+
+    @Value("${concurrency.limiter.exempt-paths:/api/health,/api/test,/actuator/**}")
+    private List<String> exemptPaths;
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final CorsProcessor corsProcessor = new DefaultCorsProcessor();
+    private final Map<Priority, RouteGroup> groups = new EnumMap<>(Priority.class);
+    private List<Route> exemptRoutes;
+    private List<Route> criticalRoutes;
+    private List<Route> lowPriorityRoutes;
+
+    @PostConstruct
+    void init() {
+        if (initialLimit <= 0) {
+            initialLimit = poolSize * 4;
+        }
+        for (Priority priority : Priority.values()) {
+            groups.put(priority, new RouteGroup(priority));
+        }
+        exemptRoutes = Route.parseAll(exemptPaths);
+        criticalRoutes = Route.parseAll(criticalPaths);
+        lowPriorityRoutes = Route.parseAll(lowPriorityPaths);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled
+                || HttpMethod.OPTIONS.matches(request.getMethod())
+                || matches(exemptRoutes, request);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RouteGroup group = groups.get(classify(request));
+
+        for (Priority higher : Priority.values()) {
+            if (higher.ordinal() >= group.priority.ordinal()) break;
+            if (groups.get(higher).underPressure()) {
+                group.shedForPriority.increment();
+                reject(request, response, group);
+                return;
+            }
+        }
+        if (!group.tryAcquire()) {
+            group.shedOverLimit.increment();
+            reject(request, response, group);
+            return;
+        }
+
+        long start = System.nanoTime();
+        AtomicBoolean released = new AtomicBoolean();
+        boolean failed = true;
+        try {
+            chain.doFilter(request, response);
+            failed = false;
+        } finally {
+            if (!failed && request.isAsyncStarted()) {
+                // Streaming responses (e.g. exports) hold their slot until the async request completes
+                request.getAsyncContext().addListener(new AsyncListener() {
+                    @Override
+                    public void onComplete(AsyncEvent event) {
+                        complete(group, released, start, response.getStatus() >= 500);
+                    }
+
+                    @Override
+                    public void onTimeout(AsyncEvent event) {
+                        complete(group, released, start, true);
+                    }
+
+                    @Override
+                    public void onError(AsyncEvent event) {
+                        complete(group, released, start, true);
+                    }
+
+                    @Override
+                    public void onStartAsync(AsyncEvent event) {
+                    }
+                });
+            } else {
+                complete(group, released, start, failed || response.getStatus() >= 500);
+            }
+        }
+    }
+
+    /**
+     * Current limit, in-flight count, latency and shed counters per route group.
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("initialLimit", initialLimit);
+        for (RouteGroup group : groups.values()) {
+            stats.put(group.priority.name().toLowerCase(), group.stats());
+        }
+        return stats;
+    }
+
+    Priority classify(HttpServletRequest request) {
+        if (matches(criticalRoutes, request)) return Priority.CRITICAL;
+        if (matches(lowPriorityRoutes, request)) return Priority.LOW;
+        return Priority.DEFAULT;
+    }
+
+    private boolean matches(List<Route> routes, HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        for (Route route : routes) {
+            if ((route.method == null || route.method.equalsIgnoreCase(request.getMethod()))
+                    && pathMatcher.match(route.pattern, path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void complete(RouteGroup group, AtomicBoolean released, long start, boolean failed) {
+        if (released.compareAndSet(false, true)) {
+            group.release(System.nanoTime() - start, failed);
+        }
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response, RouteGroup group) throws IOException {
+        CorsConfiguration cors = corsConfigurationSource.getCorsConfiguration(request);
+        if (cors != null && !corsProcessor.processRequest(cors, request, response)) {
+            // Disallowed origin: the processor has already answered 403, as Security's CorsFilter would
+            return;
+        }
+        response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        response.setHeader("Retry-After", "1");
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(),
+                ApiResponse.error("Server is busy, please retry shortly", Map.of("routeGroup", group.priority.name())));
+    }
+
+    private record Route(String method, String pattern) {
+        // "GET /api/products/**" restricts to one method; a bare pattern matches any
+        static List<Route> parseAll(List<String> specs) {
+            List<Route> routes = new ArrayList<>();
+            for (String spec : specs) {
+                String s = spec.trim();
+                if (s.isEmpty()) continue;
+                int space = s.indexOf(' ');
+                routes.add(space > 0 ? new Route(s.substring(0, space), s.substring(space + 1).trim()) : new Route(null, s));
+            }
+            return routes;
+        }
+    }
+
+    /**
+     * Limit and latency state of one priority class. In-flight accounting is lock-free; the per-window limit
+     * update takes a ReentrantLock (not synchronized, so virtual threads are not pinned).
+     */
+    private final class RouteGroup {
+        final Priority priority;
+        final AtomicInteger inFlight = new AtomicInteger();
+        volatile int limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        volatile double gradient = 1.0;
+        volatile double baselineRttMs;
+        volatile double windowRttMs;
+        volatile long gradientUpdatedAt = System.nanoTime();
+
+        final LongAdder accepted = new LongAdder();
+        final LongAdder shedOverLimit = new LongAdder();
+        final LongAdder shedForPriority = new LongAdder();
+        final LongAdder errors = new LongAdder();
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private long windowStart = System.nanoTime();
+        private long windowSumNanos;
+        private int windowCount;
+        private int windowMaxInFlight;
+        private boolean windowFailed;
+
+        RouteGroup(Priority priority) {
+            this.priority = priority;
+        }
+
+        boolean tryAcquire() {
+            while (true) {
+                int current = inFlight.get();
+                if (current >= limit) {
+                    return false;
+                }
+                if (inFlight.compareAndSet(current, current + 1)) {
+                    accepted.increment();
+                    return true;
+                }
+            }
+        }
+
+        boolean underPressure() {
+            if (inFlight.get() >= limit) {
+                return true;
+            }
+            // A gradient from a window long past (the group went quiet) no longer says anything about load
+            return gradient < shedGradient && System.nanoTime() - gradientUpdatedAt < 2 * windowMs * 1_000_000L;
+        }
+
+        void release(long rttNanos, boolean failed) {
+            int inFlightAtCompletion = inFlight.getAndDecrement();
+            if (failed) {
+                errors.increment();
+            }
+            lock.lock();
+            try {
+                windowSumNanos += rttNanos;
+                windowCount++;
+                windowMaxInFlight = Math.max(windowMaxInFlight, inFlightAtCompletion);
+                windowFailed |= failed;
+                long now = System.nanoTime();
+                if (now - windowStart >= windowMs * 1_000_000L && windowCount >= minWindowSamples) {
+                    updateLimit();
+                    windowStart = now;
+                    windowSumNanos = 0;
+                    windowCount = 0;
+                    windowMaxInFlight = 0;
+                    windowFailed = false;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void updateLimit() {
+            double shortRtt = windowSumNanos / 1_000_000.0 / windowCount;
+            windowRttMs = shortRtt;
+            double baseline = baselineRttMs;
+            if (baseline == 0) {
+                baseline = shortRtt;
+            } else if (baseline / shortRtt > 2) {
+                // Latency has dropped well below the baseline (e.g. after recovery): let the baseline catch up faster
+                baseline = baseline * 0.5 + shortRtt * 0.5;
+            } else {
+                baseline = baseline * 0.95 + shortRtt * 0.05;
+            }
+            baselineRttMs = baseline;
+            gradientUpdatedAt = System.nanoTime();
+
+            int current = limit;
+            double newLimit;
+            if (windowFailed) {
+                newLimit = current * backoffRatio;
+                gradient = Math.min(gradient, backoffRatio);
+            } else if (windowMaxInFlight < current / 2) {
+                // Not using half the limit: latency says nothing about capacity, so leave the limit alone
+                gradient = 1.0;
+                return;
+            } else {
+                gradient = Math.max(0.5, Math.min(1.0, rttTolerance * baseline / shortRtt));
+                newLimit = current * gradient + Math.sqrt(current);
+            }
+            int updated = (int) Math.round(current * (1 - smoothing) + newLimit * smoothing);
+            updated = Math.max(minLimit, Math.min(maxLimit, updated));
+            if (updated != current) {
+                limit = updated;
+                logger.debug("Concurrency limit for {} routes {} -> {} (window {} ms, baseline {} ms)",
+                        priority, current, updated, Math.round(shortRtt), Math.round(baseline));
+            }
+        }
+
+        Map<String, Object> stats() {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("limit", limit);
+            stats.put("inFlight", inFlight.get());
+            stats.put("gradient", gradient);
+            stats.put("baselineRttMs", baselineRttMs);
+            stats.put("windowRttMs", windowRttMs);
+            stats.put("accepted", accepted.sum());
+            stats.put("shedOverLimit", shedOverLimit.sum());
+            stats.put("shedForPriority", shedForPriority.sum());
+            stats.put("errors", errors.sum());
+            return stats;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.kuberfashion.backend.repository;
 
+import com.kuberfashion.backend.dto.CartItemDto;
 import com.kuberfashion.backend.entity.CartItem;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
@@ -11,19 +12,23 @@ import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface CartItemRepository extends JpaRepository<CartItem, Long> {
+public interface CartItemRepository extends JpaRepository<CartItem, Long>, CartItemRepositoryCustom {
     
     List<CartItem> findByUserIdOrderByCreatedAtDesc(Long userId);
     
-    Optional<CartItem> findByIdAndUserId(Long id, Long userId);
+    // Cart read model: one statement per cart, no lazy product/category loads
+    String CART_VIEW_SELECT = "SELECT new com.kuberfashion.backend.dto.CartItemDto(" +
+           "c.id, p.id, c.quantity, c.selectedSize, c.selectedColor, p.name, p.image, p.price, cat.name, " +
+           "p.stockQuantity, p.inStock, p.active, c.priceAtAdd) " +
+           "FROM CartItem c JOIN c.product p JOIN p.category cat ";
+    
+    @Query(CART_VIEW_SELECT + "WHERE c.user.id = :userId ORDER BY c.createdAt DESC")
+    List<CartItemDto> findCartViewByUserId(@Param("userId") Long userId);
     
-    @Query("SELECT c FROM CartItem c WHERE c.user.id = :userId AND c.product.id = :productId AND " +
-           "(:size IS NULL OR c.selectedSize = :size) AND (:color IS NULL OR c.selectedColor = :color)")
-    Optional<CartItem> findByUserIdAndProductIdAndSizeAndColor(
-            @Param("userId") Long userId, 
-            @Param("productId") Long productId, 
-            @Param("size") String size, 
-            @Param("color") String color);
+    @Query(CART_VIEW_SELECT + "WHERE c.id = :id AND c.user.id = :userId")
+    Optional<CartItemDto> findCartViewByIdAndUserId(@Param("id") Long id, @Param("userId") Long userId);
+    
+    Optional<CartItem> findByIdAndUserId(Long id, Long userId);
     
     long countByUserId(Long userId);
     
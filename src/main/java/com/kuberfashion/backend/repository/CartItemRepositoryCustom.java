@@ -0,0 +1,21 @@
+package com.kuberfashion.backend.repository;
+
+import com.kuberfashion.backend.dto.CartItemDto;
+
+import java.util.List;
+
+public interface CartItemRepositoryCustom {
+
+    /**
+     * Insert a cart line or add to its quantity in a single statement.
+     * Size and color must already be normalized (never null).
+     * @return the cart line id, or null if the product does not exist
+     */
+    Long upsertLine(Long userId, Long productId, int quantity, String size, String color);
+
+    /**
+     * Batched variant of {@link #upsertLine}; lines are sent in one JDBC batch.
+     * @return product ids that did not exist and were skipped
+     */
+    List<Long> upsertLines(Long userId, List<CartItemDto> lines);
+}
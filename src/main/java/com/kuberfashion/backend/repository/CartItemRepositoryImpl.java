@@ -0,0 +1,94 @@
+package com.kuberfashion.backend.repository;
+
+import com.kuberfashion.backend.dto.CartItemDto;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Atomic cart line upsert backed by the uk_cart_items_line unique key.
+ * PostgreSQL uses INSERT ... ON CONFLICT; other databases (H2 in dev) use standard MERGE.
+ * Single-line upserts return the line id from the same statement (RETURNING on PostgreSQL,
+ * SELECT ... FROM FINAL TABLE (MERGE ...) on H2).
+ */
+public class CartItemRepositoryImpl implements CartItemRepositoryCustom {
+
+    private static final String PG_UPSERT_SQL =
+            "INSERT INTO cart_items (user_id, product_id, quantity, selected_size, selected_color, price_at_add, created_at, updated_at) " +
+            "SELECT ?, p.id, ?, ?, ?, p.price, ?, ? FROM products p WHERE p.id = ? " +
+            "ON CONFLICT (user_id, product_id, selected_size, selected_color) DO UPDATE SET " +
+            "quantity = cart_items.quantity + EXCLUDED.quantity, " +
+            "price_at_add = EXCLUDED.price_at_add, " +
+            "updated_at = EXCLUDED.updated_at";
+
+    private static final String MERGE_SQL =
+            "MERGE INTO cart_items c USING (" +
+            "SELECT CAST(? AS BIGINT) AS user_id, p.id AS product_id, CAST(? AS INTEGER) AS quantity, " +
+            "CAST(? AS VARCHAR(10)) AS selected_size, CAST(? AS VARCHAR(50)) AS selected_color, " +
+            "p.price AS price, CAST(? AS TIMESTAMP) AS ts FROM products p WHERE p.id = ?) s " +
+            "ON (c.user_id = s.user_id AND c.product_id = s.product_id " +
+            "AND c.selected_size = s.selected_size AND c.selected_color = s.selected_color) " +
+            "WHEN MATCHED THEN UPDATE SET quantity = c.quantity + s.quantity, price_at_add = s.price, updated_at = s.ts " +
+            "WHEN NOT MATCHED THEN INSERT (user_id, product_id, quantity, selected_size, selected_color, price_at_add, created_at, updated_at) " +
+            "VALUES (s.user_id, s.product_id, s.quantity, s.selected_size, s.selected_color, s.price, s.ts, s.ts)";
+
+    private static final String MERGE_RETURNING_SQL = "SELECT id FROM FINAL TABLE (" + MERGE_SQL + ")";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DatabaseDialect dialect;
+
+    public CartItemRepositoryImpl(JdbcTemplate jdbcTemplate, DatabaseDialect dialect) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dialect = dialect;
+    }
+
+    @Override
+    public Long upsertLine(Long userId, Long productId, int quantity, String size, String color) {
+        if (dialect.isPostgres()) {
+            List<Long> ids = jdbcTemplate.queryForList(PG_UPSERT_SQL + " RETURNING id", Long.class,
+                    upsertArgs(userId, productId, quantity, size, color));
+            return ids.isEmpty() ? null : ids.get(0);
+        }
+        List<Long> ids;
+        try {
+            ids = jdbcTemplate.queryForList(MERGE_RETURNING_SQL, Long.class,
+                    upsertArgs(userId, productId, quantity, size, color));
+        } catch (DuplicateKeyException e) {
+            // MERGE has no ON CONFLICT: a concurrent first insert of the same line wins the unique key.
+            // The line exists now, so running the statement again takes the MATCHED branch.
+            ids = jdbcTemplate.queryForList(MERGE_RETURNING_SQL, Long.class,
+                    upsertArgs(userId, productId, quantity, size, color));
+        }
+        return ids.isEmpty() ? null : ids.get(0);
+    }
+
+    @Override
+    public List<Long> upsertLines(Long userId, List<CartItemDto> lines) {
+        List<Object[]> batchArgs = new ArrayList<>(lines.size());
+        for (CartItemDto line : lines) {
+            batchArgs.add(upsertArgs(userId, line.getProductId(), line.getQuantity(),
+                    line.getSelectedSize(), line.getSelectedColor()));
+        }
+
+        int[] counts = jdbcTemplate.batchUpdate(dialect.isPostgres() ? PG_UPSERT_SQL : MERGE_SQL, batchArgs);
+
+        List<Long> missing = new ArrayList<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) {
+                missing.add(lines.get(i).getProductId());
+            }
+        }
+        return missing;
+    }
+
+    private Object[] upsertArgs(Long userId, Long productId, int quantity, String size, String color) {
+        LocalDateTime now = LocalDateTime.now();
+        if (dialect.isPostgres()) {
+            return new Object[]{userId, quantity, size, color, now, now, productId};
+        }
+        return new Object[]{userId, quantity, size, color, now, productId};
+    }
+}
@@ -11,7 +11,7 @@ import jakarta.persistence.LockModeType;
 import java.util.Optional;
 
 @Repository
-public interface CoinBalanceRepository extends JpaRepository<CoinBalance, Long> {
+public interface CoinBalanceRepository extends JpaRepository<CoinBalance, Long>, CoinBalanceRepositoryCustom {
 
     Optional<CoinBalance> findByUserId(Long userId);
 
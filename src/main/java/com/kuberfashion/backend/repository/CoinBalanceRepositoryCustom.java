@@ -0,0 +1,30 @@
+package com.kuberfashion.backend.repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+public interface CoinBalanceRepositoryCustom {
+
+    /**
+     * Creates zero balance rows for users that do not have one yet.
+     */
+    void ensureBalances(Collection<Long> userIds);
+
+    /**
+     * Locks the balance rows in ascending user_id order (FOR UPDATE) and returns user id -> balance.
+     * Every posting locks through here, so concurrent multi-account postings acquire locks in the same order.
+     */
+    Map<Long, Long> lockBalances(Collection<Long> userIds);
+
+    /**
+     * Adds the deltas to the snapshot balances in one JDBC batch, in ascending user_id order.
+     */
+    void applyDeltas(Map<Long, Long> deltas);
+
+    /**
+     * Reconciliation chunk: balances of users with user_id greater than afterUserId, ascending, at most limit rows.
+     * @return rows of [userId, balance]
+     */
+    List<long[]> findBalancesAfter(long afterUserId, int limit);
+}
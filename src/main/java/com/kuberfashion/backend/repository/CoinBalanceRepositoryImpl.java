@@ -0,0 +1,94 @@
+package com.kuberfashion.backend.repository;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * JDBC side of the coin ledger: balance snapshot rows are created, locked and updated in ascending user_id order.
+ * PostgreSQL uses INSERT ... ON CONFLICT; other databases (H2 in dev) use standard MERGE.
+ */
+public class CoinBalanceRepositoryImpl implements CoinBalanceRepositoryCustom {
+
+    private static final String PG_ENSURE_SQL =
+            "INSERT INTO coin_balances (user_id, balance, updated_at) VALUES (?, 0, ?) ON CONFLICT (user_id) DO NOTHING";
+
+    private static final String MERGE_ENSURE_SQL =
+            "MERGE INTO coin_balances b USING (SELECT CAST(? AS BIGINT) AS user_id, CAST(? AS TIMESTAMP) AS ts) s " +
+            "ON (b.user_id = s.user_id) " +
+            "WHEN NOT MATCHED THEN INSERT (user_id, balance, updated_at) VALUES (s.user_id, 0, s.ts)";
+
+    private static final String LOCK_SQL =
+            "SELECT user_id, balance FROM coin_balances WHERE user_id IN (:ids) ORDER BY user_id FOR UPDATE";
+
+    private static final String APPLY_SQL =
+            "UPDATE coin_balances SET balance = balance + ?, updated_at = ? WHERE user_id = ?";
+
+    private static final String CHUNK_SQL =
+            "SELECT user_id, balance FROM coin_balances WHERE user_id > ? ORDER BY user_id LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final DatabaseDialect dialect;
+
+    public CoinBalanceRepositoryImpl(JdbcTemplate jdbcTemplate, DatabaseDialect dialect) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dialect = dialect;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+    }
+
+    @Override
+    public void ensureBalances(Collection<Long> userIds) {
+        if (userIds.isEmpty()) return;
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> batchArgs = new ArrayList<>(userIds.size());
+        for (Long userId : new TreeSet<>(userIds)) {
+            batchArgs.add(new Object[]{userId, now});
+        }
+        if (dialect.isPostgres()) {
+            jdbcTemplate.batchUpdate(PG_ENSURE_SQL, batchArgs);
+            return;
+        }
+        try {
+            jdbcTemplate.batchUpdate(MERGE_ENSURE_SQL, batchArgs);
+        } catch (DuplicateKeyException e) {
+            // A concurrent posting created the same first row between MERGE's match and its insert.
+            // The statement only inserts missing rows, so running the batch again is a no-op for existing ones.
+            jdbcTemplate.batchUpdate(MERGE_ENSURE_SQL, batchArgs);
+        }
+    }
+
+    @Override
+    public Map<Long, Long> lockBalances(Collection<Long> userIds) {
+        Map<Long, Long> balances = new LinkedHashMap<>();
+        if (userIds.isEmpty()) return balances;
+        namedJdbcTemplate.query(LOCK_SQL, new MapSqlParameterSource("ids", new TreeSet<>(userIds)),
+                rs -> { balances.put(rs.getLong(1), rs.getLong(2)); });
+        return balances;
+    }
+
+    @Override
+    public void applyDeltas(Map<Long, Long> deltas) {
+        if (deltas.isEmpty()) return;
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> batchArgs = new ArrayList<>(deltas.size());
+        new TreeMap<>(deltas).forEach((userId, delta) -> batchArgs.add(new Object[]{delta, now, userId}));
+        jdbcTemplate.batchUpdate(APPLY_SQL, batchArgs);
+    }
+
+    @Override
+    public List<long[]> findBalancesAfter(long afterUserId, int limit) {
+        return jdbcTemplate.query(CHUNK_SQL, (rs, i) -> new long[]{rs.getLong(1), rs.getLong(2)}, afterUserId, limit);
+    }
+}
@@ -1,6 +1,9 @@
 package com.kuberfashion.backend.repository;
 
+import com.kuberfashion.backend.dto.CoinTransactionDto;
 import com.kuberfashion.backend.entity.CoinTransaction;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -9,10 +12,14 @@ import org.springframework.stereotype.Repository;
 import java.util.List;
 
 @Repository
-public interface CoinTransactionRepository extends JpaRepository<CoinTransaction, Long> {
+public interface CoinTransactionRepository extends JpaRepository<CoinTransaction, Long>, CoinTransactionRepositoryCustom {
 
     List<CoinTransaction> findByUserIdOrderByCreatedAtDesc(Long userId);
 
+    @Query("SELECT new com.kuberfashion.backend.dto.CoinTransactionDto(ct.id, ct.type, ct.amount, ct.level, ct.reason, ct.createdAt) " +
+           "FROM CoinTransaction ct WHERE ct.user.id = :userId ORDER BY ct.id DESC")
+    Page<CoinTransactionDto> findHistoryByUserId(@Param("userId") Long userId, Pageable pageable);
+
     @Query("SELECT COALESCE(SUM(ct.amount),0) FROM CoinTransaction ct WHERE ct.user.id = :userId AND ct.type = 'EARN'")
     long sumEarnedByUser(@Param("userId") Long userId);
 
@@ -0,0 +1,20 @@
+package com.kuberfashion.backend.repository;
+
+import com.kuberfashion.backend.dto.CoinPosting;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+public interface CoinTransactionRepositoryCustom {
+
+    /**
+     * Inserts all postings in one JDBC batch.
+     */
+    void insertPostings(List<CoinPosting> postings);
+
+    /**
+     * Sum of transaction amounts per user for the given users (users without transactions are absent).
+     */
+    Map<Long, Long> sumAmountsByUser(Collection<Long> userIds);
+}
@@ -0,0 +1,53 @@
+package com.kuberfashion.backend.repository;
+
+import com.kuberfashion.backend.dto.CoinPosting;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class CoinTransactionRepositoryImpl implements CoinTransactionRepositoryCustom {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO coin_transactions (user_id, source_user_id, type, amount, level, reason, created_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String SUM_SQL =
+            "SELECT user_id, SUM(amount) FROM coin_transactions WHERE user_id IN (:ids) GROUP BY user_id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    public CoinTransactionRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+    }
+
+    @Override
+    public void insertPostings(List<CoinPosting> postings) {
+        if (postings.isEmpty()) return;
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> batchArgs = new ArrayList<>(postings.size());
+        for (CoinPosting p : postings) {
+            batchArgs.add(new Object[]{p.getUserId(), p.getSourceUserId(), p.getType().name(), p.getAmount(),
+                    p.getLevel(), p.getReason(), now});
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, batchArgs);
+    }
+
+    @Override
+    public Map<Long, Long> sumAmountsByUser(Collection<Long> userIds) {
+        Map<Long, Long> sums = new HashMap<>();
+        if (userIds.isEmpty()) return sums;
+        namedJdbcTemplate.query(SUM_SQL, new MapSqlParameterSource("ids", userIds),
+                rs -> { sums.put(rs.getLong(1), rs.getLong(2)); });
+        return sums;
+    }
+}
@@ -7,7 +7,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface CouponTransactionRepository extends JpaRepository<CouponTransaction, Long> {
+public interface CouponTransactionRepository extends JpaRepository<CouponTransaction, Long>, CouponTransactionRepositoryCustom {
 
     @Query("SELECT COUNT(ct) FROM CouponTransaction ct WHERE ct.user.id = :userId")
     long countCouponsByUser(@Param("userId") Long userId);
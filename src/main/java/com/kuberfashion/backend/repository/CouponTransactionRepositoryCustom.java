@@ -0,0 +1,12 @@
+package com.kuberfashion.backend.repository;
+
+import java.util.Map;
+
+public interface CouponTransactionRepositoryCustom {
+
+    /**
+     * Inserts one coupon transaction per awarded user in a single JDBC batch.
+     * @param levelByUserId awarded user id -> referral level (1 = direct referrer)
+     */
+    void insertAwards(Long sourceUserId, Map<Long, Integer> levelByUserId);
+}
@@ -0,0 +1,34 @@
+package com.kuberfashion.backend.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JDBC-batched coupon ledger inserts. IDENTITY keys stop Hibernate from batching entity inserts,
+ * so the award path writes all ancestors' rows in one round trip here instead.
+ */
+public class CouponTransactionRepositoryImpl implements CouponTransactionRepositoryCustom {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO coupon_transactions (user_id, source_user_id, level, created_at) VALUES (?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public CouponTransactionRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void insertAwards(Long sourceUserId, Map<Long, Integer> levelByUserId) {
+        if (levelByUserId.isEmpty()) return;
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> batchArgs = new ArrayList<>(levelByUserId.size());
+        levelByUserId.forEach((userId, level) -> batchArgs.add(new Object[]{userId, sourceUserId, level, now}));
+        jdbcTemplate.batchUpdate(INSERT_SQL, batchArgs);
+    }
+}
@@ -0,0 +1,32 @@
+package com.kuberfashion.backend.repository;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Which SQL dialect the JDBC repository fragments should speak. PostgreSQL gets its native forms
+ * (INSERT ... ON CONFLICT, date_trunc); anything else (H2 in dev) gets standard MERGE.
+ * The product name is read from connection metadata once, on first use.
+ */
+@Component
+public class DatabaseDialect {
+
+    private final JdbcTemplate jdbcTemplate;
+    private volatile Boolean postgres;
+
+    public DatabaseDialect(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public boolean isPostgres() {
+        Boolean pg = postgres;
+        if (pg == null) {
+            String product = jdbcTemplate.execute((ConnectionCallback<String>) con ->
+                    con.getMetaData().getDatabaseProductName());
+            pg = product != null && product.toLowerCase().contains("postgresql");
+            postgres = pg;
+        }
+        return pg;
+    }
+}
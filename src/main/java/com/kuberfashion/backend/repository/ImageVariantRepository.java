@@ -0,0 +1,26 @@
+package com.kuberfashion.backend.repository;
+
+import com.kuberfashion.backend.entity.ImageVariant;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ImageVariantRepository extends JpaRepository<ImageVariant, Long> {
+
+    List<ImageVariant> findByOriginalUrlIn(Collection<String> originalUrls);
+
+    @Modifying
+    @Query("DELETE FROM ImageVariant v WHERE v.originalUrl = :originalUrl")
+    int deleteByOriginalUrl(@Param("originalUrl") String originalUrl);
+
+    // Registry rows of removed objects, whether they were the original or the rendition
+    @Modifying
+    @Query("DELETE FROM ImageVariant v WHERE v.originalUrl IN :urls OR v.url IN :urls")
+    int deleteByUrlIn(@Param("urls") Collection<String> urls);
+}
@@ -0,0 +1,60 @@
+package com.kuberfashion.backend.repository;
+
+import com.kuberfashion.backend.entity.LeasedQueueItem;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.NoRepositoryBean;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Queries shared by the leased work queues. Status literals are the names every queue's Status enum has in
+ * common (PENDING, PROCESSING, FAILED); how a row finishes is left to the concrete repository.
+ */
+@NoRepositoryBean
+public interface LeasedQueueRepository<T extends LeasedQueueItem> extends JpaRepository<T, Long> {
+
+    // Due rows (pending retries and expired PROCESSING leases), locked so concurrent pollers skip each other's rows
+    // (lock timeout -2 is Hibernate's SKIP LOCKED)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT e FROM #{#entityName} e WHERE e.status IN ('PENDING', 'PROCESSING') AND e.nextAttemptAt <= :now " +
+           "ORDER BY e.id")
+    List<T> lockDue(@Param("now") LocalDateTime now, Limit limit);
+
+    // Outcome updates are fenced on attempts so a poller whose lease expired cannot overwrite a newer claim
+    @Modifying
+    @Query("UPDATE #{#entityName} e SET e.status = 'PENDING', e.nextAttemptAt = :nextAttemptAt, e.lastError = :error " +
+           "WHERE e.id = :id AND e.attempts = :attempts AND e.status = 'PROCESSING'")
+    int markRetry(@Param("id") Long id, @Param("attempts") int attempts,
+                  @Param("nextAttemptAt") LocalDateTime nextAttemptAt, @Param("error") String error);
+
+    @Modifying
+    @Query("UPDATE #{#entityName} e SET e.status = 'FAILED', e.lastError = :error " +
+           "WHERE e.id = :id AND e.attempts = :attempts AND e.status = 'PROCESSING'")
+    int markDeadLettered(@Param("id") Long id, @Param("attempts") int attempts, @Param("error") String error);
+
+    @Query("SELECT e.status, COUNT(e) FROM #{#entityName} e GROUP BY e.status")
+    List<Object[]> countByStatus();
+
+    @Query("SELECT MIN(e.createdAt) FROM #{#entityName} e WHERE e.status IN ('PENDING', 'PROCESSING')")
+    LocalDateTime findOldestOpenCreatedAt();
+
+    @Modifying
+    @Query("UPDATE #{#entityName} e SET e.status = 'PENDING', e.attempts = 0, e.nextAttemptAt = :now, e.lastError = NULL " +
+           "WHERE e.status = 'FAILED'")
+    int requeueFailed(@Param("now") LocalDateTime now);
+
+    // processed_at is only set when a row finishes successfully
+    @Modifying
+    @Query("DELETE FROM #{#entityName} e WHERE e.processedAt < :cutoff")
+    int deleteFinishedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
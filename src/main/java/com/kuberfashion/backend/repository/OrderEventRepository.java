@@ -0,0 +1,19 @@
+package com.kuberfashion.backend.repository;
+
+import com.kuberfashion.backend.entity.OrderEvent;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface OrderEventRepository extends LeasedQueueRepository<OrderEvent> {
+
+    // Fenced on attempts like every outcome update (see LeasedQueueRepository)
+    @Modifying
+    @Query("UPDATE OrderEvent e SET e.status = 'DELIVERED', e.processedAt = :now, e.lastError = NULL " +
+           "WHERE e.id = :id AND e.attempts = :attempts AND e.status = 'PROCESSING'")
+    int markDelivered(@Param("id") Long id, @Param("attempts") int attempts, @Param("now") LocalDateTime now);
+}
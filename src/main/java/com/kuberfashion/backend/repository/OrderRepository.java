@@ -1,20 +1,24 @@
 package com.kuberfashion.backend.repository;
 
+import com.kuberfashion.backend.dto.OrderSummaryDto;
 import com.kuberfashion.backend.entity.Order;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.LockModeType;
+
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface OrderRepository extends JpaRepository<Order, Long> {
+public interface OrderRepository extends JpaRepository<Order, Long>, OrderRepositoryCustom {
     
     Optional<Order> findByOrderNumber(String orderNumber);
     
@@ -27,6 +31,40 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     @Query("SELECT o FROM Order o WHERE o.id = :orderId AND o.user.id = :userId")
     Optional<Order> findByIdAndUserId(@Param("orderId") Long orderId, @Param("userId") Long userId);
     
+    // Status transitions lock the row so the previous status/payment status they roll up from cannot go stale
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM Order o WHERE o.id = :orderId")
+    Optional<Order> findByIdForUpdate(@Param("orderId") Long orderId);
+    
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM Order o WHERE o.id = :orderId AND o.user.id = :userId")
+    Optional<Order> findByIdAndUserIdForUpdate(@Param("orderId") Long orderId, @Param("userId") Long userId);
+    
+    // Order history read model: keyset pagination on (createdAt, id), served by idx_orders_user_created
+    String ORDER_SUMMARY_SELECT = "SELECT new com.kuberfashion.backend.dto.OrderSummaryDto(" +
+           "o.id, o.orderNumber, o.status, o.paymentStatus, o.subtotal, o.totalAmount, " +
+           "(SELECT COALESCE(SUM(oi.quantity), 0) FROM OrderItem oi WHERE oi.order = o), " +
+           "(SELECT fp.image FROM OrderItem fi JOIN fi.product fp WHERE fi.id = " +
+           "(SELECT MIN(mi.id) FROM OrderItem mi WHERE mi.order = o)), " +
+           "o.createdAt) FROM Order o ";
+    
+    @Query(ORDER_SUMMARY_SELECT + "WHERE o.user.id = :userId ORDER BY o.createdAt DESC, o.id DESC")
+    List<OrderSummaryDto> findSummariesByUserId(@Param("userId") Long userId, Pageable pageable);
+    
+    @Query(ORDER_SUMMARY_SELECT + "WHERE o.user.id = :userId AND " +
+           "(o.createdAt < :createdAt OR (o.createdAt = :createdAt AND o.id < :id)) " +
+           "ORDER BY o.createdAt DESC, o.id DESC")
+    List<OrderSummaryDto> findSummariesByUserIdBefore(@Param("userId") Long userId,
+                                                      @Param("createdAt") LocalDateTime createdAt,
+                                                      @Param("id") Long id,
+                                                      Pageable pageable);
+    
+    @Query("SELECT DISTINCT o FROM Order o " +
+           "LEFT JOIN FETCH o.orderItems oi " +
+           "LEFT JOIN FETCH oi.product " +
+           "WHERE o.id = :orderId AND o.user.id = :userId")
+    Optional<Order> findDetailByIdAndUserId(@Param("orderId") Long orderId, @Param("userId") Long userId);
+    
     Page<Order> findAllByOrderByCreatedAtDesc(Pageable pageable);
     
     List<Order> findByStatusOrderByCreatedAtDesc(Order.OrderStatus status);
@@ -45,6 +83,12 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     BigDecimal getRevenueByDateRange(@Param("startDate") LocalDateTime startDate, 
                                    @Param("endDate") LocalDateTime endDate);
     
+    // Half-open [startDate, endDate): the leading partial hour in front of the rollup-covered hours
+    @Query("SELECT SUM(o.totalAmount) FROM Order o WHERE o.paymentStatus = 'PAID' AND " +
+           "o.createdAt >= :startDate AND o.createdAt < :endDate")
+    BigDecimal getRevenueByHalfOpenRange(@Param("startDate") LocalDateTime startDate,
+                                      @Param("endDate") LocalDateTime endDate);
+    
     @Query("SELECT COUNT(o) FROM Order o WHERE o.createdAt BETWEEN :startDate AND :endDate")
     long countOrdersByDateRange(@Param("startDate") LocalDateTime startDate, 
                               @Param("endDate") LocalDateTime endDate);
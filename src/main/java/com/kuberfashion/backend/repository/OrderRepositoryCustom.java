@@ -0,0 +1,23 @@
+package com.kuberfashion.backend.repository;
+
+import com.kuberfashion.backend.dto.AdminOrderFilter;
+import com.kuberfashion.backend.dto.AdminOrderRowDto;
+import com.kuberfashion.backend.dto.CursorPage;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface OrderRepositoryCustom {
+
+    /**
+     * Keyset page of admin order rows, newest first.
+     * @param after cursor of the last row of the previous page, or null for the first page
+     */
+    List<AdminOrderRowDto> searchAdminOrders(AdminOrderFilter filter, CursorPage.Cursor after, int limit);
+
+    /**
+     * Forward-only stream of all matching rows, newest first. Must be consumed (and closed)
+     * inside a transaction; rows are fetched from a server-side cursor in chunks.
+     */
+    Stream<AdminOrderRowDto> streamAdminOrders(AdminOrderFilter filter, int fetchSize);
+}
@@ -0,0 +1,103 @@
+package com.kuberfashion.backend.repository;
+
+import com.kuberfashion.backend.dto.AdminOrderFilter;
+import com.kuberfashion.backend.dto.AdminOrderRowDto;
+import com.kuberfashion.backend.dto.CursorPage;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.jpa.AvailableHints;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Admin order search. Predicates are only added for the filters that are set, so PostgreSQL
+ * can use the trigram indexes on email/phone/order number and idx_orders_created_id for ordering.
+ * The text search is a UNION of three single-column lookups rather than one OR across the join:
+ * an OR spanning users and orders cannot be answered from either table's index.
+ */
+public class OrderRepositoryImpl implements OrderRepositoryCustom {
+
+    private static final String ROW_SELECT = "SELECT new com.kuberfashion.backend.dto.AdminOrderRowDto(" +
+            "o.id, o.orderNumber, o.status, o.paymentStatus, o.paymentMethod, o.totalAmount, o.createdAt, " +
+            "u.id, u.email, u.phone) FROM Order o JOIN o.user u";
+
+    private static final String ORDER_BY = " ORDER BY o.createdAt DESC, o.id DESC";
+
+    // Each branch filters one column, so each can use its own trigram index
+    private static final String TEXT_MATCH_IDS =
+            "SELECT eo.id FROM Order eo JOIN eo.user eu WHERE LOWER(eu.email) LIKE :q ESCAPE '\\' " +
+            "UNION SELECT po.id FROM Order po JOIN po.user pu WHERE pu.phone LIKE :q ESCAPE '\\' " +
+            "UNION SELECT oo.id FROM Order oo WHERE LOWER(oo.orderNumber) LIKE :q ESCAPE '\\'";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<AdminOrderRowDto> searchAdminOrders(AdminOrderFilter filter, CursorPage.Cursor after, int limit) {
+        Map<String, Object> params = new HashMap<>();
+        StringBuilder where = buildWhere(filter, params);
+        if (after != null) {
+            and(where).append("(o.createdAt < :afterCreatedAt OR (o.createdAt = :afterCreatedAt AND o.id < :afterId))");
+            params.put("afterCreatedAt", after.getCreatedAt());
+            params.put("afterId", after.getId());
+        }
+
+        TypedQuery<AdminOrderRowDto> query = entityManager.createQuery(toJpql(where), AdminOrderRowDto.class);
+        params.forEach(query::setParameter);
+        return query.setMaxResults(limit).getResultList();
+    }
+
+    @Override
+    public Stream<AdminOrderRowDto> streamAdminOrders(AdminOrderFilter filter, int fetchSize) {
+        Map<String, Object> params = new HashMap<>();
+        StringBuilder where = buildWhere(filter, params);
+
+        TypedQuery<AdminOrderRowDto> query = entityManager.createQuery(toJpql(where), AdminOrderRowDto.class);
+        params.forEach(query::setParameter);
+        query.setHint(AvailableHints.HINT_FETCH_SIZE, fetchSize);
+        query.setHint(AvailableHints.HINT_READ_ONLY, true);
+        return query.getResultStream();
+    }
+
+    private StringBuilder buildWhere(AdminOrderFilter filter, Map<String, Object> params) {
+        StringBuilder where = new StringBuilder();
+        if (filter == null) return where;
+        if (filter.getStatus() != null) {
+            and(where).append("o.status = :status");
+            params.put("status", filter.getStatus());
+        }
+        if (filter.getPaymentStatus() != null) {
+            and(where).append("o.paymentStatus = :paymentStatus");
+            params.put("paymentStatus", filter.getPaymentStatus());
+        }
+        if (filter.getQ() != null) {
+            and(where).append("o.id IN (").append(TEXT_MATCH_IDS).append(")");
+            params.put("q", "%" + escapeLike(filter.getQ().toLowerCase()) + "%");
+        }
+        if (filter.getFrom() != null) {
+            and(where).append("o.createdAt >= :from");
+            params.put("from", filter.getFrom());
+        }
+        if (filter.getTo() != null) {
+            and(where).append("o.createdAt < :to");
+            params.put("to", filter.getTo());
+        }
+        return where;
+    }
+
+    private String toJpql(StringBuilder where) {
+        return ROW_SELECT + (where.length() > 0 ? " WHERE " + where : "") + ORDER_BY;
+    }
+
+    private StringBuilder and(StringBuilder where) {
+        return where.length() > 0 ? where.append(" AND ") : where;
+    }
+
+    private String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
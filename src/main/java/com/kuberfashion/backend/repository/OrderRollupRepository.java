@@ -0,0 +1,42 @@
+package com.kuberfashion.backend.repository;
+
+import com.kuberfashion.backend.entity.Order;
+import com.kuberfashion.backend.entity.OrderRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OrderRollupRepository extends JpaRepository<OrderRollup, Long>, OrderRollupRepositoryCustom {
+
+    @Query("SELECT COALESCE(SUM(r.revenue), 0) FROM OrderRollup r " +
+           "WHERE r.granularity = :granularity AND r.paymentStatus = :paymentStatus")
+    BigDecimal sumRevenue(@Param("granularity") OrderRollup.Granularity granularity,
+                          @Param("paymentStatus") Order.PaymentStatus paymentStatus);
+
+    @Query("SELECT COALESCE(SUM(r.revenue), 0) FROM OrderRollup r " +
+           "WHERE r.granularity = :granularity AND r.paymentStatus = :paymentStatus " +
+           "AND r.bucketStart >= :from AND r.bucketStart < :to")
+    BigDecimal sumRevenueBetween(@Param("granularity") OrderRollup.Granularity granularity,
+                                 @Param("paymentStatus") Order.PaymentStatus paymentStatus,
+                                 @Param("from") LocalDateTime from,
+                                 @Param("to") LocalDateTime to);
+
+    @Query("SELECT COALESCE(SUM(r.orderCount), 0) FROM OrderRollup r WHERE r.granularity = :granularity")
+    long sumOrderCount(@Param("granularity") OrderRollup.Granularity granularity);
+
+    @Query("SELECT COALESCE(SUM(r.orderCount), 0) FROM OrderRollup r " +
+           "WHERE r.granularity = :granularity AND r.status = :status")
+    long sumOrderCountByStatus(@Param("granularity") OrderRollup.Granularity granularity,
+                               @Param("status") Order.OrderStatus status);
+
+    // Dashboard breakdown: one row per (status, paymentStatus) -> [status, paymentStatus, count, revenue]
+    @Query("SELECT r.status, r.paymentStatus, SUM(r.orderCount), SUM(r.revenue) FROM OrderRollup r " +
+           "WHERE r.granularity = :granularity GROUP BY r.status, r.paymentStatus")
+    List<Object[]> summarizeByStatus(@Param("granularity") OrderRollup.Granularity granularity);
+}
@@ -0,0 +1,60 @@
+package com.kuberfashion.backend.repository;
+
+import com.kuberfashion.backend.entity.Order;
+import com.kuberfashion.backend.entity.OrderRollup;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface OrderRollupRepositoryCustom {
+
+    /**
+     * Atomically adds the given deltas to each bucket row, creating rows that do not exist yet.
+     * Rows are applied in key order so concurrent transitions lock them in the same sequence.
+     */
+    void applyDeltas(List<Delta> deltas);
+
+    /**
+     * Replaces every rollup row with a fresh aggregate over the orders table.
+     * @return number of rollup rows written
+     */
+    int rebuildFromOrders();
+
+    final class Delta implements Comparable<Delta> {
+        private final OrderRollup.Granularity granularity;
+        private final LocalDateTime bucketStart;
+        private final Order.OrderStatus status;
+        private final Order.PaymentStatus paymentStatus;
+        private final long countDelta;
+        private final BigDecimal revenueDelta;
+
+        public Delta(OrderRollup.Granularity granularity, LocalDateTime bucketStart, Order.OrderStatus status,
+                     Order.PaymentStatus paymentStatus, long countDelta, BigDecimal revenueDelta) {
+            this.granularity = granularity;
+            this.bucketStart = bucketStart;
+            this.status = status;
+            this.paymentStatus = paymentStatus;
+            this.countDelta = countDelta;
+            this.revenueDelta = revenueDelta;
+        }
+
+        public OrderRollup.Granularity getGranularity() { return granularity; }
+        public LocalDateTime getBucketStart() { return bucketStart; }
+        public Order.OrderStatus getStatus() { return status; }
+        public Order.PaymentStatus getPaymentStatus() { return paymentStatus; }
+        public long getCountDelta() { return countDelta; }
+        public BigDecimal getRevenueDelta() { return revenueDelta; }
+
+        @Override
+        public int compareTo(Delta o) {
+            int c = granularity.compareTo(o.granularity);
+            if (c != 0) return c;
+            c = bucketStart.compareTo(o.bucketStart);
+            if (c != 0) return c;
+            c = status.compareTo(o.status);
+            if (c != 0) return c;
+            return paymentStatus.compareTo(o.paymentStatus);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.kuberfashion.backend.repository;
+
+import com.kuberfashion.backend.entity.OrderRollup;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Incremental maintenance of order_rollups backed by the uk_order_rollups_bucket unique key.
+ * PostgreSQL uses INSERT ... ON CONFLICT; other databases (H2 in dev) use standard MERGE.
+ */
+public class OrderRollupRepositoryImpl implements OrderRollupRepositoryCustom {
+
+    private static final String PG_UPSERT_SQL =
+            "INSERT INTO order_rollups (granularity, bucket_start, status, payment_status, order_count, revenue, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT (granularity, bucket_start, status, payment_status) DO UPDATE SET " +
+            "order_count = order_rollups.order_count + EXCLUDED.order_count, " +
+            "revenue = order_rollups.revenue + EXCLUDED.revenue, " +
+            "updated_at = EXCLUDED.updated_at";
+
+    private static final String MERGE_SQL =
+            "MERGE INTO order_rollups r USING (" +
+            "SELECT CAST(? AS VARCHAR(10)) AS granularity, CAST(? AS TIMESTAMP) AS bucket_start, " +
+            "CAST(? AS VARCHAR(20)) AS status, CAST(? AS VARCHAR(20)) AS payment_status, " +
+            "CAST(? AS BIGINT) AS order_count, CAST(? AS DECIMAL(14,2)) AS revenue, CAST(? AS TIMESTAMP) AS ts) s " +
+            "ON (r.granularity = s.granularity AND r.bucket_start = s.bucket_start " +
+            "AND r.status = s.status AND r.payment_status = s.payment_status) " +
+            "WHEN MATCHED THEN UPDATE SET order_count = r.order_count + s.order_count, " +
+            "revenue = r.revenue + s.revenue, updated_at = s.ts " +
+            "WHEN NOT MATCHED THEN INSERT (granularity, bucket_start, status, payment_status, order_count, revenue, updated_at) " +
+            "VALUES (s.granularity, s.bucket_start, s.status, s.payment_status, s.order_count, s.revenue, s.ts)";
+
+    // %s is the bucket expression: date_trunc('day', ...) on PostgreSQL, DATE_TRUNC(DAY, ...) on H2
+    private static final String REBUILD_SQL =
+            "INSERT INTO order_rollups (granularity, bucket_start, status, payment_status, order_count, revenue, updated_at) " +
+            "SELECT ?, %1$s, o.status, COALESCE(o.payment_status, 'PENDING'), " +
+            "COUNT(*), COALESCE(SUM(o.total_amount), 0), ? FROM orders o " +
+            "GROUP BY %1$s, o.status, COALESCE(o.payment_status, 'PENDING')";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DatabaseDialect dialect;
+
+    public OrderRollupRepositoryImpl(JdbcTemplate jdbcTemplate, DatabaseDialect dialect) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dialect = dialect;
+    }
+
+    @Override
+    public void applyDeltas(List<Delta> deltas) {
+        if (deltas.isEmpty()) return;
+        List<Delta> ordered = new ArrayList<>(deltas);
+        ordered.sort(null);
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> batchArgs = new ArrayList<>(ordered.size());
+        for (Delta d : ordered) {
+            batchArgs.add(new Object[]{
+                    d.getGranularity().name(), Timestamp.valueOf(d.getBucketStart()),
+                    d.getStatus().name(), d.getPaymentStatus().name(),
+                    d.getCountDelta(), d.getRevenueDelta(), now
+            });
+        }
+        jdbcTemplate.batchUpdate(dialect.isPostgres() ? PG_UPSERT_SQL : MERGE_SQL, batchArgs);
+    }
+
+    @Override
+    public int rebuildFromOrders() {
+        if (dialect.isPostgres()) {
+            // Block incremental writers until the rebuilt rows commit; their deltas then apply on top
+            jdbcTemplate.execute("LOCK TABLE order_rollups IN EXCLUSIVE MODE");
+        }
+        jdbcTemplate.update("DELETE FROM order_rollups");
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        int rows = 0;
+        for (OrderRollup.Granularity granularity : OrderRollup.Granularity.values()) {
+            String bucket = dialect.isPostgres()
+                    ? "date_trunc('" + granularity.name().toLowerCase() + "', o.created_at)"
+                    : "DATE_TRUNC(" + granularity.name() + ", o.created_at)";
+            rows += jdbcTemplate.update(String.format(REBUILD_SQL, bucket), granularity.name(), now);
+        }
+        return rows;
+    }
+}
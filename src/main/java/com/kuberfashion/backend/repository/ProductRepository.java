@@ -4,6 +4,7 @@ import com.kuberfashion.backend.entity.Product;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -88,4 +89,18 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     long countAvailableProducts();
     
     boolean existsBySlug(String slug);
+    
+    // Relative update so concurrent orders never overwrite each other's stock changes; inStock follows the new level
+    @Modifying
+    @Query("UPDATE Product p SET p.stockQuantity = COALESCE(p.stockQuantity, 0) + :delta, " +
+           "p.inStock = CASE WHEN COALESCE(p.stockQuantity, 0) + :delta > 0 THEN true ELSE false END " +
+           "WHERE p.id = :id")
+    int adjustStock(@Param("id") Long id, @Param("delta") int delta);
+    
+    // Guarded decrement: matches no row, and changes nothing, when fewer than :quantity units are left
+    @Modifying
+    @Query("UPDATE Product p SET p.stockQuantity = p.stockQuantity - :quantity, " +
+           "p.inStock = CASE WHEN p.stockQuantity - :quantity > 0 THEN true ELSE false END " +
+           "WHERE p.id = :id AND p.stockQuantity >= :quantity")
+    int reserveStock(@Param("id") Long id, @Param("quantity") int quantity);
 }
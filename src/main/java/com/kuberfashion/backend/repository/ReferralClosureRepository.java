@@ -0,0 +1,79 @@
+package com.kuberfashion.backend.repository;
+
+import com.kuberfashion.backend.entity.ReferralClosure;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+@Repository
+public interface ReferralClosureRepository extends JpaRepository<ReferralClosure, Long> {
+
+    // Connects every ancestor of the parent (and the parent itself) to every descendant of the child (and the child)
+    @Modifying
+    @Query(value = "INSERT INTO referral_closure (ancestor_id, descendant_id, depth) " +
+                   "SELECT a.ancestor_id, d.descendant_id, a.depth + d.depth + 1 FROM " +
+                   "(SELECT ancestor_id, depth FROM referral_closure WHERE descendant_id = :parentId " +
+                   " UNION ALL SELECT CAST(:parentId AS BIGINT), 0) a CROSS JOIN " +
+                   "(SELECT descendant_id, depth FROM referral_closure WHERE ancestor_id = :childId " +
+                   " UNION ALL SELECT CAST(:childId AS BIGINT), 0) d", nativeQuery = true)
+    int insertLink(@Param("childId") Long childId, @Param("parentId") Long parentId);
+
+    @Query("SELECT COUNT(c) > 0 FROM ReferralClosure c WHERE c.ancestorId = :ancestorId AND c.descendantId = :descendantId")
+    boolean isAncestor(@Param("ancestorId") Long ancestorId, @Param("descendantId") Long descendantId);
+
+    // Ancestors of a user nearest first: [ancestorId, depth]
+    @Query("SELECT c.ancestorId, c.depth FROM ReferralClosure c " +
+           "WHERE c.descendantId = :userId AND c.depth <= :maxDepth ORDER BY c.depth")
+    List<Object[]> findAncestors(@Param("userId") Long userId, @Param("maxDepth") int maxDepth);
+
+    @Query("SELECT COUNT(c) FROM ReferralClosure c WHERE c.ancestorId = :userId AND c.depth <= :maxDepth")
+    long countDownline(@Param("userId") Long userId, @Param("maxDepth") int maxDepth);
+
+    // Downline size per level: [depth, count]
+    @Query("SELECT c.depth, COUNT(c) FROM ReferralClosure c " +
+           "WHERE c.ancestorId = :userId AND c.depth <= :maxDepth GROUP BY c.depth ORDER BY c.depth")
+    List<Object[]> countDownlineByDepth(@Param("userId") Long userId, @Param("maxDepth") int maxDepth);
+
+    // Subtree rows: [id, phone, createdAt, enabled, kuberCoupons, parentId, depth, directReferrals], parents before children
+    String SUBTREE_SELECT = "SELECT u.id, u.phone, u.createdAt, u.enabled, u.kuberCoupons, rr.parent.id, c.depth, " +
+            "(SELECT COUNT(d) FROM ReferralClosure d WHERE d.ancestorId = u.id AND d.depth = 1) " +
+            "FROM ReferralClosure c JOIN User u ON u.id = c.descendantId " +
+            "JOIN ReferralRelation rr ON rr.user = u " +
+            "WHERE c.ancestorId = :rootId AND c.depth <= :maxDepth ORDER BY c.depth, u.id";
+
+    @Query(SUBTREE_SELECT)
+    List<Object[]> findSubtree(@Param("rootId") Long rootId, @Param("maxDepth") int maxDepth, Pageable pageable);
+
+    @Query(SUBTREE_SELECT)
+    @QueryHints({
+            @QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = AvailableHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<Object[]> streamSubtree(@Param("rootId") Long rootId, @Param("maxDepth") int maxDepth);
+
+    @Modifying
+    @Query(value = "DELETE FROM referral_closure", nativeQuery = true)
+    int deleteAllRows();
+
+    // Rebuilds the full closure from referral_relations by walking every edge upwards
+    @Modifying
+    @Query(value = "INSERT INTO referral_closure (ancestor_id, descendant_id, depth) " +
+                   "WITH RECURSIVE chain (ancestor_id, descendant_id, depth) AS (" +
+                   " SELECT parent_id, user_id, 1 FROM referral_relations WHERE parent_id IS NOT NULL" +
+                   " UNION ALL" +
+                   " SELECT rr.parent_id, c.descendant_id, c.depth + 1 FROM chain c" +
+                   " JOIN referral_relations rr ON rr.user_id = c.ancestor_id" +
+                   " WHERE rr.parent_id IS NOT NULL AND c.depth < 10000" +
+                   ") SELECT ancestor_id, descendant_id, MIN(depth) FROM chain GROUP BY ancestor_id, descendant_id",
+           nativeQuery = true)
+    int rebuildFromRelations();
+}
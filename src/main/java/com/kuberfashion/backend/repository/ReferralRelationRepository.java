@@ -18,4 +18,11 @@ public interface ReferralRelationRepository extends JpaRepository<ReferralRelati
 
     @Query("SELECT rr FROM ReferralRelation rr WHERE rr.parent.id = :parentId")
     List<ReferralRelation> getDirectReferrals(@Param("parentId") Long parentId);
+
+    // Referral page rows in one grouped query: [userId, phone, enabled, createdAt, couponsEarnedFrom]
+    @Query("SELECT u.id, u.phone, u.enabled, u.createdAt, COUNT(ct.id) FROM ReferralRelation rr JOIN rr.user u " +
+           "LEFT JOIN CouponTransaction ct ON ct.user.id = :parentId AND ct.sourceUser = u " +
+           "WHERE rr.parent.id = :parentId " +
+           "GROUP BY u.id, u.phone, u.enabled, u.createdAt ORDER BY u.createdAt DESC, u.id DESC")
+    List<Object[]> findDirectReferralStats(@Param("parentId") Long parentId);
 }
@@ -0,0 +1,30 @@
+package com.kuberfashion.backend.repository;
+
+import com.kuberfashion.backend.entity.ReferralRewardJob;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface ReferralRewardJobRepository extends LeasedQueueRepository<ReferralRewardJob> {
+
+    // A referrer whose own job is still open must be linked first, or the child's closure rows would miss its upline
+    @Query("SELECT COUNT(j) > 0 FROM ReferralRewardJob j WHERE j.userId = :userId AND j.id < :beforeId " +
+           "AND j.status IN ('PENDING', 'PROCESSING')")
+    boolean existsOpenJobForUser(@Param("userId") Long userId, @Param("beforeId") Long beforeId);
+
+    // Fenced on attempts like every outcome update (see LeasedQueueRepository)
+    @Modifying
+    @Query("UPDATE ReferralRewardJob j SET j.status = 'DONE', j.processedAt = :now, j.lastError = NULL " +
+           "WHERE j.id = :id AND j.attempts = :attempts AND j.status = 'PROCESSING'")
+    int markDone(@Param("id") Long id, @Param("attempts") int attempts, @Param("now") LocalDateTime now);
+
+    // Back to PENDING without consuming an attempt
+    @Modifying
+    @Query("UPDATE ReferralRewardJob j SET j.status = 'PENDING', j.attempts = j.attempts - 1, j.nextAttemptAt = :nextAttemptAt " +
+           "WHERE j.id = :id AND j.attempts = :attempts AND j.status = 'PROCESSING'")
+    int defer(@Param("id") Long id, @Param("attempts") int attempts, @Param("nextAttemptAt") LocalDateTime nextAttemptAt);
+}
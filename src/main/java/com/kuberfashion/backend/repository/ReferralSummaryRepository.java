@@ -0,0 +1,9 @@
+package com.kuberfashion.backend.repository;
+
+import com.kuberfashion.backend.entity.ReferralSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ReferralSummaryRepository extends JpaRepository<ReferralSummary, Long>, ReferralSummaryRepositoryCustom {
+}
@@ -0,0 +1,19 @@
+package com.kuberfashion.backend.repository;
+
+import java.util.Map;
+
+public interface ReferralSummaryRepositoryCustom {
+
+    /**
+     * Atomically counts one awarded coupon for each user, creating summary rows if needed, in one JDBC batch.
+     * A level-1 award also counts a new direct referral.
+     * @param levelByUserId awarded user id -> referral level
+     */
+    void recordAwards(Map<Long, Integer> levelByUserId);
+
+    /**
+     * Recomputes every summary row from coupon_transactions, referral_relations and referral_closure.
+     * @return number of summary rows written
+     */
+    int rebuild(int maxLevels);
+}
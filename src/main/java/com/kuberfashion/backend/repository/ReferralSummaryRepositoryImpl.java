@@ -0,0 +1,68 @@
+package com.kuberfashion.backend.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Incremental maintenance of referral_summaries keyed by user_id.
+ * PostgreSQL uses INSERT ... ON CONFLICT; other databases (H2 in dev) use standard MERGE.
+ */
+public class ReferralSummaryRepositoryImpl implements ReferralSummaryRepositoryCustom {
+
+    private static final String PG_UPSERT_SQL =
+            "INSERT INTO referral_summaries (user_id, coupons_earned, direct_referrals, downline_size, updated_at) " +
+            "VALUES (?, 1, ?, 1, ?) " +
+            "ON CONFLICT (user_id) DO UPDATE SET " +
+            "coupons_earned = referral_summaries.coupons_earned + 1, " +
+            "direct_referrals = referral_summaries.direct_referrals + EXCLUDED.direct_referrals, " +
+            "downline_size = referral_summaries.downline_size + 1, " +
+            "updated_at = EXCLUDED.updated_at";
+
+    private static final String MERGE_SQL =
+            "MERGE INTO referral_summaries r USING (" +
+            "SELECT CAST(? AS BIGINT) AS user_id, CAST(? AS BIGINT) AS direct_delta, CAST(? AS TIMESTAMP) AS ts) s " +
+            "ON (r.user_id = s.user_id) " +
+            "WHEN MATCHED THEN UPDATE SET coupons_earned = r.coupons_earned + 1, " +
+            "direct_referrals = r.direct_referrals + s.direct_delta, downline_size = r.downline_size + 1, updated_at = s.ts " +
+            "WHEN NOT MATCHED THEN INSERT (user_id, coupons_earned, direct_referrals, downline_size, updated_at) " +
+            "VALUES (s.user_id, 1, s.direct_delta, 1, s.ts)";
+
+    private static final String REBUILD_SQL =
+            "INSERT INTO referral_summaries (user_id, coupons_earned, direct_referrals, downline_size, updated_at) " +
+            "SELECT u.id, " +
+            "(SELECT COUNT(*) FROM coupon_transactions ct WHERE ct.user_id = u.id), " +
+            "(SELECT COUNT(*) FROM referral_relations rr WHERE rr.parent_id = u.id), " +
+            "(SELECT COUNT(*) FROM referral_closure c WHERE c.ancestor_id = u.id AND c.depth <= ?), ? " +
+            "FROM users u WHERE EXISTS (SELECT 1 FROM coupon_transactions ct WHERE ct.user_id = u.id) " +
+            "OR EXISTS (SELECT 1 FROM referral_relations rr WHERE rr.parent_id = u.id)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DatabaseDialect dialect;
+
+    public ReferralSummaryRepositoryImpl(JdbcTemplate jdbcTemplate, DatabaseDialect dialect) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dialect = dialect;
+    }
+
+    @Override
+    public void recordAwards(Map<Long, Integer> levelByUserId) {
+        if (levelByUserId.isEmpty()) return;
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> batchArgs = new ArrayList<>(levelByUserId.size());
+        new TreeMap<>(levelByUserId).forEach((userId, level) ->
+                batchArgs.add(new Object[]{userId, level == 1 ? 1L : 0L, now}));
+        jdbcTemplate.batchUpdate(dialect.isPostgres() ? PG_UPSERT_SQL : MERGE_SQL, batchArgs);
+    }
+
+    @Override
+    public int rebuild(int maxLevels) {
+        jdbcTemplate.update("DELETE FROM referral_summaries");
+        return jdbcTemplate.update(REBUILD_SQL, maxLevels, Timestamp.valueOf(LocalDateTime.now()));
+    }
+}
@@ -0,0 +1,45 @@
+package com.kuberfashion.backend.repository;
+
+import com.kuberfashion.backend.entity.StoredObject;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface StoredObjectRepository extends JpaRepository<StoredObject, Long>, StoredObjectRepositoryCustom {
+
+    @Query("SELECT o.objectKey FROM StoredObject o WHERE o.folder = :folder AND o.contentHash = :hash")
+    Optional<String> findObjectKeyByContentHash(@Param("folder") String folder, @Param("hash") String hash);
+
+    Optional<StoredObject> findByObjectKey(String objectKey);
+
+    @Modifying
+    @Query("UPDATE StoredObject o SET o.refCount = o.refCount + 1, o.lastReferencedAt = :now " +
+           "WHERE o.folder = :folder AND o.contentHash = :hash")
+    int incrementRefs(@Param("folder") String folder, @Param("hash") String hash, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE StoredObject o SET o.refCount = o.refCount - 1 WHERE o.objectKey = :key AND o.refCount > 0")
+    int decrementRefs(@Param("key") String key);
+
+    // Only an unreferenced row is removed, so a concurrent re-upload of the same content keeps the object
+    @Modifying
+    @Query("DELETE FROM StoredObject o WHERE o.objectKey = :key AND o.refCount = 0")
+    int deleteUnreferenced(@Param("key") String key);
+
+    // Keys that still hold upload references, or gained one (e.g. a deduplicated upload) since the given time
+    @Query("SELECT o.objectKey FROM StoredObject o WHERE o.objectKey IN :keys " +
+           "AND (o.refCount > 0 OR o.lastReferencedAt >= :since)")
+    List<String> findReferenced(@Param("keys") Collection<String> keys, @Param("since") LocalDateTime since);
+
+    @Modifying
+    @Query("DELETE FROM StoredObject o WHERE o.objectKey IN :keys")
+    int deleteByObjectKeyIn(@Param("keys") Collection<String> keys);
+}
@@ -0,0 +1,15 @@
+package com.kuberfashion.backend.repository;
+
+public interface StoredObjectRepositoryCustom {
+
+    /**
+     * Registers a freshly uploaded object with one reference.
+     * @return 1 if inserted, 0 if another upload registered the same content in the folder first
+     */
+    int insertIfAbsent(String folder, String contentHash, String objectKey, long sizeBytes, String contentType);
+
+    /**
+     * Number of product and category rows whose image columns point at the given URL.
+     */
+    long countUrlReferences(String url);
+}
@@ -0,0 +1,50 @@
+package com.kuberfashion.backend.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * JDBC side of the content-addressed object index.
+ * PostgreSQL uses INSERT ... ON CONFLICT; other databases (H2 in dev) use standard MERGE.
+ */
+public class StoredObjectRepositoryImpl implements StoredObjectRepositoryCustom {
+
+    private static final String PG_INSERT_SQL =
+            "INSERT INTO stored_objects (folder, content_hash, object_key, size_bytes, content_type, ref_count, created_at, last_referenced_at) " +
+            "VALUES (?, ?, ?, ?, ?, 1, ?, ?) ON CONFLICT (folder, content_hash) DO NOTHING";
+
+    private static final String MERGE_INSERT_SQL =
+            "MERGE INTO stored_objects o USING (SELECT CAST(? AS VARCHAR(255)) AS folder, CAST(? AS VARCHAR(64)) AS content_hash, CAST(? AS VARCHAR(500)) AS object_key, " +
+            "CAST(? AS BIGINT) AS size_bytes, CAST(? AS VARCHAR(100)) AS content_type, CAST(? AS TIMESTAMP) AS created_at, " +
+            "CAST(? AS TIMESTAMP) AS last_referenced_at) s ON (o.folder = s.folder AND o.content_hash = s.content_hash) " +
+            "WHEN NOT MATCHED THEN INSERT (folder, content_hash, object_key, size_bytes, content_type, ref_count, created_at, last_referenced_at) " +
+            "VALUES (s.folder, s.content_hash, s.object_key, s.size_bytes, s.content_type, 1, s.created_at, s.last_referenced_at)";
+
+    private static final String REFERENCES_SQL =
+            "SELECT (SELECT COUNT(*) FROM products WHERE image = ?) " +
+            "+ (SELECT COUNT(*) FROM product_images WHERE image_url = ?) " +
+            "+ (SELECT COUNT(*) FROM categories WHERE image = ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DatabaseDialect dialect;
+
+    public StoredObjectRepositoryImpl(JdbcTemplate jdbcTemplate, DatabaseDialect dialect) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dialect = dialect;
+    }
+
+    @Override
+    public int insertIfAbsent(String folder, String contentHash, String objectKey, long sizeBytes, String contentType) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        return jdbcTemplate.update(dialect.isPostgres() ? PG_INSERT_SQL : MERGE_INSERT_SQL,
+                folder, contentHash, objectKey, sizeBytes, contentType, now, now);
+    }
+
+    @Override
+    public long countUrlReferences(String url) {
+        Long n = jdbcTemplate.queryForObject(REFERENCES_SQL, Long.class, url, url, url);
+        return n != null ? n : 0L;
+    }
+}
@@ -4,14 +4,16 @@ import com.kuberfashion.backend.entity.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.Optional;
 
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, UserRepositoryCustom {
     
     Optional<User> findByEmail(String email);
     
@@ -21,6 +23,13 @@ public interface UserRepository extends JpaRepository<User, Long> {
     
     Optional<User> findByPhone(String phone);
     
+    Optional<User> findFirstByOrderByIdAsc();
+    
+    // One atomic statement crediting a coupon to every listed user; no read-modify-write, so no version conflicts
+    @Modifying
+    @Query("UPDATE User u SET u.kuberCoupons = u.kuberCoupons + 1 WHERE u.id IN :ids")
+    int creditCoupon(@Param("ids") Collection<Long> ids);
+    
     @Query("SELECT u FROM User u WHERE u.email = :email AND u.enabled = true")
     Optional<User> findActiveUserByEmail(@Param("email") String email);
     
@@ -0,0 +1,11 @@
+package com.kuberfashion.backend.repository;
+
+import java.util.Map;
+
+public interface UserRepositoryCustom {
+
+    /**
+     * Atomically adds the given coupon deltas (user id -> delta) in one JDBC batch, in ascending id order.
+     */
+    void addCoupons(Map<Long, Long> deltas);
+}
@@ -0,0 +1,31 @@
+package com.kuberfashion.backend.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+public class UserRepositoryImpl implements UserRepositoryCustom {
+
+    // Leaves version alone: kuber_coupons is not updatable through the entity, so a credit never conflicts
+    // with (or fails) a concurrent profile edit of the same user
+    private static final String ADD_COUPONS_SQL =
+            "UPDATE users SET kuber_coupons = kuber_coupons + ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public UserRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void addCoupons(Map<Long, Long> deltas) {
+        if (deltas.isEmpty()) return;
+        // Ascending id order gives concurrent flushes the same row lock order
+        List<Object[]> batchArgs = new ArrayList<>(deltas.size());
+        new TreeMap<>(deltas).forEach((userId, delta) -> batchArgs.add(new Object[]{delta, userId}));
+        jdbcTemplate.batchUpdate(ADD_COUPONS_SQL, batchArgs);
+    }
+}
@@ -7,6 +7,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -26,6 +27,10 @@ public interface WishlistItemRepository extends JpaRepository<WishlistItem, Long
     @Query("DELETE FROM WishlistItem w WHERE w.user.id = :userId AND w.product.id = :productId")
     void deleteByUserIdAndProductId(@Param("userId") Long userId, @Param("productId") Long productId);
     
+    @Modifying
+    @Query("DELETE FROM WishlistItem w WHERE w.user.id = :userId AND w.product.id IN :productIds")
+    int deleteByUserIdAndProductIdIn(@Param("userId") Long userId, @Param("productIds") Collection<Long> productIds);
+    
     @Modifying
     @Query("DELETE FROM WishlistItem w WHERE w.user.id = :userId")
     void deleteByUserId(@Param("userId") Long userId);
@@ -0,0 +1,135 @@
+package com.kuberfashion.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kuberfashion.backend.dto.AdminOrderFilter;
+import com.kuberfashion.backend.dto.AdminOrderRowDto;
+import com.kuberfashion.backend.dto.CursorPage;
+import com.kuberfashion.backend.repository.OrderRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Admin order search (keyset pagination) and constant-memory CSV/NDJSON export.
+ */
+@Service
+@Transactional(readOnly = true)
+public class AdminOrderSearchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdminOrderSearchService.class);
+
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int FLUSH_EVERY_ROWS = 1000;
+    private static final String CSV_HEADER =
+            "id,orderNumber,createdAt,status,paymentStatus,paymentMethod,totalAmount,userId,userEmail,userPhone";
+
+    public enum ExportFormat { CSV, NDJSON }
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${admin.orders.export.fetch-size:500}")
+    private int exportFetchSize;
+
+    public CursorPage<AdminOrderRowDto> search(AdminOrderFilter filter, String cursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        List<AdminOrderRowDto> rows = orderRepository.searchAdminOrders(
+                filter, CursorPage.decodeCursor(cursor), pageSize + 1);
+
+        boolean hasMore = rows.size() > pageSize;
+        List<AdminOrderRowDto> items = hasMore ? new ArrayList<>(rows.subList(0, pageSize)) : rows;
+        String nextCursor = null;
+        if (hasMore) {
+            AdminOrderRowDto last = items.get(items.size() - 1);
+            nextCursor = CursorPage.encodeCursor(last.getCreatedAt(), last.getId());
+        }
+        return new CursorPage<>(items, pageSize, hasMore, nextCursor);
+    }
+
+    /**
+     * Write every matching order to the stream. Rows are read through a forward-only cursor
+     * and written as they arrive, so memory use does not depend on the number of orders.
+     * @return number of rows written
+     */
+    public long export(AdminOrderFilter filter, ExportFormat format, OutputStream out) throws IOException {
+        long started = System.currentTimeMillis();
+        long count = 0;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+
+        try (Stream<AdminOrderRowDto> rows = orderRepository.streamAdminOrders(filter, exportFetchSize)) {
+            if (format == ExportFormat.CSV) {
+                writer.write(CSV_HEADER);
+                writer.write('\n');
+            }
+            Iterator<AdminOrderRowDto> it = rows.iterator();
+            while (it.hasNext()) {
+                AdminOrderRowDto row = it.next();
+                if (format == ExportFormat.CSV) {
+                    writeCsvRow(writer, row);
+                } else {
+                    writer.write(objectMapper.writeValueAsString(row));
+                    writer.write('\n');
+                }
+                if (++count % FLUSH_EVERY_ROWS == 0) {
+                    writer.flush();
+                }
+            }
+        }
+        writer.flush();
+
+        logger.info("Exported {} orders as {} in {}ms", count, format, System.currentTimeMillis() - started);
+        return count;
+    }
+
+    private void writeCsvRow(Writer writer, AdminOrderRowDto row) throws IOException {
+        writer.write(String.valueOf(row.getId()));
+        writer.write(',');
+        writer.write(csv(row.getOrderNumber()));
+        writer.write(',');
+        writer.write(row.getCreatedAt() != null ? row.getCreatedAt().toString() : "");
+        writer.write(',');
+        writer.write(row.getStatus() != null ? row.getStatus().name() : "");
+        writer.write(',');
+        writer.write(row.getPaymentStatus() != null ? row.getPaymentStatus().name() : "");
+        writer.write(',');
+        writer.write(row.getPaymentMethod() != null ? row.getPaymentMethod().name() : "");
+        writer.write(',');
+        writer.write(row.getTotalAmount() != null ? row.getTotalAmount().toPlainString() : "");
+        writer.write(',');
+        writer.write(row.getUserId() != null ? String.valueOf(row.getUserId()) : "");
+        writer.write(',');
+        writer.write(csv(row.getUserEmail()));
+        writer.write(',');
+        writer.write(csv(row.getUserPhone()));
+        writer.write('\n');
+    }
+
+    private String csv(String value) {
+        if (value == null || value.isEmpty()) return "";
+        // Neutralize spreadsheet formula injection
+        if ("=+-@".indexOf(value.charAt(0)) >= 0) {
+            value = "'" + value;
+        }
+        if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+        return value;
+    }
+}
@@ -2,70 +2,89 @@ package com.kuberfashion.backend.service;
 
 import com.kuberfashion.backend.dto.CartItemDto;
 import com.kuberfashion.backend.entity.CartItem;
-import com.kuberfashion.backend.entity.Product;
-import com.kuberfashion.backend.entity.User;
 import com.kuberfashion.backend.exception.ResourceNotFoundException;
 import com.kuberfashion.backend.repository.CartItemRepository;
-import com.kuberfashion.backend.repository.ProductRepository;
 import com.kuberfashion.backend.repository.UserRepository;
+import com.kuberfashion.backend.repository.WishlistItemRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
 @Transactional
 public class CartService {
     
+    private static final int MAX_BATCH_LINES = 100;
+    
     @Autowired
     private CartItemRepository cartItemRepository;
     
     @Autowired
-    private ProductRepository productRepository;
+    private WishlistItemRepository wishlistItemRepository;
     
     @Autowired
     private UserRepository userRepository;
     
+    @Transactional(readOnly = true)
     public List<CartItemDto> getCartItems(Long userId) {
-        // Verify user exists
-        userRepository.findById(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + userId));
-        
-        List<CartItem> cartItems = cartItemRepository.findByUserIdOrderByCreatedAtDesc(userId);
-        return cartItems.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        // Verify user exists (primary-key probe), then one projection query for the lines
+        requireUser(userId);
+        return cartItemRepository.findCartViewByUserId(userId);
     }
     
     public CartItemDto addToCart(Long userId, Long productId, Integer quantity, String size, String color) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + userId));
+        validateQuantity(quantity);
+        // Checked up front so an unknown user is a 404, not a foreign-key violation from the upsert
+        requireUser(userId);
         
-        Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + productId));
+        // Single-statement upsert keyed on (user, product, size, color); no read-then-write race
+        Long itemId = cartItemRepository.upsertLine(userId, productId, quantity, normalize(size), normalize(color));
+        if (itemId == null) {
+            throw new ResourceNotFoundException("Product not found with id: " + productId);
+        }
         
-        // Check if item already exists in cart
-        Optional<CartItem> existingItem = cartItemRepository.findByUserIdAndProductIdAndSizeAndColor(
-                userId, productId, size, color);
+        return cartItemRepository.findCartViewByIdAndUserId(itemId, userId)
+                .orElseThrow(() -> new ResourceNotFoundException("Cart item not found"));
+    }
+    
+    public List<CartItemDto> addToCartBatch(Long userId, List<CartItemDto> items, boolean removeFromWishlist) {
+        if (items == null || items.isEmpty()) {
+            throw new IllegalArgumentException("At least one item is required");
+        }
+        if (items.size() > MAX_BATCH_LINES) {
+            throw new IllegalArgumentException("Cannot add more than " + MAX_BATCH_LINES + " items at once");
+        }
         
-        CartItem cartItem;
-        if (existingItem.isPresent()) {
-            cartItem = existingItem.get();
-            cartItem.setQuantity(cartItem.getQuantity() + quantity);
-        } else {
-            cartItem = new CartItem();
-            cartItem.setUser(user);
-            cartItem.setProduct(product);
-            cartItem.setQuantity(quantity);
-            cartItem.setSelectedSize(size);
-            cartItem.setSelectedColor(color);
+        List<CartItemDto> lines = new ArrayList<>(items.size());
+        for (CartItemDto item : items) {
+            if (item.getProductId() == null) {
+                throw new IllegalArgumentException("Product ID is required");
+            }
+            validateQuantity(item.getQuantity());
+            CartItemDto line = new CartItemDto(item.getProductId(), item.getQuantity());
+            line.setSelectedSize(normalize(item.getSelectedSize()));
+            line.setSelectedColor(normalize(item.getSelectedColor()));
+            lines.add(line);
         }
         
-        cartItem = cartItemRepository.save(cartItem);
-        return convertToDto(cartItem);
+        requireUser(userId);
+        List<Long> missing = cartItemRepository.upsertLines(userId, lines);
+        if (!missing.isEmpty()) {
+            // Roll back the whole batch rather than leave a partial move
+            throw new ResourceNotFoundException("Products not found with ids: " + missing);
+        }
+        
+        if (removeFromWishlist) {
+            Set<Long> productIds = lines.stream().map(CartItemDto::getProductId).collect(Collectors.toSet());
+            wishlistItemRepository.deleteByUserIdAndProductIdIn(userId, productIds);
+        }
+        
+        return cartItemRepository.findCartViewByUserId(userId);
     }
     
     public CartItemDto updateCartItem(Long userId, Long itemId, Integer quantity) {
@@ -74,7 +93,7 @@ public class CartService {
         
         cartItem.setQuantity(quantity);
         cartItem = cartItemRepository.save(cartItem);
-        return convertToDto(cartItem);
+        return toView(cartItem, userId);
     }
     
     public void removeFromCart(Long userId, Long itemId) {
@@ -92,17 +111,24 @@ public class CartService {
         return cartItemRepository.countByUserId(userId);
     }
     
-    private CartItemDto convertToDto(CartItem cartItem) {
-        CartItemDto dto = new CartItemDto();
-        dto.setId(cartItem.getId());
-        dto.setProductId(cartItem.getProduct().getId());
-        dto.setQuantity(cartItem.getQuantity());
-        dto.setSelectedSize(cartItem.getSelectedSize());
-        dto.setSelectedColor(cartItem.getSelectedColor());
-        dto.setName(cartItem.getProduct().getName());
-        dto.setImage(cartItem.getProduct().getImage());
-        dto.setPrice(cartItem.getProduct().getPrice());
-        dto.setCategory(cartItem.getProduct().getCategory().getName());
-        return dto;
+    private void requireUser(Long userId) {
+        if (!userRepository.existsById(userId)) {
+            throw new ResourceNotFoundException("User not found with id: " + userId);
+        }
+    }
+    
+    private void validateQuantity(Integer quantity) {
+        if (quantity == null || quantity < 1) {
+            throw new IllegalArgumentException("Quantity must be at least 1");
+        }
+    }
+    
+    private String normalize(String value) {
+        return value == null ? "" : value.trim();
+    }
+    
+    private CartItemDto toView(CartItem cartItem, Long userId) {
+        return cartItemRepository.findCartViewByIdAndUserId(cartItem.getId(), userId)
+                .orElseThrow(() -> new ResourceNotFoundException("Cart item not found"));
     }
 }
@@ -0,0 +1,236 @@
+package com.kuberfashion.backend.service;
+
+import com.kuberfashion.backend.dto.CoinPosting;
+import com.kuberfashion.backend.dto.CoinTransactionDto;
+import com.kuberfashion.backend.entity.CoinBalance;
+import com.kuberfashion.backend.entity.CoinTransaction;
+import com.kuberfashion.backend.repository.CoinBalanceRepository;
+import com.kuberfashion.backend.repository.CoinTransactionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Double-entry style coin ledger over coin_transactions (history) and coin_balances (snapshot).
+ *
+ * Every posting batch runs in one transaction: balance rows are locked in ascending user_id order,
+ * overdrafts are rejected, ledger lines are JDBC-batched and the snapshots move by the summed delta.
+ * Reading a balance is a single-row lookup; reconciliation re-derives it from history in chunks.
+ */
+@Service
+@Transactional
+public class CoinLedgerService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CoinLedgerService.class);
+    private static final int MAX_BATCH_POSTINGS = 1000;
+    private static final int MAX_REPORTED_MISMATCHES = 100;
+
+    @Autowired
+    private CoinBalanceRepository coinBalanceRepository;
+
+    @Autowired
+    private CoinTransactionRepository coinTransactionRepository;
+
+    private final TransactionTemplate reconcileTemplate;
+
+    @Value("${coins.registration-bonus:0}")
+    private long registrationBonus;
+
+    // Coins per referral level, level 1 first; empty disables referral coin rewards
+    @Value("${coins.referral-level-rewards:}")
+    private List<Long> referralLevelRewards = new ArrayList<>();
+
+    @Value("${coins.reconcile.chunk-size:500}")
+    private int reconcileChunkSize;
+
+    private volatile ReconciliationReport lastReport;
+
+    public CoinLedgerService(PlatformTransactionManager transactionManager) {
+        this.reconcileTemplate = new TransactionTemplate(transactionManager);
+        // One consistent snapshot per chunk so in-flight postings cannot show up as false mismatches
+        this.reconcileTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.reconcileTemplate.setReadOnly(true);
+    }
+
+    public static class ReconciliationReport {
+        public long usersChecked;
+        public long mismatchCount;
+        public List<Map<String, Long>> mismatches = new ArrayList<>();
+        public long durationMs;
+        public LocalDateTime finishedAt;
+    }
+
+    /**
+     * Posts a batch of ledger lines atomically.
+     * @return resulting balance per affected user
+     * @throws IllegalStateException if any account would go negative (nothing is posted)
+     */
+    public Map<Long, Long> post(List<CoinPosting> postings) {
+        if (postings == null || postings.isEmpty()) {
+            return Map.of();
+        }
+        if (postings.size() > MAX_BATCH_POSTINGS) {
+            throw new IllegalArgumentException("At most " + MAX_BATCH_POSTINGS + " postings per batch");
+        }
+
+        Map<Long, Long> deltas = new TreeMap<>();
+        for (CoinPosting posting : postings) {
+            validate(posting);
+            deltas.merge(posting.getUserId(), posting.getAmount(), Long::sum);
+        }
+
+        coinBalanceRepository.ensureBalances(deltas.keySet());
+        Map<Long, Long> current = coinBalanceRepository.lockBalances(deltas.keySet());
+
+        Map<Long, Long> result = new LinkedHashMap<>();
+        for (Map.Entry<Long, Long> e : deltas.entrySet()) {
+            long next = current.getOrDefault(e.getKey(), 0L) + e.getValue();
+            if (next < 0) {
+                throw new IllegalStateException("Insufficient coin balance for user " + e.getKey());
+            }
+            result.put(e.getKey(), next);
+        }
+
+        coinTransactionRepository.insertPostings(postings);
+        coinBalanceRepository.applyDeltas(deltas);
+        return result;
+    }
+
+    public long earn(Long userId, long amount, String reason, Long sourceUserId, Integer level) {
+        return post(List.of(CoinPosting.earn(userId, amount, reason, sourceUserId, level))).get(userId);
+    }
+
+    public long spend(Long userId, long amount, String reason) {
+        return post(List.of(CoinPosting.spend(userId, amount, reason))).get(userId);
+    }
+
+    public void creditRegistrationBonus(Long userId) {
+        if (registrationBonus > 0) {
+            earn(userId, registrationBonus, "REGISTRATION_BONUS", null, null);
+        }
+    }
+
+    /**
+     * Posts the configured per-level referral coins for every rewarded ancestor in one batch.
+     * @param levelByUserId ancestor user id -> referral level (1 = direct referrer)
+     */
+    public void creditReferralRewards(Long sourceUserId, Map<Long, Integer> levelByUserId) {
+        if (referralLevelRewards.isEmpty()) return;
+        List<CoinPosting> postings = new ArrayList<>(levelByUserId.size());
+        levelByUserId.forEach((userId, level) -> {
+            if (level >= 1 && level <= referralLevelRewards.size()) {
+                long amount = referralLevelRewards.get(level - 1);
+                if (amount > 0) {
+                    postings.add(CoinPosting.earn(userId, amount, "REFERRAL_LEVEL", sourceUserId, level));
+                }
+            }
+        });
+        post(postings);
+    }
+
+    @Transactional(readOnly = true)
+    public long getBalance(Long userId) {
+        return coinBalanceRepository.findByUserId(userId).map(CoinBalance::getBalance).orElse(0L);
+    }
+
+    @Transactional(readOnly = true)
+    public Page<CoinTransactionDto> getHistory(Long userId, int page, int size) {
+        return coinTransactionRepository.findHistoryByUserId(userId, PageRequest.of(page, Math.max(1, Math.min(size, 100))));
+    }
+
+    /**
+     * Verifies balance == sum(transactions) for every account, walking coin_balances in user_id chunks.
+     * Mismatches are reported, not corrected.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ReconciliationReport reconcile() {
+        long start = System.currentTimeMillis();
+        ReconciliationReport report = new ReconciliationReport();
+        long after = 0L;
+
+        while (true) {
+            long cursor = after;
+            List<long[]> chunk = reconcileTemplate.execute(status -> {
+                List<long[]> balances = coinBalanceRepository.findBalancesAfter(cursor, reconcileChunkSize);
+                if (balances.isEmpty()) return balances;
+                List<Long> ids = new ArrayList<>(balances.size());
+                for (long[] b : balances) ids.add(b[0]);
+                Map<Long, Long> sums = coinTransactionRepository.sumAmountsByUser(ids);
+                List<long[]> out = new ArrayList<>(balances.size());
+                for (long[] b : balances) {
+                    out.add(new long[]{b[0], b[1], sums.getOrDefault(b[0], 0L)});
+                }
+                return out;
+            });
+            if (chunk == null || chunk.isEmpty()) break;
+
+            for (long[] row : chunk) {
+                report.usersChecked++;
+                if (row[1] != row[2]) {
+                    report.mismatchCount++;
+                    if (report.mismatches.size() < MAX_REPORTED_MISMATCHES) {
+                        report.mismatches.add(Map.of("userId", row[0], "balance", row[1], "ledgerSum", row[2]));
+                    }
+                }
+            }
+            after = chunk.get(chunk.size() - 1)[0];
+            if (chunk.size() < reconcileChunkSize) break;
+        }
+
+        report.durationMs = System.currentTimeMillis() - start;
+        report.finishedAt = LocalDateTime.now();
+        lastReport = report;
+        if (report.mismatchCount > 0) {
+            logger.error("Coin ledger reconciliation: {} of {} accounts mismatch", report.mismatchCount, report.usersChecked);
+        } else {
+            logger.info("Coin ledger reconciliation: {} accounts balanced in {}ms", report.usersChecked, report.durationMs);
+        }
+        return report;
+    }
+
+    @Scheduled(cron = "${coins.reconcile.cron:0 15 4 * * *}")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void scheduledReconcile() {
+        try {
+            reconcile();
+        } catch (Exception e) {
+            logger.error("Coin ledger reconciliation failed: {}", e.getMessage());
+        }
+    }
+
+    public ReconciliationReport getLastReport() {
+        return lastReport;
+    }
+
+    private void validate(CoinPosting posting) {
+        if (posting.getUserId() == null) {
+            throw new IllegalArgumentException("Posting user is required");
+        }
+        if (posting.getType() == CoinTransaction.TxType.EARN && posting.getAmount() <= 0) {
+            throw new IllegalArgumentException("Earn amount must be positive");
+        }
+        if (posting.getType() == CoinTransaction.TxType.SPEND && posting.getAmount() >= 0) {
+            throw new IllegalArgumentException("Spend amount must be positive");
+        }
+        if (posting.getAmount() == 0) {
+            throw new IllegalArgumentException("Posting amount must not be zero");
+        }
+    }
+}
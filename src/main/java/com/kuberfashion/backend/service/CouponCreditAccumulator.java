@@ -0,0 +1,124 @@
+package com.kuberfashion.backend.service;
+
+import com.kuberfashion.backend.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Optional write-behind for users.kuber_coupons. When enabled, coupon credits for hot top-of-tree referrers
+ * are summed in striped per-user counters (LongAdder) and written with one batched UPDATE per flush,
+ * instead of every registration updating the same user rows.
+ *
+ * Credits are only accumulated after the awarding transaction commits, and coupon_transactions remains the
+ * durable ledger, so a crash before a flush leaves balances behind the ledger but never ahead of it.
+ * Disabled by default: ReferralService then credits synchronously with a single atomic UPDATE.
+ */
+@Component
+public class CouponCreditAccumulator {
+
+    private static final Logger logger = LoggerFactory.getLogger(CouponCreditAccumulator.class);
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Value("${referral.coupons.accumulator.enabled:false}")
+    private boolean enabled;
+
+    // Entries are kept between flushes (reset, not removed) so a concurrent credit can never land in a dropped counter
+    private final ConcurrentHashMap<Long, LongAdder> pending = new ConcurrentHashMap<>();
+    private final AtomicLong flushedCredits = new AtomicLong();
+    // One transaction per flush: the batch either lands completely or not at all, so re-adding it on failure is exact
+    private final TransactionTemplate flushTemplate;
+
+    public CouponCreditAccumulator(PlatformTransactionManager transactionManager) {
+        this.flushTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Adds one coupon per user once the current transaction commits (immediately if none is active).
+     */
+    public void creditAfterCommit(Collection<Long> userIds) {
+        List<Long> ids = List.copyOf(userIds);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    credit(ids);
+                }
+            });
+        } else {
+            credit(ids);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${referral.coupons.accumulator.flush-interval-ms:2000}")
+    public void flush() {
+        if (!enabled || pending.isEmpty()) {
+            return;
+        }
+        Map<Long, Long> deltas = new HashMap<>();
+        pending.forEach((userId, adder) -> {
+            long delta = adder.sumThenReset();
+            if (delta != 0) {
+                deltas.put(userId, delta);
+            }
+        });
+        if (deltas.isEmpty()) {
+            return;
+        }
+        try {
+            flushTemplate.executeWithoutResult(status -> userRepository.addCoupons(deltas));
+            long total = deltas.values().stream().mapToLong(Long::longValue).sum();
+            flushedCredits.addAndGet(total);
+            logger.debug("Flushed {} coupon credits for {} users", total, deltas.size());
+        } catch (Exception e) {
+            // Put the credits back so the next flush retries them
+            deltas.forEach((userId, delta) -> pending.computeIfAbsent(userId, k -> new LongAdder()).add(delta));
+            logger.error("Coupon credit flush failed, {} users pending: {}", deltas.size(), e.getMessage());
+        }
+    }
+
+    public long getPendingCredits() {
+        long sum = 0;
+        for (LongAdder adder : pending.values()) {
+            sum += adder.sum();
+        }
+        return sum;
+    }
+
+    public long getFlushedCredits() {
+        return flushedCredits.get();
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private void credit(List<Long> userIds) {
+        for (Long userId : userIds) {
+            pending.computeIfAbsent(userId, k -> new LongAdder()).increment();
+        }
+    }
+}
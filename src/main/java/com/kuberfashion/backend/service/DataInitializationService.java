@@ -1,5 +1,6 @@
 package com.kuberfashion.backend.service;
 
+import com.kuberfashion.backend.config.StartupSeeding;
 import com.kuberfashion.backend.entity.Category;
 import com.kuberfashion.backend.entity.Product;
 import com.kuberfashion.backend.entity.User;
@@ -31,9 +32,16 @@ public class DataInitializationService implements CommandLineRunner {
     
     @Autowired
     private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private StartupSeeding startupSeeding;
     
     @Override
-    public void run(String... args) throws Exception {
+    public void run(String... args) {
+        startupSeeding.run("DataInitializationService", this::initialize);
+    }
+
+    private void initialize() {
         if (categoryRepository.count() == 0) {
             initializeCategories();
         }
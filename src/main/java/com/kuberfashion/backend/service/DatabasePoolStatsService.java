@@ -0,0 +1,55 @@
+package com.kuberfashion.backend.service;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Per-pool connection statistics for every Hikari pool in the context (the primary, plus the replica when
+ * read/write routing is enabled), along with connection limiter wait times and replica routing counters.
+ */
+@Service
+public class DatabasePoolStatsService {
+
+    @Autowired
+    private Map<String, HikariDataSource> pools;
+
+    @Autowired
+    private ObjectProvider<ReplicaLagMonitor> replicaLagMonitor;
+
+    @Autowired
+    private DbConnectionLimiter connectionLimiter;
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> poolStats = new LinkedHashMap<>();
+        pools.forEach((beanName, pool) -> poolStats.put(pool.getPoolName() != null ? pool.getPoolName() : beanName, poolStats(pool)));
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("pools", poolStats);
+        stats.put("limiter", connectionLimiter.isEnabled() ? connectionLimiter.getStats() : Map.of("enabled", false));
+        ReplicaLagMonitor monitor = replicaLagMonitor.getIfAvailable();
+        stats.put("replica", monitor != null ? monitor.getStats() : Map.of("enabled", false));
+        return stats;
+    }
+
+    private static Map<String, Object> poolStats(HikariDataSource pool) {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("maximumPoolSize", pool.getMaximumPoolSize());
+        stats.put("minimumIdle", pool.getMinimumIdle());
+        HikariPoolMXBean mx = pool.getHikariPoolMXBean();
+        if (mx != null) {
+            stats.put("active", mx.getActiveConnections());
+            stats.put("idle", mx.getIdleConnections());
+            stats.put("total", mx.getTotalConnections());
+            stats.put("threadsAwaitingConnection", mx.getThreadsAwaitingConnection());
+        } else {
+            stats.put("started", false);
+        }
+        return stats;
+    }
+}
@@ -0,0 +1,187 @@
+package com.kuberfashion.backend.service;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Admission control in front of the Hikari pools. Each pool gets a fair semaphore with one permit per pooled
+ * connection, taken before a connection is requested and returned when it is closed.
+ *
+ * With virtual threads there is no request-thread ceiling, so thousands of callers can ask for one of a handful of
+ * connections at once; inside Hikari they would spin until connection-timeout and fail. Here they wait in FIFO
+ * order, and the wait is measured. The wait is bounded by the pool's own connection-timeout (acquire-timeout-ms can
+ * only shorten it), so a caller never waits at the gate longer than the pool itself would have made it wait.
+ * Enabled by default when virtual threads are.
+ */
+@Component
+public class DbConnectionLimiter {
+
+    @Value("${datasource.limiter.enabled:false}")
+    private boolean enabled;
+
+    // 0 = the pool's connection-timeout; larger values are capped to it
+    @Value("${datasource.limiter.acquire-timeout-ms:0}")
+    private long acquireTimeoutMs;
+
+    private final Map<String, Gate> gates = new ConcurrentHashMap<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Wraps a pool so connections are handed out through its gate; returns the pool itself when disabled.
+     */
+    public DataSource limit(HikariDataSource pool) {
+        if (!enabled) {
+            return pool;
+        }
+        Gate gate = gates.computeIfAbsent(pool.getPoolName(),
+                name -> new Gate(pool.getMaximumPoolSize(), acquireTimeoutFor(pool)));
+        return new LimitedDataSource(pool, gate);
+    }
+
+    long acquireTimeoutFor(HikariDataSource pool) {
+        long poolTimeoutMs = pool.getConnectionTimeout();
+        return acquireTimeoutMs > 0 ? Math.min(acquireTimeoutMs, poolTimeoutMs) : poolTimeoutMs;
+    }
+
+    /**
+     * Limiter statistics keyed by pool name.
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        gates.forEach((pool, gate) -> stats.put(pool, gate.stats()));
+        return stats;
+    }
+
+    private static final class Gate {
+        final int permits;
+        final long timeoutMs;
+        final Semaphore semaphore;
+        final LongAdder acquired = new LongAdder();
+        final LongAdder timeouts = new LongAdder();
+        final LongAdder waited = new LongAdder();
+        final LongAdder waitNanos = new LongAdder();
+        final LongAccumulator maxWaitNanos = new LongAccumulator(Math::max, 0);
+
+        Gate(int permits, long timeoutMs) {
+            this.permits = Math.max(1, permits);
+            this.timeoutMs = timeoutMs;
+            this.semaphore = new Semaphore(this.permits, true);
+        }
+
+        void acquire() throws SQLException {
+            // Uncontended path: no timing, no queueing (tryAcquire() would barge past waiters, so check first)
+            if (!semaphore.hasQueuedThreads() && semaphore.tryAcquire()) {
+                acquired.increment();
+                return;
+            }
+            long start = System.nanoTime();
+            boolean granted;
+            try {
+                granted = semaphore.tryAcquire(timeoutMs, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLTransientConnectionException("Interrupted while waiting for a database connection", e);
+            }
+            long elapsed = System.nanoTime() - start;
+            waited.increment();
+            waitNanos.add(elapsed);
+            maxWaitNanos.accumulate(elapsed);
+            if (!granted) {
+                timeouts.increment();
+                throw new SQLTransientConnectionException(
+                        "No database connection available after waiting " + timeoutMs + " ms (" + permits + " in use)");
+            }
+            acquired.increment();
+        }
+
+        Map<String, Object> stats() {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            long waits = waited.sum();
+            stats.put("permits", permits);
+            stats.put("acquireTimeoutMs", timeoutMs);
+            stats.put("inUse", permits - semaphore.availablePermits());
+            stats.put("queued", semaphore.getQueueLength());
+            stats.put("acquired", acquired.sum());
+            stats.put("waited", waits);
+            stats.put("timeouts", timeouts.sum());
+            stats.put("avgWaitMs", waits == 0 ? 0.0 : waitNanos.sum() / 1_000_000.0 / waits);
+            stats.put("maxWaitMs", maxWaitNanos.get() / 1_000_000.0);
+            return stats;
+        }
+    }
+
+    private static final class LimitedDataSource extends DelegatingDataSource {
+
+        private final Gate gate;
+
+        LimitedDataSource(DataSource pool, Gate gate) {
+            super(pool);
+            this.gate = gate;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            gate.acquire();
+            Connection connection;
+            try {
+                connection = obtainTargetDataSource().getConnection();
+            } catch (SQLException | RuntimeException e) {
+                gate.semaphore.release();
+                throw e;
+            }
+            return releasingOnClose(connection);
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return obtainTargetDataSource().getConnection(username, password);
+        }
+
+        private Connection releasingOnClose(Connection target) {
+            AtomicBoolean released = new AtomicBoolean();
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "equals":
+                        return proxy == args[0];
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    case "close":
+                        try {
+                            target.close();
+                        } finally {
+                            if (released.compareAndSet(false, true)) {
+                                gate.semaphore.release();
+                            }
+                        }
+                        return null;
+                    default:
+                        try {
+                            return method.invoke(target, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getTargetException();
+                        }
+                }
+            });
+        }
+    }
+}
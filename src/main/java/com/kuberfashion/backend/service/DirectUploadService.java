@@ -0,0 +1,135 @@
+package com.kuberfashion.backend.service;
+
+import com.kuberfashion.backend.dto.DirectUploadDto;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Presigned uploads: clients PUT images straight to the bucket and we only see two small JSON calls.
+ *
+ * {@link #issue} signs an upload URL bound to a fresh key, content type and exact size, plus a completion
+ * token carrying the same values (HMAC-signed, so no server-side state). {@link #complete} checks the
+ * token, verifies the stored object with a HEAD and registers it. Uploads that are never completed are
+ * left to the orphaned-object collector.
+ */
+@Service
+public class DirectUploadService {
+
+    private static final Map<String, String> EXTENSIONS = Map.of(
+            "image/jpeg", ".jpg",
+            "image/png", ".png",
+            "image/webp", ".webp",
+            "image/gif", ".gif"
+    );
+
+    private static final Pattern FOLDER = Pattern.compile("[a-z0-9_-]+(/[a-z0-9_-]+)*");
+
+    @Autowired
+    private StorageProvider storageProvider;
+
+    @Autowired
+    private FileStorageService fileStorageService;
+
+    @Value("${storage.presign.url-ttl:PT10M}")
+    private Duration urlTtl;
+
+    // How long after issuing an upload can still be confirmed
+    @Value("${storage.presign.completion-window:PT1H}")
+    private Duration completionWindow;
+
+    @Value("${storage.presign.max-size:25MB}")
+    private DataSize maxSize;
+
+    @Value("${storage.presign.token-secret:${jwt.secret}}")
+    private String tokenSecret;
+
+    public DirectUploadDto issue(String folder, String contentType, long size) {
+        if (folder == null || folder.length() > 64 || !FOLDER.matcher(folder).matches()) {
+            throw new IllegalArgumentException("Invalid folder");
+        }
+        String type = normalizeContentType(contentType);
+        String extension = EXTENSIONS.get(type);
+        if (extension == null) {
+            throw new IllegalArgumentException("Only image files (JPEG, PNG, WebP, GIF) are allowed");
+        }
+        if (size <= 0 || size > maxSize.toBytes()) {
+            throw new IllegalArgumentException("File size must be between 1 byte and " + maxSize.toMegabytes() + "MB");
+        }
+
+        String key = fileStorageService.newObjectKey(folder, extension);
+        StorageProvider.PresignedUpload upload = storageProvider.presignPut(key, type, size, urlTtl);
+        long deadline = Instant.now().plus(completionWindow).getEpochSecond();
+        String token = encodeToken(key + "\n" + type + "\n" + size + "\n" + deadline);
+        return new DirectUploadDto(key, storageProvider.getPublicUrl(key), upload.getUrl(), upload.getMethod(),
+                upload.getHeaders(), upload.getExpiresAt(), token);
+    }
+
+    /**
+     * @return metadata of the verified object
+     * @throws IllegalArgumentException for an invalid or expired token
+     * @throws IllegalStateException if the object is missing or does not match what was signed
+     */
+    public FileStorageService.FileMetadata complete(String token) {
+        String[] fields = decodeToken(token).split("\n");
+        if (fields.length != 4) {
+            throw new IllegalArgumentException("Invalid completion token");
+        }
+        if (Instant.now().getEpochSecond() > Long.parseLong(fields[3])) {
+            throw new IllegalArgumentException("Upload completion window has expired");
+        }
+        return fileStorageService.registerDirectUpload(fields[0], Long.parseLong(fields[2]), fields[1]);
+    }
+
+    private static String normalizeContentType(String contentType) {
+        if (contentType == null) return "";
+        String type = contentType.trim().toLowerCase();
+        return type.equals("image/jpg") ? "image/jpeg" : type;
+    }
+
+    private String encodeToken(String payload) {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        byte[] bytes = payload.getBytes(StandardCharsets.UTF_8);
+        return encoder.encodeToString(bytes) + "." + encoder.encodeToString(mac(bytes));
+    }
+
+    private String decodeToken(String token) {
+        int dot = token != null ? token.indexOf('.') : -1;
+        if (dot < 0) {
+            throw new IllegalArgumentException("Invalid completion token");
+        }
+        try {
+            Base64.Decoder decoder = Base64.getUrlDecoder();
+            byte[] payload = decoder.decode(token.substring(0, dot));
+            byte[] signature = decoder.decode(token.substring(dot + 1));
+            if (!MessageDigest.isEqual(mac(payload), signature)) {
+                throw new IllegalArgumentException("Invalid completion token");
+            }
+            return new String(payload, StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid completion token");
+        }
+    }
+
+    private byte[] mac(byte[] payload) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(tokenSecret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            return mac.doFinal(payload);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 not available", e);
+        }
+    }
+}
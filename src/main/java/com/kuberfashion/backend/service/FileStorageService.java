@@ -1,20 +1,43 @@
 package com.kuberfashion.backend.service;
 
-import com.kuberfashion.backend.config.CloudflareR2Config;
+import com.kuberfashion.backend.entity.ImageVariant;
+import com.kuberfashion.backend.entity.StoredObject;
+import com.kuberfashion.backend.repository.ImageVariantRepository;
+import com.kuberfashion.backend.repository.StoredObjectRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
-import software.amazon.awssdk.core.sync.RequestBody;
-import software.amazon.awssdk.services.s3.S3Client;
-import software.amazon.awssdk.services.s3.model.*;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 public class FileStorageService {
@@ -22,70 +45,299 @@ public class FileStorageService {
     private static final Logger logger = LoggerFactory.getLogger(FileStorageService.class);
 
     @Autowired
-    private S3Client s3Client;
+    private StorageProvider storageProvider;
 
     @Autowired
-    private CloudflareR2Config r2Config;
+    private StoredObjectRepository storedObjectRepository;
 
-    @Value("${cloudflare.r2.public-url:}")
-    private String publicUrl;
+    @Autowired
+    private ImageVariantRepository imageVariantRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMetadataCache metadataCache;
+
+    // Files of one batch uploaded at once
+    @Value("${storage.upload.parallel-files:4}")
+    private int parallelFiles;
+
+    // Reuse an existing object when the uploaded bytes hash to one we already store
+    @Value("${storage.upload.dedup-enabled:true}")
+    private boolean dedupEnabled;
+
+    // HEAD requests of one metadata batch sent at once
+    @Value("${storage.metadata.head-threads:8}")
+    private int headThreads;
+
+    // Pool threads are virtual, so blocking I/O does not hold a platform thread (pool size still bounds concurrency)
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    private ThreadPoolTaskExecutor fileExecutor;
+    private ThreadPoolTaskExecutor headExecutor;
+    private TransactionTemplate transactionTemplate;
+    // Lookups in progress, so concurrent requests for one key share a single HEAD
+    private final Map<String, CompletableFuture<FileMetadata>> headsInFlight = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void startUploadPools() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        fileExecutor = newPool("upload-file-", parallelFiles, virtualThreads);
+        headExecutor = newPool("object-head-", headThreads, virtualThreads);
+    }
+
+    @PreDestroy
+    void stopUploadPools() {
+        fileExecutor.shutdown();
+        headExecutor.shutdown();
+    }
 
     /**
-     * Upload file to Cloudflare R2
+     * Upload file to the configured storage provider (Cloudflare R2 by default)
      * @param file The file to upload
      * @param folder The folder path (e.g., "products", "users", "categories")
      * @return The public URL of the uploaded file
      */
     public String uploadFile(MultipartFile file, String folder) {
-        try {
-            // Generate unique filename
-            String originalFilename = file.getOriginalFilename();
-            String extension = originalFilename != null && originalFilename.contains(".") 
-                ? originalFilename.substring(originalFilename.lastIndexOf(".")) 
-                : "";
-            
-            String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
-            String uniqueId = UUID.randomUUID().toString().substring(0, 8);
-            String filename = folder + "/" + timestamp + "_" + uniqueId + extension;
-
-            // Upload to R2
-            PutObjectRequest putObjectRequest = PutObjectRequest.builder()
-                    .bucket(r2Config.getBucketName())
-                    .key(filename)
-                    .contentType(file.getContentType())
-                    .contentLength(file.getSize())
-                    .build();
-
-            PutObjectResponse response = s3Client.putObject(putObjectRequest, 
-                    RequestBody.fromInputStream(file.getInputStream(), file.getSize()));
-
-            logger.info("File uploaded successfully: {} (ETag: {})", filename, response.eTag());
-
-            // Return public URL
-            return getPublicUrl(filename);
+        return upload(file, folder).getUrl();
+    }
+
+    /**
+     * Stores generated content (e.g. image renditions) under an explicit key.
+     * @return The public URL of the stored object
+     */
+    public String uploadBytes(String key, byte[] data, String contentType) {
+        try (InputStream in = new ByteArrayInputStream(data)) {
+            storageProvider.put(key, in, data.length, contentType);
+            metadataCache.recordUpload(key, new FileMetadata(key, contentType, (long) data.length, Instant.now()));
+            return getPublicUrl(key);
+        } catch (IOException e) {
+            logger.error("Failed to upload {}: {}", key, e.getMessage());
+            throw new RuntimeException("File upload failed", e);
+        }
+    }
+
+    /**
+     * Fresh, unique object key in a folder, e.g. products/20250101_120000_ab12cd34.jpg
+     * @param extension including the dot, or empty
+     */
+    public String newObjectKey(String folder, String extension) {
+        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
+        String uniqueId = UUID.randomUUID().toString().substring(0, 8);
+        return folder + "/" + timestamp + "_" + uniqueId + extension;
+    }
+
+    /**
+     * Confirms an object a client uploaded directly to storage and indexes it with one reference.
+     * Its bytes never pass through us, so it is not content-addressed and does not take part in deduplication.
+     * @throws IllegalStateException if the object is missing or differs from what was signed (it is then removed)
+     */
+    public FileMetadata registerDirectUpload(String key, long expectedSize, String expectedContentType) {
+        // May still hold a "missing" result from before the upload
+        metadataCache.invalidate(key);
+        FileMetadata metadata = storageProvider.head(key);
+        if (metadata == null) {
+            throw new IllegalStateException("Upload not found: " + key);
+        }
+        if (metadata.getSize() != expectedSize || !expectedContentType.equalsIgnoreCase(metadata.getContentType())) {
+            deleteObject(key);
+            throw new IllegalStateException("Uploaded object does not match the signed size or content type");
+        }
+        metadataCache.recordUpload(key, metadata);
+        if (storedObjectRepository.findByObjectKey(key).isEmpty()) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    StoredObject stored = new StoredObject();
+                    stored.setFolder(folderOf(key));
+                    stored.setObjectKey(key);
+                    stored.setSizeBytes(expectedSize);
+                    stored.setContentType(expectedContentType);
+                    stored.setCreatedAt(LocalDateTime.now());
+                    stored.setLastReferencedAt(stored.getCreatedAt());
+                    storedObjectRepository.saveAndFlush(stored);
+                });
+            } catch (DataIntegrityViolationException e) {
+                // Only a concurrent confirmation of the same key is benign; anything else (e.g. a schema
+                // still missing V16's nullable content_hash) must surface instead of leaving the object unindexed
+                if (storedObjectRepository.findByObjectKey(key).isEmpty()) {
+                    throw e;
+                }
+            }
+        }
+        logger.info("Direct upload registered: {} ({} bytes)", key, expectedSize);
+        return metadata;
+    }
+
+    /**
+     * Object key (e.g. products/20250101_120000_ab12cd34.jpg) of one of our public URLs, or null.
+     */
+    public String getObjectKey(String fileUrl) {
+        return extractFilenameFromUrl(fileUrl);
+    }
+
+    /**
+     * Uploads several files in parallel, at most storage.upload.parallel-files at a time.
+     * One failing file does not fail the batch; results keep the input order.
+     */
+    public List<UploadResult> uploadFiles(List<MultipartFile> files, String folder) {
+        List<CompletableFuture<UploadResult>> futures = new ArrayList<>(files.size());
+        for (MultipartFile file : files) {
+            futures.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    return upload(file, folder);
+                } catch (Exception e) {
+                    logger.error("Failed to upload {}: {}", file.getOriginalFilename(), e.getMessage());
+                    return UploadResult.failed(file.getOriginalFilename(), file.getSize(), e.getMessage());
+                }
+            }, fileExecutor));
+        }
+        List<UploadResult> results = new ArrayList<>(futures.size());
+        for (CompletableFuture<UploadResult> future : futures) {
+            results.add(future.join());
+        }
+        return results;
+    }
 
+    /**
+     * Uploads one file. The multipart body is already buffered locally, so it is hashed before anything is
+     * sent: content already stored in the same folder only gains a reference and returns the existing URL
+     * without a transfer.
+     */
+    private UploadResult upload(MultipartFile file, String folder) {
+        long start = System.currentTimeMillis();
+        String originalFilename = file.getOriginalFilename();
+        String contentHash = dedupEnabled ? sha256(file) : null;
+        if (contentHash != null) {
+            Optional<String> existingKey = acquireExisting(folder, contentHash);
+            if (existingKey.isPresent()) {
+                long elapsed = System.currentTimeMillis() - start;
+                logger.info("Duplicate upload of {} resolved to existing {} ({}ms)", originalFilename, existingKey.get(), elapsed);
+                return UploadResult.deduplicated(originalFilename, getPublicUrl(existingKey.get()), file.getSize(), elapsed);
+            }
+        }
+
+        // Generate unique filename
+        String extension = originalFilename != null && originalFilename.contains(".") 
+            ? originalFilename.substring(originalFilename.lastIndexOf(".")) 
+            : "";
+        String filename = newObjectKey(folder, extension);
+
+        try (InputStream in = file.getInputStream()) {
+            int parts = storageProvider.put(filename, in, file.getSize(), file.getContentType());
+            metadataCache.recordUpload(filename, new FileMetadata(filename, file.getContentType(), file.getSize(), Instant.now()));
+            if (contentHash != null) {
+                Optional<String> winner = register(folder, contentHash, filename, file.getSize(), file.getContentType());
+                if (winner.isPresent()) {
+                    // Lost a race with an identical concurrent upload; keep theirs
+                    deleteObject(filename);
+                    long elapsed = System.currentTimeMillis() - start;
+                    logger.info("Duplicate upload of {} resolved to existing {} ({}ms)", originalFilename, winner.get(), elapsed);
+                    return UploadResult.deduplicated(originalFilename, getPublicUrl(winner.get()), file.getSize(), elapsed);
+                }
+            }
+            long elapsed = System.currentTimeMillis() - start;
+            logger.info("File uploaded successfully: {} ({} bytes, {} part(s), {}ms)", filename, file.getSize(), parts, elapsed);
+            return UploadResult.succeeded(originalFilename, getPublicUrl(filename), file.getSize(), parts, elapsed);
         } catch (IOException e) {
             logger.error("Failed to upload file: {}", e.getMessage());
             throw new RuntimeException("File upload failed", e);
         }
     }
 
+    private String sha256(MultipartFile file) {
+        try (InputStream in = file.getInputStream()) {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] buffer = new byte[64 * 1024];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (IOException e) {
+            logger.error("Failed to read upload: {}", e.getMessage());
+            throw new RuntimeException("File upload failed", e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    // Adds a reference to content with this hash stored in the folder, if any
+    private Optional<String> acquireExisting(String folder, String contentHash) {
+        return transactionTemplate.execute(status -> {
+            if (storedObjectRepository.incrementRefs(folder, contentHash, LocalDateTime.now()) == 0) {
+                return Optional.<String>empty();
+            }
+            return storedObjectRepository.findObjectKeyByContentHash(folder, contentHash);
+        });
+    }
+
+    // Indexes a new object; returns the other key if identical content was registered in the folder concurrently
+    Optional<String> register(String folder, String contentHash, String key, long size, String contentType) {
+        if (storedObjectRepository.insertIfAbsent(folder, contentHash, key, size, contentType) == 1) {
+            return Optional.empty();
+        }
+        return acquireExisting(folder, contentHash);
+    }
+
+    // Folder part of an object key: everything before the last '/'
+    static String folderOf(String key) {
+        int slash = key.lastIndexOf('/');
+        return slash < 0 ? "" : key.substring(0, slash);
+    }
+
+    static ThreadPoolTaskExecutor newPool(String prefix, int threads, boolean virtualThreads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(Math.max(1, threads));
+        executor.setMaxPoolSize(Math.max(1, threads));
+        executor.setThreadNamePrefix(prefix);
+        if (virtualThreads) {
+            executor.setThreadFactory(Thread.ofVirtual().name(prefix, 1).factory());
+        }
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(60);
+        executor.initialize();
+        return executor;
+    }
+
     /**
-     * Delete file from Cloudflare R2
+     * Delete file from storage.
+     * Releases one reference to the object; it (and its renditions) is only removed from the bucket once no
+     * upload references it and no product or category image still points at the URL.
      * @param fileUrl The public URL of the file to delete
      */
     public void deleteFile(String fileUrl) {
         try {
             String filename = extractFilenameFromUrl(fileUrl);
-            if (filename != null) {
-                DeleteObjectRequest deleteObjectRequest = DeleteObjectRequest.builder()
-                        .bucket(r2Config.getBucketName())
-                        .key(filename)
-                        .build();
-
-                s3Client.deleteObject(deleteObjectRequest);
-                logger.info("File deleted successfully: {}", filename);
+            if (filename == null) return;
+
+            Optional<StoredObject> stored = storedObjectRepository.findByObjectKey(filename);
+            if (stored.isPresent()) {
+                Boolean unreferenced = transactionTemplate.execute(status -> {
+                    storedObjectRepository.decrementRefs(filename);
+                    return storedObjectRepository.findByObjectKey(filename)
+                            .map(o -> o.getRefCount() == 0)
+                            .orElse(true);
+                });
+                if (!Boolean.TRUE.equals(unreferenced)) {
+                    logger.info("File {} still referenced, keeping object", filename);
+                    return;
+                }
             }
+            if (storedObjectRepository.countUrlReferences(fileUrl) > 0) {
+                logger.info("File {} still used by a product or category, keeping object", filename);
+                return;
+            }
+            // Claim the row; a concurrent duplicate upload that re-referenced it in between keeps the object
+            if (stored.isPresent() && transactionTemplate.execute(status -> storedObjectRepository.deleteUnreferenced(filename)) == 0) {
+                logger.info("File {} re-referenced concurrently, keeping object", filename);
+                return;
+            }
+
+            deleteObject(filename);
+            deleteVariants(fileUrl);
+            logger.info("File deleted successfully: {}", filename);
         } catch (Exception e) {
             logger.error("Failed to delete file: {}", e.getMessage());
             // Don't throw exception for delete failures
@@ -93,7 +345,49 @@ public class FileStorageService {
     }
 
     /**
-     * Check if file exists in R2
+     * Removes objects the orphan collector found unreferenced, with their index and rendition registry rows.
+     * @return keys that could not be deleted
+     */
+    public List<String> deleteOrphans(List<String> keys) {
+        List<String> failed = storageProvider.deleteAll(keys);
+        Set<String> failedKeys = new HashSet<>(failed);
+        List<String> deleted = new ArrayList<>(keys.size());
+        List<String> urls = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            if (!failedKeys.contains(key)) {
+                deleted.add(key);
+                urls.add(getPublicUrl(key));
+            }
+        }
+        if (!deleted.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status -> {
+                storedObjectRepository.deleteByObjectKeyIn(deleted);
+                imageVariantRepository.deleteByUrlIn(urls);
+            });
+            deleted.forEach(metadataCache::recordDelete);
+        }
+        return failed;
+    }
+
+    private void deleteObject(String key) {
+        storageProvider.delete(key);
+        metadataCache.recordDelete(key);
+    }
+
+    private void deleteVariants(String originalUrl) {
+        List<ImageVariant> variants = imageVariantRepository.findByOriginalUrlIn(List.of(originalUrl));
+        if (variants.isEmpty()) return;
+        for (ImageVariant variant : variants) {
+            String key = extractFilenameFromUrl(variant.getUrl());
+            if (key != null) {
+                deleteObject(key);
+            }
+        }
+        transactionTemplate.executeWithoutResult(status -> imageVariantRepository.deleteByOriginalUrl(originalUrl));
+    }
+
+    /**
+     * Check if file exists in storage (served from the metadata cache when possible)
      * @param fileUrl The public URL of the file
      * @return true if file exists
      */
@@ -101,16 +395,7 @@ public class FileStorageService {
         try {
             String filename = extractFilenameFromUrl(fileUrl);
             if (filename == null) return false;
-
-            HeadObjectRequest headObjectRequest = HeadObjectRequest.builder()
-                    .bucket(r2Config.getBucketName())
-                    .key(filename)
-                    .build();
-
-            s3Client.headObject(headObjectRequest);
-            return true;
-        } catch (NoSuchKeyException e) {
-            return false;
+            return headCached(filename) != null;
         } catch (Exception e) {
             logger.error("Error checking file existence: {}", e.getMessage());
             return false;
@@ -118,40 +403,76 @@ public class FileStorageService {
     }
 
     /**
-     * Get file metadata
+     * Get file metadata (served from the metadata cache when possible)
      * @param fileUrl The public URL of the file
-     * @return File metadata
+     * @return File metadata, or null if the file does not exist
      */
     public FileMetadata getFileMetadata(String fileUrl) {
         try {
             String filename = extractFilenameFromUrl(fileUrl);
             if (filename == null) return null;
-
-            HeadObjectRequest headObjectRequest = HeadObjectRequest.builder()
-                    .bucket(r2Config.getBucketName())
-                    .key(filename)
-                    .build();
-
-            HeadObjectResponse response = s3Client.headObject(headObjectRequest);
-            
-            return new FileMetadata(
-                    filename,
-                    response.contentType(),
-                    response.contentLength(),
-                    response.lastModified()
-            );
+            return headCached(filename);
         } catch (Exception e) {
             logger.error("Error getting file metadata: {}", e.getMessage());
             return null;
         }
     }
 
-    private String getPublicUrl(String filename) {
-        if (publicUrl != null && !publicUrl.isEmpty()) {
-            return publicUrl + "/" + filename;
+    /**
+     * Metadata of several files: cached entries are answered directly, the rest are looked up with
+     * parallel HEAD requests (storage.metadata.head-threads at a time).
+     * @return URL -> metadata in request order; null for missing files and URLs that failed to resolve
+     */
+    public Map<String, FileMetadata> getFileMetadata(Collection<String> fileUrls) {
+        Map<String, FileMetadata> results = new LinkedHashMap<>();
+        Map<String, CompletableFuture<FileMetadata>> pending = new LinkedHashMap<>();
+        for (String fileUrl : fileUrls) {
+            String filename = extractFilenameFromUrl(fileUrl);
+            results.put(fileUrl, null);
+            if (filename == null || pending.containsKey(fileUrl)) continue;
+            ObjectMetadataCache.Entry cached = metadataCache.get(filename);
+            if (cached != null) {
+                results.put(fileUrl, cached.getMetadata());
+            } else {
+                pending.put(fileUrl, CompletableFuture.supplyAsync(() -> headCached(filename), headExecutor));
+            }
+        }
+        for (Map.Entry<String, CompletableFuture<FileMetadata>> lookup : pending.entrySet()) {
+            try {
+                results.put(lookup.getKey(), lookup.getValue().join());
+            } catch (CompletionException e) {
+                logger.error("Error getting file metadata for {}: {}", lookup.getKey(), e.getCause().getMessage());
+            }
         }
-        // Fallback to R2 direct URL (if bucket is public)
-        return "https://pub-" + r2Config.getBucketName() + ".r2.dev/" + filename;
+        return results;
+    }
+
+    private FileMetadata headCached(String key) {
+        ObjectMetadataCache.Entry cached = metadataCache.get(key);
+        if (cached != null) return cached.getMetadata();
+
+        CompletableFuture<FileMetadata> lookup = new CompletableFuture<>();
+        CompletableFuture<FileMetadata> running = headsInFlight.putIfAbsent(key, lookup);
+        if (running != null) {
+            return running.join();
+        }
+        try {
+            long token = metadataCache.beginLoad();
+            FileMetadata metadata = storageProvider.head(key);
+            metadataCache.putLoaded(key, metadata, token);
+            lookup.complete(metadata);
+            return metadata;
+        } catch (RuntimeException e) {
+            // Errors are not cached; the next call retries
+            lookup.completeExceptionally(e);
+            throw e;
+        } finally {
+            headsInFlight.remove(key, lookup);
+        }
+    }
+
+    private String getPublicUrl(String filename) {
+        return storageProvider.getPublicUrl(filename);
     }
 
     private String extractFilenameFromUrl(String fileUrl) {
@@ -201,4 +522,48 @@ public class FileStorageService {
         public Long getSize() { return size; }
         public java.time.Instant getLastModified() { return lastModified; }
     }
+
+    // Per-file outcome of a batch upload
+    public static class UploadResult {
+        private final String originalFilename;
+        private final String url;
+        private final long size;
+        private final int parts;
+        private final long durationMs;
+        private final boolean deduplicated;
+        private final String error;
+
+        private UploadResult(String originalFilename, String url, long size, int parts, long durationMs,
+                             boolean deduplicated, String error) {
+            this.originalFilename = originalFilename;
+            this.url = url;
+            this.size = size;
+            this.parts = parts;
+            this.durationMs = durationMs;
+            this.deduplicated = deduplicated;
+            this.error = error;
+        }
+
+        static UploadResult succeeded(String originalFilename, String url, long size, int parts, long durationMs) {
+            return new UploadResult(originalFilename, url, size, parts, durationMs, false, null);
+        }
+
+        static UploadResult deduplicated(String originalFilename, String url, long size, long durationMs) {
+            return new UploadResult(originalFilename, url, size, 0, durationMs, true, null);
+        }
+
+        static UploadResult failed(String originalFilename, long size, String error) {
+            return new UploadResult(originalFilename, null, size, 0, 0, false, error);
+        }
+
+        // Getters
+        public String getOriginalFilename() { return originalFilename; }
+        public String getUrl() { return url; }
+        public long getSize() { return size; }
+        public int getParts() { return parts; }
+        public long getDurationMs() { return durationMs; }
+        public boolean isDeduplicated() { return deduplicated; }
+        public String getError() { return error; }
+        public boolean isSuccess() { return error == null; }
+    }
 }
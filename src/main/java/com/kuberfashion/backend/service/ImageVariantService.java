@@ -0,0 +1,419 @@
+package com.kuberfashion.backend.service;
+
+import com.kuberfashion.backend.entity.ImageVariant;
+import com.kuberfashion.backend.entity.ProductImageVariant;
+import com.kuberfashion.backend.repository.ImageVariantRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Generates web renditions of uploaded images: thumb, card and detail widths, re-encoded as progressive JPEG.
+ *
+ * Decoding and resizing run on a small bounded pool (images are decoded to full-size rasters, so concurrency
+ * is what bounds heap use). Originals above max-pixels are refused before decoding. A JPEG's EXIF orientation
+ * is applied to the raster before scaling; renditions are then written from bare rasters, so EXIF/XMP metadata
+ * of the original is not carried over. Formats ImageIO cannot read (e.g. WebP) are uploaded without renditions.
+ *
+ * Upload responses wait at most response-wait-ms for renditions. A job that takes longer keeps running and is
+ * registered when it finishes; the response simply omits its URLs.
+ */
+@Service
+public class ImageVariantService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageVariantService.class);
+
+    public enum Variant {
+        // Ordered largest first: each rendition is scaled down from the previous one
+        DETAIL(1200), CARD(480), THUMB(160);
+
+        final int width;
+
+        Variant(int width) {
+            this.width = width;
+        }
+
+        public String key() {
+            return name().toLowerCase();
+        }
+    }
+
+    @Autowired
+    private FileStorageService fileStorageService;
+
+    @Autowired
+    private ImageVariantRepository imageVariantRepository;
+
+    @Value("${storage.images.variants-enabled:true}")
+    private boolean enabled;
+
+    @Value("${storage.images.workers:2}")
+    private int workers;
+
+    @Value("${storage.images.queue-capacity:64}")
+    private int queueCapacity;
+
+    @Value("${storage.images.jpeg-quality:0.82}")
+    private float jpegQuality;
+
+    @Value("${storage.images.max-pixels:40000000}")
+    private long maxPixels;
+
+    @Value("${storage.images.response-wait-ms:2000}")
+    private long responseWaitMs;
+
+    private ThreadPoolTaskExecutor executor;
+
+    // Platform threads even when virtual threads are enabled: rendition work is CPU-bound
+    @PostConstruct
+    void start() {
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(Math.max(1, workers));
+        executor.setMaxPoolSize(Math.max(1, workers));
+        executor.setQueueCapacity(Math.max(1, queueCapacity));
+        executor.setThreadNamePrefix("image-variant-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(60);
+        executor.initialize();
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdown();
+    }
+
+    /**
+     * Queues rendition generation for an uploaded original.
+     * @return variant key -> URL; empty when disabled, unsupported, or the pool is saturated
+     */
+    public CompletableFuture<Map<String, String>> createVariantsAsync(byte[] original, String originalUrl) {
+        if (!enabled || original == null || originalUrl == null) {
+            return CompletableFuture.completedFuture(Map.of());
+        }
+        // A deduplicated upload resolves to an original whose renditions already exist
+        List<ImageVariant> existing = imageVariantRepository.findByOriginalUrlIn(List.of(originalUrl));
+        if (!existing.isEmpty()) {
+            Map<String, String> urls = new LinkedHashMap<>();
+            for (ImageVariant v : existing) {
+                urls.put(v.getVariant(), v.getUrl());
+            }
+            return CompletableFuture.completedFuture(urls);
+        }
+        try {
+            return CompletableFuture.supplyAsync(() -> generate(original, originalUrl), executor)
+                    .exceptionally(e -> {
+                        logger.warn("Image variants failed for {}: {}", originalUrl, e.getMessage());
+                        return Map.of();
+                    });
+        } catch (TaskRejectedException e) {
+            logger.warn("Image variant queue full, skipping renditions for {}", originalUrl);
+            return CompletableFuture.completedFuture(Map.of());
+        }
+    }
+
+    /**
+     * Renditions for an upload response, waiting no longer than response-wait-ms for them.
+     */
+    public Map<String, String> createVariants(byte[] original, String originalUrl) {
+        return collectForResponse(Map.of(originalUrl, createVariantsAsync(original, originalUrl))).get(originalUrl);
+    }
+
+    /**
+     * Waits up to response-wait-ms in total for the given jobs and returns the renditions that are ready, keyed
+     * like the input; jobs still running map to an empty result and finish in the background.
+     */
+    public Map<String, Map<String, String>> collectForResponse(Map<String, CompletableFuture<Map<String, String>>> pending) {
+        try {
+            CompletableFuture.allOf(pending.values().toArray(new CompletableFuture<?>[0]))
+                    .get(responseWaitMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            logger.info("Image variants still running after {} ms, responding without them", responseWaitMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // Not reached: each job already maps its failure to an empty result
+        }
+        Map<String, Map<String, String>> ready = new LinkedHashMap<>();
+        pending.forEach((url, future) -> ready.put(url, future.getNow(Map.of())));
+        return ready;
+    }
+
+    /**
+     * Renditions of the given product images, from the registry, ready to store on the product.
+     */
+    public Set<ProductImageVariant> resolveForProduct(String image, Collection<String> images) {
+        Set<String> urls = new LinkedHashSet<>();
+        if (image != null && !image.isBlank()) urls.add(image);
+        if (images != null) {
+            for (String url : images) {
+                if (url != null && !url.isBlank()) urls.add(url);
+            }
+        }
+        Set<ProductImageVariant> out = new HashSet<>();
+        if (urls.isEmpty()) return out;
+        for (ImageVariant v : imageVariantRepository.findByOriginalUrlIn(urls)) {
+            out.add(new ProductImageVariant(v.getOriginalUrl(), v.getVariant(), v.getUrl(), v.getWidth()));
+        }
+        return out;
+    }
+
+    private Map<String, String> generate(byte[] original, String originalUrl) {
+        String originalKey = fileStorageService.getObjectKey(originalUrl);
+        if (originalKey == null) {
+            return Map.of();
+        }
+        BufferedImage source;
+        try {
+            source = decode(original);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot decode image: " + e.getMessage(), e);
+        }
+        if (source == null) {
+            logger.info("No image reader for {}, skipping renditions", originalUrl);
+            return Map.of();
+        }
+
+        Map<String, String> urls = new LinkedHashMap<>();
+        List<ImageVariant> records = new ArrayList<>();
+        // Oriented first so each rendition's width is the width the image is displayed at
+        BufferedImage current = applyOrientation(toRgb(source), exifOrientation(original));
+        for (Variant variant : Variant.values()) {
+            current = scaleToWidth(current, variant.width);
+            byte[] jpeg = encodeJpeg(current);
+            String url = fileStorageService.uploadBytes(variantKey(originalKey, variant), jpeg, "image/jpeg");
+            urls.put(variant.key(), url);
+            records.add(new ImageVariant(originalUrl, variant.key(), url, current.getWidth(), current.getHeight(), jpeg.length));
+        }
+        imageVariantRepository.saveAll(records);
+        logger.info("Generated {} renditions for {} ({}x{})", records.size(), originalKey, source.getWidth(), source.getHeight());
+        return urls;
+    }
+
+    // products/20250101_120000_ab12cd34.png -> products/20250101_120000_ab12cd34_card.jpg
+    static String variantKey(String originalKey, Variant variant) {
+        int slash = originalKey.lastIndexOf('/');
+        int dot = originalKey.lastIndexOf('.');
+        String base = dot > slash ? originalKey.substring(0, dot) : originalKey;
+        return base + "_" + variant.key() + ".jpg";
+    }
+
+    private BufferedImage decode(byte[] data) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(new ByteArrayInputStream(data))) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                // Checked from the header so an oversized image is refused before its raster is allocated
+                long pixels = (long) reader.getWidth(0) * reader.getHeight(0);
+                if (pixels > maxPixels) {
+                    throw new IOException("Image too large: " + reader.getWidth(0) + "x" + reader.getHeight(0));
+                }
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // JPEG has no alpha: flatten onto white
+    private static BufferedImage toRgb(BufferedImage src) {
+        if (src.getType() == BufferedImage.TYPE_INT_RGB) {
+            return src;
+        }
+        BufferedImage rgb = new BufferedImage(src.getWidth(), src.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = rgb.createGraphics();
+        g.setColor(Color.WHITE);
+        g.fillRect(0, 0, src.getWidth(), src.getHeight());
+        g.drawImage(src, 0, 0, null);
+        g.dispose();
+        return rgb;
+    }
+
+    /**
+     * EXIF orientation (1-8) of a JPEG, read from the IFD0 of its APP1 segment; 1 when absent or not a JPEG.
+     */
+    static int exifOrientation(byte[] data) {
+        if (data.length < 4 || (data[0] & 0xFF) != 0xFF || (data[1] & 0xFF) != 0xD8) {
+            return 1;
+        }
+        int pos = 2;
+        while (pos + 4 <= data.length) {
+            if ((data[pos] & 0xFF) != 0xFF) {
+                return 1;
+            }
+            int marker = data[pos + 1] & 0xFF;
+            if (marker == 0xFF) {
+                pos++;
+                continue;
+            }
+            // Metadata segments all precede the first scan
+            if (marker == 0xDA || marker == 0xD9) {
+                return 1;
+            }
+            int length = readUnsignedShort(data, pos + 2, false);
+            int segment = pos + 4;
+            int end = Math.min(data.length, pos + 2 + length);
+            if (marker == 0xE1 && segment + 6 <= end && data[segment] == 'E' && data[segment + 1] == 'x'
+                    && data[segment + 2] == 'i' && data[segment + 3] == 'f' && data[segment + 4] == 0 && data[segment + 5] == 0) {
+                return readTiffOrientation(data, segment + 6, end);
+            }
+            pos += 2 + length;
+        }
+        return 1;
+    }
+
+    private static int readTiffOrientation(byte[] data, int tiff, int end) {
+        if (tiff + 8 > end) {
+            return 1;
+        }
+        boolean littleEndian;
+        if (data[tiff] == 'I' && data[tiff + 1] == 'I') {
+            littleEndian = true;
+        } else if (data[tiff] == 'M' && data[tiff + 1] == 'M') {
+            littleEndian = false;
+        } else {
+            return 1;
+        }
+        long ifd = tiff + readUnsignedInt(data, tiff + 4, littleEndian);
+        if (ifd + 2 > end) {
+            return 1;
+        }
+        int entries = readUnsignedShort(data, (int) ifd, littleEndian);
+        for (int i = 0; i < entries; i++) {
+            int entry = (int) ifd + 2 + i * 12;
+            if (entry + 12 > end) {
+                return 1;
+            }
+            if (readUnsignedShort(data, entry, littleEndian) == 0x0112) {
+                // A single SHORT, stored inline in the value field
+                int orientation = readUnsignedShort(data, entry + 8, littleEndian);
+                return orientation >= 1 && orientation <= 8 ? orientation : 1;
+            }
+        }
+        return 1;
+    }
+
+    private static int readUnsignedShort(byte[] data, int at, boolean littleEndian) {
+        int a = data[at] & 0xFF;
+        int b = data[at + 1] & 0xFF;
+        return littleEndian ? (b << 8) | a : (a << 8) | b;
+    }
+
+    private static long readUnsignedInt(byte[] data, int at, boolean littleEndian) {
+        long high = readUnsignedShort(data, littleEndian ? at + 2 : at, littleEndian);
+        long low = readUnsignedShort(data, littleEndian ? at : at + 2, littleEndian);
+        return (high << 16) | low;
+    }
+
+    /**
+     * Rotates/flips a raster so it is upright for the given EXIF orientation (2-8 swap or mirror axes; 5-8 also
+     * swap width and height).
+     */
+    static BufferedImage applyOrientation(BufferedImage src, int orientation) {
+        int w = src.getWidth();
+        int h = src.getHeight();
+        // Maps source pixel coordinates to upright ones: (m00, m10, m01, m11, m02, m12)
+        AffineTransform transform = switch (orientation) {
+            case 2 -> new AffineTransform(-1, 0, 0, 1, w, 0);
+            case 3 -> new AffineTransform(-1, 0, 0, -1, w, h);
+            case 4 -> new AffineTransform(1, 0, 0, -1, 0, h);
+            case 5 -> new AffineTransform(0, 1, 1, 0, 0, 0);
+            case 6 -> new AffineTransform(0, 1, -1, 0, h, 0);
+            case 7 -> new AffineTransform(0, -1, -1, 0, h, w);
+            case 8 -> new AffineTransform(0, -1, 1, 0, 0, w);
+            default -> null;
+        };
+        if (transform == null) {
+            return src;
+        }
+        boolean swap = orientation >= 5;
+        BufferedImage upright = new BufferedImage(swap ? h : w, swap ? w : h, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = upright.createGraphics();
+        g.drawImage(src, transform, null);
+        g.dispose();
+        return upright;
+    }
+
+    /**
+     * Downscales in successive halvings with bilinear filtering, which avoids the aliasing of a single
+     * large bilinear step at a fraction of the cost of bicubic. Never upscales.
+     */
+    private static BufferedImage scaleToWidth(BufferedImage src, int targetWidth) {
+        if (src.getWidth() <= targetWidth) {
+            return src;
+        }
+        int targetHeight = Math.max(1, (int) Math.round(src.getHeight() * (targetWidth / (double) src.getWidth())));
+        BufferedImage current = src;
+        int w = src.getWidth();
+        int h = src.getHeight();
+        do {
+            w = Math.max(w / 2, targetWidth);
+            h = Math.max(h / 2, targetHeight);
+            BufferedImage next = new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = next.createGraphics();
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(current, 0, 0, w, h, null);
+            g.dispose();
+            current = next;
+        } while (w != targetWidth || h != targetHeight);
+        return current;
+    }
+
+    private byte[] encodeJpeg(BufferedImage image) {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(bytes)) {
+            writer.setOutput(out);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(jpegQuality);
+            param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+            // No metadata passed: the output carries only the JFIF header
+            writer.write(null, new IIOImage(image, null, null), param);
+        } catch (IOException e) {
+            throw new IllegalStateException("JPEG encoding failed", e);
+        } finally {
+            writer.dispose();
+        }
+        return bytes.toByteArray();
+    }
+}
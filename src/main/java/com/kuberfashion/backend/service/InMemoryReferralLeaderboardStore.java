@@ -0,0 +1,248 @@
+package com.kuberfashion.backend.service;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Single-node leaderboard store used when Redis is not the cache backend.
+ *
+ * Each board is an indexable skip list (every forward link records how many nodes it spans, as in Redis'
+ * zskiplist), which is what makes rank lookups O(log n); ConcurrentSkipListMap cannot answer "how many
+ * entries precede this one" without a linear walk. Boards are guarded by a read/write lock, and a rebuild
+ * swaps in a freshly built list. Contents are lost on restart and re-seeded by ReferralBackfillRunner.
+ */
+@Component
+@ConditionalOnExpression("'${spring.cache.type:simple}' != 'redis'")
+public class InMemoryReferralLeaderboardStore implements ReferralLeaderboardStore {
+
+    private final Map<Board, RankedIndex> boards = new EnumMap<>(Board.class);
+
+    public InMemoryReferralLeaderboardStore() {
+        for (Board board : Board.values()) {
+            boards.put(board, new RankedIndex());
+        }
+    }
+
+    @Override
+    public void increment(Board board, Collection<Long> userIds, long delta) {
+        if (userIds.isEmpty() || delta == 0) return;
+        RankedIndex index = index(board);
+        index.lock.writeLock().lock();
+        try {
+            for (Long userId : userIds) {
+                index.add(userId, delta);
+            }
+        } finally {
+            index.lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Entry> top(Board board, int limit) {
+        RankedIndex index = index(board);
+        index.lock.readLock().lock();
+        try {
+            return index.head(limit);
+        } finally {
+            index.lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Optional<Entry> rank(Board board, long userId) {
+        RankedIndex index = index(board);
+        index.lock.readLock().lock();
+        try {
+            Long score = index.scores.get(userId);
+            if (score == null) return Optional.empty();
+            return Optional.of(new Entry(index.rankOf(userId, score), userId, score));
+        } finally {
+            index.lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public long size(Board board) {
+        RankedIndex index = index(board);
+        index.lock.readLock().lock();
+        try {
+            return index.length;
+        } finally {
+            index.lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Rebuild beginRebuild(Board board) {
+        RankedIndex staged = new RankedIndex();
+        return new Rebuild() {
+            @Override
+            public void add(long userId, long score) {
+                staged.add(userId, score);
+            }
+
+            @Override
+            public void commit() {
+                synchronized (boards) {
+                    boards.put(board, staged);
+                }
+            }
+        };
+    }
+
+    private RankedIndex index(Board board) {
+        synchronized (boards) {
+            return boards.get(board);
+        }
+    }
+
+    /**
+     * Indexable skip list ordered by score descending, then user id ascending. Not thread-safe by itself.
+     */
+    private static final class RankedIndex {
+
+        private static final int MAX_LEVEL = 32;
+        private static final double P = 0.25;
+
+        final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        final Map<Long, Long> scores = new HashMap<>();
+        private final Node head = new Node(0L, 0L, MAX_LEVEL);
+        private int level = 1;
+        long length = 0;
+
+        private static final class Node {
+            final long member;
+            final long score;
+            final Node[] next;
+            final long[] span;
+
+            Node(long member, long score, int levels) {
+                this.member = member;
+                this.score = score;
+                this.next = new Node[levels];
+                this.span = new long[levels];
+            }
+        }
+
+        void add(long member, long delta) {
+            Long old = scores.get(member);
+            long score = old != null ? old + delta : delta;
+            if (old != null) {
+                delete(member, old);
+            }
+            insert(member, score);
+            scores.put(member, score);
+        }
+
+        long rankOf(long member, long score) {
+            long rank = 0;
+            Node x = head;
+            for (int i = level - 1; i >= 0; i--) {
+                while (x.next[i] != null && (precedes(x.next[i], member, score) || x.next[i].member == member)) {
+                    rank += x.span[i];
+                    x = x.next[i];
+                }
+                if (x != head && x.member == member) {
+                    return rank;
+                }
+            }
+            return 0;
+        }
+
+        List<Entry> head(int limit) {
+            List<Entry> out = new ArrayList<>(Math.max(0, Math.min(limit, (int) Math.min(length, Integer.MAX_VALUE))));
+            Node x = head.next[0];
+            long rank = 1;
+            while (x != null && out.size() < limit) {
+                out.add(new Entry(rank++, x.member, x.score));
+                x = x.next[0];
+            }
+            return out;
+        }
+
+        // True when node sorts strictly before (member, score)
+        private static boolean precedes(Node node, long member, long score) {
+            return node.score > score || (node.score == score && node.member < member);
+        }
+
+        private void insert(long member, long score) {
+            Node[] update = new Node[MAX_LEVEL];
+            long[] rank = new long[MAX_LEVEL];
+            Node x = head;
+            for (int i = level - 1; i >= 0; i--) {
+                rank[i] = i == level - 1 ? 0 : rank[i + 1];
+                while (x.next[i] != null && precedes(x.next[i], member, score)) {
+                    rank[i] += x.span[i];
+                    x = x.next[i];
+                }
+                update[i] = x;
+            }
+            int newLevel = randomLevel();
+            if (newLevel > level) {
+                for (int i = level; i < newLevel; i++) {
+                    rank[i] = 0;
+                    update[i] = head;
+                    update[i].span[i] = length;
+                }
+                level = newLevel;
+            }
+            Node node = new Node(member, score, newLevel);
+            for (int i = 0; i < newLevel; i++) {
+                node.next[i] = update[i].next[i];
+                update[i].next[i] = node;
+                node.span[i] = update[i].span[i] - (rank[0] - rank[i]);
+                update[i].span[i] = (rank[0] - rank[i]) + 1;
+            }
+            for (int i = newLevel; i < level; i++) {
+                update[i].span[i]++;
+            }
+            length++;
+        }
+
+        private void delete(long member, long score) {
+            Node[] update = new Node[MAX_LEVEL];
+            Node x = head;
+            for (int i = level - 1; i >= 0; i--) {
+                while (x.next[i] != null && precedes(x.next[i], member, score)) {
+                    x = x.next[i];
+                }
+                update[i] = x;
+            }
+            Node target = x.next[0];
+            if (target == null || target.member != member) {
+                return;
+            }
+            for (int i = 0; i < level; i++) {
+                if (update[i].next[i] == target) {
+                    update[i].span[i] += target.span[i] - 1;
+                    update[i].next[i] = target.next[i];
+                } else {
+                    update[i].span[i]--;
+                }
+            }
+            while (level > 1 && head.next[level - 1] == null) {
+                level--;
+            }
+            length--;
+        }
+
+        private static int randomLevel() {
+            int lvl = 1;
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            while (lvl < MAX_LEVEL && random.nextDouble() < P) {
+                lvl++;
+            }
+            return lvl;
+        }
+    }
+}
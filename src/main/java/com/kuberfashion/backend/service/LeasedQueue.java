@@ -0,0 +1,167 @@
+package com.kuberfashion.backend.service;
+
+import com.kuberfashion.backend.entity.LeasedQueueItem;
+import com.kuberfashion.backend.repository.LeasedQueueRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.IntSupplier;
+
+/**
+ * Claim, lease and retry for the database-backed work queues (order_events, referral_reward_jobs).
+ *
+ * Rows are claimed in short transactions with FOR UPDATE SKIP LOCKED and leased (status PROCESSING,
+ * next_attempt_at = lease expiry), so several application instances can poll concurrently and work never runs
+ * while holding row locks. Every outcome update is fenced on the attempt number of the claim, so a poller whose
+ * lease expired cannot overwrite a newer claim. A crash mid-run leaves the lease to expire and the row is claimed
+ * again; failures back off exponentially until max attempts, then park as FAILED.
+ *
+ * The owner schedules polling, runs the work and records success itself (fenced the same way).
+ */
+public class LeasedQueue<T extends LeasedQueueItem> {
+
+    private static final Logger logger = LoggerFactory.getLogger(LeasedQueue.class);
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    public record Settings(int batchSize, int maxBatchesPerPoll, int maxAttempts, long leaseSeconds,
+                           long backoffBaseMs, long backoffMaxMs, int retentionDays) {
+    }
+
+    private final String name;
+    private final LeasedQueueRepository<T> repository;
+    private final TransactionTemplate transactionTemplate;
+    private final Settings settings;
+    private final Function<T, String> describe;
+
+    private final AtomicLong retried = new AtomicLong();
+    private final AtomicLong deadLettered = new AtomicLong();
+
+    /**
+     * @param name     plural noun for log lines, e.g. "order events"
+     * @param describe how a row is named in failure logs
+     */
+    public LeasedQueue(String name, LeasedQueueRepository<T> repository, TransactionTemplate transactionTemplate,
+                       Settings settings, Function<T, String> describe) {
+        this.name = name;
+        this.repository = repository;
+        this.transactionTemplate = transactionTemplate;
+        this.settings = settings;
+        this.describe = describe;
+    }
+
+    /**
+     * Runs batches until one comes back short, bounded so one poll cannot run forever.
+     * @param batch claims and processes one batch, returning the number of rows claimed
+     */
+    public void drain(IntSupplier batch) {
+        for (int i = 0; i < settings.maxBatchesPerPoll(); i++) {
+            if (batch.getAsInt() < settings.batchSize()) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Claims up to batch-size due rows under a new lease and returns them detached.
+     */
+    public List<T> claim() {
+        List<T> claimed = transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<T> due = repository.lockDue(now, Limit.of(settings.batchSize()));
+            for (T item : due) {
+                item.lease(now.plusSeconds(settings.leaseSeconds()));
+            }
+            return repository.saveAll(due);
+        });
+        return claimed != null ? claimed : List.of();
+    }
+
+    /**
+     * Schedules a retry with exponential backoff, or parks the row as FAILED once max attempts are used.
+     */
+    public void recordFailure(T item, Exception e) {
+        boolean exhausted = item.getAttempts() >= settings.maxAttempts();
+        LocalDateTime nextAttemptAt = LocalDateTime.now().plus(Duration.ofMillis(backoffMillis(item.getAttempts())));
+        String error = e.getClass().getSimpleName() + ": " + e.getMessage();
+        if (error.length() > MAX_ERROR_LENGTH) {
+            error = error.substring(0, MAX_ERROR_LENGTH);
+        }
+        String lastError = error;
+
+        Integer updated = transactionTemplate.execute(status -> exhausted
+                ? repository.markDeadLettered(item.getId(), item.getAttempts(), lastError)
+                : repository.markRetry(item.getId(), item.getAttempts(), nextAttemptAt, lastError));
+        if (updated == null || updated == 0) {
+            logger.warn("{} lease expired before attempt {} failed; outcome discarded: {}",
+                    describe.apply(item), item.getAttempts(), lastError);
+        } else if (exhausted) {
+            deadLettered.incrementAndGet();
+            logger.error("{} failed after {} attempts: {}", describe.apply(item), item.getAttempts(), lastError);
+        } else {
+            retried.incrementAndGet();
+            logger.warn("{} attempt {} failed, retrying at {}: {}",
+                    describe.apply(item), item.getAttempts(), nextAttemptAt, lastError);
+        }
+    }
+
+    public int requeueFailed() {
+        Integer n = transactionTemplate.execute(status -> repository.requeueFailed(LocalDateTime.now()));
+        return n != null ? n : 0;
+    }
+
+    /**
+     * Deletes rows that finished more than retention-days ago.
+     */
+    public int purgeFinished() {
+        Integer n = transactionTemplate.execute(status ->
+                repository.deleteFinishedBefore(LocalDateTime.now().minusDays(settings.retentionDays())));
+        if (n != null && n > 0) {
+            logger.info("Purged {} finished {} older than {} days", n, name, settings.retentionDays());
+        }
+        return n != null ? n : 0;
+    }
+
+    /**
+     * Row counts for every status, zero for statuses with no rows.
+     */
+    public <S extends Enum<S>> Map<S, Long> countByStatus(Class<S> statusType) {
+        Map<S, Long> byStatus = new EnumMap<>(statusType);
+        for (S s : statusType.getEnumConstants()) {
+            byStatus.put(s, 0L);
+        }
+        for (Object[] row : repository.countByStatus()) {
+            byStatus.put(statusType.cast(row[0]), ((Number) row[1]).longValue());
+        }
+        return byStatus;
+    }
+
+    /**
+     * Age of the oldest PENDING or PROCESSING row, 0 when there is none.
+     */
+    public long oldestOpenAgeSeconds() {
+        LocalDateTime oldest = repository.findOldestOpenCreatedAt();
+        return oldest != null ? Duration.between(oldest, LocalDateTime.now()).getSeconds() : 0L;
+    }
+
+    public long getRetried() {
+        return retried.get();
+    }
+
+    public long getDeadLettered() {
+        return deadLettered.get();
+    }
+
+    long backoffMillis(int attempts) {
+        int shift = Math.min(Math.max(attempts - 1, 0), 20);
+        return Math.min(settings.backoffBaseMs() << shift, settings.backoffMaxMs());
+    }
+}
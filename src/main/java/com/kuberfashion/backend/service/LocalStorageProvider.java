@@ -0,0 +1,202 @@
+package com.kuberfashion.backend.service;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Objects as plain files under storage.local.root, served (and accepting signed direct uploads) by LocalFileController.
+ * Meant for development, single-node edge deployments and tests that must not reach the network.
+ * Writes go to a hidden temp file first and are moved into place, so readers never see a partial object.
+ */
+@Component
+@ConditionalOnProperty(name = "storage.provider", havingValue = "local")
+public class LocalStorageProvider implements StorageProvider {
+
+    private static final Logger logger = LoggerFactory.getLogger(LocalStorageProvider.class);
+
+    @Value("${storage.local.root:./storage}")
+    private String rootDir;
+
+    @Value("${storage.local.public-url:http://localhost:8080/api/files/local}")
+    private String publicUrl;
+
+    private Path root;
+    // Signs upload URLs; regenerated on restart, which simply invalidates outstanding URLs
+    private final byte[] uploadKey = new byte[32];
+
+    @PostConstruct
+    void init() throws IOException {
+        root = Paths.get(rootDir).toAbsolutePath().normalize();
+        Files.createDirectories(root);
+        new SecureRandom().nextBytes(uploadKey);
+        logger.info("Local object storage at {}", root);
+    }
+
+    @Override
+    public int put(String key, InputStream in, long size, String contentType) throws IOException {
+        Path target = resolve(key);
+        Files.createDirectories(target.getParent());
+        Path temp = Files.createTempFile(target.getParent(), ".upload-", ".tmp");
+        try {
+            long written = Files.copy(in, temp, StandardCopyOption.REPLACE_EXISTING);
+            if (written != size) {
+                throw new IOException("Expected " + size + " bytes for " + key + " but got " + written);
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        return 1;
+    }
+
+    @Override
+    public FileStorageService.FileMetadata head(String key) {
+        try {
+            BasicFileAttributes attrs = Files.readAttributes(resolve(key), BasicFileAttributes.class);
+            if (!attrs.isRegularFile()) return null;
+            return new FileStorageService.FileMetadata(key, contentTypeOf(key), attrs.size(), attrs.lastModifiedTime().toInstant());
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void delete(String key) {
+        try {
+            Files.deleteIfExists(resolve(key));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public String getPublicUrl(String key) {
+        return publicUrl + "/" + key;
+    }
+
+    @Override
+    public PresignedUpload presignPut(String key, String contentType, long size, Duration ttl) {
+        resolve(key);
+        long expires = Instant.now().plus(ttl).getEpochSecond();
+        String url = getPublicUrl(key) + "?expires=" + expires + "&size=" + size
+                + "&signature=" + sign(key, contentType, size, expires);
+        return new PresignedUpload(url, "PUT", Map.of(HttpHeaders.CONTENT_TYPE, contentType), Instant.ofEpochSecond(expires));
+    }
+
+    /**
+     * Checks a direct upload against the signature issued by {@link #presignPut}.
+     */
+    public boolean verifyUpload(String key, String contentType, long size, long expires, String signature) {
+        if (signature == null || contentType == null || Instant.now().getEpochSecond() > expires) return false;
+        return MessageDigest.isEqual(sign(key, contentType, size, expires).getBytes(StandardCharsets.US_ASCII),
+                signature.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private String sign(String key, String contentType, long size, long expires) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(uploadKey, "HmacSHA256"));
+            byte[] digest = mac.doFinal((key + "\n" + contentType + "\n" + size + "\n" + expires).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 not available", e);
+        }
+    }
+
+    /**
+     * Walks the tree for every page, which is fine at the sizes this provider is meant for.
+     * The cursor is the last key returned; hidden files (in-progress uploads) are skipped.
+     */
+    @Override
+    public ObjectPage list(String cursor, int pageSize) {
+        try (Stream<Path> files = Files.walk(root)) {
+            List<ObjectSummary> objects = new ArrayList<>(pageSize + 1);
+            files.filter(Files::isRegularFile)
+                    .filter(path -> !path.getFileName().toString().startsWith("."))
+                    .map(path -> root.relativize(path).toString().replace(path.getFileSystem().getSeparator(), "/"))
+                    .filter(key -> cursor == null || key.compareTo(cursor) > 0)
+                    .sorted()
+                    .limit(pageSize + 1L)
+                    .forEach(key -> {
+                        FileStorageService.FileMetadata metadata = head(key);
+                        if (metadata != null) {
+                            objects.add(new ObjectSummary(key, metadata.getSize(), metadata.getLastModified()));
+                        }
+                    });
+            if (objects.size() <= pageSize) {
+                return new ObjectPage(objects, null);
+            }
+            List<ObjectSummary> page = new ArrayList<>(objects.subList(0, pageSize));
+            return new ObjectPage(page, page.get(page.size() - 1).getKey());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public List<String> deleteAll(Collection<String> keys) {
+        List<String> failed = new ArrayList<>();
+        for (String key : keys) {
+            try {
+                delete(key);
+            } catch (RuntimeException e) {
+                logger.warn("Failed to delete {}: {}", key, e.getMessage());
+                failed.add(key);
+            }
+        }
+        return failed;
+    }
+
+    /**
+     * File backing an object key; keys that would escape the storage root are rejected.
+     */
+    public Path resolve(String key) {
+        if (key == null || key.isBlank()) {
+            throw new IllegalArgumentException("Object key is required");
+        }
+        Path path = root.resolve(key).normalize();
+        if (!path.startsWith(root) || path.equals(root)) {
+            throw new IllegalArgumentException("Invalid object key: " + key);
+        }
+        return path;
+    }
+
+    public static String contentTypeOf(String key) {
+        return MediaTypeFactory.getMediaType(key)
+                .map(MediaType::toString)
+                .orElse(MediaType.APPLICATION_OCTET_STREAM_VALUE);
+    }
+}
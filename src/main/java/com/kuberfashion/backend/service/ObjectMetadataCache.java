@@ -0,0 +1,108 @@
+package com.kuberfashion.backend.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process cache of object HEAD results keyed by object key, including "does not exist".
+ * Our own uploads and deletes write through it; remote lookups fill it with a TTL (shorter for misses).
+ * A lookup that started before a write to the same key never overwrites that write.
+ */
+@Component
+public class ObjectMetadataCache {
+
+    public static final class Entry {
+        private final FileStorageService.FileMetadata metadata;
+        private final long expiresAt;
+        private final long stamp;
+
+        private Entry(FileStorageService.FileMetadata metadata, long expiresAt, long stamp) {
+            this.metadata = metadata;
+            this.expiresAt = expiresAt;
+            this.stamp = stamp;
+        }
+
+        // Null when the object is known not to exist
+        public FileStorageService.FileMetadata getMetadata() { return metadata; }
+        public boolean exists() { return metadata != null; }
+    }
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong writes = new AtomicLong();
+
+    @Value("${storage.metadata.cache-ttl:PT10M}")
+    private Duration ttl;
+
+    @Value("${storage.metadata.negative-ttl:PT30S}")
+    private Duration negativeTtl;
+
+    @Value("${storage.metadata.max-entries:20000}")
+    private int maxEntries;
+
+    /**
+     * @return the cached result, or null if unknown or expired
+     */
+    public Entry get(String key) {
+        Entry e = entries.get(key);
+        if (e == null) return null;
+        if (System.currentTimeMillis() > e.expiresAt) {
+            entries.remove(key, e);
+            return null;
+        }
+        return e;
+    }
+
+    /**
+     * Token to pass to {@link #putLoaded} for a lookup about to start.
+     */
+    public long beginLoad() {
+        return writes.get();
+    }
+
+    /**
+     * Stores a remote lookup result unless the key was written after the lookup began.
+     */
+    public void putLoaded(String key, FileStorageService.FileMetadata metadata, long token) {
+        if (entries.size() >= maxEntries && !makeRoom()) return;
+        Entry loaded = newEntry(metadata, token);
+        entries.compute(key, (k, current) -> current != null && current.stamp > token ? current : loaded);
+    }
+
+    // Object was just written by us
+    public void recordUpload(String key, FileStorageService.FileMetadata metadata) {
+        if (entries.size() >= maxEntries) makeRoom();
+        entries.put(key, newEntry(metadata, writes.incrementAndGet()));
+    }
+
+    // Object was just removed by us
+    public void recordDelete(String key) {
+        if (entries.size() >= maxEntries) makeRoom();
+        entries.put(key, newEntry(null, writes.incrementAndGet()));
+    }
+
+    public void invalidate(String key) {
+        writes.incrementAndGet();
+        entries.remove(key);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private Entry newEntry(FileStorageService.FileMetadata metadata, long stamp) {
+        Duration life = metadata != null ? ttl : negativeTtl;
+        return new Entry(metadata, System.currentTimeMillis() + life.toMillis(), stamp);
+    }
+
+    // Drops expired entries; false if the cache is still full
+    private boolean makeRoom() {
+        long now = System.currentTimeMillis();
+        entries.values().removeIf(e -> now > e.expiresAt);
+        return entries.size() < maxEntries;
+    }
+}
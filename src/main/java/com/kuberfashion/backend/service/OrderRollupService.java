@@ -0,0 +1,190 @@
+package com.kuberfashion.backend.service;
+
+import com.kuberfashion.backend.dto.OrderStatsDto;
+import com.kuberfashion.backend.entity.Order;
+import com.kuberfashion.backend.entity.OrderRollup;
+import com.kuberfashion.backend.repository.OrderRepository;
+import com.kuberfashion.backend.repository.OrderRollupRepository;
+import com.kuberfashion.backend.repository.OrderRollupRepositoryCustom.Delta;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps the daily and hourly order rollups in step with the orders table and serves dashboard totals from them.
+ * Write methods must run inside the caller's order transaction so the rollup commits or rolls back with the order.
+ */
+@Service
+@Transactional
+public class OrderRollupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderRollupService.class);
+
+    @Autowired
+    private OrderRollupRepository rollupRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordCreated(Order order) {
+        List<Delta> deltas = new ArrayList<>(2);
+        addBucketDeltas(deltas, order, order.getStatus(), order.getPaymentStatus(), 1);
+        rollupRepository.applyDeltas(deltas);
+    }
+
+    /**
+     * Moves the order from its previous (status, paymentStatus) bucket to its current one.
+     * No-op when neither changed.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordTransition(Order order, Order.OrderStatus previousStatus, Order.PaymentStatus previousPaymentStatus) {
+        if (previousStatus == order.getStatus() && paymentKey(previousPaymentStatus) == paymentKey(order.getPaymentStatus())) {
+            return;
+        }
+        List<Delta> deltas = new ArrayList<>(4);
+        addBucketDeltas(deltas, order, previousStatus, previousPaymentStatus, -1);
+        addBucketDeltas(deltas, order, order.getStatus(), order.getPaymentStatus(), 1);
+        rollupRepository.applyDeltas(deltas);
+    }
+
+    /**
+     * One-shot rebuild of all rollup rows from the orders table.
+     * @return number of rollup rows written
+     */
+    public int backfill() {
+        long start = System.currentTimeMillis();
+        int rows = rollupRepository.rebuildFromOrders();
+        logger.info("Rebuilt {} order rollup rows in {}ms", rows, System.currentTimeMillis() - start);
+        return rows;
+    }
+
+    @Transactional(readOnly = true)
+    public boolean isEmpty() {
+        return rollupRepository.count() == 0;
+    }
+
+    @Transactional(readOnly = true)
+    public BigDecimal getTotalRevenue() {
+        return rollupRepository.sumRevenue(OrderRollup.Granularity.DAY, Order.PaymentStatus.PAID);
+    }
+
+    /**
+     * Paid revenue for orders created in [startDate, endDate], both ends inclusive like the query it replaced.
+     * Whole hours inside the range come from the rollups (whole days from daily rows, the rest from hourly rows);
+     * only the partial hours at either end are summed from the orders table.
+     */
+    @Transactional(readOnly = true)
+    public BigDecimal getRevenueByDateRange(LocalDateTime startDate, LocalDateTime endDate) {
+        if (endDate.isBefore(startDate)) {
+            return BigDecimal.ZERO;
+        }
+        LocalDateTime from = startDate.truncatedTo(ChronoUnit.HOURS);
+        if (from.isBefore(startDate)) {
+            from = from.plusHours(1);
+        }
+        LocalDateTime to = endDate.truncatedTo(ChronoUnit.HOURS);
+        if (!from.isBefore(to)) {
+            return orderRevenue(orderRepository.getRevenueByDateRange(startDate, endDate));
+        }
+
+        LocalDateTime firstFullDay = from.truncatedTo(ChronoUnit.DAYS);
+        if (firstFullDay.isBefore(from)) {
+            firstFullDay = firstFullDay.plusDays(1);
+        }
+        LocalDateTime endOfFullDays = to.truncatedTo(ChronoUnit.DAYS);
+
+        BigDecimal wholeHours;
+        if (!firstFullDay.isBefore(endOfFullDays)) {
+            wholeHours = hourlyRevenue(from, to);
+        } else {
+            wholeHours = hourlyRevenue(from, firstFullDay)
+                    .add(rollupRepository.sumRevenueBetween(OrderRollup.Granularity.DAY, Order.PaymentStatus.PAID,
+                            firstFullDay, endOfFullDays))
+                    .add(hourlyRevenue(endOfFullDays, to));
+        }
+        BigDecimal leadingEdge = from.equals(startDate)
+                ? BigDecimal.ZERO
+                : orderRevenue(orderRepository.getRevenueByHalfOpenRange(startDate, from));
+        // endDate is inclusive, so an order created exactly on it counts even when endDate falls on the hour
+        return leadingEdge.add(wholeHours).add(orderRevenue(orderRepository.getRevenueByDateRange(to, endDate)));
+    }
+
+    @Transactional(readOnly = true)
+    public long getTotalOrdersCount() {
+        return rollupRepository.sumOrderCount(OrderRollup.Granularity.DAY);
+    }
+
+    @Transactional(readOnly = true)
+    public long getOrdersCountByStatus(Order.OrderStatus status) {
+        return rollupRepository.sumOrderCountByStatus(OrderRollup.Granularity.DAY, status);
+    }
+
+    @Transactional(readOnly = true)
+    public OrderStatsDto getStats() {
+        Map<Order.OrderStatus, Long> byStatus = new EnumMap<>(Order.OrderStatus.class);
+        Map<Order.PaymentStatus, Long> byPayment = new EnumMap<>(Order.PaymentStatus.class);
+        long total = 0L;
+        BigDecimal revenue = BigDecimal.ZERO;
+
+        for (Object[] row : rollupRepository.summarizeByStatus(OrderRollup.Granularity.DAY)) {
+            Order.OrderStatus status = (Order.OrderStatus) row[0];
+            Order.PaymentStatus paymentStatus = (Order.PaymentStatus) row[1];
+            long count = ((Number) row[2]).longValue();
+            total += count;
+            byStatus.merge(status, count, Long::sum);
+            byPayment.merge(paymentStatus, count, Long::sum);
+            if (paymentStatus == Order.PaymentStatus.PAID && row[3] != null) {
+                revenue = revenue.add((BigDecimal) row[3]);
+            }
+        }
+        return new OrderStatsDto(total, revenue, toNameMap(byStatus), toNameMap(byPayment));
+    }
+
+    private static BigDecimal orderRevenue(BigDecimal sum) {
+        return sum != null ? sum : BigDecimal.ZERO;
+    }
+
+    private BigDecimal hourlyRevenue(LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            return BigDecimal.ZERO;
+        }
+        return rollupRepository.sumRevenueBetween(OrderRollup.Granularity.HOUR, Order.PaymentStatus.PAID, from, to);
+    }
+
+    private void addBucketDeltas(List<Delta> deltas, Order order, Order.OrderStatus status,
+                                 Order.PaymentStatus paymentStatus, int sign) {
+        LocalDateTime createdAt = order.getCreatedAt();
+        BigDecimal amount = order.getTotalAmount() != null ? order.getTotalAmount() : BigDecimal.ZERO;
+        BigDecimal revenue = sign < 0 ? amount.negate() : amount;
+        Order.PaymentStatus payment = paymentKey(paymentStatus);
+
+        deltas.add(new Delta(OrderRollup.Granularity.DAY, createdAt.truncatedTo(ChronoUnit.DAYS),
+                status, payment, sign, revenue));
+        deltas.add(new Delta(OrderRollup.Granularity.HOUR, createdAt.truncatedTo(ChronoUnit.HOURS),
+                status, payment, sign, revenue));
+    }
+
+    // Rollup keys are non-null; orders without a payment status count as PENDING (the column default)
+    private static Order.PaymentStatus paymentKey(Order.PaymentStatus paymentStatus) {
+        return paymentStatus != null ? paymentStatus : Order.PaymentStatus.PENDING;
+    }
+
+    private static <E extends Enum<E>> Map<String, Long> toNameMap(Map<E, Long> counts) {
+        Map<String, Long> out = new LinkedHashMap<>();
+        counts.forEach((k, v) -> out.put(k.name(), v));
+        return out;
+    }
+}
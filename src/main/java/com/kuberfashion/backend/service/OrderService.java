@@ -1,29 +1,46 @@
 package com.kuberfashion.backend.service;
 
 import com.kuberfashion.backend.dto.CartItemDto;
+import com.kuberfashion.backend.dto.CoinPosting;
+import com.kuberfashion.backend.dto.CursorPage;
+import com.kuberfashion.backend.dto.OrderDetailDto;
+import com.kuberfashion.backend.dto.OrderStatsDto;
+import com.kuberfashion.backend.dto.OrderSummaryDto;
+import com.kuberfashion.backend.entity.CoinTransaction;
 import com.kuberfashion.backend.entity.Order;
+import com.kuberfashion.backend.entity.OrderEvent;
 import com.kuberfashion.backend.entity.OrderItem;
 import com.kuberfashion.backend.entity.Product;
 import com.kuberfashion.backend.entity.User;
+import com.kuberfashion.backend.event.OrderEventPublisher;
+import com.kuberfashion.backend.event.StockReservationHandler;
 import com.kuberfashion.backend.exception.ResourceNotFoundException;
 import com.kuberfashion.backend.repository.OrderRepository;
 import com.kuberfashion.backend.repository.ProductRepository;
 import com.kuberfashion.backend.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
 @Transactional
 public class OrderService {
     
+    private static final int MAX_HISTORY_PAGE_SIZE = 50;
+    
     @Autowired
     private OrderRepository orderRepository;
     
@@ -33,8 +50,31 @@ public class OrderService {
     @Autowired
     private ProductRepository productRepository;
     
+    @Autowired
+    private OrderRollupService orderRollupService;
+    
+    @Autowired
+    private OrderEventPublisher orderEventPublisher;
+    
+    @Autowired
+    private StockReservationHandler stockReservationHandler;
+    
+    @Autowired
+    private CoinLedgerService coinLedgerService;
+    
+    @Value("${coins.value-per-coin:1.00}")
+    private BigDecimal coinValue;
+    
     public Order createOrder(Long userId, List<CartItemDto> cartItems, String shippingAddress, 
                            String billingAddress, Order.PaymentMethod paymentMethod) {
+        return createOrder(userId, cartItems, shippingAddress, billingAddress, paymentMethod, 0L);
+    }
+    
+    public Order createOrder(Long userId, List<CartItemDto> cartItems, String shippingAddress, 
+                           String billingAddress, Order.PaymentMethod paymentMethod, long coinsToRedeem) {
+        if (coinsToRedeem < 0) {
+            throw new IllegalArgumentException("Coins to redeem must not be negative");
+        }
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + userId));
         
@@ -49,6 +89,7 @@ public class OrderService {
         
         BigDecimal subtotal = BigDecimal.ZERO;
         BigDecimal totalDiscount = BigDecimal.ZERO;
+        int totalItems = 0;
         
         for (CartItemDto cartItem : cartItems) {
             Product product = productRepository.findById(cartItem.getProductId())
@@ -68,6 +109,7 @@ public class OrderService {
             
             subtotal = subtotal.add(itemSubtotal);
             totalDiscount = totalDiscount.add(itemDiscount);
+            totalItems += cartItem.getQuantity();
             
             order.getOrderItems().add(orderItem);
         }
@@ -83,9 +125,30 @@ public class OrderService {
         order.setSubtotal(subtotal);
         order.setShippingAmount(shippingCost);
         order.setTaxAmount(tax);
-        order.setTotalAmount(subtotal.add(shippingCost).add(tax));
+        order.setTotalItems(totalItems);
         
-        return orderRepository.save(order);
+        // Coins discount the subtotal only, never shipping or tax
+        long coinsRedeemed = 0;
+        BigDecimal coinDiscount = BigDecimal.ZERO;
+        if (coinsToRedeem > 0 && coinValue.signum() > 0) {
+            long maxCoins = subtotal.divide(coinValue, 0, RoundingMode.FLOOR).longValue();
+            coinsRedeemed = Math.min(coinsToRedeem, maxCoins);
+            coinDiscount = coinValue.multiply(BigDecimal.valueOf(coinsRedeemed));
+        }
+        order.setCoinsRedeemed(coinsRedeemed);
+        order.setCoinDiscount(coinDiscount);
+        order.setTotalAmount(subtotal.add(shippingCost).add(tax).subtract(coinDiscount));
+        // Fails the checkout when any product has too few units left, so concurrent checkouts cannot oversell
+        stockReservationHandler.reserve(order);
+        
+        Order saved = orderRepository.save(order);
+        if (coinsRedeemed > 0) {
+            // Same transaction as the order: an insufficient balance rolls the whole checkout back
+            coinLedgerService.spend(userId, coinsRedeemed, "ORDER_REDEMPTION:" + saved.getOrderNumber());
+        }
+        orderRollupService.recordCreated(saved);
+        orderEventPublisher.publish(saved, OrderEvent.EventType.ORDER_CREATED, null);
+        return saved;
     }
     
     public Optional<Order> getOrderById(Long orderId) {
@@ -100,6 +163,34 @@ public class OrderService {
         return orderRepository.findByUserIdOrderByCreatedAtDesc(userId, pageable);
     }
     
+    @Transactional(readOnly = true)
+    public CursorPage<OrderSummaryDto> getUserOrderSummaries(Long userId, String cursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_HISTORY_PAGE_SIZE));
+        // Fetch one extra row to know whether another page exists, without a COUNT query
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+        CursorPage.Cursor after = CursorPage.decodeCursor(cursor);
+        
+        List<OrderSummaryDto> rows = after == null
+                ? orderRepository.findSummariesByUserId(userId, limit)
+                : orderRepository.findSummariesByUserIdBefore(userId, after.getCreatedAt(), after.getId(), limit);
+        
+        boolean hasMore = rows.size() > pageSize;
+        List<OrderSummaryDto> items = hasMore ? rows.subList(0, pageSize) : rows;
+        String nextCursor = null;
+        if (hasMore) {
+            OrderSummaryDto last = items.get(items.size() - 1);
+            nextCursor = CursorPage.encodeCursor(last.getCreatedAt(), last.getId());
+        }
+        return new CursorPage<>(new ArrayList<>(items), pageSize, hasMore, nextCursor);
+    }
+    
+    @Transactional(readOnly = true)
+    public OrderDetailDto getUserOrderDetail(Long orderId, Long userId) {
+        Order order = orderRepository.findDetailByIdAndUserId(orderId, userId)
+                .orElseThrow(() -> new ResourceNotFoundException("Order not found with id: " + orderId));
+        return new OrderDetailDto(order);
+    }
+    
     public Page<Order> getAllOrders(Pageable pageable) {
         return orderRepository.findAllByOrderByCreatedAtDesc(pageable);
     }
@@ -109,8 +200,10 @@ public class OrderService {
     }
     
     public Order updateOrderStatus(Long orderId, Order.OrderStatus status) {
-        Order order = orderRepository.findById(orderId)
+        Order order = orderRepository.findByIdForUpdate(orderId)
                 .orElseThrow(() -> new ResourceNotFoundException("Order not found with id: " + orderId));
+        Order.OrderStatus previousStatus = order.getStatus();
+        Order.PaymentStatus previousPaymentStatus = order.getPaymentStatus();
         
         order.setStatus(status);
         order.setUpdatedAt(LocalDateTime.now());
@@ -119,14 +212,30 @@ public class OrderService {
             order.setShippedAt(LocalDateTime.now());
         } else if (status == Order.OrderStatus.DELIVERED) {
             order.setDeliveredAt(LocalDateTime.now());
+        } else if (status == Order.OrderStatus.CANCELLED && previousStatus != Order.OrderStatus.CANCELLED) {
+            order.setCancelledAt(LocalDateTime.now());
+        }
+        // A cancellation's release may still be queued; only stock actually given back is taken again
+        if (previousStatus == Order.OrderStatus.CANCELLED && status != Order.OrderStatus.CANCELLED
+                && !order.isStockReserved()) {
+            stockReservationHandler.reserve(order);
         }
         
-        return orderRepository.save(order);
+        Order saved = orderRepository.save(order);
+        orderRollupService.recordTransition(saved, previousStatus, previousPaymentStatus);
+        settleRedeemedCoins(saved, previousStatus);
+        if (previousStatus != status) {
+            orderEventPublisher.publish(saved, OrderEvent.EventType.ORDER_STATUS_CHANGED,
+                    Map.of("previousStatus", previousStatus));
+        }
+        return saved;
     }
     
     public Order updatePaymentStatus(Long orderId, Order.PaymentStatus paymentStatus) {
-        Order order = orderRepository.findById(orderId)
+        Order order = orderRepository.findByIdForUpdate(orderId)
                 .orElseThrow(() -> new ResourceNotFoundException("Order not found with id: " + orderId));
+        Order.OrderStatus previousStatus = order.getStatus();
+        Order.PaymentStatus previousPaymentStatus = order.getPaymentStatus();
         
         order.setPaymentStatus(paymentStatus);
         order.setUpdatedAt(LocalDateTime.now());
@@ -139,39 +248,79 @@ public class OrderService {
             }
         }
         
-        return orderRepository.save(order);
+        Order saved = orderRepository.save(order);
+        orderRollupService.recordTransition(saved, previousStatus, previousPaymentStatus);
+        if (previousPaymentStatus != paymentStatus) {
+            Map<String, Object> details = new HashMap<>();
+            details.put("previousPaymentStatus", previousPaymentStatus);
+            details.put("previousStatus", previousStatus);
+            orderEventPublisher.publish(saved, OrderEvent.EventType.PAYMENT_STATUS_CHANGED, details);
+        }
+        return saved;
     }
     
     public void cancelOrder(Long orderId, Long userId) {
-        Order order = orderRepository.findByIdAndUserId(orderId, userId)
+        Order order = orderRepository.findByIdAndUserIdForUpdate(orderId, userId)
                 .orElseThrow(() -> new ResourceNotFoundException("Order not found with id: " + orderId));
         
         if (order.getStatus() == Order.OrderStatus.SHIPPED || 
             order.getStatus() == Order.OrderStatus.DELIVERED) {
             throw new IllegalStateException("Cannot cancel order that has been shipped or delivered");
         }
+        Order.OrderStatus previousStatus = order.getStatus();
         
         order.setStatus(Order.OrderStatus.CANCELLED);
         order.setCancelledAt(LocalDateTime.now());
         order.setUpdatedAt(LocalDateTime.now());
         
         orderRepository.save(order);
+        orderRollupService.recordTransition(order, previousStatus, order.getPaymentStatus());
+        settleRedeemedCoins(order, previousStatus);
+        if (previousStatus != Order.OrderStatus.CANCELLED) {
+            orderEventPublisher.publish(order, OrderEvent.EventType.ORDER_CANCELLED,
+                    Map.of("previousStatus", previousStatus));
+        }
+    }
+    
+    // Every status change goes through here, so coins follow the order into and out of CANCELLED exactly once,
+    // the same way StockReservationHandler moves its stock. Re-opening with too few coins left fails the change.
+    private void settleRedeemedCoins(Order order, Order.OrderStatus previousStatus) {
+        boolean wasCancelled = previousStatus == Order.OrderStatus.CANCELLED;
+        boolean cancelled = order.getStatus() == Order.OrderStatus.CANCELLED;
+        if (wasCancelled == cancelled || order.getCoinsRedeemed() <= 0) {
+            return;
+        }
+        if (cancelled) {
+            coinLedgerService.post(List.of(new CoinPosting(order.getUserId(), null, CoinTransaction.TxType.ADJUST,
+                    order.getCoinsRedeemed(), null, "ORDER_CANCEL_REFUND:" + order.getOrderNumber())));
+        } else {
+            coinLedgerService.spend(order.getUserId(), order.getCoinsRedeemed(), "ORDER_REOPEN_REDEMPTION:" + order.getOrderNumber());
+        }
     }
     
+    // Dashboard totals are served from the order_rollups summary rows, not aggregates over orders
     public BigDecimal getTotalRevenue() {
-        return orderRepository.getTotalRevenue();
+        return orderRollupService.getTotalRevenue();
     }
     
     public BigDecimal getRevenueByDateRange(LocalDateTime startDate, LocalDateTime endDate) {
-        return orderRepository.getRevenueByDateRange(startDate, endDate);
+        return orderRollupService.getRevenueByDateRange(startDate, endDate);
     }
     
     public Long getTotalOrdersCount() {
-        return orderRepository.count();
+        return orderRollupService.getTotalOrdersCount();
     }
     
     public Long getOrdersCountByStatus(Order.OrderStatus status) {
-        return orderRepository.countByStatus(status);
+        return orderRollupService.getOrdersCountByStatus(status);
+    }
+    
+    public OrderStatsDto getOrderStats() {
+        return orderRollupService.getStats();
+    }
+    
+    public int rebuildOrderRollups() {
+        return orderRollupService.backfill();
     }
     
     private String generateOrderNumber() {
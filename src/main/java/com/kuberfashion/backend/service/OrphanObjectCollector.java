@@ -0,0 +1,365 @@
+package com.kuberfashion.backend.service;
+
+import com.kuberfashion.backend.repository.StoredObjectRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Removes bucket objects that nothing references any more (replaced or deleted product images,
+ * abandoned direct uploads, failed deletes).
+ *
+ * A run first loads every object key referenced by products.image, product_images, categories.image,
+ * stored_objects rows that still hold upload references (ref_count > 0, released by FileStorageService.deleteFile)
+ * and the renditions of those images into a set of 64-bit key hashes (8 bytes per key instead of a String),
+ * then pages through the bucket listing. Objects outside our naming scheme or under an excluded prefix
+ * are never touched, and anything younger than the grace period is kept so in-flight uploads survive.
+ * Candidates are re-checked against the database just before each delete batch. A hash collision can only
+ * keep an orphan, never delete a referenced object. Dry runs report what would be removed.
+ */
+@Component
+public class OrphanObjectCollector {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrphanObjectCollector.class);
+
+    // DeleteObjects accepts at most 1000 keys per request
+    private static final int MAX_DELETE_BATCH = 1000;
+    private static final int FETCH_SIZE = 1000;
+    private static final int SAMPLE_SIZE = 20;
+
+    private static final String REFERENCED_URLS_SQL =
+            "SELECT image FROM products WHERE image IS NOT NULL " +
+            "UNION ALL SELECT image_url FROM product_images WHERE image_url IS NOT NULL " +
+            "UNION ALL SELECT image FROM categories WHERE image IS NOT NULL " +
+            "UNION ALL SELECT url FROM product_image_variants " +
+            "UNION ALL SELECT object_key FROM stored_objects WHERE ref_count > 0";
+
+    public enum Phase { IDLE, INDEXING, SCANNING, DONE, FAILED }
+
+    @Autowired
+    private StorageProvider storageProvider;
+
+    @Autowired
+    private FileStorageService fileStorageService;
+
+    @Autowired
+    private StoredObjectRepository storedObjectRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${storage.gc.enabled:true}")
+    private boolean enabled;
+
+    // Scheduled runs only report until this is switched off
+    @Value("${storage.gc.dry-run:true}")
+    private boolean scheduledDryRun;
+
+    @Value("${storage.gc.grace-period:P2D}")
+    private Duration gracePeriod;
+
+    @Value("${storage.gc.page-size:1000}")
+    private int pageSize;
+
+    @Value("${storage.gc.delete-batch-size:1000}")
+    private int deleteBatchSize;
+
+    // Folders whose objects are referenced outside the database (e.g. avatars)
+    @Value("${storage.gc.excluded-prefixes:users/}")
+    private List<String> excludedPrefixes;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile Progress progress = new Progress(true, Phase.IDLE);
+    private ThreadPoolTaskExecutor executor;
+
+    @PostConstruct
+    void start() {
+        executor = FileStorageService.newPool("storage-gc-", 1, virtualThreads);
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdown();
+    }
+
+    @Scheduled(cron = "${storage.gc.cron:0 15 4 * * *}")
+    public void scheduledRun() {
+        if (!enabled) return;
+        if (!running.compareAndSet(false, true)) {
+            logger.info("Orphan collection already running, skipping scheduled run");
+            return;
+        }
+        Progress run = new Progress(scheduledDryRun, Phase.INDEXING);
+        progress = run;
+        collect(run);
+    }
+
+    /**
+     * Starts a run in the background.
+     * @return progress of the new run
+     * @throws IllegalStateException if a run is in progress
+     */
+    public Map<String, Object> startRun(boolean dryRun) {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("Orphan collection is already running");
+        }
+        Progress run = new Progress(dryRun, Phase.INDEXING);
+        progress = run;
+        executor.execute(() -> collect(run));
+        return run.snapshot();
+    }
+
+    // Current run, or the last one
+    public Map<String, Object> getProgress() {
+        return progress.snapshot();
+    }
+
+    private void collect(Progress run) {
+        try {
+            KeyHashSet referenced = loadReferencedKeys();
+            run.referencedKeys = referenced.size();
+            run.phase = Phase.SCANNING;
+
+            Instant cutoff = run.startedAt.minus(gracePeriod);
+            int batchLimit = Math.max(1, Math.min(deleteBatchSize, MAX_DELETE_BATCH));
+            List<StorageProvider.ObjectSummary> batch = new ArrayList<>(batchLimit);
+            String cursor = null;
+            do {
+                StorageProvider.ObjectPage page = storageProvider.list(cursor, pageSize);
+                for (StorageProvider.ObjectSummary object : page.getObjects()) {
+                    run.scanned++;
+                    if (!isCollectable(object.getKey())) {
+                        run.skipped++;
+                    } else if (referenced.contains(object.getKey())) {
+                        run.referenced++;
+                    } else if (object.getLastModified() != null && object.getLastModified().isAfter(cutoff)) {
+                        run.young++;
+                    } else {
+                        batch.add(object);
+                        if (batch.size() >= batchLimit) {
+                            flush(batch, run);
+                            batch.clear();
+                        }
+                    }
+                }
+                run.pages++;
+                cursor = page.getNextCursor();
+            } while (cursor != null);
+            flush(batch, run);
+            run.phase = Phase.DONE;
+        } catch (RuntimeException e) {
+            run.phase = Phase.FAILED;
+            run.error = e.getMessage();
+            logger.error("Orphan collection failed after {} objects: {}", run.scanned, e.getMessage(), e);
+        } finally {
+            run.finishedAt = Instant.now();
+            running.set(false);
+            logger.info("Orphan collection {} ({}): scanned={} referenced={} young={} skipped={} orphans={} deleted={} failed={} bytes={}",
+                    run.phase, run.dryRun ? "dry run" : "live", run.scanned, run.referenced, run.young, run.skipped,
+                    run.orphans, run.deleted, run.failed, run.orphanBytes);
+        }
+    }
+
+    private void flush(List<StorageProvider.ObjectSummary> batch, Progress run) {
+        if (batch.isEmpty()) return;
+        List<String> keys = new ArrayList<>(batch.size());
+        for (StorageProvider.ObjectSummary object : batch) {
+            keys.add(object.getKey());
+        }
+        // Upload references held now, including those made since the index was loaded (e.g. a deduplicated upload)
+        LocalDateTime since = LocalDateTime.ofInstant(run.startedAt.minus(gracePeriod), ZoneId.systemDefault());
+        Set<String> recent = new HashSet<>(storedObjectRepository.findReferenced(keys, since));
+
+        List<String> orphans = new ArrayList<>(batch.size());
+        Map<String, Long> sizes = new LinkedHashMap<>();
+        for (StorageProvider.ObjectSummary object : batch) {
+            String key = object.getKey();
+            if (recent.contains(key) || storedObjectRepository.countUrlReferences(storageProvider.getPublicUrl(key)) > 0) {
+                run.referenced++;
+                continue;
+            }
+            orphans.add(key);
+            sizes.put(key, object.getSize());
+            synchronized (run.sample) {
+                if (run.sample.size() < SAMPLE_SIZE) run.sample.add(key);
+            }
+        }
+        run.orphans += orphans.size();
+        if (orphans.isEmpty()) return;
+
+        long bytes = sizes.values().stream().mapToLong(Long::longValue).sum();
+        if (run.dryRun) {
+            run.orphanBytes += bytes;
+            return;
+        }
+        List<String> failed = fileStorageService.deleteOrphans(orphans);
+        for (String key : failed) {
+            bytes -= sizes.getOrDefault(key, 0L);
+        }
+        run.deleted += orphans.size() - failed.size();
+        run.failed += failed.size();
+        run.orphanBytes += bytes;
+    }
+
+    private KeyHashSet loadReferencedKeys() {
+        KeyHashSet keys = new KeyHashSet(1 << 14);
+        JdbcTemplate streaming = new JdbcTemplate(jdbcTemplate.getDataSource());
+        streaming.setFetchSize(FETCH_SIZE);
+        streaming.query(REFERENCED_URLS_SQL, rs -> {
+            String key = fileStorageService.getObjectKey(rs.getString(1));
+            if (key != null) keys.add(key);
+        });
+        // Renditions of referenced originals (a product may not have copied them yet)
+        streaming.query("SELECT original_url, url FROM image_variants", rs -> {
+            String original = fileStorageService.getObjectKey(rs.getString(1));
+            String variant = fileStorageService.getObjectKey(rs.getString(2));
+            if (original != null && variant != null && keys.contains(original)) keys.add(variant);
+        });
+        return keys;
+    }
+
+    // Only single-folder keys we generated (folder/yyyyMMdd_HHmmss_xxxxxxxx...) are eligible
+    private boolean isCollectable(String key) {
+        for (String prefix : excludedPrefixes) {
+            if (!prefix.isBlank() && key.startsWith(prefix.trim())) return false;
+        }
+        return key.equals(fileStorageService.getObjectKey(key));
+    }
+
+    /**
+     * Open-addressing set of 64-bit key hashes. Zero marks an empty slot, so a zero hash is stored as 1.
+     */
+    static final class KeyHashSet {
+        private long[] slots;
+        private int size;
+
+        KeyHashSet(int expected) {
+            slots = new long[Integer.highestOneBit(Math.max(16, expected * 2) - 1) << 1];
+        }
+
+        void add(String key) {
+            if ((size + 1) * 2 > slots.length) grow();
+            if (insert(slots, hash(key))) size++;
+        }
+
+        boolean contains(String key) {
+            long h = hash(key);
+            int mask = slots.length - 1;
+            for (int i = (int) h & mask; slots[i] != 0; i = (i + 1) & mask) {
+                if (slots[i] == h) return true;
+            }
+            return false;
+        }
+
+        int size() {
+            return size;
+        }
+
+        private void grow() {
+            long[] larger = new long[slots.length << 1];
+            for (long h : slots) {
+                if (h != 0) insert(larger, h);
+            }
+            slots = larger;
+        }
+
+        private static boolean insert(long[] table, long h) {
+            int mask = table.length - 1;
+            int i = (int) h & mask;
+            while (table[i] != 0) {
+                if (table[i] == h) return false;
+                i = (i + 1) & mask;
+            }
+            table[i] = h;
+            return true;
+        }
+
+        // FNV-1a over the UTF-16 code units, then the MurmurHash3 finalizer to spread the bits
+        private static long hash(String key) {
+            long h = 0xcbf29ce484222325L;
+            for (int i = 0; i < key.length(); i++) {
+                h ^= key.charAt(i);
+                h *= 0x100000001b3L;
+            }
+            h ^= h >>> 33;
+            h *= 0xff51afd7ed558ccdL;
+            h ^= h >>> 33;
+            h *= 0xc4ceb9fe1a85ec53L;
+            h ^= h >>> 33;
+            return h != 0 ? h : 1;
+        }
+    }
+
+    private static final class Progress {
+        // Written only by the collecting thread
+        private final boolean dryRun;
+        private final Instant startedAt = Instant.now();
+        private final List<String> sample = new ArrayList<>();
+        private volatile Phase phase;
+        private volatile Instant finishedAt;
+        private volatile String error;
+        private volatile long referencedKeys;
+        private volatile long pages;
+        private volatile long scanned;
+        private volatile long referenced;
+        private volatile long young;
+        private volatile long skipped;
+        private volatile long orphans;
+        private volatile long deleted;
+        private volatile long failed;
+        private volatile long orphanBytes;
+
+        Progress(boolean dryRun, Phase phase) {
+            this.dryRun = dryRun;
+            this.phase = phase;
+        }
+
+        Map<String, Object> snapshot() {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("phase", phase);
+            stats.put("dryRun", dryRun);
+            stats.put("startedAt", phase == Phase.IDLE ? null : startedAt);
+            stats.put("finishedAt", finishedAt);
+            Instant end = finishedAt != null ? finishedAt : Instant.now();
+            stats.put("elapsedSeconds", phase == Phase.IDLE ? 0 : Duration.between(startedAt, end).getSeconds());
+            stats.put("referencedKeys", referencedKeys);
+            stats.put("pages", pages);
+            stats.put("scanned", scanned);
+            stats.put("referenced", referenced);
+            stats.put("young", young);
+            stats.put("skipped", skipped);
+            stats.put("orphans", orphans);
+            stats.put("deleted", deleted);
+            stats.put("failed", failed);
+            // Bytes removed, or that would be removed in a dry run
+            stats.put("orphanBytes", orphanBytes);
+            synchronized (sample) {
+                stats.put("sample", new ArrayList<>(sample));
+            }
+            stats.put("error", error);
+            return stats;
+        }
+    }
+}
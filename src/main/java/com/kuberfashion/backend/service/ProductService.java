@@ -30,6 +30,9 @@ public class ProductService {
     @Autowired
     private ProductRepository productRepository;
     
+    @Autowired
+    private ImageVariantService imageVariantService;
+    
     @Cacheable(value = "products_list", key = "'all'")
     public List<ProductResponseDto> getAllProducts() {
         try {
@@ -160,6 +163,7 @@ public class ProductService {
         }
         
         product.setSlug(uniqueSlug);
+        product.setImageVariants(imageVariantService.resolveForProduct(product.getImage(), product.getImages()));
         return productRepository.save(product);
     }
     
@@ -180,6 +184,7 @@ public class ProductService {
             
             product.setSlug(uniqueSlug);
         }
+        product.setImageVariants(imageVariantService.resolveForProduct(product.getImage(), product.getImages()));
         return productRepository.save(product);
     }
     
@@ -0,0 +1,113 @@
+package com.kuberfashion.backend.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.DefaultTypedTuple;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations.TypedTuple;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Leaderboard store on Redis sorted sets (kf:leaderboard:{board}), shared by all application nodes.
+ * Increments are pipelined ZINCRBYs; a rebuild fills a staging key and RENAMEs it over the live one.
+ */
+@Component
+@ConditionalOnProperty(name = "spring.cache.type", havingValue = "redis")
+public class RedisReferralLeaderboardStore implements ReferralLeaderboardStore {
+
+    private static final String KEY_PREFIX = "kf:leaderboard:";
+    private static final int REBUILD_CHUNK = 1000;
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Override
+    public void increment(Board board, Collection<Long> userIds, long delta) {
+        if (userIds.isEmpty() || delta == 0) return;
+        String key = key(board);
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            for (Long userId : userIds) {
+                conn.zIncrBy(key, delta, userId.toString());
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public List<Entry> top(Board board, int limit) {
+        if (limit <= 0) return List.of();
+        Set<TypedTuple<String>> tuples = stringRedisTemplate.opsForZSet().reverseRangeWithScores(key(board), 0, limit - 1);
+        List<Entry> out = new ArrayList<>();
+        if (tuples == null) return out;
+        long rank = 1;
+        for (TypedTuple<String> t : tuples) {
+            out.add(new Entry(rank++, Long.parseLong(t.getValue()), t.getScore() != null ? t.getScore().longValue() : 0L));
+        }
+        return out;
+    }
+
+    @Override
+    public Optional<Entry> rank(Board board, long userId) {
+        String member = Long.toString(userId);
+        Long rank = stringRedisTemplate.opsForZSet().reverseRank(key(board), member);
+        Double score = stringRedisTemplate.opsForZSet().score(key(board), member);
+        if (rank == null || score == null) return Optional.empty();
+        return Optional.of(new Entry(rank + 1, userId, score.longValue()));
+    }
+
+    @Override
+    public long size(Board board) {
+        Long size = stringRedisTemplate.opsForZSet().zCard(key(board));
+        return size != null ? size : 0L;
+    }
+
+    @Override
+    public Rebuild beginRebuild(Board board) {
+        String liveKey = key(board);
+        String stagingKey = liveKey + ":rebuild";
+        stringRedisTemplate.delete(stagingKey);
+        return new Rebuild() {
+            private final Set<TypedTuple<String>> buffer = new HashSet<>();
+            private boolean written = false;
+
+            @Override
+            public void add(long userId, long score) {
+                buffer.add(new DefaultTypedTuple<>(Long.toString(userId), (double) score));
+                if (buffer.size() >= REBUILD_CHUNK) {
+                    flush();
+                }
+            }
+
+            @Override
+            public void commit() {
+                flush();
+                if (written) {
+                    stringRedisTemplate.rename(stagingKey, liveKey);
+                } else {
+                    stringRedisTemplate.delete(liveKey);
+                }
+            }
+
+            private void flush() {
+                if (buffer.isEmpty()) return;
+                stringRedisTemplate.opsForZSet().add(stagingKey, buffer);
+                buffer.clear();
+                written = true;
+            }
+        };
+    }
+
+    private static String key(Board board) {
+        return KEY_PREFIX + board.name().toLowerCase();
+    }
+}
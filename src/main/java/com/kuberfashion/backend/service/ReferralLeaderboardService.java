@@ -0,0 +1,135 @@
+package com.kuberfashion.backend.service;
+
+import com.kuberfashion.backend.dto.LeaderboardEntryDto;
+import com.kuberfashion.backend.entity.User;
+import com.kuberfashion.backend.repository.UserRepository;
+import com.kuberfashion.backend.service.ReferralLeaderboardStore.Board;
+import com.kuberfashion.backend.service.ReferralLeaderboardStore.Entry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Top-referrer leaderboards by coupons earned and by downline size.
+ *
+ * Every new referral link bumps both scores for each awarded ancestor once the linking transaction commits,
+ * so views never aggregate coupon_transactions. The boards can be recomputed from referral_summaries in one
+ * streaming pass; awards committing while a rebuild streams may be missed until the next rebuild.
+ */
+@Service
+public class ReferralLeaderboardService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReferralLeaderboardService.class);
+    private static final int MAX_LIMIT = 100;
+    private static final int REBUILD_FETCH_SIZE = 1000;
+
+    @Autowired
+    private ReferralLeaderboardStore store;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Each rewarded ancestor earned one coupon and gained one downline member.
+     */
+    public void recordReferral(Collection<Long> ancestorIds) {
+        if (ancestorIds.isEmpty()) return;
+        List<Long> ids = List.copyOf(ancestorIds);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(ids);
+                }
+            });
+        } else {
+            apply(ids);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public List<LeaderboardEntryDto> getTop(Board board, int limit) {
+        List<Entry> entries = store.top(board, Math.max(1, Math.min(limit, MAX_LIMIT)));
+        List<Long> ids = new ArrayList<>(entries.size());
+        for (Entry e : entries) ids.add(e.userId);
+        Map<Long, User> users = userRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+
+        List<LeaderboardEntryDto> out = new ArrayList<>(entries.size());
+        for (Entry e : entries) {
+            out.add(new LeaderboardEntryDto(e.rank, displayName(users.get(e.userId)), e.score));
+        }
+        return out;
+    }
+
+    public Optional<LeaderboardEntryDto> getRank(Board board, User user) {
+        return store.rank(board, user.getId())
+                .map(e -> new LeaderboardEntryDto(e.rank, displayName(user), e.score));
+    }
+
+    public boolean isEmpty() {
+        return store.size(Board.COUPONS) == 0 && store.size(Board.DOWNLINE) == 0;
+    }
+
+    /**
+     * Recomputes both boards from referral_summaries in a single forward-only pass.
+     * @return number of summary rows read
+     */
+    @Transactional(readOnly = true)
+    public long rebuild() {
+        long start = System.currentTimeMillis();
+        ReferralLeaderboardStore.Rebuild coupons = store.beginRebuild(Board.COUPONS);
+        ReferralLeaderboardStore.Rebuild downline = store.beginRebuild(Board.DOWNLINE);
+        long[] rows = {0};
+
+        // Dedicated template so the fetch size does not leak into the shared one; same transactional connection
+        JdbcTemplate streaming = new JdbcTemplate(jdbcTemplate.getDataSource());
+        streaming.setFetchSize(REBUILD_FETCH_SIZE);
+        streaming.query("SELECT user_id, coupons_earned, downline_size FROM referral_summaries", rs -> {
+            long userId = rs.getLong(1);
+            long couponsEarned = rs.getLong(2);
+            long downlineSize = rs.getLong(3);
+            if (couponsEarned > 0) coupons.add(userId, couponsEarned);
+            if (downlineSize > 0) downline.add(userId, downlineSize);
+            rows[0]++;
+        });
+
+        coupons.commit();
+        downline.commit();
+        logger.info("Rebuilt referral leaderboards from {} summary rows in {}ms", rows[0], System.currentTimeMillis() - start);
+        return rows[0];
+    }
+
+    private void apply(List<Long> ids) {
+        try {
+            store.increment(Board.COUPONS, ids, 1);
+            store.increment(Board.DOWNLINE, ids, 1);
+        } catch (Exception e) {
+            // The leaderboard is derived data; a missed update is repaired by the next rebuild
+            logger.warn("Referral leaderboard update failed for {} users: {}", ids.size(), e.getMessage());
+        }
+    }
+
+    private static String displayName(User user) {
+        if (user == null) return "Unknown";
+        String first = user.getFirstName() != null ? user.getFirstName() : "";
+        String last = user.getLastName();
+        return last != null && !last.isEmpty() ? first + " " + last.charAt(0) + "." : first;
+    }
+}
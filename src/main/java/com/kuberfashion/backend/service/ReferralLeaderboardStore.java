@@ -0,0 +1,48 @@
+package com.kuberfashion.backend.service;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Sorted score store behind the referral leaderboards: one sorted set per board, highest score first.
+ * Increments, top-N and per-user rank are all O(log n) (plus N for top-N).
+ */
+public interface ReferralLeaderboardStore {
+
+    enum Board {
+        COUPONS, DOWNLINE
+    }
+
+    class Entry {
+        public final long rank;
+        public final long userId;
+        public final long score;
+
+        public Entry(long rank, long userId, long score) {
+            this.rank = rank;
+            this.userId = userId;
+            this.score = score;
+        }
+    }
+
+    /**
+     * Staged replacement of a whole board; nothing is visible until {@link #commit()}.
+     */
+    interface Rebuild {
+        void add(long userId, long score);
+
+        void commit();
+    }
+
+    void increment(Board board, Collection<Long> userIds, long delta);
+
+    List<Entry> top(Board board, int limit);
+
+    /** 1-based rank, empty when the user has no score on the board. */
+    Optional<Entry> rank(Board board, long userId);
+
+    long size(Board board);
+
+    Rebuild beginRebuild(Board board);
+}
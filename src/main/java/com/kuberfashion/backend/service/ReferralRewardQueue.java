@@ -0,0 +1,37 @@
+package com.kuberfashion.backend.service;
+
+import com.kuberfashion.backend.entity.ReferralRewardJob;
+import com.kuberfashion.backend.repository.ReferralRewardJobRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Enqueues referral processing inside the registration transaction, so a job exists
+ * if and only if the user it refers to committed. Registration never waits on the upline walk.
+ */
+@Service
+public class ReferralRewardQueue {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReferralRewardQueue.class);
+    private static final int MAX_CODE_LENGTH = 64;
+
+    @Autowired
+    private ReferralRewardJobRepository referralRewardJobRepository;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(Long userId, String referralCode) {
+        if (referralCode == null || referralCode.trim().isEmpty()) {
+            return;
+        }
+        String code = referralCode.trim();
+        if (code.length() > MAX_CODE_LENGTH) {
+            logger.warn("Ignoring referral code longer than {} characters for user {}", MAX_CODE_LENGTH, userId);
+            return;
+        }
+        referralRewardJobRepository.save(new ReferralRewardJob(userId, code));
+    }
+}
@@ -0,0 +1,212 @@
+package com.kuberfashion.backend.service;
+
+import com.kuberfashion.backend.entity.ReferralRewardJob;
+import com.kuberfashion.backend.entity.User;
+import com.kuberfashion.backend.repository.ReferralRewardJobRepository;
+import com.kuberfashion.backend.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drains referral_reward_jobs on a bounded worker pool.
+ *
+ * Jobs are claimed, leased and retried through LeasedQueue, like order events. Each job runs the referral
+ * link and upline awards and marks itself DONE in one transaction, so a retried job never awards twice.
+ * A job whose referrer still has an open job of its own is deferred without consuming an attempt, keeping
+ * closure inserts in upline order.
+ */
+@Component
+public class ReferralRewardWorker {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReferralRewardWorker.class);
+
+    private enum Outcome { DONE, DEFERRED, LEASE_LOST }
+
+    @Autowired
+    private ReferralRewardJobRepository referralRewardJobRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ReferralService referralService;
+
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${referral.jobs.enabled:true}")
+    private boolean enabled;
+
+    @Value("${referral.jobs.workers:4}")
+    private int workers;
+
+    @Value("${referral.jobs.batch-size:50}")
+    private int batchSize;
+
+    @Value("${referral.jobs.max-batches-per-poll:20}")
+    private int maxBatchesPerPoll;
+
+    @Value("${referral.jobs.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${referral.jobs.lease-seconds:60}")
+    private long leaseSeconds;
+
+    @Value("${referral.jobs.backoff-base-ms:1000}")
+    private long backoffBaseMs;
+
+    @Value("${referral.jobs.backoff-max-ms:300000}")
+    private long backoffMaxMs;
+
+    @Value("${referral.jobs.defer-ms:500}")
+    private long deferMs;
+
+    @Value("${referral.jobs.retention-days:7}")
+    private int retentionDays;
+
+    // Jobs mostly wait on the database, so workers can be virtual threads
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    private ThreadPoolTaskExecutor executor;
+
+    private LeasedQueue<ReferralRewardJob> queue;
+
+    private final AtomicLong processed = new AtomicLong();
+    private final AtomicLong deferred = new AtomicLong();
+
+    public ReferralRewardWorker(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @PostConstruct
+    void start() {
+        queue = new LeasedQueue<>("referral jobs", referralRewardJobRepository, transactionTemplate,
+                new LeasedQueue.Settings(batchSize, maxBatchesPerPoll, maxAttempts, leaseSeconds,
+                        backoffBaseMs, backoffMaxMs, retentionDays),
+                job -> "Referral job " + job.getId() + " for user " + job.getUserId());
+
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(Math.max(1, workers));
+        executor.setMaxPoolSize(Math.max(1, workers));
+        executor.setQueueCapacity(Math.max(1, batchSize));
+        // A full queue runs the job on the polling thread instead of dropping it
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setThreadNamePrefix("referral-job-");
+        if (virtualThreads) {
+            executor.setThreadFactory(Thread.ofVirtual().name("referral-job-", 1).factory());
+        }
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdown();
+    }
+
+    @Scheduled(fixedDelayString = "${referral.jobs.poll-interval-ms:500}",
+               initialDelayString = "${referral.jobs.initial-delay-ms:10000}")
+    public void poll() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            queue.drain(this::processBatch);
+        } catch (Exception e) {
+            logger.error("Referral job processing failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Claims one batch of due jobs and runs it on the worker pool, waiting for the batch to finish.
+     * @return number of jobs claimed
+     */
+    public int processBatch() {
+        List<ReferralRewardJob> claimed = queue.claim();
+        List<CompletableFuture<Void>> running = new ArrayList<>(claimed.size());
+        for (ReferralRewardJob job : claimed) {
+            running.add(CompletableFuture.runAsync(() -> process(job), executor));
+        }
+        CompletableFuture.allOf(running.toArray(new CompletableFuture<?>[0])).join();
+        return claimed.size();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        Map<ReferralRewardJob.Status, Long> byStatus = queue.countByStatus(ReferralRewardJob.Status.class);
+        stats.put("byStatus", byStatus);
+        stats.put("queueDepth", byStatus.get(ReferralRewardJob.Status.PENDING) + byStatus.get(ReferralRewardJob.Status.PROCESSING));
+        stats.put("lagSeconds", queue.oldestOpenAgeSeconds());
+        stats.put("processed", processed.get());
+        stats.put("retried", queue.getRetried());
+        stats.put("deferred", deferred.get());
+        stats.put("deadLettered", queue.getDeadLettered());
+        stats.put("activeWorkers", executor.getActiveCount());
+        stats.put("workers", workers);
+        return stats;
+    }
+
+    public int requeueFailed() {
+        return queue.requeueFailed();
+    }
+
+    @Scheduled(cron = "${referral.jobs.cleanup-cron:0 45 3 * * *}")
+    public void purgeDone() {
+        queue.purgeFinished();
+    }
+
+    private void process(ReferralRewardJob job) {
+        try {
+            Outcome outcome = transactionTemplate.execute(status -> {
+                Optional<User> referrer = userRepository.findByPhone(job.getReferralCode());
+                if (referrer.isPresent()
+                        && referralRewardJobRepository.existsOpenJobForUser(referrer.get().getId(), job.getId())) {
+                    int n = referralRewardJobRepository.defer(job.getId(), job.getAttempts(),
+                            LocalDateTime.now().plus(Duration.ofMillis(deferMs)));
+                    return n > 0 ? Outcome.DEFERRED : Outcome.LEASE_LOST;
+                }
+
+                // A user deleted before processing has nothing left to link
+                userRepository.findById(job.getUserId())
+                        .ifPresent(user -> referralService.handlePostRegistration(user, job.getReferralCode()));
+
+                if (referralRewardJobRepository.markDone(job.getId(), job.getAttempts(), LocalDateTime.now()) == 0) {
+                    // Another worker reclaimed the job; roll back so its run is the only one that counts
+                    status.setRollbackOnly();
+                    return Outcome.LEASE_LOST;
+                }
+                return Outcome.DONE;
+            });
+            if (outcome == Outcome.DONE) {
+                processed.incrementAndGet();
+            } else if (outcome == Outcome.DEFERRED) {
+                deferred.incrementAndGet();
+            } else {
+                logger.warn("Referral job {} lease expired before completion; result discarded", job.getId());
+            }
+        } catch (Exception e) {
+            queue.recordFailure(job, e);
+        }
+    }
+}
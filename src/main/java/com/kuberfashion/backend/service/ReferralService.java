@@ -1,17 +1,21 @@
 package com.kuberfashion.backend.service;
 
-import com.kuberfashion.backend.entity.CouponTransaction;
 import com.kuberfashion.backend.entity.ReferralRelation;
+import com.kuberfashion.backend.entity.ReferralSummary;
 import com.kuberfashion.backend.entity.User;
 import com.kuberfashion.backend.repository.CouponTransactionRepository;
+import com.kuberfashion.backend.repository.ReferralClosureRepository;
 import com.kuberfashion.backend.repository.ReferralRelationRepository;
+import com.kuberfashion.backend.repository.ReferralSummaryRepository;
 import com.kuberfashion.backend.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -23,6 +27,11 @@ public class ReferralService {
     @Autowired private UserRepository userRepository;
     @Autowired private ReferralRelationRepository referralRelationRepository;
     @Autowired private CouponTransactionRepository couponTransactionRepository;
+    @Autowired private ReferralClosureRepository referralClosureRepository;
+    @Autowired private ReferralSummaryRepository referralSummaryRepository;
+    @Autowired private CouponCreditAccumulator couponCreditAccumulator;
+    @Autowired private CoinLedgerService coinLedgerService;
+    @Autowired private ReferralLeaderboardService referralLeaderboardService;
 
     public void handlePostRegistration(User newUser, String referralCode) {
         // No coupon for the new user; coupons go to referrers only
@@ -41,47 +50,60 @@ public class ReferralService {
 
         if (referrer.getId().equals(newUser.getId())) return;
 
-        // Prevent cycles: ensure referrer is not in newUser's descendant chain
-        if (wouldCreateCycle(newUser, referrer)) return;
+        // Prevent cycles: the referrer must not already be in newUser's downline
+        if (referralClosureRepository.isAncestor(newUser.getId(), referrer.getId())) return;
 
-        // Link referral one-time (unique child)
-        linkReferral(newUser, referrer);
+        // Link referral one-time (unique child); nothing to award if the user was already linked
+        if (!linkReferral(newUser, referrer)) return;
 
-        // Award 1 coupon to each ancestor up to 6 levels
-        User current = referrer;
-        for (int level = 1; level <= MAX_LEVELS && current != null; level++) {
-            awardCoupon(current, newUser, level);
-            Optional<ReferralRelation> rr = referralRelationRepository.findByUserId(current.getId());
-            if (rr.isEmpty() || rr.get().getParent() == null) break;
-            current = rr.get().getParent();
+        // Award 1 coupon to each ancestor up to 6 levels, resolved from the closure in one query
+        Map<Long, Integer> levelByUserId = new LinkedHashMap<>();
+        for (Object[] row : referralClosureRepository.findAncestors(newUser.getId(), MAX_LEVELS)) {
+            levelByUserId.put((Long) row[0], ((Number) row[1]).intValue());
         }
+        awardCoupons(levelByUserId, newUser);
     }
 
-    private boolean wouldCreateCycle(User child, User parentCandidate) {
-        // Traverse up from parentCandidate; if we find child, cycle would occur
-        User current = parentCandidate;
-        for (int i = 0; i < MAX_LEVELS && current != null; i++) {
-            if (current.getId().equals(child.getId())) return true;
-            Optional<ReferralRelation> rr = referralRelationRepository.findByUserId(current.getId());
-            if (rr.isEmpty() || rr.get().getParent() == null) break;
-            current = rr.get().getParent();
-        }
-        return false;
-    }
-
-    private void linkReferral(User child, User parent) {
-        if (referralRelationRepository.findByUserId(child.getId()).isPresent()) return;
+    private boolean linkReferral(User child, User parent) {
+        if (referralRelationRepository.findByUserId(child.getId()).isPresent()) return false;
         ReferralRelation rr = new ReferralRelation(child, parent);
         referralRelationRepository.save(rr);
+        referralRelationRepository.flush();
+        referralClosureRepository.insertLink(child.getId(), parent.getId());
+        return true;
     }
 
-    private void awardCoupon(User to, User source, Integer level) {
-        // optimistic lock via @Version on User
-        to.setKuberCoupons(to.getKuberCoupons() + 1);
-        userRepository.save(to);
+    /**
+     * Rebuilds referral_closure from referral_relations.
+     * @return number of closure rows written
+     */
+    public int rebuildClosure() {
+        referralClosureRepository.deleteAllRows();
+        return referralClosureRepository.rebuildFromRelations();
+    }
 
-        CouponTransaction tx = new CouponTransaction(to, source, level);
-        couponTransactionRepository.save(tx);
+    @Transactional(readOnly = true)
+    public long getDownlineSize(Long userId) {
+        return referralClosureRepository.countDownline(userId, MAX_LEVELS);
+    }
+
+    /**
+     * Credits one coupon to every awarded user without loading or versioning User entities:
+     * ledger rows and summary increments are JDBC-batched, and balances move with one atomic UPDATE
+     * (or via the write-behind accumulator when enabled).
+     */
+    private void awardCoupons(Map<Long, Integer> levelByUserId, User source) {
+        if (levelByUserId.isEmpty()) return;
+        couponTransactionRepository.insertAwards(source.getId(), levelByUserId);
+        referralSummaryRepository.recordAwards(levelByUserId);
+
+        if (couponCreditAccumulator.isEnabled()) {
+            couponCreditAccumulator.creditAfterCommit(levelByUserId.keySet());
+        } else {
+            userRepository.creditCoupon(levelByUserId.keySet());
+        }
+        coinLedgerService.creditReferralRewards(source.getId(), levelByUserId);
+        referralLeaderboardService.recordReferral(levelByUserId.keySet());
     }
 
     public static class ReferralItem {
@@ -95,37 +117,48 @@ public class ReferralService {
     public static class ReferralStats {
         public String referralCode;
         public int totalDirectReferrals;
+        public long totalDownline;
         public long totalCouponsEarned;
         public List<ReferralItem> referrals = new ArrayList<>();
     }
 
+    @Transactional(readOnly = true)
     public ReferralStats getReferralStats(User user) {
         ReferralStats stats = new ReferralStats();
         stats.referralCode = user.getPhone();
-        // Total coupons earned overall
-        stats.totalCouponsEarned = couponTransactionRepository.countCouponsByUser(user.getId());
 
-        // Direct referrals list
-        List<ReferralRelation> directs = referralRelationRepository.getDirectReferrals(user.getId());
-        stats.totalDirectReferrals = directs.size();
+        // Totals from the incrementally maintained summary row; users without one have earned nothing yet
+        Optional<ReferralSummary> summary = referralSummaryRepository.findById(user.getId());
+        stats.totalCouponsEarned = summary.map(ReferralSummary::getCouponsEarned).orElse(0L);
+        stats.totalDownline = summary.map(ReferralSummary::getDownlineSize).orElse(0L);
 
-        for (ReferralRelation rr : directs) {
-            User referred = rr.getUser();
+        // Direct referrals with per-referral coupon counts in one grouped query
+        for (Object[] row : referralRelationRepository.findDirectReferralStats(user.getId())) {
+            Long referredId = (Long) row[0];
+            String phone = (String) row[1];
             ReferralItem item = new ReferralItem();
-            item.userId = referred.getId();
-            String phone = referred.getPhone();
+            item.userId = referredId;
             if (phone != null && phone.length() >= 4) {
                 String last4 = phone.substring(phone.length() - 4);
                 item.masked = "******" + last4;
             } else {
-                item.masked = "user-" + referred.getId();
+                item.masked = "user-" + referredId;
             }
-            item.status = referred.isEnabled() ? "active" : "inactive";
-            item.signupTime = referred.getCreatedAt() != null ? referred.getCreatedAt().toString() : null;
-            item.couponsEarnedFrom = couponTransactionRepository.countCouponsByUserFromSource(user.getId(), referred.getId());
+            item.status = Boolean.TRUE.equals(row[2]) ? "active" : "inactive";
+            item.signupTime = row[3] != null ? row[3].toString() : null;
+            item.couponsEarnedFrom = ((Number) row[4]).longValue();
             stats.referrals.add(item);
         }
+        stats.totalDirectReferrals = stats.referrals.size();
 
         return stats;
     }
+
+    /**
+     * Recomputes all referral summary rows from the coupon and referral tables.
+     * @return number of summary rows written
+     */
+    public int rebuildSummaries() {
+        return referralSummaryRepository.rebuild(MAX_LEVELS);
+    }
 }
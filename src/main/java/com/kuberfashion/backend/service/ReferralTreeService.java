@@ -0,0 +1,201 @@
+package com.kuberfashion.backend.service;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kuberfashion.backend.entity.User;
+import com.kuberfashion.backend.exception.ResourceNotFoundException;
+import com.kuberfashion.backend.repository.ReferralClosureRepository;
+import com.kuberfashion.backend.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Admin referral tree read model. A subtree is fetched from referral_closure in one query
+ * (parents ordered before children) and assembled in a single pass, instead of one query per node.
+ */
+@Service
+@Transactional(readOnly = true)
+public class ReferralTreeService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReferralTreeService.class);
+
+    public static final int DEFAULT_DEPTH = 6;
+    public static final int MAX_DEPTH = 20;
+    public static final int DEFAULT_WIDTH = 100;
+    public static final int MAX_NODES = 5000;
+
+    @Autowired private ReferralClosureRepository referralClosureRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private ObjectMapper objectMapper;
+
+    public static class TreeNode {
+        public Long id;
+        public String masked;
+        public String phone;
+        public String signupDate;
+        public String status;
+        public Integer coupons;
+        public Integer totalReferrals;
+        // True when some children were cut by the depth, width or node limit; expand lazily by node id
+        public boolean hasMoreChildren;
+        public List<TreeNode> children = new ArrayList<>();
+    }
+
+    public Optional<User> resolveRoot(String phone) {
+        if (phone != null && !phone.isBlank()) {
+            return userRepository.findByPhone(phone);
+        }
+        // default: the oldest user as root to avoid an empty tree
+        return userRepository.findFirstByOrderByIdAsc();
+    }
+
+    /**
+     * Builds the tree under rootId, at most maxDepth levels deep and maxWidth children per node,
+     * capped at MAX_NODES nodes in total.
+     */
+    public TreeNode getTree(Long rootId, int maxDepth, int maxWidth) {
+        User root = userRepository.findById(rootId)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + rootId));
+        int depth = clampDepth(maxDepth);
+        int width = Math.max(1, maxWidth);
+
+        TreeNode rootNode = toNode(root.getId(), root.getPhone(), root.getCreatedAt(), root.isEnabled(),
+                root.getKuberCoupons(), referralClosureRepository.countDownline(root.getId(), 1));
+        if (depth == 0) {
+            rootNode.hasMoreChildren = rootNode.totalReferrals > 0;
+            return rootNode;
+        }
+
+        List<Object[]> rows = referralClosureRepository.findSubtree(rootId, depth, PageRequest.of(0, MAX_NODES + 1));
+        boolean truncatedByNodes = rows.size() > MAX_NODES;
+        if (truncatedByNodes) {
+            rows = rows.subList(0, MAX_NODES);
+        }
+
+        Map<Long, TreeNode> byId = new HashMap<>(rows.size() * 2);
+        byId.put(rootNode.id, rootNode);
+        for (Object[] row : rows) {
+            TreeNode parent = byId.get((Long) row[5]);
+            if (parent == null) {
+                // parent was cut by the width limit; the whole branch is reachable via lazy expansion
+                continue;
+            }
+            if (parent.children.size() >= width) {
+                parent.hasMoreChildren = true;
+                continue;
+            }
+            TreeNode node = toNode(row);
+            parent.children.add(node);
+            byId.put(node.id, node);
+        }
+
+        // Nodes whose children were not all attached can be expanded further
+        for (TreeNode node : byId.values()) {
+            if (node.children.size() < node.totalReferrals) {
+                node.hasMoreChildren = true;
+            }
+        }
+        if (truncatedByNodes) {
+            logger.info("Referral tree for user {} truncated at {} nodes", rootId, MAX_NODES);
+        }
+        return rootNode;
+    }
+
+    /**
+     * Streams the subtree as a flat JSON array of nodes (each with parentId and depth) in breadth-first order.
+     * Rows go from a forward-only cursor straight to the response, so heap use is independent of tree size.
+     * @return number of nodes written
+     */
+    public long streamTree(Long rootId, int maxDepth, OutputStream out) throws IOException {
+        User root = userRepository.findById(rootId)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + rootId));
+        int depth = clampDepth(maxDepth);
+        long count = 1;
+
+        JsonGenerator gen = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8);
+        gen.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        gen.writeStartArray();
+        writeFlatNode(gen, toNode(root.getId(), root.getPhone(), root.getCreatedAt(), root.isEnabled(),
+                root.getKuberCoupons(), referralClosureRepository.countDownline(root.getId(), 1)), null, 0);
+
+        if (depth > 0) {
+            try (Stream<Object[]> rows = referralClosureRepository.streamSubtree(rootId, depth)) {
+                Iterator<Object[]> it = rows.iterator();
+                while (it.hasNext()) {
+                    Object[] row = it.next();
+                    writeFlatNode(gen, toNode(row), (Long) row[5], ((Number) row[6]).intValue());
+                    if (++count % 1000 == 0) {
+                        gen.flush();
+                    }
+                }
+            }
+        }
+        gen.writeEndArray();
+        gen.close();
+        return count;
+    }
+
+    private void writeFlatNode(JsonGenerator gen, TreeNode node, Long parentId, int depth) throws IOException {
+        gen.writeStartObject();
+        gen.writeNumberField("id", node.id);
+        if (parentId != null) {
+            gen.writeNumberField("parentId", parentId);
+        } else {
+            gen.writeNullField("parentId");
+        }
+        gen.writeNumberField("depth", depth);
+        gen.writeStringField("masked", node.masked);
+        gen.writeStringField("phone", node.phone);
+        gen.writeStringField("signupDate", node.signupDate);
+        gen.writeStringField("status", node.status);
+        gen.writeNumberField("coupons", node.coupons);
+        gen.writeNumberField("totalReferrals", node.totalReferrals);
+        gen.writeEndObject();
+    }
+
+    private TreeNode toNode(Object[] row) {
+        return toNode((Long) row[0], (String) row[1], (LocalDateTime) row[2], (Boolean) row[3],
+                ((Number) row[4]).intValue(), ((Number) row[7]).longValue());
+    }
+
+    private TreeNode toNode(Long id, String phone, LocalDateTime createdAt, boolean enabled,
+                            int coupons, long directReferrals) {
+        TreeNode node = new TreeNode();
+        node.id = id;
+        node.phone = phone;
+        node.masked = mask(phone);
+        node.signupDate = createdAt != null ? createdAt.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME) : null;
+        node.status = enabled ? "active" : "inactive";
+        node.coupons = coupons;
+        node.totalReferrals = (int) directReferrals;
+        return node;
+    }
+
+    private static int clampDepth(int maxDepth) {
+        return Math.max(0, Math.min(maxDepth, MAX_DEPTH));
+    }
+
+    private static String mask(String phone) {
+        if (phone == null) return null;
+        int n = phone.length();
+        if (n <= 10) return "****";
+        return "******" + phone.substring(n - 4);
+    }
+}
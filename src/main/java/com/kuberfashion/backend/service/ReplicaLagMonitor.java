@@ -0,0 +1,133 @@
+package com.kuberfashion.backend.service;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Tracks how far the read replica is behind the primary and decides whether read-only transactions may use it.
+ *
+ * Lag is sampled on a fixed delay. On PostgreSQL it is the age of the last replayed transaction, reported as 0
+ * once everything received has been replayed (an idle primary would otherwise look like a lagging replica).
+ * Other databases use datasource.replica.lag-query when set, or a liveness probe that reports no lag, which is
+ * what the H2 stand-ins used locally need. The replica is skipped while its lag exceeds max-lag-ms, after a
+ * failed check or connection attempt, and when no check has succeeded for three intervals.
+ */
+@Component
+@ConditionalOnProperty(name = "datasource.replica.enabled", havingValue = "true")
+public class ReplicaLagMonitor {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    private static final String POSTGRES_LAG_SQL =
+            "SELECT CASE WHEN NOT pg_is_in_recovery() THEN 0 " +
+            "WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 " +
+            "ELSE COALESCE(CAST(EXTRACT(EPOCH FROM (now() - pg_last_xact_replay_timestamp())) * 1000 AS BIGINT), 0) END";
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private HikariDataSource replicaDataSource;
+
+    @Value("${datasource.replica.max-lag-ms:5000}")
+    private long maxLagMs;
+
+    @Value("${datasource.replica.lag-check-interval-ms:2000}")
+    private long checkIntervalMs;
+
+    @Value("${datasource.replica.lag-query:}")
+    private String lagQuery;
+
+    private JdbcTemplate replicaJdbcTemplate;
+
+    private volatile boolean available;
+    private volatile long lagMs = -1;
+    private volatile long lastSuccessAt;
+    private volatile String lastError;
+
+    private final LongAdder replicaReads = new LongAdder();
+    private final LongAdder primaryFallbacks = new LongAdder();
+    private final LongAdder failedChecks = new LongAdder();
+
+    @PostConstruct
+    void init() {
+        replicaJdbcTemplate = new JdbcTemplate(replicaDataSource);
+        replicaJdbcTemplate.setQueryTimeout((int) Math.max(1, checkIntervalMs / 1000));
+        if (lagQuery.isBlank() && replicaDataSource.getJdbcUrl().startsWith("jdbc:postgresql:")) {
+            lagQuery = POSTGRES_LAG_SQL;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${datasource.replica.lag-check-interval-ms:2000}")
+    public void checkLag() {
+        try {
+            long measured;
+            if (lagQuery.isBlank()) {
+                replicaJdbcTemplate.queryForObject("SELECT 1", Integer.class);
+                measured = 0;
+            } else {
+                Long value = replicaJdbcTemplate.queryForObject(lagQuery, Long.class);
+                measured = value != null ? Math.max(0, value) : 0;
+            }
+            boolean wasUsable = isReplicaUsable();
+            lagMs = measured;
+            lastSuccessAt = System.currentTimeMillis();
+            lastError = null;
+            available = true;
+            if (!wasUsable && isReplicaUsable()) {
+                logger.info("Read replica in use (lag {} ms)", measured);
+            } else if (wasUsable && !isReplicaUsable()) {
+                logger.warn("Read replica lag {} ms exceeds {} ms, routing reads to the primary", measured, maxLagMs);
+            }
+        } catch (Exception e) {
+            failedChecks.increment();
+            markUnavailable(e);
+        }
+    }
+
+    public boolean isReplicaUsable() {
+        return available
+                && lagMs <= maxLagMs
+                && System.currentTimeMillis() - lastSuccessAt <= 3 * checkIntervalMs;
+    }
+
+    public void markUnavailable(Exception cause) {
+        if (available) {
+            logger.warn("Read replica unavailable, routing reads to the primary: {}", cause.getMessage());
+        }
+        available = false;
+        lastError = cause.getMessage();
+    }
+
+    public void recordReplicaRead() {
+        replicaReads.increment();
+    }
+
+    public void recordPrimaryFallback() {
+        primaryFallbacks.increment();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("usable", isReplicaUsable());
+        stats.put("lagMs", lagMs);
+        stats.put("maxLagMs", maxLagMs);
+        stats.put("lastSuccessfulCheckAt", lastSuccessAt > 0 ? java.time.Instant.ofEpochMilli(lastSuccessAt).toString() : null);
+        stats.put("lastError", lastError);
+        stats.put("replicaReads", replicaReads.sum());
+        stats.put("primaryFallbacks", primaryFallbacks.sum());
+        stats.put("failedChecks", failedChecks.sum());
+        return stats;
+    }
+}
@@ -0,0 +1,270 @@
+package com.kuberfashion.backend.service;
+
+import com.kuberfashion.backend.config.CloudflareR2Config;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.*;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+import software.amazon.awssdk.services.s3.presigner.model.PresignedPutObjectRequest;
+import software.amazon.awssdk.services.s3.presigner.model.PutObjectPresignRequest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Objects in a Cloudflare R2 (or any S3-compatible) bucket. Large objects go up as multipart uploads.
+ */
+@Component
+@ConditionalOnProperty(name = "storage.provider", havingValue = "r2", matchIfMissing = true)
+public class S3StorageProvider implements StorageProvider {
+
+    private static final Logger logger = LoggerFactory.getLogger(S3StorageProvider.class);
+
+    // S3 rejects multipart parts smaller than 5MB (except the last one)
+    private static final long MIN_PART_SIZE = 5L * 1024 * 1024;
+
+    @Autowired
+    private S3Client s3Client;
+
+    @Autowired
+    private S3Presigner s3Presigner;
+
+    @Autowired
+    private CloudflareR2Config r2Config;
+
+    @Value("${cloudflare.r2.public-url:}")
+    private String publicUrl;
+
+    @Value("${storage.upload.multipart-threshold:8MB}")
+    private DataSize multipartThreshold;
+
+    @Value("${storage.upload.part-size:5MB}")
+    private DataSize partSize;
+
+    // Parts of one object in flight at once (also bounds buffered bytes per upload)
+    @Value("${storage.upload.part-concurrency:4}")
+    private int partConcurrency;
+
+    @Value("${storage.upload.part-threads:8}")
+    private int partThreads;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    private ThreadPoolTaskExecutor partExecutor;
+
+    @PostConstruct
+    void startPartPool() {
+        partExecutor = FileStorageService.newPool("upload-part-", partThreads, virtualThreads);
+    }
+
+    @PreDestroy
+    void stopPartPool() {
+        partExecutor.shutdown();
+    }
+
+    /**
+     * Streams an object to the bucket: a single PUT below the multipart threshold, otherwise a multipart
+     * upload whose parts are sent concurrently. At most part-concurrency parts of one object are buffered
+     * at a time, so memory stays bounded regardless of object size.
+     * @return number of parts uploaded
+     */
+    @Override
+    public int put(String key, InputStream in, long size, String contentType) throws IOException {
+        if (size < multipartThreshold.toBytes()) {
+            PutObjectRequest putObjectRequest = PutObjectRequest.builder()
+                    .bucket(r2Config.getBucketName())
+                    .key(key)
+                    .contentType(contentType)
+                    .contentLength(size)
+                    .build();
+            s3Client.putObject(putObjectRequest, RequestBody.fromInputStream(in, size));
+            return 1;
+        }
+
+        String uploadId = s3Client.createMultipartUpload(CreateMultipartUploadRequest.builder()
+                .bucket(r2Config.getBucketName())
+                .key(key)
+                .contentType(contentType)
+                .build()).uploadId();
+
+        long partBytes = Math.max(partSize.toBytes(), MIN_PART_SIZE);
+        Semaphore inFlight = new Semaphore(Math.max(1, partConcurrency));
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<CompletableFuture<CompletedPart>> parts = new ArrayList<>();
+        try {
+            long remaining = size;
+            int partNumber = 1;
+            while (remaining > 0 && failure.get() == null) {
+                int length = (int) Math.min(partBytes, remaining);
+                inFlight.acquire();
+                byte[] buffer;
+                try {
+                    buffer = in.readNBytes(length);
+                } catch (IOException e) {
+                    inFlight.release();
+                    throw e;
+                }
+                if (buffer.length != length) {
+                    inFlight.release();
+                    throw new IOException("Unexpected end of stream at part " + partNumber);
+                }
+                int number = partNumber++;
+                parts.add(CompletableFuture.supplyAsync(() -> uploadPart(key, uploadId, number, buffer), partExecutor)
+                        .whenComplete((part, error) -> {
+                            inFlight.release();
+                            if (error != null) failure.compareAndSet(null, error);
+                        }));
+                remaining -= length;
+            }
+
+            List<CompletedPart> completed = new ArrayList<>(parts.size());
+            for (CompletableFuture<CompletedPart> part : parts) {
+                completed.add(part.join());
+            }
+            s3Client.completeMultipartUpload(CompleteMultipartUploadRequest.builder()
+                    .bucket(r2Config.getBucketName())
+                    .key(key)
+                    .uploadId(uploadId)
+                    .multipartUpload(CompletedMultipartUpload.builder().parts(completed).build())
+                    .build());
+            return completed.size();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            abortMultipart(key, uploadId);
+            throw new IOException("Multipart upload interrupted", e);
+        } catch (IOException | RuntimeException e) {
+            abortMultipart(key, uploadId);
+            throw e instanceof IOException io ? io : new IOException("Multipart upload failed: " + e.getMessage(), e);
+        }
+    }
+
+    private CompletedPart uploadPart(String key, String uploadId, int partNumber, byte[] buffer) {
+        UploadPartResponse response = s3Client.uploadPart(UploadPartRequest.builder()
+                .bucket(r2Config.getBucketName())
+                .key(key)
+                .uploadId(uploadId)
+                .partNumber(partNumber)
+                .contentLength((long) buffer.length)
+                .build(), RequestBody.fromBytes(buffer));
+        return CompletedPart.builder().partNumber(partNumber).eTag(response.eTag()).build();
+    }
+
+    private void abortMultipart(String key, String uploadId) {
+        try {
+            s3Client.abortMultipartUpload(AbortMultipartUploadRequest.builder()
+                    .bucket(r2Config.getBucketName())
+                    .key(key)
+                    .uploadId(uploadId)
+                    .build());
+        } catch (Exception e) {
+            logger.warn("Failed to abort multipart upload {} for {}: {}", uploadId, key, e.getMessage());
+        }
+    }
+
+    @Override
+    public FileStorageService.FileMetadata head(String key) {
+        try {
+            HeadObjectResponse response = s3Client.headObject(HeadObjectRequest.builder()
+                    .bucket(r2Config.getBucketName())
+                    .key(key)
+                    .build());
+            return new FileStorageService.FileMetadata(key, response.contentType(), response.contentLength(), response.lastModified());
+        } catch (NoSuchKeyException e) {
+            return null;
+        } catch (S3Exception e) {
+            if (e.statusCode() == 404) return null;
+            throw e;
+        }
+    }
+
+    @Override
+    public void delete(String key) {
+        s3Client.deleteObject(DeleteObjectRequest.builder()
+                .bucket(r2Config.getBucketName())
+                .key(key)
+                .build());
+    }
+
+    @Override
+    public String getPublicUrl(String key) {
+        if (publicUrl != null && !publicUrl.isEmpty()) {
+            return publicUrl + "/" + key;
+        }
+        // Fallback to R2 direct URL (if bucket is public)
+        return "https://pub-" + r2Config.getBucketName() + ".r2.dev/" + key;
+    }
+
+    @Override
+    public PresignedUpload presignPut(String key, String contentType, long size, Duration ttl) {
+        PresignedPutObjectRequest presigned = s3Presigner.presignPutObject(PutObjectPresignRequest.builder()
+                .signatureDuration(ttl)
+                .putObjectRequest(PutObjectRequest.builder()
+                        .bucket(r2Config.getBucketName())
+                        .key(key)
+                        .contentType(contentType)
+                        .contentLength(size)
+                        .build())
+                .build());
+        Map<String, String> headers = new LinkedHashMap<>();
+        presigned.signedHeaders().forEach((name, values) -> {
+            // The client's HTTP stack sets Host itself
+            if (!name.equalsIgnoreCase("host")) {
+                headers.put(name, String.join(",", values));
+            }
+        });
+        return new PresignedUpload(presigned.url().toString(), "PUT", headers, presigned.expiration());
+    }
+
+    @Override
+    public ObjectPage list(String cursor, int pageSize) {
+        ListObjectsV2Response response = s3Client.listObjectsV2(ListObjectsV2Request.builder()
+                .bucket(r2Config.getBucketName())
+                .continuationToken(cursor)
+                .maxKeys(pageSize)
+                .build());
+        List<ObjectSummary> objects = new ArrayList<>(response.contents().size());
+        for (S3Object object : response.contents()) {
+            objects.add(new ObjectSummary(object.key(), object.size(), object.lastModified()));
+        }
+        return new ObjectPage(objects, Boolean.TRUE.equals(response.isTruncated()) ? response.nextContinuationToken() : null);
+    }
+
+    @Override
+    public List<String> deleteAll(Collection<String> keys) {
+        if (keys.isEmpty()) return List.of();
+        List<ObjectIdentifier> ids = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            ids.add(ObjectIdentifier.builder().key(key).build());
+        }
+        DeleteObjectsResponse response = s3Client.deleteObjects(DeleteObjectsRequest.builder()
+                .bucket(r2Config.getBucketName())
+                .delete(Delete.builder().objects(ids).quiet(true).build())
+                .build());
+        List<String> failed = new ArrayList<>(response.errors().size());
+        for (S3Error error : response.errors()) {
+            logger.warn("Failed to delete {}: {} {}", error.key(), error.code(), error.message());
+            failed.add(error.key());
+        }
+        return failed;
+    }
+}
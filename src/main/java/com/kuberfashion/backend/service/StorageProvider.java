@@ -0,0 +1,101 @@
+package com.kuberfashion.backend.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Backend that holds uploaded objects. FileStorageService owns naming, deduplication and caching;
+ * a provider only stores, describes and removes bytes under an object key (e.g. products/20250101_120000_ab12cd34.jpg).
+ * Selected with storage.provider: r2 (default) or local.
+ */
+public interface StorageProvider {
+
+    /**
+     * Stores an object, replacing any existing one under the key.
+     * @return number of requests/parts the write took (1 for single writes)
+     */
+    int put(String key, InputStream in, long size, String contentType) throws IOException;
+
+    /**
+     * @return the object's metadata, or null if it does not exist
+     */
+    FileStorageService.FileMetadata head(String key);
+
+    // Missing keys are not an error
+    void delete(String key);
+
+    String getPublicUrl(String key);
+
+    /**
+     * URL through which a client can PUT this object directly, without the bytes passing through us.
+     * Content type and length are part of the signature, so the upload must match them exactly.
+     */
+    PresignedUpload presignPut(String key, String contentType, long size, Duration ttl);
+
+    /**
+     * One page of all stored objects, in key order.
+     * @param cursor null for the first page, then {@link ObjectPage#getNextCursor()}
+     */
+    ObjectPage list(String cursor, int pageSize);
+
+    /**
+     * Deletes up to 1000 objects in one request; missing keys count as deleted.
+     * @return keys that could not be deleted
+     */
+    List<String> deleteAll(Collection<String> keys);
+
+    final class ObjectSummary {
+        private final String key;
+        private final long size;
+        private final Instant lastModified;
+
+        public ObjectSummary(String key, long size, Instant lastModified) {
+            this.key = key;
+            this.size = size;
+            this.lastModified = lastModified;
+        }
+
+        public String getKey() { return key; }
+        public long getSize() { return size; }
+        public Instant getLastModified() { return lastModified; }
+    }
+
+    final class ObjectPage {
+        private final List<ObjectSummary> objects;
+        private final String nextCursor;
+
+        public ObjectPage(List<ObjectSummary> objects, String nextCursor) {
+            this.objects = objects;
+            this.nextCursor = nextCursor;
+        }
+
+        public List<ObjectSummary> getObjects() { return objects; }
+        // Null on the last page
+        public String getNextCursor() { return nextCursor; }
+    }
+
+    final class PresignedUpload {
+        private final String url;
+        private final String method;
+        private final Map<String, String> headers;
+        private final Instant expiresAt;
+
+        public PresignedUpload(String url, String method, Map<String, String> headers, Instant expiresAt) {
+            this.url = url;
+            this.method = method;
+            this.headers = headers;
+            this.expiresAt = expiresAt;
+        }
+
+        public String getUrl() { return url; }
+        public String getMethod() { return method; }
+        // Headers the client must send with the upload
+        public Map<String, String> getHeaders() { return headers; }
+        public Instant getExpiresAt() { return expiresAt; }
+    }
+}
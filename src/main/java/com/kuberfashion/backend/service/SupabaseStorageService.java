@@ -5,8 +5,12 @@ import org.springframework.http.*;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
+/**
+ * Legacy Supabase upload path, no longer used by any flow.
+ * @deprecated uploads go through {@link FileStorageService} and a {@link StorageProvider}
+ */
 @Service
-@Deprecated
+@Deprecated(forRemoval = true)
 public class SupabaseStorageService {
 
     @Value("${supabase.url}")
@@ -30,7 +30,10 @@ public class UserService implements UserDetailsService {
     private PasswordEncoder passwordEncoder;
     
     @Autowired
-    private ReferralService referralService;
+    private ReferralRewardQueue referralRewardQueue;
+    
+    @Autowired
+    private CoinLedgerService coinLedgerService;
     
     @Override
     public UserDetails loadUserByUsername(String identifier) throws UsernameNotFoundException {
@@ -73,14 +76,10 @@ public class UserService implements UserDetailsService {
         user.setEnabled(true);
         
         User savedUser = userRepository.save(user);
+        coinLedgerService.creditRegistrationBonus(savedUser.getId());
         
-        // Referral handling (optional referral code/phone)
-        try {
-            referralService.handlePostRegistration(savedUser, registrationDto.getCleanedReferralCode());
-        } catch (Exception ex) {
-            // do not block registration on referral errors
-            System.err.println("[Referral] Post-registration handling failed: " + ex.getMessage());
-        }
+        // Referral linking and upline awards run asynchronously (optional referral code/phone)
+        referralRewardQueue.enqueue(savedUser.getId(), registrationDto.getCleanedReferralCode());
         return new UserResponseDto(savedUser);
     }
     
@@ -108,13 +107,10 @@ public class UserService implements UserDetailsService {
         user.setEnabled(true);
         
         User savedUser = userRepository.save(user);
+        coinLedgerService.creditRegistrationBonus(savedUser.getId());
         
         // No referral phone provided in sync flow, but keep hook if present
-        try {
-            referralService.handlePostRegistration(savedUser, registrationDto.getCleanedReferralCode());
-        } catch (Exception ex) {
-            System.err.println("[Referral] Post-registration handling failed (supabase): " + ex.getMessage());
-        }
+        referralRewardQueue.enqueue(savedUser.getId(), registrationDto.getCleanedReferralCode());
         return new UserResponseDto(savedUser);
     }
     
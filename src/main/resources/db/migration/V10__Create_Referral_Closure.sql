@@ -0,0 +1,39 @@
+-- =====================================================
+-- Referral Closure Migration
+-- Version: 10
+-- Description: Transitive closure of referral_relations for
+--              single-query ancestor, cycle and downline lookups
+-- =====================================================
+
+CREATE TABLE IF NOT EXISTS referral_closure (
+    id BIGSERIAL PRIMARY KEY,
+    ancestor_id BIGINT NOT NULL,
+    descendant_id BIGINT NOT NULL,
+    depth INTEGER NOT NULL,
+    CONSTRAINT uk_referral_closure_pair UNIQUE (ancestor_id, descendant_id)
+);
+
+-- Ancestors of a user (reward chain, cycle check)
+CREATE INDEX IF NOT EXISTS idx_referral_closure_desc
+ON referral_closure(descendant_id, depth);
+
+-- Downline of a user (size, per-level counts, subtree)
+CREATE INDEX IF NOT EXISTS idx_referral_closure_anc
+ON referral_closure(ancestor_id, depth);
+
+COMMENT ON TABLE referral_closure IS 'Ancestor/descendant pairs of the referral graph; depth 1 = direct referrer';
+
+-- Initial backfill from existing referral links
+INSERT INTO referral_closure (ancestor_id, descendant_id, depth)
+WITH RECURSIVE chain (ancestor_id, descendant_id, depth) AS (
+    SELECT parent_id, user_id, 1 FROM referral_relations WHERE parent_id IS NOT NULL
+    UNION ALL
+    SELECT rr.parent_id, c.descendant_id, c.depth + 1
+    FROM chain c
+    JOIN referral_relations rr ON rr.user_id = c.ancestor_id
+    WHERE rr.parent_id IS NOT NULL AND c.depth < 10000
+)
+SELECT ancestor_id, descendant_id, MIN(depth) FROM chain GROUP BY ancestor_id, descendant_id
+ON CONFLICT (ancestor_id, descendant_id) DO NOTHING;
+
+ANALYZE referral_closure;
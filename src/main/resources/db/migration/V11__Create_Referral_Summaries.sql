@@ -0,0 +1,38 @@
+-- =====================================================
+-- Referral Summaries Migration
+-- Version: 11
+-- Description: Per-user referral totals maintained on coupon award,
+--              plus the coupon lookup index for per-referral counts
+-- =====================================================
+
+CREATE TABLE IF NOT EXISTS referral_summaries (
+    user_id BIGINT PRIMARY KEY,
+    coupons_earned BIGINT NOT NULL DEFAULT 0,
+    direct_referrals BIGINT NOT NULL DEFAULT 0,
+    downline_size BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+COMMENT ON TABLE referral_summaries IS 'Per-user referral totals, incremented on every coupon award';
+
+-- Per-referral coupon counts on the referral page (user_id, source_user_id)
+CREATE INDEX IF NOT EXISTS idx_coupon_user_source
+ON coupon_transactions(user_id, source_user_id);
+
+-- Initial backfill; rows the application already created are recomputed from the source tables
+INSERT INTO referral_summaries (user_id, coupons_earned, direct_referrals, downline_size, updated_at)
+SELECT u.id,
+       (SELECT COUNT(*) FROM coupon_transactions ct WHERE ct.user_id = u.id),
+       (SELECT COUNT(*) FROM referral_relations rr WHERE rr.parent_id = u.id),
+       (SELECT COUNT(*) FROM referral_closure c WHERE c.ancestor_id = u.id AND c.depth <= 6),
+       CURRENT_TIMESTAMP
+FROM users u
+WHERE EXISTS (SELECT 1 FROM coupon_transactions ct WHERE ct.user_id = u.id)
+   OR EXISTS (SELECT 1 FROM referral_relations rr WHERE rr.parent_id = u.id)
+ON CONFLICT (user_id) DO UPDATE
+SET coupons_earned = EXCLUDED.coupons_earned,
+    direct_referrals = EXCLUDED.direct_referrals,
+    downline_size = EXCLUDED.downline_size,
+    updated_at = EXCLUDED.updated_at;
+
+ANALYZE referral_summaries;
@@ -0,0 +1,46 @@
+-- =====================================================
+-- Coin Ledger Migration
+-- Version: 12
+-- Description: Coin history/balance tables, per-user history index,
+--              and the coin redemption columns on orders
+-- =====================================================
+
+CREATE TABLE IF NOT EXISTS coin_balances (
+    id BIGSERIAL PRIMARY KEY,
+    user_id BIGINT NOT NULL UNIQUE REFERENCES users(id),
+    balance BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS coin_transactions (
+    id BIGSERIAL PRIMARY KEY,
+    user_id BIGINT NOT NULL REFERENCES users(id),
+    source_user_id BIGINT REFERENCES users(id),
+    type VARCHAR(20) NOT NULL,
+    amount BIGINT NOT NULL,
+    level INTEGER,
+    reason VARCHAR(100),
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+COMMENT ON TABLE coin_balances IS 'Per-user coin balance snapshot; always equals SUM(coin_transactions.amount)';
+COMMENT ON TABLE coin_transactions IS 'Append-only coin ledger, signed amounts';
+
+-- History pages and per-user reconciliation sums (user_id, id)
+CREATE INDEX IF NOT EXISTS idx_coin_tx_user_id
+ON coin_transactions(user_id, id);
+
+ALTER TABLE orders ADD COLUMN IF NOT EXISTS coins_redeemed BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE orders ADD COLUMN IF NOT EXISTS coin_discount DECIMAL(10,2) NOT NULL DEFAULT 0;
+
+-- Snapshot rows for accounts that only have history; existing snapshots are re-summed from the ledger
+INSERT INTO coin_balances (user_id, balance, updated_at)
+SELECT ct.user_id, SUM(ct.amount), CURRENT_TIMESTAMP
+FROM coin_transactions ct
+GROUP BY ct.user_id
+ON CONFLICT (user_id) DO UPDATE
+SET balance = EXCLUDED.balance,
+    updated_at = EXCLUDED.updated_at;
+
+ANALYZE coin_balances;
+ANALYZE coin_transactions;
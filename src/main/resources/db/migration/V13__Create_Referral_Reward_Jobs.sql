@@ -0,0 +1,29 @@
+-- =====================================================
+-- Referral Reward Jobs Migration
+-- Version: 13
+-- Description: Durable queue of post-registration referral work,
+--              enqueued at sign-up and drained by the worker pool
+-- =====================================================
+
+CREATE TABLE IF NOT EXISTS referral_reward_jobs (
+    id BIGSERIAL PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    referral_code VARCHAR(64) NOT NULL,
+    status VARCHAR(20) NOT NULL DEFAULT 'PENDING',
+    attempts INTEGER NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    last_error VARCHAR(1000),
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    processed_at TIMESTAMP
+);
+
+-- Worker poll: due PENDING/PROCESSING rows in id order
+CREATE INDEX IF NOT EXISTS idx_referral_jobs_due
+ON referral_reward_jobs(status, next_attempt_at, id);
+
+-- One job per registered user
+CREATE UNIQUE INDEX IF NOT EXISTS idx_referral_jobs_user
+ON referral_reward_jobs(user_id);
+
+COMMENT ON TABLE referral_reward_jobs IS 'Post-registration referral link and upline award jobs (exactly-once per user)';
+COMMENT ON COLUMN referral_reward_jobs.next_attempt_at IS 'Retry time when PENDING, lease expiry when PROCESSING';
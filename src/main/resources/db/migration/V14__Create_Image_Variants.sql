@@ -0,0 +1,32 @@
+-- =====================================================
+-- Image Variants Migration
+-- Version: 14
+-- Description: Registry of generated image renditions and
+--              the per-product copy served with product responses
+-- =====================================================
+
+CREATE TABLE IF NOT EXISTS image_variants (
+    id BIGSERIAL PRIMARY KEY,
+    original_url VARCHAR(500) NOT NULL,
+    variant VARCHAR(20) NOT NULL,
+    url VARCHAR(500) NOT NULL,
+    width INTEGER NOT NULL,
+    height INTEGER NOT NULL,
+    size_bytes BIGINT NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT uk_image_variants_original UNIQUE (original_url, variant)
+);
+
+CREATE TABLE IF NOT EXISTS product_image_variants (
+    product_id BIGINT NOT NULL REFERENCES products(id) ON DELETE CASCADE,
+    original_url VARCHAR(500) NOT NULL,
+    variant VARCHAR(20) NOT NULL,
+    url VARCHAR(500) NOT NULL,
+    width INTEGER NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_product_image_variants_product
+ON product_image_variants(product_id);
+
+COMMENT ON TABLE image_variants IS 'Resized JPEG renditions (thumb, card, detail) keyed by original upload URL';
+COMMENT ON TABLE product_image_variants IS 'Renditions of a product''s image and gallery, copied from image_variants on save';
@@ -0,0 +1,30 @@
+-- =====================================================
+-- Stored Objects Migration
+-- Version: 15
+-- Description: Content-addressed index of uploaded objects
+--              (SHA-256 -> object key) with reference counts,
+--              plus lookups used by the delete reference guard
+-- =====================================================
+
+CREATE TABLE IF NOT EXISTS stored_objects (
+    id BIGSERIAL PRIMARY KEY,
+    content_hash VARCHAR(64) NOT NULL,
+    object_key VARCHAR(500) NOT NULL,
+    size_bytes BIGINT NOT NULL,
+    content_type VARCHAR(100),
+    ref_count INTEGER NOT NULL DEFAULT 1 CHECK (ref_count >= 0),
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    last_referenced_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT uk_stored_objects_hash UNIQUE (content_hash),
+    CONSTRAINT uk_stored_objects_key UNIQUE (object_key)
+);
+
+-- Image URL lookups for "is this object still used" checks before deleting
+CREATE INDEX IF NOT EXISTS idx_products_image ON products(image);
+CREATE INDEX IF NOT EXISTS idx_product_images_url ON product_images(image_url);
+CREATE INDEX IF NOT EXISTS idx_categories_image ON categories(image);
+
+COMMENT ON TABLE stored_objects IS 'One row per distinct uploaded content; the object is deleted when ref_count reaches 0';
+COMMENT ON COLUMN stored_objects.content_hash IS 'Hex SHA-256 of the object bytes';
+
+ANALYZE stored_objects;
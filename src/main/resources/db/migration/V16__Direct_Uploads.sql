@@ -0,0 +1,11 @@
+-- =====================================================
+-- Direct Uploads Migration
+-- Version: 16
+-- Description: Objects uploaded straight to the bucket through
+--              presigned URLs are indexed without a content hash
+-- =====================================================
+
+-- Unique constraint still applies to hashed rows; NULLs never conflict
+ALTER TABLE stored_objects ALTER COLUMN content_hash DROP NOT NULL;
+
+COMMENT ON COLUMN stored_objects.content_hash IS 'Hex SHA-256 of the object bytes; NULL for presigned direct uploads';
@@ -0,0 +1,11 @@
+-- =====================================================
+-- Order Stock Reservation Migration
+-- Version: 17
+-- Description: Tracks whether an order's items have been taken
+--              out of product stock by the order event handler
+-- =====================================================
+
+-- Existing orders were placed before stock was reserved, so nothing is released for them on cancellation
+ALTER TABLE orders ADD COLUMN IF NOT EXISTS stock_reserved BOOLEAN NOT NULL DEFAULT FALSE;
+
+COMMENT ON COLUMN orders.stock_reserved IS 'TRUE while the order''s item quantities are deducted from products.stock_quantity';
@@ -0,0 +1,34 @@
+-- =====================================================
+-- Per-Folder Upload Deduplication Migration
+-- Version: 18
+-- Description: Deduplicate uploads only within one folder, so an
+--              upload never resolves to another folder's object
+-- =====================================================
+
+-- Step 1: Folder of every indexed object (the key up to its last '/')
+ALTER TABLE stored_objects ADD COLUMN IF NOT EXISTS folder VARCHAR(255) DEFAULT '';
+
+UPDATE stored_objects
+SET folder = COALESCE(substring(object_key from '^(.*)/[^/]*$'), '')
+WHERE folder IS NULL OR folder = '';
+
+ALTER TABLE stored_objects ALTER COLUMN folder SET NOT NULL;
+
+-- Step 2: Content hashes are unique per folder instead of globally
+ALTER TABLE stored_objects DROP CONSTRAINT IF EXISTS uk_stored_objects_hash;
+
+DO $$
+BEGIN
+    IF NOT EXISTS (
+        SELECT 1 FROM pg_constraint
+        WHERE conname = 'uk_stored_objects_folder_hash'
+    ) THEN
+        ALTER TABLE stored_objects
+            ADD CONSTRAINT uk_stored_objects_folder_hash UNIQUE (folder, content_hash);
+        RAISE NOTICE 'Added unique constraint on (folder, content_hash)';
+    END IF;
+END $$;
+
+COMMENT ON COLUMN stored_objects.folder IS 'Key prefix the object was uploaded to; deduplication never crosses folders';
+
+ANALYZE stored_objects;
@@ -0,0 +1,23 @@
+-- =====================================================
+-- Cart Read Model Migration
+-- Version: 4
+-- Description: Snapshot the product price on each cart line so the
+--              cart view can flag price changes in the same query
+-- =====================================================
+
+ALTER TABLE cart_items ADD COLUMN IF NOT EXISTS price_at_add NUMERIC(10, 2);
+
+-- Backfill existing lines with the current product price
+UPDATE cart_items ci
+SET price_at_add = p.price
+FROM products p
+WHERE ci.product_id = p.id
+  AND ci.price_at_add IS NULL;
+
+-- Index for the per-user cart read query (ordered by newest first)
+CREATE INDEX IF NOT EXISTS idx_cart_items_user_created
+ON cart_items(user_id, created_at DESC);
+
+COMMENT ON COLUMN cart_items.price_at_add IS 'Product price when the line was last added; compared with live price in cart view';
+
+ANALYZE cart_items;
@@ -0,0 +1,54 @@
+-- =====================================================
+-- Cart Line Identity Migration
+-- Version: 5
+-- Description: Enforce one cart line per (user, product, size, color)
+--              so CartService.addToCart can upsert atomically
+-- =====================================================
+
+-- Step 1: "No selection" is stored as '' so NULLs cannot bypass the unique key
+UPDATE cart_items SET selected_size = '' WHERE selected_size IS NULL;
+UPDATE cart_items SET selected_color = '' WHERE selected_color IS NULL;
+
+-- Step 2: Merge duplicate lines created by concurrent adds into the oldest line
+WITH dup AS (
+    SELECT user_id, product_id, selected_size, selected_color,
+           MIN(id) AS keep_id, SUM(quantity) AS total_quantity
+    FROM cart_items
+    GROUP BY user_id, product_id, selected_size, selected_color
+    HAVING COUNT(*) > 1
+)
+UPDATE cart_items c
+SET quantity = dup.total_quantity
+FROM dup
+WHERE c.id = dup.keep_id;
+
+DELETE FROM cart_items c
+USING cart_items k
+WHERE c.user_id = k.user_id
+  AND c.product_id = k.product_id
+  AND c.selected_size = k.selected_size
+  AND c.selected_color = k.selected_color
+  AND c.id > k.id;
+
+-- Step 3: Lock the columns down
+ALTER TABLE cart_items ALTER COLUMN selected_size SET DEFAULT '';
+ALTER TABLE cart_items ALTER COLUMN selected_size SET NOT NULL;
+ALTER TABLE cart_items ALTER COLUMN selected_color SET DEFAULT '';
+ALTER TABLE cart_items ALTER COLUMN selected_color SET NOT NULL;
+
+-- Step 4: Unique cart line key (target of INSERT ... ON CONFLICT)
+DO $$
+BEGIN
+    IF NOT EXISTS (
+        SELECT 1 FROM pg_constraint
+        WHERE conname = 'uk_cart_items_line'
+    ) THEN
+        ALTER TABLE cart_items
+            ADD CONSTRAINT uk_cart_items_line UNIQUE (user_id, product_id, selected_size, selected_color);
+        RAISE NOTICE 'Added unique constraint on cart line identity';
+    END IF;
+END $$;
+
+COMMENT ON CONSTRAINT uk_cart_items_line ON cart_items IS 'One cart line per user, product, size and color';
+
+ANALYZE cart_items;
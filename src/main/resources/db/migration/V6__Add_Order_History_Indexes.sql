@@ -0,0 +1,19 @@
+-- =====================================================
+-- Order History Read Model Migration
+-- Version: 6
+-- Description: Indexes for keyset-paginated order history and
+--              per-order item lookups
+-- =====================================================
+
+-- Keyset pagination on (created_at, id) for /api/orders/my-orders
+CREATE INDEX IF NOT EXISTS idx_orders_user_created
+ON orders(user_id, created_at DESC, id DESC);
+
+-- Item count / thumbnail subqueries and detail fetch join
+CREATE INDEX IF NOT EXISTS idx_order_items_order_id
+ON order_items(order_id, id);
+
+COMMENT ON INDEX idx_orders_user_created IS 'Optimizes keyset-paginated order history per user';
+
+ANALYZE orders;
+ANALYZE order_items;
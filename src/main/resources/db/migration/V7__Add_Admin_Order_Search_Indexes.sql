@@ -0,0 +1,33 @@
+-- =====================================================
+-- Admin Order Search Migration
+-- Version: 7
+-- Description: Trigram indexes for substring search on customer
+--              email, phone and order number, plus keyset ordering
+-- =====================================================
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- Substring search (LIKE '%q%') on customer email / phone
+CREATE INDEX IF NOT EXISTS idx_users_email_trgm
+ON users USING gin (LOWER(email) gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS idx_users_phone_trgm
+ON users USING gin (phone gin_trgm_ops);
+
+-- Substring search on order number
+CREATE INDEX IF NOT EXISTS idx_orders_order_number_trgm
+ON orders USING gin (LOWER(order_number) gin_trgm_ops);
+
+-- Keyset pagination / export ordering across all orders
+CREATE INDEX IF NOT EXISTS idx_orders_created_id
+ON orders(created_at DESC, id DESC);
+
+-- Status-filtered admin listing
+CREATE INDEX IF NOT EXISTS idx_orders_status_created
+ON orders(status, created_at DESC, id DESC);
+
+COMMENT ON INDEX idx_users_email_trgm IS 'Trigram index for admin order search by customer email';
+COMMENT ON INDEX idx_orders_order_number_trgm IS 'Trigram index for admin order search by order number';
+
+ANALYZE users;
+ANALYZE orders;
@@ -0,0 +1,35 @@
+-- =====================================================
+-- Order Rollups Migration
+-- Version: 8
+-- Description: Daily and hourly order count / revenue summary rows,
+--              maintained incrementally by the application
+-- =====================================================
+
+CREATE TABLE IF NOT EXISTS order_rollups (
+    id BIGSERIAL PRIMARY KEY,
+    granularity VARCHAR(10) NOT NULL,
+    bucket_start TIMESTAMP NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    payment_status VARCHAR(20) NOT NULL,
+    order_count BIGINT NOT NULL DEFAULT 0,
+    revenue NUMERIC(14, 2) NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT uk_order_rollups_bucket UNIQUE (granularity, bucket_start, status, payment_status)
+);
+
+COMMENT ON TABLE order_rollups IS 'Pre-aggregated order counts and revenue per DAY/HOUR bucket, status and payment status';
+
+-- Initial backfill from existing orders; recomputes buckets the application already started
+-- (the table may have been created by ddl-auto before this migration ran)
+INSERT INTO order_rollups (granularity, bucket_start, status, payment_status, order_count, revenue, updated_at)
+SELECT g.unit, date_trunc(lower(g.unit), o.created_at), o.status, COALESCE(o.payment_status, 'PENDING'),
+       COUNT(*), COALESCE(SUM(o.total_amount), 0), CURRENT_TIMESTAMP
+FROM orders o
+CROSS JOIN (VALUES ('DAY'), ('HOUR')) AS g(unit)
+GROUP BY g.unit, date_trunc(lower(g.unit), o.created_at), o.status, COALESCE(o.payment_status, 'PENDING')
+ON CONFLICT (granularity, bucket_start, status, payment_status) DO UPDATE
+SET order_count = EXCLUDED.order_count,
+    revenue = EXCLUDED.revenue,
+    updated_at = EXCLUDED.updated_at;
+
+ANALYZE order_rollups;
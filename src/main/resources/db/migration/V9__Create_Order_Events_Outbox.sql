@@ -0,0 +1,29 @@
+-- =====================================================
+-- Order Events Outbox Migration
+-- Version: 9
+-- Description: Transactional outbox for order lifecycle events,
+--              polled by the in-process dispatcher
+-- =====================================================
+
+CREATE TABLE IF NOT EXISTS order_events (
+    id BIGSERIAL PRIMARY KEY,
+    order_id BIGINT NOT NULL,
+    event_type VARCHAR(40) NOT NULL,
+    payload TEXT NOT NULL,
+    status VARCHAR(20) NOT NULL DEFAULT 'PENDING',
+    attempts INTEGER NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    last_error VARCHAR(1000),
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    processed_at TIMESTAMP
+);
+
+-- Dispatcher poll: due PENDING/PROCESSING rows in id order
+CREATE INDEX IF NOT EXISTS idx_order_events_due
+ON order_events(status, next_attempt_at, id);
+
+CREATE INDEX IF NOT EXISTS idx_order_events_order
+ON order_events(order_id);
+
+COMMENT ON TABLE order_events IS 'Transactional outbox for order lifecycle events (at-least-once delivery)';
+COMMENT ON COLUMN order_events.next_attempt_at IS 'Retry time when PENDING, lease expiry when PROCESSING';
@@ -0,0 +1,78 @@
+package com.kuberfashion.backend;
+
+import com.kuberfashion.backend.entity.Category;
+import com.kuberfashion.backend.entity.Product;
+import com.kuberfashion.backend.entity.User;
+import com.kuberfashion.backend.repository.CategoryRepository;
+import com.kuberfashion.backend.repository.ProductRepository;
+import com.kuberfashion.backend.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Base for tests that run against the full application context (the dev profile's in-memory H2).
+ * Every subclass shares one cached context, so fixtures use unique names instead of cleaning up.
+ * Object storage is the local provider under a fresh temp directory, so upload and delete flows never reach a bucket.
+ */
+@SpringBootTest
+public abstract class IntegrationTestSupport {
+
+    private static final AtomicLong SEQUENCE = new AtomicLong(System.currentTimeMillis() % 1_000_000L * 1000L);
+
+    protected static final Path STORAGE_ROOT = createStorageRoot();
+
+    @Autowired
+    protected UserRepository userRepository;
+
+    @Autowired
+    protected CategoryRepository categoryRepository;
+
+    @Autowired
+    protected ProductRepository productRepository;
+
+    @DynamicPropertySource
+    static void localStorage(DynamicPropertyRegistry registry) {
+        registry.add("storage.provider", () -> "local");
+        registry.add("storage.local.root", STORAGE_ROOT::toString);
+        registry.add("storage.local.public-url", () -> "http://localhost/api/files/local");
+    }
+
+    private static Path createStorageRoot() {
+        try {
+            return Files.createTempDirectory("kuberfashion-test-storage");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    protected static long nextId() {
+        return SEQUENCE.incrementAndGet();
+    }
+
+    protected User newUser() {
+        long n = nextId();
+        String phone = String.format("7%09d", n % 1_000_000_000L);
+        return userRepository.save(new User("Test", "User" + n, "test" + n + "@example.com", phone, "password123"));
+    }
+
+    protected Product newProduct(BigDecimal price) {
+        long n = nextId();
+        Category category = categoryRepository.save(
+                new Category("Test Category " + n, "test-category-" + n, "/images/placeholder.jpg", "Test category"));
+        Product product = new Product("Test Product " + n, "test-product-" + n, price, category, "Test product");
+        product.setOriginalPrice(price);
+        product.setImage("/images/placeholder.jpg");
+        product.setStockQuantity(1_000);
+        product.setInStock(true);
+        return productRepository.save(product);
+    }
+}
@@ -0,0 +1,138 @@
+package com.kuberfashion.backend.config;
+
+import com.kuberfashion.backend.service.DbConnectionLimiter;
+import com.kuberfashion.backend.service.ReplicaLagMonitor;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class DataSourceConfigTest {
+
+    private HikariDataSource primary;
+    private HikariDataSource replica;
+    private ReplicaLagMonitor lagMonitor;
+    private DbConnectionLimiter connectionLimiter;
+
+    @BeforeEach
+    void setUp() {
+        primary = pool("routing-primary", "jdbc:h2:mem:routing-primary;DB_CLOSE_DELAY=-1");
+        replica = pool("routing-replica", "jdbc:h2:mem:routing-replica;DB_CLOSE_DELAY=-1");
+        label(primary, "primary");
+        label(replica, "replica");
+
+        lagMonitor = new ReplicaLagMonitor();
+        ReflectionTestUtils.setField(lagMonitor, "replicaDataSource", replica);
+        ReflectionTestUtils.setField(lagMonitor, "maxLagMs", 5_000L);
+        ReflectionTestUtils.setField(lagMonitor, "checkIntervalMs", 60_000L);
+        ReflectionTestUtils.setField(lagMonitor, "lagQuery", "");
+        ReflectionTestUtils.invokeMethod(lagMonitor, "init");
+
+        connectionLimiter = new DbConnectionLimiter();
+    }
+
+    @AfterEach
+    void tearDown() {
+        primary.close();
+        replica.close();
+    }
+
+    @Test
+    void withoutAReplicaTheDataSourceIsThePrimaryPool() {
+        DataSource dataSource = new DataSourceConfig().dataSource(primary, provider(null), provider(null), connectionLimiter);
+
+        assertSame(primary, dataSource);
+    }
+
+    @Test
+    void readOnlyTransactionsUseTheReplicaAndEverythingElseThePrimary() {
+        lagMonitor.checkLag();
+        DataSource dataSource = routing(replica);
+
+        assertEquals("replica", nodeIn(dataSource, true));
+        assertEquals("primary", nodeIn(dataSource, false));
+        assertEquals("primary", new JdbcTemplate(dataSource).queryForObject("SELECT name FROM node", String.class));
+        assertEquals(1L, lagMonitor.getStats().get("replicaReads"));
+    }
+
+    @Test
+    void readsFallBackToThePrimaryWhileTheReplicaIsNotUsable() {
+        DataSource dataSource = routing(replica);
+
+        assertEquals("primary", nodeIn(dataSource, true));
+        assertEquals(1L, lagMonitor.getStats().get("primaryFallbacks"));
+    }
+
+    @Test
+    void aReplicaConnectionFailureFallsBackAndMarksTheReplicaUnavailable() {
+        HikariDataSource unreachable = pool("routing-unreachable", "jdbc:h2:mem:routing-unreachable;IFEXISTS=TRUE");
+        unreachable.setConnectionTimeout(250);
+        unreachable.setInitializationFailTimeout(-1);
+        // The lag check itself succeeded; the replica pool fails afterwards
+        lagMonitor.checkLag();
+        try {
+            DataSource dataSource = routing(unreachable);
+
+            assertEquals("primary", nodeIn(dataSource, true));
+            assertFalse(lagMonitor.isReplicaUsable());
+            assertEquals(1L, lagMonitor.getStats().get("primaryFallbacks"));
+        } finally {
+            unreachable.close();
+        }
+    }
+
+    @Test
+    void anEnabledReplicaWithoutAUrlFailsAtStartup() {
+        assertThrows(IllegalStateException.class, () ->
+                new ReadReplicaDataSourceConfig().replicaDataSource(new DataSourceProperties(), " ", "", ""));
+    }
+
+    private DataSource routing(HikariDataSource replicaPool) {
+        return new DataSourceConfig().dataSource(primary, provider(replicaPool), provider(lagMonitor), connectionLimiter);
+    }
+
+    private static String nodeIn(DataSource dataSource, boolean readOnly) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        transactionTemplate.setReadOnly(readOnly);
+        return transactionTemplate.execute(status ->
+                new JdbcTemplate(dataSource).queryForObject("SELECT name FROM node", String.class));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> ObjectProvider<T> provider(T bean) {
+        ObjectProvider<T> provider = mock(ObjectProvider.class);
+        when(provider.getIfAvailable()).thenReturn(bean);
+        when(provider.getObject()).thenReturn(bean);
+        return provider;
+    }
+
+    private static HikariDataSource pool(String name, String url) {
+        HikariDataSource pool = new HikariDataSource();
+        pool.setPoolName(name);
+        pool.setJdbcUrl(url);
+        pool.setMaximumPoolSize(2);
+        return pool;
+    }
+
+    private static void label(DataSource dataSource, String name) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS node (name VARCHAR(20))");
+        jdbcTemplate.update("DELETE FROM node");
+        jdbcTemplate.update("INSERT INTO node (name) VALUES (?)", name);
+    }
+}
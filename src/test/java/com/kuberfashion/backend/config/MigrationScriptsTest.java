@@ -0,0 +1,122 @@
+package com.kuberfashion.backend.config;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.MigrationInfo;
+import org.flywaydb.core.internal.parser.ParsingContext;
+import org.flywaydb.core.internal.resource.StringResource;
+import org.flywaydb.core.internal.sqlscript.SqlStatementIterator;
+import org.flywaydb.database.postgresql.PostgreSQLParser;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Smoke checks for db/migration. Dev and tests run H2 with create-drop and Flyway disabled, and V4+ are
+ * PostgreSQL-only (DO blocks, pg_constraint, trigram indexes), so no test executes them. These checks catch
+ * what can be caught without PostgreSQL: Flyway resolving the scripts, its PostgreSQL parser splitting them, and
+ * every statement after the V3 baseline being re-runnable over tables ddl-auto=update already created or extended.
+ * Running them against PostgreSQL is the manual check in TESTING.md.
+ */
+class MigrationScriptsTest {
+
+    private static final int BASELINE_VERSION = 3;
+    private static final Pattern SCRIPT_NAME = Pattern.compile("V(\\d+)__\\w+\\.sql");
+    private static final Pattern CREATE = Pattern.compile("^CREATE (UNIQUE )?(TABLE|INDEX|EXTENSION) (?!IF NOT EXISTS )");
+    private static final Pattern DROP = Pattern.compile("DROP (CONSTRAINT|INDEX|TABLE|COLUMN) (?!IF EXISTS )");
+
+    @Test
+    void flywayLeavesEveryScriptAfterTheBaselinePending() throws Exception {
+        TreeMap<Integer, String> scripts = scripts();
+        Flyway flyway = Flyway.configure()
+                .dataSource("jdbc:h2:mem:migration-scripts;MODE=PostgreSQL;DB_CLOSE_DELAY=-1", "sa", "")
+                .locations("classpath:db/migration")
+                .baselineVersion(String.valueOf(BASELINE_VERSION))
+                .load();
+
+        flyway.baseline();
+
+        List<Integer> pending = Arrays.stream(flyway.info().pending())
+                .map(MigrationInfo::getVersion)
+                .map(version -> Integer.valueOf(version.getVersion()))
+                .toList();
+        assertEquals(IntStream.rangeClosed(BASELINE_VERSION + 1, scripts.lastKey()).boxed().toList(), pending);
+        assertEquals(IntStream.rangeClosed(1, scripts.lastKey()).boxed().toList(), new ArrayList<>(scripts.keySet()));
+    }
+
+    @Test
+    void everyStatementAfterTheBaselineIsGuardedForASchemaDdlAutoAlreadyUpdated() throws Exception {
+        List<String> unguarded = new ArrayList<>();
+        for (var script : scripts().tailMap(BASELINE_VERSION, false).entrySet()) {
+            List<String> statements = statements(script.getValue());
+            assertFalse(statements.isEmpty(), "V" + script.getKey() + " has no statements");
+            for (String statement : statements) {
+                if (!isGuarded(statement)) {
+                    unguarded.add("V" + script.getKey() + ": " + statement);
+                }
+            }
+        }
+
+        assertEquals(List.of(), unguarded);
+    }
+
+    private static boolean isGuarded(String statement) {
+        if (statement.startsWith("DO ")) {
+            // Constraints are added inside DO blocks that check pg_constraint first
+            return statement.contains("IF NOT EXISTS");
+        }
+        if (CREATE.matcher(statement).find() || DROP.matcher(statement).find()) {
+            return false;
+        }
+        if (statement.contains("ADD COLUMN ") && !statement.contains("ADD COLUMN IF NOT EXISTS ")) {
+            return false;
+        }
+        if (statement.contains("ADD CONSTRAINT ")) {
+            return false;
+        }
+        // Backfills may meet rows the application already wrote under ddl-auto
+        return !statement.startsWith("INSERT ") || statement.contains(" ON CONFLICT ");
+    }
+
+    // Split by Flyway's own PostgreSQL parser, without comment lines, upper-cased with whitespace collapsed
+    private static List<String> statements(String sql) {
+        List<String> statements = new ArrayList<>();
+        PostgreSQLParser parser = new PostgreSQLParser(Flyway.configure(), new ParsingContext());
+        try (SqlStatementIterator iterator = parser.parse(new StringResource(sql))) {
+            iterator.forEachRemaining(statement -> statements.add(statement.getSql()
+                    .replaceAll("(?m)^\\s*--.*$", "")
+                    .replaceAll("\\s+", " ")
+                    .trim()
+                    .toUpperCase(Locale.ROOT)));
+        }
+        return statements;
+    }
+
+    private static TreeMap<Integer, String> scripts() throws Exception {
+        TreeMap<Integer, String> scripts = new TreeMap<>();
+        for (Resource resource : new PathMatchingResourcePatternResolver().getResources("classpath:db/migration/*.sql")) {
+            Matcher matcher = SCRIPT_NAME.matcher(resource.getFilename());
+            if (!matcher.matches()) {
+                throw new IllegalStateException("Unexpected migration file name: " + resource.getFilename());
+            }
+            String previous = scripts.put(Integer.valueOf(matcher.group(1)),
+                    resource.getContentAsString(StandardCharsets.UTF_8));
+            if (previous != null) {
+                throw new IllegalStateException("Duplicate migration version in " + resource.getFilename());
+            }
+        }
+        return scripts;
+    }
+}
@@ -0,0 +1,145 @@
+package com.kuberfashion.backend.controller;
+
+import com.kuberfashion.backend.IntegrationTestSupport;
+import com.kuberfashion.backend.service.LocalStorageProvider;
+import com.kuberfashion.backend.service.StorageProvider;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.util.UriComponents;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+class LocalFileControllerTest extends IntegrationTestSupport {
+
+    @Autowired
+    private LocalFileController localFileController;
+
+    @Autowired
+    private LocalStorageProvider localStorageProvider;
+
+    private String key;
+    private byte[] content;
+
+    @BeforeEach
+    void storeObject() throws Exception {
+        key = "tests/" + nextId() + ".txt";
+        content = new byte[100];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) ('a' + i % 26);
+        }
+        localStorageProvider.put(key, new ByteArrayInputStream(content), content.length, "text/plain");
+    }
+
+    @Test
+    void servesTheWholeObjectWithValidators() throws Exception {
+        MockHttpServletResponse response = get(key, null, null, null);
+
+        assertEquals(200, response.getStatus());
+        assertArrayEquals(content, response.getContentAsByteArray());
+        assertEquals("bytes", response.getHeader(HttpHeaders.ACCEPT_RANGES));
+        assertNotNull(response.getHeader(HttpHeaders.ETAG));
+        assertEquals(100, response.getContentLengthLong());
+    }
+
+    @Test
+    void aMatchingIfNoneMatchIsNotModified() throws Exception {
+        String etag = get(key, null, null, null).getHeader(HttpHeaders.ETAG);
+
+        MockHttpServletResponse response = get(key, null, null, "\"other\", " + etag);
+
+        assertEquals(304, response.getStatus());
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    void servesASingleByteRange() throws Exception {
+        MockHttpServletResponse response = get(key, "bytes=10-19", null, null);
+
+        assertEquals(206, response.getStatus());
+        assertEquals("bytes 10-19/100", response.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertArrayEquals(Arrays.copyOfRange(content, 10, 20), response.getContentAsByteArray());
+    }
+
+    @Test
+    void servesASuffixRange() throws Exception {
+        MockHttpServletResponse response = get(key, "bytes=-5", null, null);
+
+        assertEquals(206, response.getStatus());
+        assertEquals("bytes 95-99/100", response.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertArrayEquals(Arrays.copyOfRange(content, 95, 100), response.getContentAsByteArray());
+    }
+
+    @Test
+    void aRangeStartingPastTheEndIsNotSatisfiable() throws Exception {
+        MockHttpServletResponse response = get(key, "bytes=100-", null, null);
+
+        assertEquals(416, response.getStatus());
+        assertEquals("bytes */100", response.getHeader(HttpHeaders.CONTENT_RANGE));
+    }
+
+    @Test
+    void aStaleIfRangeGetsTheWholeObject() throws Exception {
+        MockHttpServletResponse response = get(key, "bytes=10-19", "\"stale\"", null);
+
+        assertEquals(200, response.getStatus());
+        assertArrayEquals(content, response.getContentAsByteArray());
+    }
+
+    @Test
+    void missingObjectsAndKeysOutsideTheRootAreNotFound() throws Exception {
+        assertEquals(404, get("tests/missing.txt", null, null, null).getStatus());
+        assertEquals(404, get("../outside.txt", null, null, null).getStatus());
+    }
+
+    @Test
+    void acceptsOnlyCorrectlySignedUploadsOfTheSignedSize() throws Exception {
+        String uploadKey = "tests/" + nextId() + ".png";
+        byte[] body = new byte[]{1, 2, 3, 4, 5, 6};
+        StorageProvider.PresignedUpload upload = localStorageProvider.presignPut(uploadKey, "image/png", body.length, Duration.ofMinutes(5));
+        UriComponents signed = UriComponentsBuilder.fromUriString(upload.getUrl()).build();
+        long expires = Long.parseLong(signed.getQueryParams().getFirst("expires"));
+        String signature = signed.getQueryParams().getFirst("signature");
+
+        assertEquals(403, put(uploadKey, "image/jpeg", body, body.length, expires, signature).getStatus());
+        String tampered = (signature.charAt(0) == '0' ? "1" : "0") + signature.substring(1);
+        assertEquals(403, put(uploadKey, "image/png", body, body.length, expires, tampered).getStatus());
+        assertEquals(400, put(uploadKey, "image/png", new byte[]{1, 2, 3}, body.length, expires, signature).getStatus());
+        assertFalse(Files.exists(localStorageProvider.resolve(uploadKey)));
+
+        assertEquals(200, put(uploadKey, "image/png", body, body.length, expires, signature).getStatus());
+        assertArrayEquals(body, Files.readAllBytes(localStorageProvider.resolve(uploadKey)));
+    }
+
+    private MockHttpServletResponse get(String objectKey, String range, String ifRange, String ifNoneMatch) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/files/local/" + objectKey);
+        if (range != null) request.addHeader(HttpHeaders.RANGE, range);
+        if (ifRange != null) request.addHeader(HttpHeaders.IF_RANGE, ifRange);
+        if (ifNoneMatch != null) request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        localFileController.serve(request, response);
+        return response;
+    }
+
+    private MockHttpServletResponse put(String objectKey, String contentType, byte[] body, long size, long expires,
+                                        String signature) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("PUT", "/api/files/local/" + objectKey);
+        request.setContentType(contentType);
+        request.setContent(body);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        localFileController.upload(expires, size, signature, request, response);
+        return response;
+    }
+}
@@ -0,0 +1,159 @@
+package com.kuberfashion.backend.event;
+
+import com.kuberfashion.backend.IntegrationTestSupport;
+import com.kuberfashion.backend.dto.CartItemDto;
+import com.kuberfashion.backend.entity.Order;
+import com.kuberfashion.backend.entity.OrderEvent;
+import com.kuberfashion.backend.entity.Product;
+import com.kuberfashion.backend.entity.User;
+import com.kuberfashion.backend.repository.OrderRepository;
+import com.kuberfashion.backend.service.OrderService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Checkout reserves synchronously; the dispatcher's poller may deliver the same events concurrently with the direct
+// deliveries here, and the handler's idempotence makes the outcome equal
+class StockReservationHandlerTest extends IntegrationTestSupport {
+
+    @Autowired
+    private StockReservationHandler stockReservationHandler;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Test
+    void placingAnOrderReservesItsStockOnceHoweverOftenTheEventArrives() {
+        Product product = newProduct(new BigDecimal("450.00"));
+        Order order = placeOrder(newUser(), product, 3);
+
+        deliver(order, OrderEvent.EventType.ORDER_CREATED);
+        deliver(order, OrderEvent.EventType.ORDER_CREATED);
+
+        assertEquals(997, stockOf(product));
+        assertTrue(orderRepository.findById(order.getId()).orElseThrow().isStockReserved());
+    }
+
+    @Test
+    void cancellingAnOrderReleasesItsStockOnce() {
+        User user = newUser();
+        Product product = newProduct(new BigDecimal("450.00"));
+        Order order = placeOrder(user, product, 4);
+        deliver(order, OrderEvent.EventType.ORDER_CREATED);
+
+        orderService.cancelOrder(order.getId(), user.getId());
+        deliver(order, OrderEvent.EventType.ORDER_CANCELLED);
+        deliver(order, OrderEvent.EventType.ORDER_CANCELLED);
+
+        assertEquals(1_000, stockOf(product));
+        assertFalse(orderRepository.findById(order.getId()).orElseThrow().isStockReserved());
+    }
+
+    @Test
+    void reopeningACancelledOrderReservesItsStockAgain() {
+        User user = newUser();
+        Product product = newProduct(new BigDecimal("450.00"));
+        Order order = placeOrder(user, product, 2);
+        orderService.cancelOrder(order.getId(), user.getId());
+        deliver(order, OrderEvent.EventType.ORDER_CANCELLED);
+
+        orderService.updateOrderStatus(order.getId(), Order.OrderStatus.CONFIRMED);
+        deliver(order, OrderEvent.EventType.ORDER_STATUS_CHANGED);
+
+        assertEquals(998, stockOf(product));
+        assertTrue(orderRepository.findById(order.getId()).orElseThrow().isStockReserved());
+    }
+
+    @Test
+    void sellingTheLastUnitsMarksTheProductOutOfStock() {
+        Product product = newProduct(new BigDecimal("450.00"));
+        product.setStockQuantity(2);
+        productRepository.save(product);
+
+        placeOrder(newUser(), product, 2);
+
+        Product reloaded = productRepository.findById(product.getId()).orElseThrow();
+        assertEquals(0, reloaded.getStockQuantity());
+        assertFalse(reloaded.isInStock());
+    }
+
+    @Test
+    void aCheckoutForMoreThanIsLeftFailsAndReservesNothing() {
+        User user = newUser();
+        Product plenty = newProduct(new BigDecimal("450.00"));
+        Product scarce = newProduct(new BigDecimal("450.00"));
+        scarce.setStockQuantity(1);
+        productRepository.save(scarce);
+
+        assertThrows(IllegalArgumentException.class, () -> orderService.createOrder(user.getId(),
+                List.of(new CartItemDto(plenty.getId(), 3), new CartItemDto(scarce.getId(), 2)),
+                "1 Test Street", "1 Test Street", Order.PaymentMethod.CASH_ON_DELIVERY, 0));
+
+        assertEquals(1_000, stockOf(plenty));
+        assertEquals(1, stockOf(scarce));
+        assertTrue(orderRepository.findByUserIdOrderByCreatedAtDesc(user.getId()).isEmpty());
+    }
+
+    @Test
+    void concurrentCheckoutsNeverSellMoreThanTheStock() throws Exception {
+        Product product = newProduct(new BigDecimal("450.00"));
+        product.setStockQuantity(5);
+        productRepository.save(product);
+        List<Callable<Order>> checkouts = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            User user = newUser();
+            checkouts.add(() -> placeOrder(user, product, 1));
+        }
+
+        int placed = 0;
+        int refused = 0;
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            for (Future<Order> future : executor.invokeAll(checkouts)) {
+                try {
+                    future.get();
+                    placed++;
+                } catch (ExecutionException e) {
+                    assertInstanceOf(IllegalArgumentException.class, e.getCause());
+                    refused++;
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(5, placed);
+        assertEquals(3, refused);
+        assertEquals(0, stockOf(product));
+    }
+
+    private Order placeOrder(User user, Product product, int quantity) {
+        return orderService.createOrder(user.getId(), List.of(new CartItemDto(product.getId(), quantity)),
+                "1 Test Street", "1 Test Street", Order.PaymentMethod.CASH_ON_DELIVERY, 0);
+    }
+
+    private void deliver(Order order, OrderEvent.EventType eventType) {
+        stockReservationHandler.handle(new OrderEvent(order.getId(), eventType, "{}"));
+    }
+
+    private int stockOf(Product product) {
+        return productRepository.findById(product.getId()).orElseThrow().getStockQuantity();
+    }
+}
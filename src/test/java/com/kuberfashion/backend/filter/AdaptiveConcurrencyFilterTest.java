@@ -0,0 +1,155 @@
+package com.kuberfashion.backend.filter;
+
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.cors.CorsConfiguration;
+import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class AdaptiveConcurrencyFilterTest {
+
+    private static final String ALLOWED_ORIGIN = "https://shop.example.com";
+
+    private AdaptiveConcurrencyFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        CorsConfiguration cors = new CorsConfiguration();
+        cors.setAllowedOrigins(List.of(ALLOWED_ORIGIN));
+        cors.setAllowedMethods(List.of("GET", "POST"));
+        UrlBasedCorsConfigurationSource corsSource = new UrlBasedCorsConfigurationSource();
+        corsSource.registerCorsConfiguration("/**", cors);
+
+        filter = new AdaptiveConcurrencyFilter();
+        ReflectionTestUtils.setField(filter, "objectMapper", Jackson2ObjectMapperBuilder.json().build());
+        ReflectionTestUtils.setField(filter, "corsConfigurationSource", corsSource);
+        ReflectionTestUtils.setField(filter, "enabled", true);
+        ReflectionTestUtils.setField(filter, "initialLimit", 1);
+        ReflectionTestUtils.setField(filter, "poolSize", 10);
+        ReflectionTestUtils.setField(filter, "minLimit", 1);
+        ReflectionTestUtils.setField(filter, "maxLimit", 10);
+        ReflectionTestUtils.setField(filter, "rttTolerance", 1.5);
+        ReflectionTestUtils.setField(filter, "smoothing", 0.2);
+        ReflectionTestUtils.setField(filter, "backoffRatio", 0.9);
+        ReflectionTestUtils.setField(filter, "windowMs", 60_000L);
+        ReflectionTestUtils.setField(filter, "minWindowSamples", 10);
+        ReflectionTestUtils.setField(filter, "shedGradient", 0.9);
+        ReflectionTestUtils.setField(filter, "criticalPaths", List.of("/api/orders/**", "/api/cart/**"));
+        ReflectionTestUtils.setField(filter, "lowPriorityPaths", List.of("GET /api/products/**"));
+        ReflectionTestUtils.setField(filter, "exemptPaths", List.of("/api/health"));
+        filter.init();
+    }
+
+    @Test
+    void classifiesRoutesByPriority() {
+        assertEquals(AdaptiveConcurrencyFilter.Priority.CRITICAL, filter.classify(request("POST", "/api/orders/create")));
+        assertEquals(AdaptiveConcurrencyFilter.Priority.LOW, filter.classify(request("GET", "/api/products/12")));
+        assertEquals(AdaptiveConcurrencyFilter.Priority.DEFAULT, filter.classify(request("PUT", "/api/products/12")));
+        assertEquals(AdaptiveConcurrencyFilter.Priority.DEFAULT, filter.classify(request("GET", "/api/referrals/stats")));
+    }
+
+    @Test
+    void requestsOverTheGroupLimitGetA503WithRetryAfterAndCorsHeaders() throws Exception {
+        MockHttpServletResponse inner = new MockHttpServletResponse();
+        MockHttpServletResponse outer = new MockHttpServletResponse();
+
+        // The second request arrives while the first still holds the group's only slot
+        filter.doFilter(request("GET", "/api/referrals/stats"), outer,
+                nested(request("GET", "/api/referrals/me"), inner));
+
+        assertEquals(200, outer.getStatus());
+        assertEquals(503, inner.getStatus());
+        assertEquals("1", inner.getHeader("Retry-After"));
+        assertEquals(ALLOWED_ORIGIN, inner.getHeader("Access-Control-Allow-Origin"));
+        assertEquals(1L, groupStats("default").get("shedOverLimit"));
+    }
+
+    @Test
+    void aRejectionFromADisallowedOriginIsACorsFailure() throws Exception {
+        MockHttpServletRequest foreign = new MockHttpServletRequest("GET", "/api/referrals/me");
+        foreign.addHeader("Origin", "https://elsewhere.example.org");
+        MockHttpServletResponse inner = new MockHttpServletResponse();
+
+        filter.doFilter(request("GET", "/api/referrals/stats"), new MockHttpServletResponse(), nested(foreign, inner));
+
+        assertEquals(403, inner.getStatus());
+        assertNull(inner.getHeader("Access-Control-Allow-Origin"));
+    }
+
+    @Test
+    void lowerPriorityGroupsAreShedWhileCheckoutIsSaturated() throws Exception {
+        MockHttpServletResponse browse = new MockHttpServletResponse();
+        MockHttpServletResponse other = new MockHttpServletResponse();
+        FilterChain whileCheckoutRuns = (req, res) -> {
+            filter.doFilter(request("GET", "/api/products/7"), browse, new MockFilterChain());
+            filter.doFilter(request("GET", "/api/referrals/stats"), other, new MockFilterChain());
+        };
+
+        filter.doFilter(request("POST", "/api/orders/create"), new MockHttpServletResponse(), whileCheckoutRuns);
+
+        assertEquals(503, browse.getStatus());
+        assertEquals(503, other.getStatus());
+        assertEquals(1L, groupStats("low").get("shedForPriority"));
+        assertEquals(1L, groupStats("default").get("shedForPriority"));
+    }
+
+    @Test
+    void checkoutIsNotShedForLowerPriorityLoad() throws Exception {
+        MockHttpServletResponse checkout = new MockHttpServletResponse();
+
+        filter.doFilter(request("GET", "/api/products/7"), new MockHttpServletResponse(),
+                nested(request("POST", "/api/cart/add"), checkout));
+
+        assertEquals(200, checkout.getStatus());
+    }
+
+    @Test
+    void exemptPathsAndPreflightsBypassTheLimiter() throws Exception {
+        MockHttpServletResponse health = new MockHttpServletResponse();
+        MockHttpServletResponse preflight = new MockHttpServletResponse();
+        FilterChain whileSaturated = (req, res) -> {
+            filter.doFilter(request("GET", "/api/health"), health, new MockFilterChain());
+            filter.doFilter(request("OPTIONS", "/api/referrals/me"), preflight, new MockFilterChain());
+        };
+
+        filter.doFilter(request("GET", "/api/referrals/stats"), new MockHttpServletResponse(), whileSaturated);
+
+        assertEquals(200, health.getStatus());
+        assertEquals(200, preflight.getStatus());
+    }
+
+    @Test
+    void initialLimitDefaultsToFourTimesThePoolSize() {
+        ReflectionTestUtils.setField(filter, "initialLimit", 0);
+        ReflectionTestUtils.setField(filter, "maxLimit", 500);
+        filter.init();
+
+        assertEquals(40, groupStats("critical").get("limit"));
+    }
+
+    private FilterChain nested(MockHttpServletRequest request, MockHttpServletResponse response) {
+        return (req, res) -> filter.doFilter(request, response, new MockFilterChain());
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> groupStats(String group) {
+        return (Map<String, Object>) filter.getStats().get(group);
+    }
+
+    private static MockHttpServletRequest request(String method, String uri) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+        request.addHeader("Origin", ALLOWED_ORIGIN);
+        return request;
+    }
+}
@@ -0,0 +1,82 @@
+package com.kuberfashion.backend.loadtest;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free log-linear latency histogram in microseconds. Values below 64 µs are exact; above that each power of
+ * two is split into 32 linear buckets, so percentiles are within ~3% of the true value, in a fixed ~1 K-slot array
+ * that every virtual user records into without locking.
+ */
+final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAGNITUDES = 32;
+    private static final int SLOTS = 2 * SUB_BUCKETS + MAGNITUDES * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(SLOTS);
+    private final LongAdder total = new LongAdder();
+    private final LongAdder sumMicros = new LongAdder();
+    private final LongAccumulator maxMicros = new LongAccumulator(Math::max, 0);
+
+    void recordNanos(long nanos) {
+        long micros = Math.max(1, nanos / 1_000);
+        counts.incrementAndGet(indexOf(micros));
+        total.increment();
+        sumMicros.add(micros);
+        maxMicros.accumulate(micros);
+    }
+
+    long count() {
+        return total.sum();
+    }
+
+    double meanMillis() {
+        long n = total.sum();
+        return n == 0 ? 0.0 : sumMicros.sum() / 1_000.0 / n;
+    }
+
+    double maxMillis() {
+        return maxMicros.get() / 1_000.0;
+    }
+
+    /**
+     * Upper bound of the bucket holding the given percentile (0-100), in milliseconds.
+     */
+    double percentileMillis(double percentile) {
+        long n = total.sum();
+        if (n == 0) {
+            return 0.0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * n));
+        long seen = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(upperBoundOf(i), maxMicros.get()) / 1_000.0;
+            }
+        }
+        return maxMillis();
+    }
+
+    private static int indexOf(long micros) {
+        if (micros < 2 * SUB_BUCKETS) {
+            return (int) micros;
+        }
+        // Shift so the value lands in [SUB_BUCKETS, 2 * SUB_BUCKETS); the shift is the magnitude above the exact range
+        int magnitude = 63 - Long.numberOfLeadingZeros(micros) - SUB_BUCKET_BITS;
+        int index = 2 * SUB_BUCKETS + (magnitude - 1) * SUB_BUCKETS + (int) (micros >>> magnitude) - SUB_BUCKETS;
+        return Math.min(index, SLOTS - 1);
+    }
+
+    private static long upperBoundOf(int index) {
+        if (index < 2 * SUB_BUCKETS) {
+            return index;
+        }
+        int magnitude = (index - 2 * SUB_BUCKETS) / SUB_BUCKETS + 1;
+        long value = (index - 2 * SUB_BUCKETS) % SUB_BUCKETS + SUB_BUCKETS;
+        return ((value + 1) << magnitude) - 1;
+    }
+}
@@ -0,0 +1,149 @@
+package com.kuberfashion.backend.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects per-step and per-scenario results during the measured window and renders them as a console table and a
+ * JSON file. Only responses that completed after warm-up are counted. Shed requests (503 from the adaptive
+ * concurrency filter) are counted apart from errors, since a build that sheds more under the same load is a
+ * regression of a different kind than one that fails.
+ */
+final class LoadReport {
+
+    private static final DateTimeFormatter FILE_STAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss").withZone(ZoneOffset.UTC);
+
+    private final Map<String, StepStats> steps = new ConcurrentSkipListMap<>();
+    private final Map<String, LongAdder> scenarios = new ConcurrentHashMap<>();
+    private volatile boolean recording;
+    private volatile long startedAt;
+    private volatile long stoppedAt;
+
+    void start() {
+        startedAt = System.nanoTime();
+        recording = true;
+    }
+
+    void stop() {
+        recording = false;
+        stoppedAt = System.nanoTime();
+    }
+
+    void recordStep(String step, int status, long nanos) {
+        if (!recording) {
+            return;
+        }
+        StepStats stats = steps.computeIfAbsent(step, s -> new StepStats());
+        stats.latency.recordNanos(nanos);
+        if (status >= 200 && status < 300) {
+            stats.ok.increment();
+        } else if (status == 503) {
+            stats.shed.increment();
+        } else {
+            stats.errors.increment();
+        }
+    }
+
+    void recordScenario(String scenario) {
+        if (recording) {
+            scenarios.computeIfAbsent(scenario, s -> new LongAdder()).increment();
+        }
+    }
+
+    double measuredSeconds() {
+        long end = stoppedAt > 0 ? stoppedAt : System.nanoTime();
+        return Math.max(1e-3, (end - startedAt) / 1e9);
+    }
+
+    Map<String, Object> toMap(Map<String, Object> settings) {
+        double seconds = measuredSeconds();
+        Map<String, Object> stepReport = new LinkedHashMap<>();
+        long requests = 0;
+        long errors = 0;
+        for (Map.Entry<String, StepStats> entry : steps.entrySet()) {
+            StepStats stats = entry.getValue();
+            long count = stats.latency.count();
+            requests += count;
+            errors += stats.errors.sum();
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("requests", count);
+            row.put("ok", stats.ok.sum());
+            row.put("shed", stats.shed.sum());
+            row.put("errors", stats.errors.sum());
+            row.put("throughputPerSec", round(count / seconds));
+            row.put("meanMs", round(stats.latency.meanMillis()));
+            row.put("p50Ms", round(stats.latency.percentileMillis(50)));
+            row.put("p95Ms", round(stats.latency.percentileMillis(95)));
+            row.put("p99Ms", round(stats.latency.percentileMillis(99)));
+            row.put("maxMs", round(stats.latency.maxMillis()));
+            stepReport.put(entry.getKey(), row);
+        }
+
+        Map<String, Object> scenarioReport = new LinkedHashMap<>();
+        scenarios.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .forEach(e -> {
+                    Map<String, Object> row = new LinkedHashMap<>();
+                    row.put("completed", e.getValue().sum());
+                    row.put("throughputPerSec", round(e.getValue().sum() / seconds));
+                    scenarioReport.put(e.getKey(), row);
+                });
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("finishedAt", Instant.now().toString());
+        report.put("settings", settings);
+        report.put("measuredSeconds", round(seconds));
+        report.put("totalRequests", requests);
+        report.put("totalErrors", errors);
+        report.put("throughputPerSec", round(requests / seconds));
+        report.put("scenarios", scenarioReport);
+        report.put("steps", stepReport);
+        return report;
+    }
+
+    String toTable(Map<String, Object> report) {
+        StringBuilder out = new StringBuilder();
+        out.append(String.format("%n%-24s %9s %8s %6s %6s %9s %9s %9s %9s %9s%n",
+                "step", "requests", "req/s", "shed", "errors", "mean ms", "p50 ms", "p95 ms", "p99 ms", "max ms"));
+        @SuppressWarnings("unchecked")
+        Map<String, Map<String, Object>> stepReport = (Map<String, Map<String, Object>>) report.get("steps");
+        stepReport.forEach((step, row) -> out.append(String.format("%-24s %9d %8.1f %6d %6d %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                step, row.get("requests"), row.get("throughputPerSec"), row.get("shed"), row.get("errors"),
+                row.get("meanMs"), row.get("p50Ms"), row.get("p95Ms"), row.get("p99Ms"), row.get("maxMs"))));
+        out.append(String.format("%nscenarios completed: %s%n", report.get("scenarios")));
+        out.append(String.format("total: %d requests in %.1f s (%.1f req/s), %d errors%n",
+                report.get("totalRequests"), report.get("measuredSeconds"), report.get("throughputPerSec"), report.get("totalErrors")));
+        return out.toString();
+    }
+
+    Path write(Path directory, String label, Map<String, Object> report) throws IOException {
+        Files.createDirectories(directory);
+        String name = "shopper-load-" + (label.isBlank() ? "" : label + "-") + FILE_STAMP.format(Instant.now()) + ".json";
+        Path file = directory.resolve(name);
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file.toFile(), report);
+        return file;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100.0) / 100.0;
+    }
+
+    private static final class StepStats {
+        final LatencyHistogram latency = new LatencyHistogram();
+        final LongAdder ok = new LongAdder();
+        final LongAdder shed = new LongAdder();
+        final LongAdder errors = new LongAdder();
+    }
+}
@@ -0,0 +1,389 @@
+package com.kuberfashion.backend.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Drives shopper sessions against a running backend over HTTP, one virtual thread per simulated shopper.
+ *
+ * Each shopper registers once, then loops: pick a scenario by weight, run its steps, pause for the think time.
+ * Scenarios follow what the storefront does for the same journey, so a checkout is product pages, cart adds, a
+ * cart read, the order and a cart clear rather than a bare POST. Every HTTP call is timed as a named step.
+ */
+final class ShopperLoadGenerator {
+
+    enum Scenario {
+        BROWSE_CATEGORY("browse", 30),
+        SEARCH("search", 25),
+        PRODUCT_DETAIL("detail", 25),
+        ADD_TO_CART("cart", 10),
+        CHECKOUT("checkout", 5),
+        REFERRAL_REGISTRATION("referral", 5);
+
+        final String key;
+        final int defaultWeight;
+
+        Scenario(String key, int defaultWeight) {
+            this.key = key;
+            this.defaultWeight = defaultWeight;
+        }
+    }
+
+    /**
+     * Product ids, category slugs and search terms the scenarios pick from.
+     */
+    record Catalog(List<Long> productIds, List<String> categorySlugs, List<String> searchTerms) {
+    }
+
+    private static final String PASSWORD = "LoadTest@123";
+    private static final long FAILURE_BACKOFF_MS = 100;
+
+    private final URI baseUri;
+    private final Catalog catalog;
+    private final Map<Scenario, Integer> weights;
+    private final LoadReport report;
+    private final Duration thinkTime;
+    private final HttpClient client;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final int totalWeight;
+
+    // Registration needs a unique email and 10-digit phone per user; the run prefix keeps reruns against the same database apart
+    private final String runId = String.format("%03d", ThreadLocalRandom.current().nextInt(1000));
+    private final AtomicInteger registrations = new AtomicInteger();
+    private final AtomicInteger phones = new AtomicInteger();
+    private final List<String> referralCodes = new CopyOnWriteArrayList<>();
+
+    ShopperLoadGenerator(URI baseUri, Catalog catalog, Map<Scenario, Integer> weights, Duration thinkTime, LoadReport report) {
+        if (catalog.productIds().isEmpty() || catalog.categorySlugs().isEmpty()) {
+            throw new IllegalStateException("Load test catalog is empty; seed products before starting shoppers");
+        }
+        this.baseUri = baseUri;
+        this.catalog = catalog;
+        this.weights = new EnumMap<>(weights);
+        this.thinkTime = thinkTime;
+        this.report = report;
+        this.totalWeight = this.weights.values().stream().mapToInt(Integer::intValue).sum();
+        if (totalWeight <= 0) {
+            throw new IllegalArgumentException("At least one scenario needs a positive weight");
+        }
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+    }
+
+    /**
+     * Parses "browse=30,search=25,..." into scenario weights; scenarios not listed keep their default weight.
+     */
+    static Map<Scenario, Integer> parseWeights(String mix) {
+        Map<Scenario, Integer> weights = new EnumMap<>(Scenario.class);
+        for (Scenario scenario : Scenario.values()) {
+            weights.put(scenario, scenario.defaultWeight);
+        }
+        if (mix == null || mix.isBlank()) {
+            return weights;
+        }
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid scenario weight '" + entry + "', expected name=weight");
+            }
+            Scenario scenario = null;
+            for (Scenario candidate : Scenario.values()) {
+                if (candidate.key.equalsIgnoreCase(parts[0].trim()) || candidate.name().equalsIgnoreCase(parts[0].trim())) {
+                    scenario = candidate;
+                }
+            }
+            if (scenario == null) {
+                throw new IllegalArgumentException("Unknown scenario '" + parts[0].trim() + "'");
+            }
+            weights.put(scenario, Integer.parseInt(parts[1].trim()));
+        }
+        return weights;
+    }
+
+    /**
+     * Runs the given number of shoppers for warm-up plus duration, recording only the measured window.
+     */
+    void run(int shoppers, Duration warmUp, Duration duration) throws InterruptedException {
+        long deadline = System.nanoTime() + warmUp.toNanos() + duration.toNanos();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < shoppers; i++) {
+                executor.submit(() -> new Shopper().run(deadline));
+            }
+            Thread.sleep(warmUp.toMillis());
+            report.start();
+            Thread.sleep(duration.toMillis());
+            report.stop();
+            executor.shutdown();
+            if (!executor.awaitTermination(60, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    private String newEmail() {
+        return "shopper-" + runId + "-" + registrations.incrementAndGet() + "@loadtest.local";
+    }
+
+    private Scenario pickScenario(ThreadLocalRandom random) {
+        int pick = random.nextInt(totalWeight);
+        for (Map.Entry<Scenario, Integer> entry : weights.entrySet()) {
+            pick -= entry.getValue();
+            if (pick < 0) {
+                return entry.getKey();
+            }
+        }
+        return Scenario.PRODUCT_DETAIL;
+    }
+
+    private final class Shopper {
+
+        private String email;
+        private String token;
+
+        void run(long deadline) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            signIn();
+            while (System.nanoTime() < deadline && !Thread.currentThread().isInterrupted()) {
+                Scenario scenario = pickScenario(random);
+                boolean completed = runScenario(scenario, random);
+                if (completed) {
+                    report.recordScenario(scenario.key);
+                }
+                // Back off after a failed or shed scenario instead of retrying at full speed
+                long pauseMs = thinkTime.isZero() ? 0 : random.nextLong(thinkTime.toMillis() / 2, thinkTime.toMillis() * 3 / 2 + 1);
+                if (!completed) {
+                    pauseMs = Math.max(pauseMs, FAILURE_BACKOFF_MS);
+                }
+                if (pauseMs > 0) {
+                    try {
+                        Thread.sleep(pauseMs);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }
+        }
+
+        private boolean runScenario(Scenario scenario, ThreadLocalRandom random) {
+            switch (scenario) {
+                case BROWSE_CATEGORY -> {
+                    return get("categories.list", "/api/categories") != null
+                            && get("products.category", "/api/products/category/" + pick(catalog.categorySlugs(), random)
+                                    + "/paginated?page=" + random.nextInt(4) + "&size=12") != null;
+                }
+                case SEARCH -> {
+                    String term = URLEncoder.encode(pick(catalog.searchTerms(), random), StandardCharsets.UTF_8);
+                    return get("products.search", "/api/products/search?q=" + term + "&page=0&size=12") != null;
+                }
+                case PRODUCT_DETAIL -> {
+                    return get("products.detail", "/api/products/" + pick(catalog.productIds(), random)) != null;
+                }
+                case ADD_TO_CART -> {
+                    Long productId = pick(catalog.productIds(), random);
+                    return get("products.detail", "/api/products/" + productId) != null
+                            && addToCart(productId, random)
+                            && get("cart.view", "/api/cart") != null;
+                }
+                case CHECKOUT -> {
+                    return checkout(random);
+                }
+                case REFERRAL_REGISTRATION -> {
+                    String referralCode = referralCodes.isEmpty() ? null : pick(referralCodes, random);
+                    return register("auth.register.referral", newEmail(), referralCode) != null;
+                }
+                default -> throw new IllegalStateException("Unhandled scenario " + scenario);
+            }
+        }
+
+        private boolean checkout(ThreadLocalRandom random) {
+            if (!signIn()) {
+                return false;
+            }
+            ArrayNode cartItems = objectMapper.createArrayNode();
+            int lines = random.nextInt(1, 4);
+            for (int i = 0; i < lines; i++) {
+                Long productId = pick(catalog.productIds(), random);
+                if (get("products.detail", "/api/products/" + productId) == null || !addToCart(productId, random)) {
+                    return false;
+                }
+                cartItems.addObject()
+                        .put("productId", productId)
+                        .put("quantity", 1)
+                        .put("selectedSize", "M")
+                        .put("selectedColor", "Black");
+            }
+            if (get("cart.view", "/api/cart") == null) {
+                return false;
+            }
+            ObjectNode order = objectMapper.createObjectNode();
+            order.set("cartItems", cartItems);
+            order.put("shippingAddress", "12 Load Test Road, Pune 411001");
+            order.put("billingAddress", "12 Load Test Road, Pune 411001");
+            order.put("paymentMethod", "CASH_ON_DELIVERY");
+            order.put("coinsToRedeem", 0);
+            return send("orders.create", request("/api/orders/create").POST(json(order))) != null
+                    && send("cart.clear", request("/api/cart").DELETE()) != null;
+        }
+
+        private boolean addToCart(Long productId, ThreadLocalRandom random) {
+            ObjectNode body = objectMapper.createObjectNode()
+                    .put("productId", productId)
+                    .put("quantity", random.nextInt(1, 3))
+                    .put("size", "M")
+                    .put("color", "Black");
+            return signIn() && send("cart.add", request("/api/cart/add").POST(json(body))) != null;
+        }
+
+        /**
+         * Registers this shopper on first use, or again if an earlier registration was shed or failed.
+         */
+        private boolean signIn() {
+            if (token == null) {
+                email = newEmail();
+                token = register("auth.register", email, null);
+            }
+            return token != null;
+        }
+
+        /**
+         * Registers a fresh user and returns its token. The referrer's code is their phone number.
+         */
+        private String register(String step, String userEmail, String referralCode) {
+            String phone = "7" + runId + String.format("%06d", phones.incrementAndGet() % 1_000_000);
+            ObjectNode body = objectMapper.createObjectNode()
+                    .put("firstName", "Load")
+                    .put("lastName", "Shopper")
+                    .put("email", userEmail)
+                    .put("phone", phone)
+                    .put("password", PASSWORD)
+                    .put("confirmPassword", PASSWORD);
+            if (referralCode != null) {
+                body.put("referralCode", referralCode);
+            }
+            JsonNode response = send(step, HttpRequest.newBuilder(baseUri.resolve("/api/auth/register")).POST(json(body)));
+            if (response == null) {
+                return null;
+            }
+            referralCodes.add(phone);
+            return response.path("data").path("token").asText(null);
+        }
+
+        /**
+         * Logs in again after the token expired, as the storefront does when a call comes back 401.
+         */
+        private boolean login() {
+            ObjectNode body = objectMapper.createObjectNode()
+                    .put("email", email)
+                    .put("password", PASSWORD);
+            token = null;
+            JsonNode response = send("auth.login", request("/api/auth/login").POST(json(body)));
+            token = response == null ? null : response.path("data").path("token").asText(null);
+            return token != null;
+        }
+
+        private JsonNode get(String step, String path) {
+            return send(step, request(path).GET());
+        }
+
+        private HttpRequest.Builder request(String path) {
+            HttpRequest.Builder builder = HttpRequest.newBuilder(baseUri.resolve(path));
+            if (token != null) {
+                builder.header("Authorization", "Bearer " + token);
+            }
+            return builder;
+        }
+
+        /**
+         * Sends the request and returns the parsed body on 2xx, otherwise null. A 401 on a signed-in call is
+         * retried once after logging in again.
+         */
+        private JsonNode send(String step, HttpRequest.Builder builder) {
+            HttpResponse<byte[]> response = exchange(step, builder);
+            if (response != null && response.statusCode() == 401 && token != null && login()) {
+                response = exchange(step, builder.setHeader("Authorization", "Bearer " + token));
+            }
+            if (response == null || response.statusCode() < 200 || response.statusCode() >= 300) {
+                return null;
+            }
+            try {
+                byte[] body = response.body();
+                return body.length == 0 ? objectMapper.createObjectNode() : objectMapper.readTree(body);
+            } catch (IOException e) {
+                return null;
+            }
+        }
+
+        /**
+         * One timed HTTP call, recorded under the step name; null when it failed without a response.
+         */
+        private HttpResponse<byte[]> exchange(String step, HttpRequest.Builder builder) {
+            HttpRequest request = builder.copy().timeout(Duration.ofSeconds(30))
+                    .header("Accept", "application/json")
+                    .header("Content-Type", "application/json")
+                    .build();
+            long start = System.nanoTime();
+            int status = -1;
+            try {
+                HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+                status = response.statusCode();
+                return response;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            } catch (IOException e) {
+                return null;
+            } finally {
+                report.recordStep(step, status, System.nanoTime() - start);
+            }
+        }
+
+        private HttpRequest.BodyPublisher json(JsonNode body) {
+            return HttpRequest.BodyPublishers.ofString(body.toString());
+        }
+    }
+
+    private static <T> T pick(List<T> values, ThreadLocalRandom random) {
+        return values.get(random.nextInt(values.size()));
+    }
+
+    /**
+     * Distinct lower-cased words of four or more letters from the product names, used as search queries.
+     */
+    static List<String> searchTermsFrom(List<String> productNames) {
+        Set<String> terms = new LinkedHashSet<>();
+        for (String name : productNames) {
+            for (String word : name.split("\\s+")) {
+                if (word.length() >= 4) {
+                    terms.add(word.toLowerCase());
+                }
+            }
+        }
+        return new ArrayList<>(terms);
+    }
+}
@@ -0,0 +1,141 @@
+package com.kuberfashion.backend.loadtest;
+
+import com.kuberfashion.backend.KuberFashionApplication;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.FileSystemUtils;
+
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Shopper load run: boots the backend on the dev profile (in-memory H2, local file storage) with a synthetic
+ * catalog, drives weighted shopper scenarios over HTTP and reports throughput and p50/p95/p99 per step.
+ *
+ * Not part of the regular test run (the class name is outside surefire's default includes); run it with
+ *
+ *   mvn -Pload-test test -Dloadtest.duration=60s -Dloadtest.shoppers=200
+ *
+ * and compare the JSON reports under target/loadtest across builds. Settings (system properties):
+ * loadtest.shoppers (50), loadtest.duration (30s), loadtest.warmup (10s), loadtest.think-time (0ms),
+ * loadtest.products (2000), loadtest.mix (browse=30,search=25,detail=25,cart=10,checkout=5,referral=5),
+ * loadtest.label (tag for the report file), loadtest.app-args (extra --key=value arguments for the embedded app,
+ * space separated) and loadtest.base-url (drive an already running instance instead of booting one; its catalog
+ * is used as is). The run only reports by default; set loadtest.max-error-rate (e.g. 0.01) to also fail the build
+ * when a larger share of requests errors out.
+ */
+class ShopperLoadRun {
+
+    @Test
+    void shopperLoad() throws Exception {
+        int shoppers = Integer.getInteger("loadtest.shoppers", 50);
+        Duration duration = duration("loadtest.duration", "30s");
+        Duration warmUp = duration("loadtest.warmup", "10s");
+        Duration thinkTime = duration("loadtest.think-time", "0ms");
+        int products = Integer.getInteger("loadtest.products", 2000);
+        String mix = System.getProperty("loadtest.mix", "");
+        String label = System.getProperty("loadtest.label", "");
+        String baseUrl = System.getProperty("loadtest.base-url", "");
+        String maxErrorRate = System.getProperty("loadtest.max-error-rate", "");
+
+        ConfigurableApplicationContext context = null;
+        Path storageRoot = null;
+        try {
+            URI baseUri;
+            if (baseUrl.isBlank()) {
+                storageRoot = Files.createTempDirectory("kf-loadtest-storage");
+                context = startApplication(storageRoot);
+                SyntheticCatalog.seed(context, products);
+                int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+                baseUri = URI.create("http://localhost:" + port);
+            } else {
+                baseUri = URI.create(baseUrl);
+            }
+
+            ShopperLoadGenerator.Catalog catalog = SyntheticCatalog.discover(baseUri);
+            LoadReport report = new LoadReport();
+            new ShopperLoadGenerator(baseUri, catalog, ShopperLoadGenerator.parseWeights(mix), thinkTime, report)
+                    .run(shoppers, warmUp, duration);
+
+            Map<String, Object> settings = new LinkedHashMap<>();
+            settings.put("label", label);
+            settings.put("target", baseUrl.isBlank() ? "embedded" : baseUrl);
+            settings.put("shoppers", shoppers);
+            settings.put("durationSeconds", duration.toSeconds());
+            settings.put("warmUpSeconds", warmUp.toSeconds());
+            settings.put("thinkTimeMs", thinkTime.toMillis());
+            settings.put("catalogProducts", catalog.productIds().size());
+            settings.put("mix", ShopperLoadGenerator.parseWeights(mix));
+            settings.put("appArgs", System.getProperty("loadtest.app-args", ""));
+            settings.put("javaVersion", Runtime.version().toString());
+            settings.put("availableProcessors", Runtime.getRuntime().availableProcessors());
+
+            Map<String, Object> result = report.toMap(settings);
+            Path file = report.write(Path.of("target", "loadtest"), label, result);
+            System.out.println(report.toTable(result));
+            System.out.println("Report written to " + file.toAbsolutePath());
+
+            long total = (Long) result.get("totalRequests");
+            long errors = (Long) result.get("totalErrors");
+            assertTrue(total > 0, "No requests completed during the measured window");
+            if (!maxErrorRate.isBlank()) {
+                double limit = Double.parseDouble(maxErrorRate);
+                assertTrue(errors <= total * limit,
+                        errors + " of " + total + " requests failed (limit " + limit * 100 + "%), see " + file);
+            }
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+            if (storageRoot != null) {
+                FileSystemUtils.deleteRecursively(storageRoot);
+            }
+        }
+    }
+
+    private static ConfigurableApplicationContext startApplication(Path storageRoot) {
+        List<String> args = new ArrayList<>(List.of(
+                "--spring.profiles.active=dev",
+                "--server.port=0",
+                "--storage.provider=local",
+                "--storage.local.root=" + storageRoot,
+                "--storage.gc.enabled=false",
+                "--spring.main.banner-mode=off",
+                // dev tokens last 3.6 s, shorter than a run
+                "--jwt.expiration=3600000",
+                // dev logs requests, security and MVC at DEBUG, which would dominate the latencies being measured
+                "--logging.level.root=WARN",
+                "--logging.level.com.kuberfashion.backend=WARN",
+                "--logging.level.org.springframework.security=WARN",
+                "--logging.level.org.springframework.web=WARN"));
+        String extra = System.getProperty("loadtest.app-args", "");
+        if (!extra.isBlank()) {
+            args.addAll(List.of(extra.trim().split("\\s+")));
+        }
+        return new SpringApplicationBuilder(KuberFashionApplication.class).run(args.toArray(String[]::new));
+    }
+
+    private static Duration duration(String property, String defaultValue) {
+        String value = System.getProperty(property, defaultValue).trim().toLowerCase();
+        if (value.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)));
+        }
+        if (value.endsWith("s")) {
+            return Duration.ofSeconds(Long.parseLong(value.substring(0, value.length() - 1)));
+        }
+        if (value.endsWith("m")) {
+            return Duration.ofMinutes(Long.parseLong(value.substring(0, value.length() - 1)));
+        }
+        return Duration.ofSeconds(Long.parseLong(value));
+    }
+}
@@ -0,0 +1,105 @@
+package com.kuberfashion.backend.loadtest;
+
+import com.kuberfashion.backend.entity.Category;
+import com.kuberfashion.backend.entity.Product;
+import com.kuberfashion.backend.repository.CategoryRepository;
+import com.kuberfashion.backend.repository.ProductRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.context.ApplicationContext;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Synthetic catalog for load runs: seeds categories and products straight through the repositories of an embedded
+ * instance, then reads the catalog back over the public API, which is also how an external target is discovered.
+ */
+final class SyntheticCatalog {
+
+    private static final String[] CATEGORIES = {"Shirts", "T-Shirts", "Jeans", "Trousers", "Kurtas", "Jackets", "Ethnic Wear", "Footwear"};
+    private static final String[] ADJECTIVES = {"Classic", "Slim", "Relaxed", "Vintage", "Premium", "Cotton", "Linen", "Denim",
+            "Printed", "Striped", "Festive", "Casual", "Formal", "Summer", "Winter", "Organic"};
+    private static final String[] STYLES = {"Oxford", "Crew", "Polo", "Cargo", "Chino", "Bomber", "Nehru", "Henley", "Mandarin", "Jogger"};
+    private static final List<String> SIZES = List.of("S", "M", "L", "XL");
+    private static final List<String> COLORS = List.of("Black", "White", "Navy", "Olive");
+
+    private SyntheticCatalog() {
+    }
+
+    /**
+     * Adds loadtest-* categories and the given number of products spread across them, each with stock far beyond
+     * what a run can order.
+     */
+    static void seed(ApplicationContext context, int products) {
+        CategoryRepository categoryRepository = context.getBean(CategoryRepository.class);
+        ProductRepository productRepository = context.getBean(ProductRepository.class);
+
+        List<Category> categories = new ArrayList<>();
+        for (String name : CATEGORIES) {
+            String slug = "loadtest-" + name.toLowerCase().replaceAll("[^a-z]+", "-");
+            categories.add(new Category("Load Test " + name, slug, "/images/placeholder.jpg", "Synthetic " + name.toLowerCase() + " for load runs"));
+        }
+        categories = categoryRepository.saveAll(categories);
+
+        Random random = new Random(42);
+        List<Product> batch = new ArrayList<>();
+        for (int i = 0; i < products; i++) {
+            Category category = categories.get(i % categories.size());
+            String name = ADJECTIVES[random.nextInt(ADJECTIVES.length)] + " " + STYLES[random.nextInt(STYLES.length)] + " "
+                    + category.getName().substring("Load Test ".length());
+            BigDecimal price = BigDecimal.valueOf(399 + random.nextInt(40) * 50L);
+            Product product = new Product(name, "loadtest-product-" + i, price, category, "Synthetic product " + i + ": " + name);
+            product.setOriginalPrice(price.add(BigDecimal.valueOf(200)));
+            product.setImage("/images/placeholder.jpg");
+            product.setImages(List.of("/images/placeholder.jpg"));
+            product.setSizes(SIZES);
+            product.setColors(COLORS);
+            product.setRating(BigDecimal.valueOf(30 + random.nextInt(21), 1));
+            product.setFeatured(i % 25 == 0);
+            product.setInStock(true);
+            product.setStockQuantity(1_000_000);
+            batch.add(product);
+            if (batch.size() == 500) {
+                productRepository.saveAll(batch);
+                batch.clear();
+            }
+        }
+        productRepository.saveAll(batch);
+    }
+
+    /**
+     * Reads product ids, category slugs and search terms from the target's public API.
+     */
+    static ShopperLoadGenerator.Catalog discover(URI baseUri) throws IOException, InterruptedException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        try (HttpClient client = HttpClient.newHttpClient()) {
+            List<String> categorySlugs = new ArrayList<>();
+            for (JsonNode category : fetchData(client, objectMapper, baseUri.resolve("/api/categories"))) {
+                categorySlugs.add(category.path("slug").asText());
+            }
+            List<Long> productIds = new ArrayList<>();
+            List<String> productNames = new ArrayList<>();
+            for (JsonNode product : fetchData(client, objectMapper, baseUri.resolve("/api/products"))) {
+                productIds.add(product.path("id").asLong());
+                productNames.add(product.path("name").asText());
+            }
+            return new ShopperLoadGenerator.Catalog(productIds, categorySlugs, ShopperLoadGenerator.searchTermsFrom(productNames));
+        }
+    }
+
+    private static JsonNode fetchData(HttpClient client, ObjectMapper objectMapper, URI uri) throws IOException, InterruptedException {
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(uri).GET().build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("GET " + uri + " returned " + response.statusCode());
+        }
+        return objectMapper.readTree(response.body()).path("data");
+    }
+}
@@ -0,0 +1,113 @@
+package com.kuberfashion.backend.repository;
+
+import com.kuberfashion.backend.IntegrationTestSupport;
+import com.kuberfashion.backend.dto.CartItemDto;
+import com.kuberfashion.backend.entity.Product;
+import com.kuberfashion.backend.entity.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class CartItemRepositoryTest extends IntegrationTestSupport {
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Test
+    void upsertLineAddsToTheQuantityOfAnExistingLine() {
+        User user = newUser();
+        Product product = newProduct(new BigDecimal("499.00"));
+
+        Long first = cartItemRepository.upsertLine(user.getId(), product.getId(), 2, "M", "");
+        Long second = cartItemRepository.upsertLine(user.getId(), product.getId(), 3, "M", "");
+
+        assertNotNull(first);
+        assertEquals(first, second);
+        List<CartItemDto> cart = cartItemRepository.findCartViewByUserId(user.getId());
+        assertEquals(1, cart.size());
+        assertEquals(5, cart.get(0).getQuantity());
+        assertEquals(0, new BigDecimal("499.00").compareTo(cart.get(0).getPriceAtAdd()));
+    }
+
+    @Test
+    void upsertLineKeepsSizesAndColorsAsSeparateLines() {
+        User user = newUser();
+        Product product = newProduct(new BigDecimal("799.00"));
+
+        Long medium = cartItemRepository.upsertLine(user.getId(), product.getId(), 1, "M", "");
+        Long large = cartItemRepository.upsertLine(user.getId(), product.getId(), 1, "L", "");
+        Long largeBlack = cartItemRepository.upsertLine(user.getId(), product.getId(), 1, "L", "Black");
+
+        assertNotEquals(medium, large);
+        assertNotEquals(large, largeBlack);
+        assertEquals(3, cartItemRepository.countByUserId(user.getId()));
+    }
+
+    @Test
+    void upsertLineReturnsNullForAMissingProduct() {
+        User user = newUser();
+
+        assertNull(cartItemRepository.upsertLine(user.getId(), -1L, 1, "", ""));
+        assertEquals(0, cartItemRepository.countByUserId(user.getId()));
+    }
+
+    @Test
+    void upsertLinesMergesIntoExistingLinesAndReportsMissingProducts() {
+        User user = newUser();
+        Product shirt = newProduct(new BigDecimal("599.00"));
+        Product jeans = newProduct(new BigDecimal("1299.00"));
+        cartItemRepository.upsertLine(user.getId(), shirt.getId(), 1, "", "");
+
+        List<Long> missing = cartItemRepository.upsertLines(user.getId(),
+                List.of(line(shirt.getId(), 2), line(jeans.getId(), 1), line(-5L, 1)));
+
+        assertEquals(List.of(-5L), missing);
+        assertEquals(4L, cartItemRepository.getTotalQuantityByUserId(user.getId()));
+        assertEquals(2, cartItemRepository.countByUserId(user.getId()));
+    }
+
+    @Test
+    void concurrentFirstAddsOfTheSameLineEndUpOnOneLine() throws Exception {
+        User user = newUser();
+        Product product = newProduct(new BigDecimal("999.00"));
+        int threads = 8;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Callable<Long>> adds = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                adds.add(() -> cartItemRepository.upsertLine(user.getId(), product.getId(), 1, "XL", "Navy"));
+            }
+            List<Long> ids = new ArrayList<>();
+            for (Future<Long> future : executor.invokeAll(adds)) {
+                ids.add(future.get());
+            }
+            assertEquals(1, ids.stream().distinct().count());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        List<CartItemDto> cart = cartItemRepository.findCartViewByUserId(user.getId());
+        assertEquals(1, cart.size());
+        assertEquals(threads, cart.get(0).getQuantity());
+    }
+
+    private static CartItemDto line(Long productId, int quantity) {
+        CartItemDto line = new CartItemDto(productId, quantity);
+        line.setSelectedSize("");
+        line.setSelectedColor("");
+        return line;
+    }
+}
@@ -0,0 +1,109 @@
+package com.kuberfashion.backend.repository;
+
+import com.kuberfashion.backend.IntegrationTestSupport;
+import com.kuberfashion.backend.entity.OrderEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.IntSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The shared queue queries, exercised on order_events. Rows are parked with next_attempt_at far in the future
+ * so the running dispatcher never claims them.
+ */
+class LeasedQueueRepositoryTest extends IntegrationTestSupport {
+
+    private static final LocalDateTime FAR_FUTURE = LocalDateTime.now().plusYears(50);
+
+    @Autowired
+    private OrderEventRepository orderEventRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Test
+    void lockDueReturnsOpenRowsThatAreDueInIdOrder() {
+        OrderEvent pending = park(OrderEvent.Status.PENDING, 0, FAR_FUTURE);
+        OrderEvent expiredLease = park(OrderEvent.Status.PROCESSING, 1, FAR_FUTURE);
+        OrderEvent failed = park(OrderEvent.Status.FAILED, 3, FAR_FUTURE);
+
+        List<Long> due = transactionTemplate.execute(status -> {
+            List<Long> ids = orderEventRepository.lockDue(FAR_FUTURE.plusDays(1), Limit.of(10_000)).stream()
+                    .map(OrderEvent::getId).toList();
+            // Only looking: leave every row as it was
+            status.setRollbackOnly();
+            return ids;
+        });
+
+        assertTrue(due.indexOf(pending.getId()) >= 0);
+        assertTrue(due.indexOf(expiredLease.getId()) > due.indexOf(pending.getId()));
+        assertFalse(due.contains(failed.getId()));
+        Boolean dueEarlier = transactionTemplate.execute(status -> {
+            boolean found = orderEventRepository.lockDue(FAR_FUTURE.minusDays(1), Limit.of(10_000)).stream()
+                    .anyMatch(e -> e.getId().equals(pending.getId()));
+            status.setRollbackOnly();
+            return found;
+        });
+        assertEquals(Boolean.FALSE, dueEarlier);
+    }
+
+    @Test
+    void outcomeUpdatesAreFencedOnTheAttempt() {
+        OrderEvent leased = park(OrderEvent.Status.PROCESSING, 2, FAR_FUTURE);
+
+        assertEquals(0, update(() -> orderEventRepository.markRetry(leased.getId(), 1, FAR_FUTURE, "stale worker")));
+        assertEquals(0, update(() -> orderEventRepository.markDelivered(leased.getId(), 1, LocalDateTime.now())));
+        assertEquals(1, update(() -> orderEventRepository.markRetry(leased.getId(), 2, FAR_FUTURE, "boom")));
+
+        OrderEvent retried = orderEventRepository.findById(leased.getId()).orElseThrow();
+        assertEquals(OrderEvent.Status.PENDING, retried.getStatus());
+        assertEquals("boom", retried.getLastError());
+        // Not PROCESSING any more, so even the right attempt cannot finish it
+        assertEquals(0, update(() -> orderEventRepository.markDeadLettered(leased.getId(), 2, "late")));
+    }
+
+    @Test
+    void deadLetteredRowsCanBeRequeued() {
+        OrderEvent leased = park(OrderEvent.Status.PROCESSING, 3, FAR_FUTURE);
+        assertEquals(1, update(() -> orderEventRepository.markDeadLettered(leased.getId(), 3, "gave up")));
+        assertEquals(OrderEvent.Status.FAILED, orderEventRepository.findById(leased.getId()).orElseThrow().getStatus());
+
+        assertTrue(update(() -> orderEventRepository.requeueFailed(FAR_FUTURE)) >= 1);
+
+        OrderEvent requeued = orderEventRepository.findById(leased.getId()).orElseThrow();
+        assertEquals(OrderEvent.Status.PENDING, requeued.getStatus());
+        assertEquals(0, requeued.getAttempts());
+        assertNull(requeued.getLastError());
+    }
+
+    private OrderEvent park(OrderEvent.Status status, int attempts, LocalDateTime nextAttemptAt) {
+        OrderEvent event = new OrderEvent(-nextId(), OrderEvent.EventType.ORDER_CREATED, "{}");
+        event.setStatus(status);
+        event.setAttempts(attempts);
+        event.setNextAttemptAt(nextAttemptAt);
+        return orderEventRepository.save(event);
+    }
+
+    private int update(IntSupplier statement) {
+        Integer n = transactionTemplate.execute(status -> statement.getAsInt());
+        return n != null ? n : 0;
+    }
+}
@@ -0,0 +1,131 @@
+package com.kuberfashion.backend.service;
+
+import com.kuberfashion.backend.IntegrationTestSupport;
+import com.kuberfashion.backend.controller.AdminController;
+import com.kuberfashion.backend.dto.AdminOrderFilter;
+import com.kuberfashion.backend.dto.AdminOrderRowDto;
+import com.kuberfashion.backend.dto.CartItemDto;
+import com.kuberfashion.backend.dto.CursorPage;
+import com.kuberfashion.backend.entity.Order;
+import com.kuberfashion.backend.entity.Product;
+import com.kuberfashion.backend.entity.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.test.context.support.WithMockUser;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdminOrderSearchServiceTest extends IntegrationTestSupport {
+
+    @Autowired
+    private AdminOrderSearchService adminOrderSearchService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private AdminController adminController;
+
+    @Test
+    void textSearchMatchesEmailPhoneOrOrderNumber() {
+        User user = newUser();
+        Order order = placeOrder(user);
+
+        assertEquals(List.of(order.getId()), searchIds(user.getEmail().toUpperCase()));
+        assertEquals(List.of(order.getId()), searchIds(user.getPhone()));
+        assertEquals(List.of(order.getId()), searchIds(order.getOrderNumber().toLowerCase()));
+    }
+
+    @Test
+    void keysetPagesVisitEveryMatchOnceNewestFirst() {
+        User user = newUser();
+        List<Long> placed = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            placed.add(placeOrder(user).getId());
+        }
+
+        List<Long> seen = new ArrayList<>();
+        String cursor = null;
+        CursorPage<AdminOrderRowDto> page;
+        do {
+            page = adminOrderSearchService.search(filter(user.getEmail(), null), cursor, 1);
+            page.getItems().forEach(row -> seen.add(row.getId()));
+            cursor = page.getNextCursor();
+        } while (page.isHasMore());
+
+        assertEquals(placed.reversed(), seen);
+    }
+
+    @Test
+    void textSearchCombinesWithTheStatusFilter() {
+        User user = newUser();
+        Order pending = placeOrder(user);
+        Order shipped = placeOrder(user);
+        orderService.updateOrderStatus(shipped.getId(), Order.OrderStatus.SHIPPED);
+
+        List<AdminOrderRowDto> rows = adminOrderSearchService.search(
+                filter(user.getEmail(), Order.OrderStatus.PENDING), null, 10).getItems();
+
+        assertEquals(List.of(pending.getId()), rows.stream().map(AdminOrderRowDto::getId).toList());
+    }
+
+    @Test
+    void likeWildcardsInTheQueryAreMatchedLiterally() {
+        placeOrder(newUser());
+
+        assertTrue(searchIds("%").isEmpty());
+        assertTrue(searchIds("_").isEmpty());
+    }
+
+    @Test
+    void exportStreamsTheSameMatchesAsCsv() throws Exception {
+        User user = newUser();
+        Order order = placeOrder(user);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = adminOrderSearchService.export(filter(user.getEmail(), null), AdminOrderSearchService.ExportFormat.CSV, out);
+
+        assertEquals(1, rows);
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[1].startsWith(order.getId() + "," + order.getOrderNumber() + ","));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void unknownStatusOrFormatIsABadRequest() {
+        IllegalArgumentException badFormat = assertThrows(IllegalArgumentException.class,
+                () -> adminController.exportOrders("xml", null, null, null, null, null));
+        assertTrue(badFormat.getMessage().contains("[CSV, NDJSON]"));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> adminController.searchOrders(null, 20, "SHIPPING", null, null, null, null));
+        assertThrows(IllegalArgumentException.class,
+                () -> adminController.exportOrders("csv", null, "REFUNDED_TWICE", null, null, null));
+        assertEquals(200, adminController.searchOrders(null, 20, "pending", "pending", null, null, null).getStatusCode().value());
+    }
+
+    private List<Long> searchIds(String q) {
+        return adminOrderSearchService.search(filter(q, null), null, 100).getItems().stream()
+                .map(AdminOrderRowDto::getId)
+                .toList();
+    }
+
+    private static AdminOrderFilter filter(String q, Order.OrderStatus status) {
+        return new AdminOrderFilter(status, null, q, null, null);
+    }
+
+    private Order placeOrder(User user) {
+        Product product = newProduct(new BigDecimal("150.00"));
+        return orderService.createOrder(user.getId(), List.of(new CartItemDto(product.getId(), 1)),
+                "1 Test Street", "1 Test Street", Order.PaymentMethod.CASH_ON_DELIVERY, 0);
+    }
+}
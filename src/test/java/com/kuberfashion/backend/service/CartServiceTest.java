@@ -0,0 +1,45 @@
+package com.kuberfashion.backend.service;
+
+import com.kuberfashion.backend.IntegrationTestSupport;
+import com.kuberfashion.backend.dto.CartItemDto;
+import com.kuberfashion.backend.entity.Product;
+import com.kuberfashion.backend.entity.User;
+import com.kuberfashion.backend.exception.ResourceNotFoundException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CartServiceTest extends IntegrationTestSupport {
+
+    @Autowired
+    private CartService cartService;
+
+    @Test
+    void addingToTheCartOfAnUnknownUserIsNotFound() {
+        Product product = newProduct(new BigDecimal("499.00"));
+        long unknownUser = Long.MAX_VALUE - nextId();
+
+        assertThrows(ResourceNotFoundException.class,
+                () -> cartService.addToCart(unknownUser, product.getId(), 1, "M", null));
+        assertThrows(ResourceNotFoundException.class,
+                () -> cartService.addToCartBatch(unknownUser, List.of(new CartItemDto(product.getId(), 1)), false));
+        assertThrows(ResourceNotFoundException.class, () -> cartService.getCartItems(unknownUser));
+    }
+
+    @Test
+    void addingTheSameLineTwiceAddsToItsQuantity() {
+        User user = newUser();
+        Product product = newProduct(new BigDecimal("499.00"));
+
+        cartService.addToCart(user.getId(), product.getId(), 1, "M", null);
+        CartItemDto line = cartService.addToCart(user.getId(), product.getId(), 2, " M ", "");
+
+        assertEquals(3, line.getQuantity());
+        assertEquals(1, cartService.getCartItems(user.getId()).size());
+    }
+}
@@ -0,0 +1,110 @@
+package com.kuberfashion.backend.service;
+
+import com.kuberfashion.backend.IntegrationTestSupport;
+import com.kuberfashion.backend.dto.CoinPosting;
+import com.kuberfashion.backend.dto.CoinTransactionDto;
+import com.kuberfashion.backend.entity.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CoinLedgerServiceTest extends IntegrationTestSupport {
+
+    @Autowired
+    private CoinLedgerService coinLedgerService;
+
+    @Test
+    void earnAndSpendKeepTheBalanceSnapshotEqualToTheLedger() {
+        User user = newUser();
+
+        coinLedgerService.earn(user.getId(), 100, "TEST_EARN", null, null);
+        long balance = coinLedgerService.spend(user.getId(), 30, "TEST_SPEND");
+
+        assertEquals(70, balance);
+        assertEquals(70, coinLedgerService.getBalance(user.getId()));
+        Page<CoinTransactionDto> history = coinLedgerService.getHistory(user.getId(), 0, 10);
+        assertEquals(2, history.getTotalElements());
+    }
+
+    @Test
+    void overspendingPostsNothing() {
+        User user = newUser();
+        coinLedgerService.earn(user.getId(), 10, "TEST_EARN", null, null);
+
+        assertThrows(IllegalStateException.class, () -> coinLedgerService.spend(user.getId(), 11, "TEST_SPEND"));
+
+        assertEquals(10, coinLedgerService.getBalance(user.getId()));
+        assertEquals(1, coinLedgerService.getHistory(user.getId(), 0, 10).getTotalElements());
+    }
+
+    @Test
+    void aBatchIsRejectedAsAWholeWhenOneAccountWouldGoNegative() {
+        User rich = newUser();
+        User poor = newUser();
+        coinLedgerService.earn(rich.getId(), 50, "TEST_EARN", null, null);
+
+        assertThrows(IllegalStateException.class, () -> coinLedgerService.post(List.of(
+                CoinPosting.earn(rich.getId(), 5, "TEST_EARN", null, null),
+                CoinPosting.spend(poor.getId(), 1, "TEST_SPEND"))));
+
+        assertEquals(50, coinLedgerService.getBalance(rich.getId()));
+        assertEquals(0, coinLedgerService.getBalance(poor.getId()));
+    }
+
+    @Test
+    void batchPostingReturnsTheBalancePerAccount() {
+        User first = newUser();
+        User second = newUser();
+
+        Map<Long, Long> balances = coinLedgerService.post(List.of(
+                CoinPosting.earn(first.getId(), 20, "TEST_EARN", null, null),
+                CoinPosting.earn(second.getId(), 5, "TEST_EARN", null, null),
+                CoinPosting.earn(first.getId(), 7, "TEST_EARN", null, null)));
+
+        assertEquals(27L, balances.get(first.getId()));
+        assertEquals(5L, balances.get(second.getId()));
+    }
+
+    @Test
+    void concurrentCrossAccountPostingsNeitherDeadlockNorLoseUpdates() throws Exception {
+        User a = newUser();
+        User b = newUser();
+        int rounds = 20;
+        // Accounts exist up front: this is about the lock order on existing balance rows
+        coinLedgerService.post(List.of(
+                CoinPosting.earn(a.getId(), 1, "TEST_EARN", null, null),
+                CoinPosting.earn(b.getId(), 2, "TEST_EARN", null, null)));
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Callable<Map<Long, Long>>> postings = new ArrayList<>();
+            for (int i = 0; i < rounds; i++) {
+                // Opposite listing order on alternate rounds; the service locks in user id order regardless
+                List<CoinPosting> batch = i % 2 == 0
+                        ? List.of(CoinPosting.earn(a.getId(), 1, "TEST_EARN", null, null), CoinPosting.earn(b.getId(), 2, "TEST_EARN", null, null))
+                        : List.of(CoinPosting.earn(b.getId(), 2, "TEST_EARN", null, null), CoinPosting.earn(a.getId(), 1, "TEST_EARN", null, null));
+                postings.add(() -> coinLedgerService.post(batch));
+            }
+            for (Future<Map<Long, Long>> future : executor.invokeAll(postings)) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(rounds + 1, coinLedgerService.getBalance(a.getId()));
+        assertEquals((rounds + 1) * 2L, coinLedgerService.getBalance(b.getId()));
+        assertEquals(0, coinLedgerService.reconcile().mismatchCount);
+    }
+}
@@ -0,0 +1,99 @@
+package com.kuberfashion.backend.service;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DbConnectionLimiterTest {
+
+    private HikariDataSource pool;
+    private DbConnectionLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        pool = new HikariDataSource();
+        pool.setPoolName("limiter-test");
+        pool.setJdbcUrl("jdbc:h2:mem:limiter-test;DB_CLOSE_DELAY=-1");
+        pool.setMaximumPoolSize(2);
+        pool.setConnectionTimeout(400);
+
+        limiter = new DbConnectionLimiter();
+        ReflectionTestUtils.setField(limiter, "enabled", true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.close();
+    }
+
+    @Test
+    void acquireTimeoutDefaultsToThePoolConnectionTimeout() {
+        assertEquals(400L, limiter.acquireTimeoutFor(pool));
+    }
+
+    @Test
+    void acquireTimeoutIsCappedAtThePoolConnectionTimeout() {
+        ReflectionTestUtils.setField(limiter, "acquireTimeoutMs", 120_000L);
+        assertEquals(400L, limiter.acquireTimeoutFor(pool));
+
+        ReflectionTestUtils.setField(limiter, "acquireTimeoutMs", 250L);
+        assertEquals(250L, limiter.acquireTimeoutFor(pool));
+    }
+
+    @Test
+    void callersBeyondThePoolSizeTimeOutAtTheGate() throws Exception {
+        DataSource limited = limiter.limit(pool);
+
+        try (Connection first = limited.getConnection(); Connection second = limited.getConnection()) {
+            long start = System.nanoTime();
+            assertThrows(SQLTransientConnectionException.class, limited::getConnection);
+            long waitedMs = (System.nanoTime() - start) / 1_000_000L;
+            assertTrue(waitedMs >= 350L && waitedMs < 5_000L, "waited " + waitedMs + " ms");
+        }
+
+        Map<String, Object> stats = poolStats();
+        assertEquals(400L, stats.get("acquireTimeoutMs"));
+        assertEquals(1L, stats.get("timeouts"));
+        assertEquals(0, stats.get("inUse"));
+    }
+
+    @Test
+    void closingAConnectionReleasesItsPermitOnce() throws Exception {
+        DataSource limited = limiter.limit(pool);
+
+        Connection connection = limited.getConnection();
+        assertEquals(1, poolStats().get("inUse"));
+        connection.close();
+        connection.close();
+
+        assertEquals(0, poolStats().get("inUse"));
+        try (Connection first = limited.getConnection(); Connection second = limited.getConnection()) {
+            assertEquals(2, poolStats().get("inUse"));
+        }
+    }
+
+    @Test
+    void disabledLimiterReturnsThePoolItself() {
+        ReflectionTestUtils.setField(limiter, "enabled", false);
+
+        assertSame(pool, limiter.limit(pool));
+        assertEquals(0, limiter.getStats().size());
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> poolStats() {
+        return (Map<String, Object>) limiter.getStats().get("limiter-test");
+    }
+}
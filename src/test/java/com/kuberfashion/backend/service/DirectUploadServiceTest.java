@@ -0,0 +1,65 @@
+package com.kuberfashion.backend.service;
+
+import com.kuberfashion.backend.IntegrationTestSupport;
+import com.kuberfashion.backend.dto.DirectUploadDto;
+import com.kuberfashion.backend.entity.StoredObject;
+import com.kuberfashion.backend.repository.StoredObjectRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class DirectUploadServiceTest extends IntegrationTestSupport {
+
+    @Autowired
+    private DirectUploadService directUploadService;
+
+    @Autowired
+    private LocalStorageProvider localStorageProvider;
+
+    @Autowired
+    private StoredObjectRepository storedObjectRepository;
+
+    @Test
+    void aCompletedUploadIsIndexedOnceWithoutAHash() throws Exception {
+        byte[] body = new byte[]{9, 8, 7, 6, 5};
+        DirectUploadDto upload = directUploadService.issue("products", "image/png", body.length);
+        // Stands in for the client's PUT to upload.getUploadUrl()
+        localStorageProvider.put(upload.getKey(), new ByteArrayInputStream(body), body.length, "image/png");
+
+        FileStorageService.FileMetadata metadata = directUploadService.complete(upload.getCompletionToken());
+        directUploadService.complete(upload.getCompletionToken());
+
+        assertEquals(5L, metadata.getSize());
+        StoredObject stored = storedObjectRepository.findByObjectKey(upload.getKey()).orElseThrow();
+        assertNull(stored.getContentHash());
+        assertEquals(1, stored.getRefCount());
+    }
+
+    @Test
+    void anUploadThatDiffersFromWhatWasSignedIsRemoved() throws Exception {
+        DirectUploadDto upload = directUploadService.issue("products", "image/png", 5);
+        byte[] larger = new byte[8];
+        localStorageProvider.put(upload.getKey(), new ByteArrayInputStream(larger), larger.length, "image/png");
+
+        assertThrows(IllegalStateException.class, () -> directUploadService.complete(upload.getCompletionToken()));
+
+        assertFalse(Files.exists(localStorageProvider.resolve(upload.getKey())));
+        assertFalse(storedObjectRepository.findByObjectKey(upload.getKey()).isPresent());
+    }
+
+    @Test
+    void completingBeforeTheUploadOrWithATamperedTokenFails() {
+        DirectUploadDto upload = directUploadService.issue("products", "image/jpeg", 5);
+
+        assertThrows(IllegalStateException.class, () -> directUploadService.complete(upload.getCompletionToken()));
+        assertThrows(IllegalArgumentException.class, () -> directUploadService.complete(upload.getCompletionToken() + "x"));
+        assertThrows(IllegalArgumentException.class, () -> directUploadService.issue("../etc", "image/jpeg", 5));
+    }
+}
@@ -0,0 +1,198 @@
+package com.kuberfashion.backend.service;
+
+import com.kuberfashion.backend.IntegrationTestSupport;
+import com.kuberfashion.backend.entity.Product;
+import com.kuberfashion.backend.entity.StoredObject;
+import com.kuberfashion.backend.repository.StoredObjectRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class FileStorageServiceTest extends IntegrationTestSupport {
+
+    @Autowired
+    private FileStorageService fileStorageService;
+
+    @Autowired
+    private LocalStorageProvider localStorageProvider;
+
+    @Autowired
+    private StoredObjectRepository storedObjectRepository;
+
+    @Test
+    void batchUploadsKeepTheInputOrderAndIsolateAFailingFile() throws Exception {
+        MockMultipartFile first = image("first.jpg");
+        MultipartFile broken = mock(MultipartFile.class);
+        when(broken.getOriginalFilename()).thenReturn("broken.jpg");
+        when(broken.getSize()).thenReturn(12L);
+        when(broken.getInputStream()).thenThrow(new IOException("stream closed"));
+        MockMultipartFile last = image("last.png");
+
+        List<FileStorageService.UploadResult> results = fileStorageService.uploadFiles(List.of(first, broken, last), "products");
+
+        assertEquals(List.of("first.jpg", "broken.jpg", "last.png"),
+                results.stream().map(FileStorageService.UploadResult::getOriginalFilename).toList());
+        assertTrue(results.get(0).isSuccess());
+        assertFalse(results.get(1).isSuccess());
+        assertTrue(results.get(2).isSuccess());
+        assertArrayEquals(first.getBytes(), Files.readAllBytes(fileOf(results.get(0).getUrl())));
+        assertArrayEquals(last.getBytes(), Files.readAllBytes(fileOf(results.get(2).getUrl())));
+        assertTrue(fileOf(results.get(2).getUrl()).toString().endsWith(".png"));
+    }
+
+    @Test
+    void deletingAnUnusedFileRemovesTheObjectAndItsIndexRow() {
+        String url = fileStorageService.uploadFile(image("gone.jpg"), "products");
+        String key = fileStorageService.getObjectKey(url);
+
+        fileStorageService.deleteFile(url);
+
+        assertFalse(Files.exists(localStorageProvider.resolve(key)));
+        assertTrue(storedObjectRepository.findByObjectKey(key).isEmpty());
+        assertFalse(fileStorageService.fileExists(url));
+    }
+
+    @Test
+    void aFileAProductStillShowsIsKept() {
+        String url = fileStorageService.uploadFile(image("shown.jpg"), "products");
+        Product product = newProduct(new BigDecimal("799.00"));
+        product.setImage(url);
+        productRepository.save(product);
+
+        fileStorageService.deleteFile(url);
+
+        assertTrue(Files.exists(fileOf(url)));
+    }
+
+    @Test
+    void uploadsAndDeletesWriteThroughTheMetadataCache() throws Exception {
+        MockMultipartFile file = image("cached.jpg");
+        String url = fileStorageService.uploadFile(file, "products");
+        Path path = fileOf(url);
+
+        // Served from the cache: the file disappearing behind our back goes unnoticed until the entry expires
+        Files.delete(path);
+        FileStorageService.FileMetadata metadata = fileStorageService.getFileMetadata(url);
+        assertNotNull(metadata);
+        assertEquals(file.getSize(), metadata.getSize());
+
+        Files.write(path, file.getBytes());
+        fileStorageService.deleteFile(url);
+        // The delete is cached as "missing", so a stray copy reappearing is not seen either
+        Files.write(path, file.getBytes());
+        assertFalse(fileStorageService.fileExists(url));
+    }
+
+    @Test
+    void batchMetadataAnswersInRequestOrderWithNullForMissingFiles() {
+        String present = fileStorageService.uploadFile(image("present.jpg"), "products");
+        String missing = "http://localhost/api/files/local/products/20200101_000000_deadbeef.jpg";
+        String foreign = "https://example.com/picture.jpg";
+
+        Map<String, FileStorageService.FileMetadata> metadata =
+                fileStorageService.getFileMetadata(List.of(missing, present, foreign));
+
+        assertEquals(List.of(missing, present, foreign), new ArrayList<>(metadata.keySet()));
+        assertNull(metadata.get(missing));
+        assertNotNull(metadata.get(present));
+        assertNull(metadata.get(foreign));
+    }
+
+    @Test
+    void aDuplicateUploadToTheSameFolderGainsAReferenceInsteadOfACopy() {
+        MockMultipartFile file = image("twice.jpg");
+
+        FileStorageService.UploadResult first = uploadOne(file, "products");
+        FileStorageService.UploadResult second = uploadOne(file, "products");
+
+        assertFalse(first.isDeduplicated());
+        assertTrue(second.isDeduplicated());
+        assertEquals(first.getUrl(), second.getUrl());
+        assertEquals(2, refCountOf(first.getUrl()));
+    }
+
+    @Test
+    void identicalContentInAnotherFolderIsStoredUnderThatFolder() {
+        MockMultipartFile file = image("avatar.jpg");
+
+        String productUrl = uploadOne(file, "products").getUrl();
+        FileStorageService.UploadResult avatar = uploadOne(file, "users");
+
+        assertFalse(avatar.isDeduplicated());
+        assertTrue(fileStorageService.getObjectKey(avatar.getUrl()).startsWith("users/"));
+        assertEquals(1, refCountOf(productUrl));
+        assertEquals(1, refCountOf(avatar.getUrl()));
+    }
+
+    @Test
+    void aSharedObjectIsKeptUntilItsLastReferenceIsDeleted() {
+        MockMultipartFile file = image("shared.jpg");
+        String url = uploadOne(file, "products").getUrl();
+        uploadOne(file, "products");
+        String key = fileStorageService.getObjectKey(url);
+
+        fileStorageService.deleteFile(url);
+
+        assertTrue(Files.exists(fileOf(url)));
+        assertEquals(1, refCountOf(url));
+
+        fileStorageService.deleteFile(url);
+
+        assertFalse(Files.exists(fileOf(url)));
+        assertTrue(storedObjectRepository.findByObjectKey(key).isEmpty());
+    }
+
+    @Test
+    void registeringContentAnotherUploadIndexedFirstJoinsThatObject() {
+        String url = uploadOne(image("winner.jpg"), "products").getUrl();
+        StoredObject winner = storedObjectRepository.findByObjectKey(fileStorageService.getObjectKey(url)).orElseThrow();
+        String loserKey = fileStorageService.newObjectKey("products", ".jpg");
+
+        Optional<String> existing = fileStorageService.register("products", winner.getContentHash(), loserKey,
+                winner.getSizeBytes(), winner.getContentType());
+
+        assertEquals(Optional.of(winner.getObjectKey()), existing);
+        assertEquals(2, refCountOf(url));
+        assertTrue(storedObjectRepository.findByObjectKey(loserKey).isEmpty());
+    }
+
+    private FileStorageService.UploadResult uploadOne(MultipartFile file, String folder) {
+        FileStorageService.UploadResult result = fileStorageService.uploadFiles(List.of(file), folder).get(0);
+        assertTrue(result.isSuccess(), result.getError());
+        return result;
+    }
+
+    private int refCountOf(String url) {
+        return storedObjectRepository.findByObjectKey(fileStorageService.getObjectKey(url)).orElseThrow().getRefCount();
+    }
+
+    private Path fileOf(String url) {
+        return localStorageProvider.resolve(fileStorageService.getObjectKey(url));
+    }
+
+    // Distinct bytes per call, so deduplication never joins two tests' uploads
+    private static MockMultipartFile image(String name) {
+        byte[] content = ("image-" + name + "-" + nextId()).getBytes(StandardCharsets.UTF_8);
+        return new MockMultipartFile("file", name, "image/jpeg", content);
+    }
+}
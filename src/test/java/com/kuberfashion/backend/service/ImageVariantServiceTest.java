@@ -0,0 +1,177 @@
+package com.kuberfashion.backend.service;
+
+import com.kuberfashion.backend.entity.ImageVariant;
+import com.kuberfashion.backend.repository.ImageVariantRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ImageVariantServiceTest {
+
+    private static final String ORIGINAL_URL = "https://cdn.example.com/products/20250101_120000_ab12cd34.jpg";
+
+    private final FileStorageService fileStorageService = mock(FileStorageService.class);
+    private final ImageVariantRepository imageVariantRepository = mock(ImageVariantRepository.class);
+    private ImageVariantService service;
+
+    @BeforeEach
+    void setUp() {
+        when(fileStorageService.getObjectKey(ORIGINAL_URL)).thenReturn("products/20250101_120000_ab12cd34.jpg");
+        when(fileStorageService.uploadBytes(anyString(), any(), anyString()))
+                .thenAnswer(invocation -> "https://cdn.example.com/" + invocation.getArgument(0));
+
+        service = new ImageVariantService();
+        ReflectionTestUtils.setField(service, "fileStorageService", fileStorageService);
+        ReflectionTestUtils.setField(service, "imageVariantRepository", imageVariantRepository);
+        ReflectionTestUtils.setField(service, "enabled", true);
+        ReflectionTestUtils.setField(service, "workers", 1);
+        ReflectionTestUtils.setField(service, "queueCapacity", 4);
+        ReflectionTestUtils.setField(service, "jpegQuality", 0.82f);
+        ReflectionTestUtils.setField(service, "maxPixels", 40_000_000L);
+        ReflectionTestUtils.setField(service, "responseWaitMs", 10_000L);
+        service.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.stop();
+    }
+
+    @Test
+    void readsTheOrientationTagInEitherByteOrder() throws Exception {
+        byte[] jpeg = jpeg(halves(40, 20));
+
+        assertEquals(1, ImageVariantService.exifOrientation(jpeg));
+        assertEquals(6, ImageVariantService.exifOrientation(withOrientation(jpeg, 6, ByteOrder.BIG_ENDIAN)));
+        assertEquals(8, ImageVariantService.exifOrientation(withOrientation(jpeg, 8, ByteOrder.LITTLE_ENDIAN)));
+        assertEquals(1, ImageVariantService.exifOrientation(new byte[]{(byte) 0x89, 'P', 'N', 'G'}));
+    }
+
+    @Test
+    void orientationTurnsTheRasterUpright() {
+        BufferedImage source = halves(40, 20);
+
+        // 6: rotate 90 degrees clockwise, so the red left half ends up on top
+        BufferedImage rotated = ImageVariantService.applyOrientation(source, 6);
+        assertEquals(20, rotated.getWidth());
+        assertEquals(40, rotated.getHeight());
+        assertEquals(Color.RED.getRGB(), rotated.getRGB(10, 5));
+        assertEquals(Color.BLUE.getRGB(), rotated.getRGB(10, 35));
+
+        // 8: rotate 90 degrees counter-clockwise, red ends up at the bottom
+        BufferedImage counter = ImageVariantService.applyOrientation(source, 8);
+        assertEquals(Color.BLUE.getRGB(), counter.getRGB(10, 5));
+        assertEquals(Color.RED.getRGB(), counter.getRGB(10, 35));
+
+        // 2: mirror, red moves to the right
+        BufferedImage mirrored = ImageVariantService.applyOrientation(source, 2);
+        assertEquals(Color.BLUE.getRGB(), mirrored.getRGB(5, 10));
+        assertEquals(Color.RED.getRGB(), mirrored.getRGB(35, 10));
+
+        assertEquals(source, ImageVariantService.applyOrientation(source, 1));
+    }
+
+    @Test
+    void renditionsOfARotatedPhotoAreSizedUpright() throws Exception {
+        // A portrait photo stored landscape with orientation 6, as phone cameras write them
+        byte[] original = withOrientation(jpeg(halves(1600, 800)), 6, ByteOrder.BIG_ENDIAN);
+
+        Map<String, String> urls = service.createVariants(original, ORIGINAL_URL);
+
+        assertEquals(3, urls.size());
+        Map<String, ImageVariant> records = savedRecords();
+        assertEquals(800, records.get("detail").getWidth());
+        assertEquals(1600, records.get("detail").getHeight());
+        assertEquals(480, records.get("card").getWidth());
+        assertEquals(960, records.get("card").getHeight());
+    }
+
+    @Test
+    void theResponseWaitIsBoundedAndTheJobStillCompletes() throws Exception {
+        CountDownLatch storageStalled = new CountDownLatch(1);
+        when(fileStorageService.uploadBytes(anyString(), any(), anyString())).thenAnswer(invocation -> {
+            storageStalled.await(10, TimeUnit.SECONDS);
+            return "https://cdn.example.com/" + invocation.getArgument(0);
+        });
+        ReflectionTestUtils.setField(service, "responseWaitMs", 100L);
+
+        long start = System.nanoTime();
+        Map<String, String> urls = service.createVariants(jpeg(halves(400, 200)), ORIGINAL_URL);
+        long waitedMs = (System.nanoTime() - start) / 1_000_000L;
+
+        assertTrue(urls.isEmpty());
+        assertTrue(waitedMs < 5_000L, "waited " + waitedMs + " ms");
+        storageStalled.countDown();
+        verify(imageVariantRepository, timeout(5_000)).saveAll(anyList());
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, ImageVariant> savedRecords() {
+        ArgumentCaptor<List<ImageVariant>> saved = ArgumentCaptor.forClass(List.class);
+        verify(imageVariantRepository).saveAll(saved.capture());
+        return saved.getValue().stream()
+                .collect(Collectors.toMap(ImageVariant::getVariant, v -> v));
+    }
+
+    // Left half red, right half blue
+    private static BufferedImage halves(int width, int height) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        g.setColor(Color.RED);
+        g.fillRect(0, 0, width / 2, height);
+        g.setColor(Color.BLUE);
+        g.fillRect(width / 2, 0, width - width / 2, height);
+        g.dispose();
+        return image;
+    }
+
+    private static byte[] jpeg(BufferedImage image) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "jpeg", out);
+        return out.toByteArray();
+    }
+
+    // Inserts an APP1 Exif segment holding only IFD0 with the orientation tag, right after SOI
+    private static byte[] withOrientation(byte[] jpeg, int orientation, ByteOrder order) {
+        ByteBuffer tiff = ByteBuffer.allocate(8 + 2 + 12 + 4).order(order);
+        tiff.put(order == ByteOrder.LITTLE_ENDIAN ? new byte[]{'I', 'I'} : new byte[]{'M', 'M'});
+        tiff.putShort((short) 42).putInt(8);
+        tiff.putShort((short) 1);
+        tiff.putShort((short) 0x0112).putShort((short) 3).putInt(1).putShort((short) orientation).putShort((short) 0);
+        tiff.putInt(0);
+
+        byte[] exifHeader = {'E', 'x', 'i', 'f', 0, 0};
+        int length = 2 + exifHeader.length + tiff.capacity();
+        ByteBuffer out = ByteBuffer.allocate(jpeg.length + 2 + length);
+        out.put(jpeg, 0, 2);
+        out.put((byte) 0xFF).put((byte) 0xE1).putShort((short) length);
+        out.put(exifHeader).put(tiff.array());
+        out.put(jpeg, 2, jpeg.length - 2);
+        return out.array();
+    }
+}
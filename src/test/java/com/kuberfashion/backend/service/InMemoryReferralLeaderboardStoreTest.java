@@ -0,0 +1,90 @@
+package com.kuberfashion.backend.service;
+
+import com.kuberfashion.backend.service.ReferralLeaderboardStore.Board;
+import com.kuberfashion.backend.service.ReferralLeaderboardStore.Entry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InMemoryReferralLeaderboardStoreTest {
+
+    // Score descending, then member id ascending: the order both stores rank by
+    private static final Comparator<Map.Entry<Long, Long>> RANKING =
+            Map.Entry.<Long, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey());
+
+    private final InMemoryReferralLeaderboardStore store = new InMemoryReferralLeaderboardStore();
+
+    @Test
+    void randomIncrementsMatchASortedReference() {
+        Random random = new Random(42);
+        Map<Long, Long> reference = new HashMap<>();
+
+        for (int round = 0; round < 2_000; round++) {
+            // Few members and small deltas, so ties and repeated re-scoring of the same member are common
+            long member = 1 + random.nextInt(60);
+            long delta = random.nextInt(7) - 2;
+            store.increment(Board.COUPONS, List.of(member), delta);
+            if (delta != 0) {
+                reference.merge(member, delta, Long::sum);
+            }
+            if (round % 50 == 0) {
+                assertMatches(reference);
+            }
+        }
+        assertMatches(reference);
+    }
+
+    @Test
+    void tiedScoresRankByMemberId() {
+        store.increment(Board.DOWNLINE, List.of(30L, 10L, 20L), 5);
+        store.increment(Board.DOWNLINE, List.of(40L), 7);
+
+        List<Entry> top = store.top(Board.DOWNLINE, 10);
+
+        assertEquals(List.of(40L, 10L, 20L, 30L), top.stream().map(e -> e.userId).toList());
+        assertEquals(3, store.rank(Board.DOWNLINE, 20L).orElseThrow().rank);
+    }
+
+    @Test
+    void reScoringTheSameMemberMovesItWithoutDuplicating() {
+        store.increment(Board.COUPONS, List.of(1L, 2L, 3L), 10);
+        for (int i = 0; i < 25; i++) {
+            store.increment(Board.COUPONS, List.of(3L), i % 2 == 0 ? 3 : -2);
+        }
+
+        assertEquals(3, store.size(Board.COUPONS));
+        Entry leader = store.rank(Board.COUPONS, 3L).orElseThrow();
+        assertEquals(1, leader.rank);
+        assertEquals(25, leader.score);
+        assertEquals(List.of(3L, 1L, 2L), store.top(Board.COUPONS, 5).stream().map(e -> e.userId).toList());
+        assertTrue(store.rank(Board.COUPONS, 4L).isEmpty());
+    }
+
+    private void assertMatches(Map<Long, Long> reference) {
+        List<Map.Entry<Long, Long>> expected = new ArrayList<>(reference.entrySet());
+        expected.sort(RANKING);
+
+        assertEquals(expected.size(), store.size(Board.COUPONS));
+        List<Entry> top = store.top(Board.COUPONS, expected.size() + 1);
+        assertEquals(expected.size(), top.size());
+        for (int i = 0; i < expected.size(); i++) {
+            Map.Entry<Long, Long> want = expected.get(i);
+            assertEquals(want.getKey(), top.get(i).userId);
+            assertEquals(want.getValue(), top.get(i).score);
+            assertEquals(i + 1, top.get(i).rank);
+
+            Optional<Entry> ranked = store.rank(Board.COUPONS, want.getKey());
+            assertEquals(i + 1, ranked.orElseThrow().rank);
+            assertEquals(want.getValue(), ranked.get().score);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.kuberfashion.backend.service;
+
+import com.kuberfashion.backend.entity.OrderEvent;
+import com.kuberfashion.backend.repository.OrderEventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class LeasedQueueTest {
+
+    private final OrderEventRepository repository = mock(OrderEventRepository.class);
+    private LeasedQueue<OrderEvent> queue;
+
+    @BeforeEach
+    void setUp() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+        queue = new LeasedQueue<>("order events", repository, transactionTemplate,
+                new LeasedQueue.Settings(2, 3, 3, 60, 1000, 5000, 7),
+                event -> "Order event " + event.getId());
+        when(repository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    void claimLeasesEveryDueRowForANewAttempt() {
+        OrderEvent event = event(1L, OrderEvent.Status.PENDING, 0);
+        when(repository.lockDue(any(LocalDateTime.class), eq(Limit.of(2)))).thenReturn(List.of(event));
+
+        LocalDateTime before = LocalDateTime.now();
+        List<OrderEvent> claimed = queue.claim();
+
+        assertEquals(List.of(event), claimed);
+        assertEquals(OrderEvent.Status.PROCESSING, event.getStatus());
+        assertEquals(1, event.getAttempts());
+        assertTrue(!event.getNextAttemptAt().isBefore(before.plusSeconds(60)));
+    }
+
+    @Test
+    void aFailureBelowMaxAttemptsIsRetriedWithBackoff() {
+        OrderEvent event = event(1L, OrderEvent.Status.PROCESSING, 2);
+        when(repository.markRetry(eq(1L), eq(2), any(LocalDateTime.class), anyString())).thenReturn(1);
+
+        LocalDateTime before = LocalDateTime.now();
+        queue.recordFailure(event, new IllegalStateException("handler down"));
+
+        ArgumentCaptor<LocalDateTime> nextAttemptAt = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(repository).markRetry(eq(1L), eq(2), nextAttemptAt.capture(), eq("IllegalStateException: handler down"));
+        verify(repository, never()).markDeadLettered(anyLong(), anyInt(), anyString());
+        // Second attempt: base backoff doubled
+        assertTrue(!nextAttemptAt.getValue().isBefore(before.plusSeconds(2)));
+        assertTrue(nextAttemptAt.getValue().isBefore(before.plusSeconds(4)));
+        assertEquals(1, queue.getRetried());
+        assertEquals(0, queue.getDeadLettered());
+    }
+
+    @Test
+    void theLastAttemptIsDeadLettered() {
+        OrderEvent event = event(1L, OrderEvent.Status.PROCESSING, 3);
+        when(repository.markDeadLettered(eq(1L), eq(3), anyString())).thenReturn(1);
+
+        queue.recordFailure(event, new RuntimeException("x".repeat(2000)));
+
+        verify(repository).markDeadLettered(eq(1L), eq(3), eq("RuntimeException: " + "x".repeat(1000 - "RuntimeException: ".length())));
+        assertEquals(1, queue.getDeadLettered());
+    }
+
+    @Test
+    void aFailureAfterTheLeaseWasLostIsNotCounted() {
+        OrderEvent event = event(1L, OrderEvent.Status.PROCESSING, 1);
+        when(repository.markRetry(eq(1L), eq(1), any(LocalDateTime.class), anyString())).thenReturn(0);
+
+        queue.recordFailure(event, new RuntimeException("late"));
+
+        assertEquals(0, queue.getRetried());
+        assertEquals(0, queue.getDeadLettered());
+    }
+
+    @Test
+    void backoffDoublesPerAttemptUpToTheCap() {
+        assertEquals(1000, queue.backoffMillis(1));
+        assertEquals(2000, queue.backoffMillis(2));
+        assertEquals(4000, queue.backoffMillis(3));
+        assertEquals(5000, queue.backoffMillis(4));
+        assertEquals(5000, queue.backoffMillis(60));
+    }
+
+    @Test
+    void drainStopsOnAShortBatchOrAfterMaxBatches() {
+        AtomicInteger calls = new AtomicInteger();
+        queue.drain(() -> calls.incrementAndGet() == 1 ? 2 : 1);
+        assertEquals(2, calls.get());
+
+        calls.set(0);
+        queue.drain(() -> {
+            calls.incrementAndGet();
+            return 2;
+        });
+        assertEquals(3, calls.get());
+    }
+
+    @Test
+    void statusCountsIncludeEmptyStatuses() {
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[]{OrderEvent.Status.FAILED, 4L});
+        when(repository.countByStatus()).thenReturn(rows);
+
+        Map<OrderEvent.Status, Long> counts = queue.countByStatus(OrderEvent.Status.class);
+
+        assertEquals(4L, counts.get(OrderEvent.Status.FAILED));
+        assertEquals(0L, counts.get(OrderEvent.Status.PENDING));
+        assertEquals(OrderEvent.Status.values().length, counts.size());
+    }
+
+    private static OrderEvent event(Long id, OrderEvent.Status status, int attempts) {
+        OrderEvent event = new OrderEvent(100L, OrderEvent.EventType.ORDER_CREATED, "{}");
+        ReflectionTestUtils.setField(event, "id", id);
+        event.setStatus(status);
+        event.setAttempts(attempts);
+        event.setNextAttemptAt(LocalDateTime.now());
+        return event;
+    }
+}
@@ -0,0 +1,99 @@
+package com.kuberfashion.backend.service;
+
+import com.kuberfashion.backend.IntegrationTestSupport;
+import com.kuberfashion.backend.dto.CartItemDto;
+import com.kuberfashion.backend.dto.CursorPage;
+import com.kuberfashion.backend.dto.OrderDetailDto;
+import com.kuberfashion.backend.dto.OrderSummaryDto;
+import com.kuberfashion.backend.entity.Order;
+import com.kuberfashion.backend.entity.Product;
+import com.kuberfashion.backend.entity.User;
+import com.kuberfashion.backend.exception.ResourceNotFoundException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OrderHistoryTest extends IntegrationTestSupport {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Test
+    void keysetPagesWalkTheHistoryNewestFirstWithoutGapsOrRepeats() {
+        User user = newUser();
+        List<Long> placed = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            placed.add(placeOrder(user, 1).getId());
+        }
+
+        List<Long> seen = new ArrayList<>();
+        String cursor = null;
+        CursorPage<OrderSummaryDto> page;
+        do {
+            page = orderService.getUserOrderSummaries(user.getId(), cursor, 2);
+            assertTrue(page.getItems().size() <= 2);
+            page.getItems().forEach(summary -> seen.add(summary.getId()));
+            cursor = page.getNextCursor();
+        } while (page.isHasMore());
+
+        assertEquals(placed.reversed(), seen);
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void anExactlyFullLastPageReportsNoMore() {
+        User user = newUser();
+        placeOrder(user, 1);
+        placeOrder(user, 1);
+
+        CursorPage<OrderSummaryDto> page = orderService.getUserOrderSummaries(user.getId(), null, 2);
+
+        assertEquals(2, page.getItems().size());
+        assertFalse(page.isHasMore());
+    }
+
+    @Test
+    void summariesCarryTheItemCountAndOnlyTheCallersOrders() {
+        User user = newUser();
+        placeOrder(newUser(), 1);
+        Order order = placeOrder(user, 3);
+
+        List<OrderSummaryDto> items = orderService.getUserOrderSummaries(user.getId(), null, 10).getItems();
+
+        assertEquals(1, items.size());
+        assertEquals(order.getOrderNumber(), items.get(0).getOrderNumber());
+        assertEquals(3L, items.get(0).getItemCount());
+    }
+
+    @Test
+    void detailIsScopedToTheOwner() {
+        User owner = newUser();
+        Order order = placeOrder(owner, 2);
+
+        OrderDetailDto detail = orderService.getUserOrderDetail(order.getId(), owner.getId());
+        assertEquals(1, detail.getItems().size());
+        assertThrows(ResourceNotFoundException.class,
+                () -> orderService.getUserOrderDetail(order.getId(), newUser().getId()));
+    }
+
+    @Test
+    void aMalformedCursorIsRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> orderService.getUserOrderSummaries(newUser().getId(), "not-a-cursor", 10));
+    }
+
+    private Order placeOrder(User user, int quantity) {
+        Product product = newProduct(new BigDecimal("320.00"));
+        return orderService.createOrder(user.getId(), List.of(new CartItemDto(product.getId(), quantity)),
+                "1 Test Street", "1 Test Street", Order.PaymentMethod.CASH_ON_DELIVERY, 0);
+    }
+}
@@ -0,0 +1,155 @@
+package com.kuberfashion.backend.service;
+
+import com.kuberfashion.backend.IntegrationTestSupport;
+import com.kuberfashion.backend.dto.CartItemDto;
+import com.kuberfashion.backend.entity.Order;
+import com.kuberfashion.backend.entity.Product;
+import com.kuberfashion.backend.entity.User;
+import com.kuberfashion.backend.repository.OrderRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class OrderRollupServiceTest extends IntegrationTestSupport {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRollupService orderRollupService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Test
+    void createAndTransitionsMoveTheOrderBetweenStatusBuckets() {
+        Map<Order.OrderStatus, Long> before = rollupCounts();
+        BigDecimal revenueBefore = orderRollupService.getTotalRevenue();
+
+        Order order = placeOrder();
+        assertEquals(before.get(Order.OrderStatus.PENDING) + 1, orderRollupService.getOrdersCountByStatus(Order.OrderStatus.PENDING));
+
+        orderService.updatePaymentStatus(order.getId(), Order.PaymentStatus.PAID);
+        orderService.updateOrderStatus(order.getId(), Order.OrderStatus.SHIPPED);
+
+        Map<Order.OrderStatus, Long> after = rollupCounts();
+        assertEquals(before.get(Order.OrderStatus.PENDING), after.get(Order.OrderStatus.PENDING));
+        assertEquals(before.get(Order.OrderStatus.SHIPPED) + 1, after.get(Order.OrderStatus.SHIPPED));
+        assertEquals(0, revenueBefore.add(order.getTotalAmount()).compareTo(orderRollupService.getTotalRevenue()));
+    }
+
+    @Test
+    void concurrentTransitionsOfOneOrderDoNotDriftTheRollups() throws Exception {
+        Order order = placeOrder();
+        Map<Order.OrderStatus, Long> rollupsBefore = rollupCounts();
+        Map<Order.OrderStatus, Long> ordersBefore = orderCounts();
+
+        ExecutorService executor = Executors.newFixedThreadPool(6);
+        try {
+            List<Callable<Order>> transitions = new ArrayList<>();
+            Order.OrderStatus[] targets = {Order.OrderStatus.CONFIRMED, Order.OrderStatus.PROCESSING, Order.OrderStatus.SHIPPED};
+            for (int i = 0; i < 12; i++) {
+                Order.OrderStatus target = targets[i % targets.length];
+                transitions.add(i % 4 == 3
+                        ? () -> orderService.updatePaymentStatus(order.getId(), Order.PaymentStatus.PAID)
+                        : () -> orderService.updateOrderStatus(order.getId(), target));
+            }
+            for (Future<Order> future : executor.invokeAll(transitions)) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Map<Order.OrderStatus, Long> rollupsAfter = rollupCounts();
+        Map<Order.OrderStatus, Long> ordersAfter = orderCounts();
+        for (Order.OrderStatus status : Order.OrderStatus.values()) {
+            assertEquals(ordersAfter.get(status) - ordersBefore.get(status), rollupsAfter.get(status) - rollupsBefore.get(status),
+                    "rollup drift for " + status);
+        }
+    }
+
+    @Test
+    void cancellingTwiceOnlyMovesTheOrderOnce() {
+        Order order = placeOrder();
+        Map<Order.OrderStatus, Long> before = rollupCounts();
+
+        orderService.cancelOrder(order.getId(), order.getUser().getId());
+        orderService.cancelOrder(order.getId(), order.getUser().getId());
+
+        Map<Order.OrderStatus, Long> after = rollupCounts();
+        assertEquals(before.get(Order.OrderStatus.PENDING) - 1, after.get(Order.OrderStatus.PENDING));
+        assertEquals(before.get(Order.OrderStatus.CANCELLED) + 1, after.get(Order.OrderStatus.CANCELLED));
+    }
+
+    @Test
+    void incrementalRollupsMatchAFullRebuild() {
+        Order order = placeOrder();
+        orderService.updatePaymentStatus(order.getId(), Order.PaymentStatus.PAID);
+        Map<Order.OrderStatus, Long> incremental = rollupCounts();
+        BigDecimal incrementalRevenue = orderRollupService.getTotalRevenue();
+
+        orderRollupService.backfill();
+
+        assertEquals(incremental, rollupCounts());
+        assertEquals(0, incrementalRevenue.compareTo(orderRollupService.getTotalRevenue()));
+    }
+
+    @Test
+    void revenueByDateRangeKeepsTheExactInclusiveBounds() {
+        Order order = placeOrder();
+        orderService.updatePaymentStatus(order.getId(), Order.PaymentStatus.PAID);
+        LocalDateTime createdAt = orderRepository.findById(order.getId()).orElseThrow().getCreatedAt();
+        LocalDateTime hour = createdAt.truncatedTo(ChronoUnit.HOURS);
+
+        List<LocalDateTime[]> ranges = List.of(
+                new LocalDateTime[]{createdAt, createdAt},
+                new LocalDateTime[]{createdAt.plusNanos(1000), createdAt.plusHours(1)},
+                new LocalDateTime[]{createdAt.minusMinutes(90), createdAt.minusNanos(1000)},
+                new LocalDateTime[]{createdAt.minusMinutes(90), createdAt.plusSeconds(5)},
+                new LocalDateTime[]{hour, hour.plusHours(1)},
+                new LocalDateTime[]{hour.minusHours(3).plusMinutes(17), createdAt},
+                new LocalDateTime[]{createdAt.minusDays(2).plusMinutes(7), createdAt.plusDays(3).minusMinutes(7)});
+        for (LocalDateTime[] range : ranges) {
+            BigDecimal exact = orderRepository.getRevenueByDateRange(range[0], range[1]);
+            BigDecimal served = orderRollupService.getRevenueByDateRange(range[0], range[1]);
+            assertEquals(0, (exact != null ? exact : BigDecimal.ZERO).compareTo(served), range[0] + " .. " + range[1]);
+        }
+    }
+
+    private Order placeOrder() {
+        User user = newUser();
+        Product product = newProduct(new BigDecimal("250.00"));
+        return orderService.createOrder(user.getId(), List.of(new CartItemDto(product.getId(), 2)),
+                "1 Test Street", "1 Test Street", Order.PaymentMethod.CASH_ON_DELIVERY, 0);
+    }
+
+    private Map<Order.OrderStatus, Long> rollupCounts() {
+        Map<Order.OrderStatus, Long> counts = new EnumMap<>(Order.OrderStatus.class);
+        for (Order.OrderStatus status : Order.OrderStatus.values()) {
+            counts.put(status, orderRollupService.getOrdersCountByStatus(status));
+        }
+        return counts;
+    }
+
+    private Map<Order.OrderStatus, Long> orderCounts() {
+        Map<Order.OrderStatus, Long> counts = new EnumMap<>(Order.OrderStatus.class);
+        for (Order.OrderStatus status : Order.OrderStatus.values()) {
+            counts.put(status, orderRepository.countByStatus(status));
+        }
+        return counts;
+    }
+}
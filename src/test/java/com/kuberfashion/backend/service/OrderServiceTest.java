@@ -0,0 +1,73 @@
+package com.kuberfashion.backend.service;
+
+import com.kuberfashion.backend.IntegrationTestSupport;
+import com.kuberfashion.backend.dto.CartItemDto;
+import com.kuberfashion.backend.entity.Order;
+import com.kuberfashion.backend.entity.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class OrderServiceTest extends IntegrationTestSupport {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private CoinLedgerService coinLedgerService;
+
+    @Test
+    void anAdminCancelRefundsRedeemedCoinsOnce() {
+        User user = newUser();
+        coinLedgerService.earn(user.getId(), 100, "TEST_EARN", null, null);
+        Order order = placeOrder(user, 40);
+        assertEquals(60, coinLedgerService.getBalance(user.getId()));
+
+        Order cancelled = orderService.updateOrderStatus(order.getId(), Order.OrderStatus.CANCELLED);
+        orderService.updateOrderStatus(order.getId(), Order.OrderStatus.CANCELLED);
+        orderService.cancelOrder(order.getId(), user.getId());
+
+        assertNotNull(cancelled.getCancelledAt());
+        assertEquals(100, coinLedgerService.getBalance(user.getId()));
+    }
+
+    @Test
+    void reopeningACancelledOrderSpendsItsCoinsAgain() {
+        User user = newUser();
+        coinLedgerService.earn(user.getId(), 100, "TEST_EARN", null, null);
+        Order order = placeOrder(user, 40);
+        orderService.cancelOrder(order.getId(), user.getId());
+
+        orderService.updateOrderStatus(order.getId(), Order.OrderStatus.CONFIRMED);
+
+        assertEquals(60, coinLedgerService.getBalance(user.getId()));
+        assertEquals(0, coinLedgerService.reconcile().mismatchCount);
+    }
+
+    @Test
+    void anOrderCannotBeReopenedOnceItsRefundedCoinsAreSpent() {
+        User user = newUser();
+        coinLedgerService.earn(user.getId(), 50, "TEST_EARN", null, null);
+        Order order = placeOrder(user, 50);
+        orderService.updateOrderStatus(order.getId(), Order.OrderStatus.CANCELLED);
+        coinLedgerService.spend(user.getId(), 30, "TEST_SPEND");
+
+        assertThrows(IllegalStateException.class,
+                () -> orderService.updateOrderStatus(order.getId(), Order.OrderStatus.CONFIRMED));
+
+        assertEquals(Order.OrderStatus.CANCELLED, orderService.getOrderById(order.getId()).orElseThrow().getStatus());
+        assertEquals(20, coinLedgerService.getBalance(user.getId()));
+    }
+
+    private Order placeOrder(User user, long coinsToRedeem) {
+        return orderService.createOrder(user.getId(),
+                List.of(new CartItemDto(newProduct(new BigDecimal("450.00")).getId(), 1)),
+                "1 Test Street", "1 Test Street", Order.PaymentMethod.CASH_ON_DELIVERY, coinsToRedeem);
+    }
+}
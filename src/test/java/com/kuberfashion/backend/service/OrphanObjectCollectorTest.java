@@ -0,0 +1,75 @@
+package com.kuberfashion.backend.service;
+
+import com.kuberfashion.backend.IntegrationTestSupport;
+import com.kuberfashion.backend.entity.StoredObject;
+import com.kuberfashion.backend.repository.StoredObjectRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OrphanObjectCollectorTest extends IntegrationTestSupport {
+
+    @Autowired
+    private OrphanObjectCollector orphanObjectCollector;
+
+    @Autowired
+    private FileStorageService fileStorageService;
+
+    @Autowired
+    private LocalStorageProvider localStorageProvider;
+
+    @Autowired
+    private StoredObjectRepository storedObjectRepository;
+
+    @Test
+    void anObjectStillHoldingUploadReferencesIsKeptWhenNoImageColumnPointsAtIt() throws Exception {
+        byte[] content = ("held-" + nextId()).getBytes(StandardCharsets.UTF_8);
+        String url = fileStorageService.uploadFile(new MockMultipartFile("file", "held.jpg", "image/jpeg", content), "products");
+        String held = fileStorageService.getObjectKey(url);
+        age(held);
+        StoredObject stored = storedObjectRepository.findByObjectKey(held).orElseThrow();
+        stored.setLastReferencedAt(LocalDateTime.now().minusDays(30));
+        storedObjectRepository.save(stored);
+
+        String orphan = fileStorageService.newObjectKey("products", ".jpg");
+        localStorageProvider.put(orphan, new ByteArrayInputStream(content), content.length, "image/jpeg");
+        age(orphan);
+
+        Map<String, Object> result = runLive();
+
+        assertEquals(OrphanObjectCollector.Phase.DONE, result.get("phase"));
+        assertTrue(Files.exists(localStorageProvider.resolve(held)));
+        assertFalse(Files.exists(localStorageProvider.resolve(orphan)));
+    }
+
+    // Older than the grace period
+    private void age(String key) throws Exception {
+        Path path = localStorageProvider.resolve(key);
+        Files.setLastModifiedTime(path, FileTime.from(Instant.now().minus(Duration.ofDays(30))));
+    }
+
+    private Map<String, Object> runLive() throws InterruptedException {
+        orphanObjectCollector.startRun(false);
+        long deadline = System.currentTimeMillis() + 30_000;
+        Map<String, Object> progress = orphanObjectCollector.getProgress();
+        while (progress.get("finishedAt") == null && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+            progress = orphanObjectCollector.getProgress();
+        }
+        return progress;
+    }
+}
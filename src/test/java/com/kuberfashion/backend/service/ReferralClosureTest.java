@@ -0,0 +1,113 @@
+package com.kuberfashion.backend.service;
+
+import com.kuberfashion.backend.IntegrationTestSupport;
+import com.kuberfashion.backend.entity.User;
+import com.kuberfashion.backend.repository.ReferralClosureRepository;
+import com.kuberfashion.backend.repository.ReferralRelationRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReferralClosureTest extends IntegrationTestSupport {
+
+    @Autowired
+    private ReferralService referralService;
+
+    @Autowired
+    private ReferralClosureRepository referralClosureRepository;
+
+    @Autowired
+    private ReferralRelationRepository referralRelationRepository;
+
+    @Test
+    void ancestorsAreResolvedNearestFirstAndCappedAtSixLevels() {
+        List<User> chain = chain(8);
+        User last = chain.get(7);
+
+        List<Object[]> ancestors = referralClosureRepository.findAncestors(last.getId(), 6);
+
+        assertEquals(6, ancestors.size());
+        for (int depth = 1; depth <= 6; depth++) {
+            assertEquals(chain.get(7 - depth).getId(), ancestors.get(depth - 1)[0]);
+            assertEquals(depth, ((Number) ancestors.get(depth - 1)[1]).intValue());
+        }
+        // The closure itself is not capped: the root is still recorded at depth 7
+        assertTrue(referralClosureRepository.isAncestor(chain.get(0).getId(), last.getId()));
+        assertEquals(6, referralService.getDownlineSize(chain.get(0).getId()));
+    }
+
+    @Test
+    void everyAncestorWithinSixLevelsEarnsOneCouponPerRegistration() {
+        List<User> chain = chain(8);
+
+        // The root has descendants at depths 1..7 but only the six nearest award it
+        assertEquals(6, couponsOf(chain.get(0)));
+        assertEquals(6, couponsOf(chain.get(1)));
+        assertEquals(1, couponsOf(chain.get(6)));
+        assertEquals(0, couponsOf(chain.get(7)));
+    }
+
+    @Test
+    void aReferralThatWouldCloseACycleIsIgnored() {
+        List<User> chain = chain(4);
+        User root = chain.get(0);
+
+        referralService.handlePostRegistration(root, chain.get(3).getPhone());
+
+        assertTrue(referralRelationRepository.findByUserId(root.getId()).isEmpty());
+        assertFalse(referralClosureRepository.isAncestor(chain.get(3).getId(), root.getId()));
+    }
+
+    @Test
+    void anAlreadyLinkedUserIsNeitherRelinkedNorAwardedAgain() {
+        List<User> chain = chain(3);
+        User other = newUser();
+
+        referralService.handlePostRegistration(chain.get(2), other.getPhone());
+
+        assertEquals(0, couponsOf(other));
+        assertFalse(referralClosureRepository.isAncestor(other.getId(), chain.get(2).getId()));
+        assertEquals(1, couponsOf(chain.get(1)));
+    }
+
+    @Test
+    void rebuildingFromRelationsReproducesTheIncrementalClosure() {
+        List<User> chain = chain(5);
+        User last = chain.get(4);
+        List<Long> before = ancestorIds(last);
+
+        referralService.rebuildClosure();
+
+        assertEquals(before, ancestorIds(last));
+        assertEquals(4, referralService.getDownlineSize(chain.get(0).getId()));
+    }
+
+    // Each user is referred by the previous one, registering in order
+    private List<User> chain(int length) {
+        List<User> chain = new ArrayList<>();
+        for (int i = 0; i < length; i++) {
+            User user = newUser();
+            if (i > 0) {
+                referralService.handlePostRegistration(user, chain.get(i - 1).getPhone());
+            }
+            chain.add(user);
+        }
+        return chain;
+    }
+
+    private List<Long> ancestorIds(User user) {
+        return referralClosureRepository.findAncestors(user.getId(), Integer.MAX_VALUE).stream()
+                .map(row -> (Long) row[0])
+                .toList();
+    }
+
+    private int couponsOf(User user) {
+        return userRepository.findById(user.getId()).orElseThrow().getKuberCoupons();
+    }
+}
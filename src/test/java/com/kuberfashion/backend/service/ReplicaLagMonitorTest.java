@@ -0,0 +1,92 @@
+package com.kuberfashion.backend.service;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReplicaLagMonitorTest {
+
+    private HikariDataSource replica;
+    private ReplicaLagMonitor monitor;
+
+    @BeforeEach
+    void setUp() {
+        replica = new HikariDataSource();
+        replica.setPoolName("replica-lag-test");
+        replica.setJdbcUrl("jdbc:h2:mem:replica-lag-test;DB_CLOSE_DELAY=-1");
+        replica.setMaximumPoolSize(1);
+
+        monitor = new ReplicaLagMonitor();
+        ReflectionTestUtils.setField(monitor, "replicaDataSource", replica);
+        ReflectionTestUtils.setField(monitor, "maxLagMs", 5_000L);
+        ReflectionTestUtils.setField(monitor, "checkIntervalMs", 2_000L);
+        ReflectionTestUtils.setField(monitor, "lagQuery", "");
+    }
+
+    @AfterEach
+    void tearDown() {
+        replica.close();
+    }
+
+    @Test
+    void theReplicaIsNotUsedBeforeTheFirstSuccessfulCheck() {
+        monitor.init();
+
+        assertFalse(monitor.isReplicaUsable());
+    }
+
+    @Test
+    void aLivenessProbeReportsNoLag() {
+        monitor.init();
+        monitor.checkLag();
+
+        assertTrue(monitor.isReplicaUsable());
+        assertEquals(0L, monitor.getStats().get("lagMs"));
+    }
+
+    @Test
+    void lagAboveTheLimitRoutesReadsAwayUntilItRecovers() {
+        ReflectionTestUtils.setField(monitor, "lagQuery", "SELECT 9000");
+        monitor.init();
+        monitor.checkLag();
+
+        assertFalse(monitor.isReplicaUsable());
+        assertEquals(9_000L, monitor.getStats().get("lagMs"));
+
+        ReflectionTestUtils.setField(monitor, "lagQuery", "SELECT 120");
+        monitor.checkLag();
+
+        assertTrue(monitor.isReplicaUsable());
+    }
+
+    @Test
+    void aFailedCheckMarksTheReplicaUnavailable() {
+        monitor.init();
+        monitor.checkLag();
+        ReflectionTestUtils.setField(monitor, "lagQuery", "SELECT lag FROM no_such_table");
+
+        monitor.checkLag();
+
+        assertFalse(monitor.isReplicaUsable());
+        assertEquals(1L, monitor.getStats().get("failedChecks"));
+        assertNotNull(monitor.getStats().get("lastError"));
+    }
+
+    @Test
+    void aReplicaWithoutARecentSuccessfulCheckIsNotUsed() {
+        monitor.init();
+        monitor.checkLag();
+
+        // Three missed intervals
+        ReflectionTestUtils.setField(monitor, "lastSuccessAt", System.currentTimeMillis() - 6_001L);
+
+        assertFalse(monitor.isReplicaUsable());
+    }
+}